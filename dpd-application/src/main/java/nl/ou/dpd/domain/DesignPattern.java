@@ -60,6 +60,26 @@ public class DesignPattern extends DefaultDirectedGraph<Node, Relation> {
         return this;
     }
 
+    /**
+     * Replaces the specified {@code relation} with the specified {@code replacement}, between the same nodes.
+     * {@link Relation}s are immutable, so this is the way to change the properties of a {@link Relation} in this
+     * {@link DesignPattern}.
+     *
+     * @param relation    the {@link Relation} to replace
+     * @param replacement the replacing {@link Relation}
+     * @return the {@code replacement}, or {@code relation} if they are equal.
+     */
+    public Relation replaceEdge(Relation relation, Relation replacement) {
+        if (relation.equals(replacement)) {
+            return relation;
+        }
+        final Node source = getEdgeSource(relation);
+        final Node target = getEdgeTarget(relation);
+        removeEdge(relation);
+        addEdge(source, target, replacement);
+        return replacement;
+    }
+
     public Set<String> getNotes() {
         return notes;
     }
@@ -5,9 +5,19 @@ import nl.ou.dpd.domain.relation.Relation;
 import nl.ou.dpd.domain.relation.RelationFactory;
 import org.jgrapht.graph.DefaultDirectedGraph;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * A {@link SystemUnderConsideration} is a {@link DefaultDirectedGraph} representation of a system under consideration
  * (a system design that is to be processed to find matching design patterns).
+ * <p>
+ * The {@link Relation}s (edges) of a {@link SystemUnderConsideration} are indexed by their id, so they can be looked up
+ * in constant time (see {@link #getRelationById(String)}). The index is kept in sync when edges are added, removed or
+ * replaced, in constant time as well. The (rare) relations sharing the id of an indexed relation are kept aside, in
+ * the order in which they were added, to take its place when it is removed.
  *
  * @author Martin de Boer
  */
@@ -15,6 +25,8 @@ public class SystemUnderConsideration extends DefaultDirectedGraph<Node, Relatio
 
     private String id;
     private String name;
+    private final Map<String, Relation> relationsById = new HashMap<>();
+    private final Map<String, List<Relation>> duplicatesById = new HashMap<>();
 
     public SystemUnderConsideration(String id, String name) {
         super(new RelationFactory());
@@ -30,4 +42,118 @@ public class SystemUnderConsideration extends DefaultDirectedGraph<Node, Relatio
         return name;
     }
 
+    /**
+     * Returns the {@link Relation} with the specified {@code id}. If more than one {@link Relation} has the specified
+     * {@code id}, the one that was added first is returned.
+     *
+     * @param id the id of the {@link Relation} to look up.
+     * @return the {@link Relation} with the specified {@code id}, or {@code null} if this
+     * {@link SystemUnderConsideration} does not contain such a {@link Relation}.
+     */
+    public Relation getRelationById(String id) {
+        return relationsById.get(id);
+    }
+
+    /**
+     * Replaces the specified {@code relation} with the specified {@code replacement}, between the same nodes.
+     * {@link Relation}s are immutable, so this is the way to change the properties of a {@link Relation} in this
+     * {@link SystemUnderConsideration}. A {@code replacement} having the same id takes the place of the
+     * {@code relation} in the index (see {@link #getRelationById(String)}).
+     *
+     * @param relation    the {@link Relation} to replace
+     * @param replacement the replacing {@link Relation}
+     * @return the {@code replacement}, or {@code relation} if they are equal.
+     */
+    public Relation replaceEdge(Relation relation, Relation replacement) {
+        if (relation.equals(replacement)) {
+            return relation;
+        }
+        final Node source = getEdgeSource(relation);
+        final Node target = getEdgeTarget(relation);
+        super.removeEdge(relation);
+        if (super.addEdge(source, target, replacement)) {
+            reindex(relation, replacement);
+        } else {
+            unindex(relation);
+        }
+        return replacement;
+    }
+
+    @Override
+    public Relation addEdge(Node sourceVertex, Node targetVertex) {
+        final Relation relation = super.addEdge(sourceVertex, targetVertex);
+        if (relation != null) {
+            index(relation);
+        }
+        return relation;
+    }
+
+    @Override
+    public boolean addEdge(Node sourceVertex, Node targetVertex, Relation relation) {
+        final boolean added = super.addEdge(sourceVertex, targetVertex, relation);
+        if (added) {
+            index(relation);
+        }
+        return added;
+    }
+
+    @Override
+    public Relation removeEdge(Node sourceVertex, Node targetVertex) {
+        final Relation relation = super.removeEdge(sourceVertex, targetVertex);
+        if (relation != null) {
+            unindex(relation);
+        }
+        return relation;
+    }
+
+    @Override
+    public boolean removeEdge(Relation relation) {
+        final boolean removed = super.removeEdge(relation);
+        if (removed) {
+            unindex(relation);
+        }
+        return removed;
+    }
+
+    private void index(Relation relation) {
+        final String relationId = relation.getId();
+        if (relationId != null && relationsById.putIfAbsent(relationId, relation) != null) {
+            duplicatesById.computeIfAbsent(relationId, key -> new ArrayList<>(1)).add(relation);
+        }
+    }
+
+    private void unindex(Relation relation) {
+        final String relationId = relation.getId();
+        if (relationId == null) {
+            return;
+        }
+        final List<Relation> duplicates = duplicatesById.get(relationId);
+        if (relationsById.get(relationId) == relation) {
+            if (duplicates == null) {
+                relationsById.remove(relationId);
+            } else {
+                // The relation with the same id that was added next takes its place
+                relationsById.put(relationId, duplicates.remove(0));
+            }
+        } else if (duplicates != null) {
+            duplicates.remove(relation);
+        }
+        if (duplicates != null && duplicates.isEmpty()) {
+            duplicatesById.remove(relationId);
+        }
+    }
+
+    private void reindex(Relation relation, Relation replacement) {
+        final String relationId = relation.getId();
+        if (relationId == null || !relationId.equals(replacement.getId())) {
+            unindex(relation);
+            index(replacement);
+        } else if (relationsById.get(relationId) == relation) {
+            relationsById.put(relationId, replacement);
+        } else {
+            final List<Relation> duplicates = duplicatesById.get(relationId);
+            duplicates.set(duplicates.indexOf(relation), replacement);
+        }
+    }
+
 }
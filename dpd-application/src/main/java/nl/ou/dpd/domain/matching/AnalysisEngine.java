@@ -0,0 +1,259 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.exception.DesignPatternDetectorException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * An {@link AnalysisEngine} inspects a {@link SystemUnderConsideration} for a list of {@link DesignPattern}s. The
+ * design patterns are independent of each other, so every pattern is inspected in a task of its own, running
+ * concurrently on the configured {@link Executor}.
+ * <p>
+ * Comparators gather feedback while matching. To keep concurrent inspections from sharing mutable feedback state,
+ * every inspection gets freshly created comparators. The (immutable) {@link SystemIndex} of the system, on the other
+ * hand, is built only once per analysis, and shared by all inspections.
+ * <p>
+ * Hub nodes, that relate many otherwise unrelated parts of the system, can be ignored (see
+ * {@link #ignoringHubs(Predicate)}). Without them, the system falls apart into more (and smaller) weakly connected
+ * components, that are searched separately when the system is pre-filtered (see {@link #withoutFeedback(Executor)}).
+ * <p>
+ * The progress of an analysis can be followed, and the analysis can be cancelled, by an {@link AnalysisListener}.
+ *
+ * @author Martin de Boer
+ */
+public class AnalysisEngine {
+
+    private static final Logger LOGGER = LogManager.getLogger(AnalysisEngine.class);
+
+    static final String ANALYSIS_FAILED_MSG = "Analysis of design pattern '%s' failed.";
+    static final String ANALYSIS_CANCELLED_MSG = "Analysis of design pattern '%s' cancelled.";
+
+    private final Executor executor;
+    private final Supplier<FeedbackEnabledComparator<Node>> nodeComparatorSupplier;
+    private final Supplier<FeedbackEnabledComparator<Relation>> relationComparatorSupplier;
+    private final MatchingEngine matchingEngine;
+    private final boolean preFiltering;
+    private final Predicate<Node> hubs;
+
+    /**
+     * Creates an {@link AnalysisEngine} running its inspections on the common {@link ForkJoinPool}, using the default
+     * compound comparators for nodes and relations.
+     */
+    public AnalysisEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an {@link AnalysisEngine} running its inspections on the specified {@code executor}, using the default
+     * compound comparators for nodes and relations.
+     *
+     * @param executor the {@link Executor} that runs the inspections
+     */
+    public AnalysisEngine(Executor executor) {
+        this(executor,
+                NodeComparatorFactory::createCompoundNodeComparator,
+                RelationComparatorFactory::createCompoundRelationComparator);
+    }
+
+    /**
+     * Creates an {@link AnalysisEngine} running its inspections on the specified {@code executor}, using the default
+     * compound comparators for nodes and relations without gathering feedback, and the {@link IndexedMatchingEngine}
+     * breaking the symmetries of the design patterns (see {@link IndexedMatchingEngine#breakingSymmetries()}). The
+     * {@link PatternInspector.MatchingResult}s of this engine contain the solutions, and a disabled {@link Feedback}.
+     * Every instance of a design pattern is found once, so there are no similar solutions that differ only in
+     * interchangeable roles. The system is pre-filtered, and its components are searched in parallel (see
+     * {@link PatternInspector#preFiltering(SystemIndex, DesignPattern, FeedbackEnabledComparator,
+     * FeedbackEnabledComparator, MatchingEngine)}). This is the fastest way to analyse a system, when only the solutions
+     * are of interest.
+     *
+     * @param executor the {@link Executor} that runs the inspections
+     * @return the created {@link AnalysisEngine}
+     */
+    public static AnalysisEngine withoutFeedback(Executor executor) {
+        return new AnalysisEngine(executor,
+                () -> NodeComparatorFactory.createCompoundNodeComparator(false),
+                () -> RelationComparatorFactory.createCompoundRelationComparator(false),
+                IndexedMatchingEngine.breakingSymmetries(),
+                true,
+                node -> false);
+    }
+
+    /**
+     * Creates an {@link AnalysisEngine} running its inspections on the specified {@code executor}, using comparators
+     * that are provided by the specified suppliers. The suppliers are called once per inspection.
+     *
+     * @param executor                   the {@link Executor} that runs the inspections
+     * @param nodeComparatorSupplier     supplies a new node comparator for every inspection
+     * @param relationComparatorSupplier supplies a new relation comparator for every inspection
+     */
+    public AnalysisEngine(
+            Executor executor,
+            Supplier<FeedbackEnabledComparator<Node>> nodeComparatorSupplier,
+            Supplier<FeedbackEnabledComparator<Relation>> relationComparatorSupplier) {
+        this(executor, nodeComparatorSupplier, relationComparatorSupplier, new VF2MatchingEngine());
+    }
+
+    /**
+     * Creates an {@link AnalysisEngine} running its inspections on the specified {@code executor}, using comparators
+     * that are provided by the specified suppliers, and the specified {@link MatchingEngine}. The suppliers are called
+     * once per inspection. The {@link MatchingEngine} is shared by all inspections.
+     *
+     * @param executor                   the {@link Executor} that runs the inspections
+     * @param nodeComparatorSupplier     supplies a new node comparator for every inspection
+     * @param relationComparatorSupplier supplies a new relation comparator for every inspection
+     * @param matchingEngine             the {@link MatchingEngine} performing the searches
+     */
+    public AnalysisEngine(
+            Executor executor,
+            Supplier<FeedbackEnabledComparator<Node>> nodeComparatorSupplier,
+            Supplier<FeedbackEnabledComparator<Relation>> relationComparatorSupplier,
+            MatchingEngine matchingEngine) {
+        this(executor, nodeComparatorSupplier, relationComparatorSupplier, matchingEngine, false, node -> false);
+    }
+
+    private AnalysisEngine(
+            Executor executor,
+            Supplier<FeedbackEnabledComparator<Node>> nodeComparatorSupplier,
+            Supplier<FeedbackEnabledComparator<Relation>> relationComparatorSupplier,
+            MatchingEngine matchingEngine,
+            boolean preFiltering,
+            Predicate<Node> hubs) {
+        this.executor = executor;
+        this.nodeComparatorSupplier = nodeComparatorSupplier;
+        this.relationComparatorSupplier = relationComparatorSupplier;
+        this.matchingEngine = matchingEngine;
+        this.preFiltering = preFiltering;
+        this.hubs = hubs;
+    }
+
+    /**
+     * Creates a copy of this {@link AnalysisEngine} that ignores the system nodes matching the specified predicate
+     * (see {@link SystemIndex#ignoring(Predicate)}). The ignored nodes are not part of any solution.
+     *
+     * @param hubs the predicate determining which system nodes are ignored
+     * @return the created {@link AnalysisEngine}
+     */
+    public AnalysisEngine ignoringHubs(Predicate<Node> hubs) {
+        return new AnalysisEngine(
+                executor, nodeComparatorSupplier, relationComparatorSupplier, matchingEngine, preFiltering, hubs);
+    }
+
+    /**
+     * Inspects the {@code system} for every design pattern in {@code designPatterns}, concurrently. The results are
+     * gathered in a thread-safe {@link Map}, with the name of the pattern (followed by the pattern family between
+     * parenthesis if it differs from the pattern name) as key.
+     *
+     * @param system         the system under consideration
+     * @param designPatterns the design patterns to detect
+     * @return a {@link Map} containing the {@link PatternInspector.MatchingResult}s per pattern
+     */
+    public Map<String, PatternInspector.MatchingResult> analyse(
+            SystemUnderConsideration system,
+            List<DesignPattern> designPatterns) {
+        return analyse(system, designPatterns, new AnalysisListener() {
+        });
+    }
+
+    /**
+     * Inspects the {@code system} for every design pattern in {@code designPatterns}, concurrently, reporting the
+     * progress to the specified {@code listener}. The results are gathered in a thread-safe {@link Map}, with the name
+     * of the pattern (followed by the pattern family between parenthesis if it differs from the pattern name) as key.
+     * <p>
+     * When the {@code listener} cancels the analysis, the running inspections stop partway through their search, the
+     * pending inspections are skipped, and a {@link CancellationException} is thrown.
+     *
+     * @param system         the system under consideration
+     * @param designPatterns the design patterns to detect
+     * @param listener       the {@link AnalysisListener} following the progress of the analysis
+     * @return a {@link Map} containing the {@link PatternInspector.MatchingResult}s per pattern
+     * @throws CancellationException when the analysis was cancelled by the {@code listener}
+     */
+    public Map<String, PatternInspector.MatchingResult> analyse(
+            SystemUnderConsideration system,
+            List<DesignPattern> designPatterns,
+            AnalysisListener listener) {
+        final Map<String, PatternInspector.MatchingResult> matchingResults = new ConcurrentHashMap<>();
+        final AtomicInteger analysed = new AtomicInteger();
+        final SystemIndex systemIndex = SystemIndex.of(system).ignoring(hubs);
+        final List<CompletableFuture<Void>> inspections = designPatterns.stream()
+                .map(pattern -> CompletableFuture.runAsync(() -> {
+                    final String key = getKey(pattern);
+                    final PatternInspector.MatchingResult result = inspect(systemIndex, pattern, listener);
+                    matchingResults.put(key, result);
+                    listener.patternAnalysed(key, result, analysed.incrementAndGet(), designPatterns.size());
+                }, executor))
+                .collect(Collectors.toList());
+        try {
+            CompletableFuture.allOf(inspections.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+        return matchingResults;
+    }
+
+    private PatternInspector.MatchingResult inspect(
+            SystemIndex systemIndex,
+            DesignPattern pattern,
+            AnalysisListener listener) {
+        try {
+            if (listener.isCancelled()) {
+                throw new CancellationException();
+            }
+            final FeedbackEnabledComparator<Node> nodeComparator =
+                    new CancellableComparator<>(nodeComparatorSupplier.get(), listener::isCancelled);
+            final FeedbackEnabledComparator<Relation> relationComparator =
+                    new CancellableComparator<>(relationComparatorSupplier.get(), listener::isCancelled);
+            final PatternInspector inspector = preFiltering
+                    ? PatternInspector.preFiltering(
+                            systemIndex, pattern, nodeComparator, relationComparator, matchingEngine)
+                    : new PatternInspector(systemIndex, pattern, nodeComparator, relationComparator, matchingEngine);
+            return inspector.getMatchingResult(solution -> listener.mappingFound(pattern));
+        } catch (CancellationException e) {
+            LOGGER.info(String.format(ANALYSIS_CANCELLED_MSG, pattern.getName()));
+            throw e;
+        } catch (RuntimeException e) {
+            LOGGER.error(String.format(ANALYSIS_FAILED_MSG, pattern.getName()), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the key under which the result for the specified {@code pattern} is stored.
+     *
+     * @param pattern the {@link DesignPattern}
+     * @return the name of the pattern, followed by the pattern family between parenthesis if it differs from the
+     * pattern name.
+     */
+    static String getKey(DesignPattern pattern) {
+        final String patternName = pattern.getName();
+        final String patternFamilyName = pattern.getFamily();
+        if (!patternName.equals(patternFamilyName)) {
+            return String.format("%s (%s)", patternName, patternFamilyName);
+        }
+        return patternName;
+    }
+
+    private RuntimeException unwrap(CompletionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+            return (RuntimeException) e.getCause();
+        }
+        return new DesignPatternDetectorException(e.getMessage(), e.getCause());
+    }
+}
@@ -0,0 +1,42 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+
+/**
+ * An {@link AnalysisListener} follows the progress of an analysis by the {@link AnalysisEngine}, and is able to cancel
+ * it. The design patterns are inspected concurrently, so the methods of an {@link AnalysisListener} may be called from
+ * several threads at the same time.
+ *
+ * @author Martin de Boer
+ */
+public interface AnalysisListener {
+
+    /**
+     * Called every time the inspection of the specified {@code designPattern} has found a mapping.
+     *
+     * @param designPattern the design pattern that is being inspected
+     */
+    default void mappingFound(DesignPattern designPattern) {
+    }
+
+    /**
+     * Called every time the inspection of a design pattern has completed.
+     *
+     * @param key      the key of the design pattern in the results of the analysis
+     * @param result   the result of the inspection
+     * @param analysed the number of design patterns analysed so far
+     * @param total    the total number of design patterns to analyse
+     */
+    default void patternAnalysed(String key, PatternInspector.MatchingResult result, int analysed, int total) {
+    }
+
+    /**
+     * Determines whether the analysis must stop. This method is called repeatedly during the search for mappings,
+     * making it possible to stop an inspection partway through.
+     *
+     * @return {@code true} if the analysis is cancelled, or {@code false} otherwise.
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+}
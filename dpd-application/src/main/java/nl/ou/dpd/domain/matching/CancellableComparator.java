@@ -0,0 +1,43 @@
+package nl.ou.dpd.domain.matching;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A {@link FeedbackEnabledComparator} that delegates to another {@link FeedbackEnabledComparator}, but throws a
+ * {@link CancellationException} as soon as it is called after the analysis was cancelled. The isomorphism inspector
+ * calls its comparators all the time while searching for the next mapping, so this stops a running search partway
+ * through.
+ *
+ * @param <T> the subject type of this comparator (the type of the elements that are matched)
+ * @author Martin de Boer
+ */
+class CancellableComparator<T> implements FeedbackEnabledComparator<T> {
+
+    private final FeedbackEnabledComparator<T> comparator;
+    private final BooleanSupplier cancelled;
+
+    /**
+     * Creates a {@link CancellableComparator}.
+     *
+     * @param comparator the comparator to delegate to
+     * @param cancelled  determines whether the analysis was cancelled
+     */
+    CancellableComparator(FeedbackEnabledComparator<T> comparator, BooleanSupplier cancelled) {
+        this.comparator = comparator;
+        this.cancelled = cancelled;
+    }
+
+    @Override
+    public int compare(T o1, T o2) {
+        if (cancelled.getAsBoolean()) {
+            throw new CancellationException();
+        }
+        return comparator.compare(o1, o2);
+    }
+
+    @Override
+    public Feedback getFeedback() {
+        return comparator.getFeedback();
+    }
+}
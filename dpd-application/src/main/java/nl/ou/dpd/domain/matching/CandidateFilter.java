@@ -0,0 +1,221 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
+import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.domain.relation.RelationType;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A {@link CandidateFilter} determines, before the (expensive) subgraph isomorphism search, which system nodes can
+ * possibly match a pattern node. The candidates of a pattern node are the system nodes that:
+ * <ul>
+ * <li>have (at least) all the {@link NodeType}s of the pattern node;</li>
+ * <li>have (at least) as many incoming and outgoing relations, per {@link RelationType}, as the pattern node;</li>
+ * <li>have (at least) as many neighbours, per {@link NodeType}, as the pattern node.</li>
+ * </ul>
+ * After that, the candidates are narrowed down until a fixed point is reached (like arc consistency): a system node
+ * remains a candidate for a pattern node only if every relation of the pattern node can be matched by a relation of the
+ * system node with a candidate of the related pattern node.
+ * <p>
+ * Only the induced subgraph of the system nodes that remain a candidate has to be searched. The filter works on the
+ * numbering, the adjacency lists and the node profiles of the {@link SystemIndex}, and applies the same node type,
+ * relation type and cardinality constraints as the default comparators (see {@link NodeComparatorFactory} and
+ * {@link RelationComparatorFactory}). Self-referencing relations are not checked by
+ * the isomorphism inspector, and are therefore ignored by the filter too. However, the look-ahead of the isomorphism
+ * inspector counts a self-referencing pattern node as a neighbour of its own, that must be matched by some neighbour
+ * of the system node. Therefore, the neighbours of the candidates of a self-referencing pattern node are searched as
+ * well, so the same mappings are found as in the whole system.
+ * <p>
+ * When the {@link SystemIndex} is restricted already (e.g. by ignoring hub nodes), only its searched nodes are
+ * considered: they are the only nodes of its (renumbered) graph.
+ *
+ * @author Martin de Boer
+ */
+final class CandidateFilter {
+
+    private final SystemIndex systemIndex;
+    private final IndexedGraph system;
+    private final DesignPattern designPattern;
+    private final Map<Node, BitSet> candidates = new LinkedHashMap<>();
+    private final BitSet searchedNodes = new BitSet();
+    private int iterations;
+
+    private CandidateFilter(SystemIndex systemIndex, DesignPattern designPattern) {
+        this.systemIndex = systemIndex;
+        this.system = systemIndex.getGraph();
+        this.designPattern = designPattern;
+    }
+
+    /**
+     * Determines the candidates of every node of the {@code designPattern} in the indexed system.
+     *
+     * @param systemIndex   the {@link SystemIndex} of the system under consideration
+     * @param designPattern the design pattern
+     * @return the {@link CandidateFilter} holding the candidates
+     */
+    static CandidateFilter filter(SystemIndex systemIndex, DesignPattern designPattern) {
+        final CandidateFilter filter = new CandidateFilter(systemIndex, designPattern);
+        if (filter.initCandidates()) {
+            filter.narrowCandidates();
+        }
+        filter.collectSearchedNodes();
+        return filter;
+    }
+
+    /**
+     * Determines whether a pattern node is left without candidates, which means that the design pattern cannot be
+     * present in the system.
+     *
+     * @return {@code true} if a pattern node has no candidates, or {@code false} otherwise.
+     */
+    boolean hasUnmatchablePatternNode() {
+        return candidates.values().stream().anyMatch(BitSet::isEmpty);
+    }
+
+    /**
+     * Returns the part of the system that has to be searched: the {@link SystemIndex} restricted to the system nodes
+     * that are a candidate for at least one pattern node, and the neighbours of the candidates of self-referencing
+     * pattern nodes, or the {@link SystemIndex} itself if no nodes were filtered out.
+     *
+     * @return the index of the part of the system to search for the design pattern
+     */
+    SystemIndex getSearchedIndex() {
+        if (searchedNodes.cardinality() == systemIndex.getSearchedNodeCount()) {
+            return systemIndex;
+        }
+        return systemIndex.restrictTo(searchedNodes);
+    }
+
+    /**
+     * Returns the {@link PruningStatistics} of this filter.
+     *
+     * @return the statistics
+     */
+    PruningStatistics getStatistics() {
+        final Map<Node, Integer> candidateCounts = new LinkedHashMap<>();
+        candidates.forEach((patternNode, systemNodes) -> candidateCounts.put(patternNode, systemNodes.cardinality()));
+        return new PruningStatistics(
+                systemIndex.getSystem().vertexSet().size(),
+                searchedNodes.cardinality(),
+                iterations,
+                candidateCounts);
+    }
+
+    /**
+     * Determines the initial candidates of every pattern node, by comparing node types and node profiles.
+     *
+     * @return {@code false} if a pattern node has no candidates, or {@code true} otherwise.
+     */
+    private boolean initCandidates() {
+        for (Node patternNode : designPattern.vertexSet()) {
+            final int[] patternProfile = SystemIndex.createProfile(designPattern, patternNode);
+            final int patternTypeMask = patternNode.getTypeMask();
+            final BitSet patternNodeCandidates = new BitSet(system.getNodeCount());
+            for (int systemNode = 0; systemNode < system.getNodeCount(); systemNode++) {
+                if ((patternTypeMask & ~systemIndex.getNodeTypeMask(systemNode)) == 0
+                        && SystemIndex.dominates(systemIndex.getProfile(systemNode), patternProfile)) {
+                    patternNodeCandidates.set(systemNode);
+                }
+            }
+            candidates.put(patternNode, patternNodeCandidates);
+            if (patternNodeCandidates.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void collectSearchedNodes() {
+        if (hasUnmatchablePatternNode()) {
+            return;
+        }
+        candidates.forEach((patternNode, systemNodes) -> {
+            searchedNodes.or(systemNodes);
+            if (designPattern.getEdge(patternNode, patternNode) != null) {
+                for (int i = systemNodes.nextSetBit(0); i >= 0; i = systemNodes.nextSetBit(i + 1)) {
+                    addNeighbours(i);
+                }
+            }
+        });
+    }
+
+    private void addNeighbours(int systemNode) {
+        for (int successor : system.getSuccessors(systemNode)) {
+            searchedNodes.set(successor);
+        }
+        for (int predecessor : system.getPredecessors(systemNode)) {
+            searchedNodes.set(predecessor);
+        }
+    }
+
+    /**
+     * Removes the candidates that cannot match the relations of their pattern node, until no more candidates can be
+     * removed.
+     */
+    private void narrowCandidates() {
+        boolean changed;
+        do {
+            iterations++;
+            changed = false;
+            for (Map.Entry<Node, BitSet> entry : candidates.entrySet()) {
+                final BitSet systemNodes = entry.getValue();
+                for (int i = systemNodes.nextSetBit(0); i >= 0; i = systemNodes.nextSetBit(i + 1)) {
+                    if (!isSupported(i, entry.getKey())) {
+                        systemNodes.clear(i);
+                        changed = true;
+                    }
+                }
+                if (systemNodes.isEmpty()) {
+                    return;
+                }
+            }
+        } while (changed);
+    }
+
+    /**
+     * Determines whether every (not self-referencing) relation of the {@code patternNode} can be matched by a relation
+     * of the {@code systemNode} with a candidate of the related pattern node.
+     */
+    private boolean isSupported(int systemNode, Node patternNode) {
+        for (Relation patternRelation : designPattern.outgoingEdgesOf(patternNode)) {
+            final Node patternTarget = designPattern.getEdgeTarget(patternRelation);
+            if (!patternTarget.equals(patternNode)
+                    && !hasMatchingRelation(systemNode, true, patternRelation, candidates.get(patternTarget))) {
+                return false;
+            }
+        }
+        for (Relation patternRelation : designPattern.incomingEdgesOf(patternNode)) {
+            final Node patternSource = designPattern.getEdgeSource(patternRelation);
+            if (!patternSource.equals(patternNode)
+                    && !hasMatchingRelation(systemNode, false, patternRelation, candidates.get(patternSource))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasMatchingRelation(int systemNode, boolean outgoing, Relation patternRelation, BitSet related) {
+        final int[] neighbours = outgoing ? system.getSuccessors(systemNode) : system.getPredecessors(systemNode);
+        for (int i = 0; i < neighbours.length; i++) {
+            if (neighbours[i] != systemNode && related.get(neighbours[i])) {
+                final Relation systemRelation = outgoing
+                        ? system.getOutgoingRelation(systemNode, i)
+                        : system.getIncomingRelation(systemNode, i);
+                if (hasRelationConstraintsOf(systemRelation, patternRelation)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasRelationConstraintsOf(Relation systemRelation, Relation patternRelation) {
+        return systemRelation.hasRelationTypesOf(patternRelation)
+                && systemRelation.hasCardinalitiesWithinLimitsOf(patternRelation);
+    }
+}
@@ -1,7 +1,7 @@
 package nl.ou.dpd.domain.matching;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A {@link CompoundComparator} is a {@link FeedbackEnabledComparator} that itself contains multiple
@@ -16,17 +16,31 @@ public abstract class CompoundComparator<T> implements FeedbackEnabledComparator
     protected static final String MATCH_FAILED_WITH_MSG = "Match failed with '%s'.";
     protected static final String MATCHED_WITH_MSG = "Matched with '%s'.";
 
-    private Set<FeedbackEnabledComparator<T>> subComparators = new HashSet<>();
+    private final List<FeedbackEnabledComparator<T>> subComparators = new ArrayList<>();
 
     public void addComparator(FeedbackEnabledComparator<T> subComparator) {
-        subComparators.add(subComparator);
+        if (!subComparators.contains(subComparator)) {
+            subComparators.add(subComparator);
+        }
     }
 
+    /**
+     * Compares the specified objects with all the sub comparators. This method is called very often during the
+     * matching process, so it does not allocate any objects.
+     *
+     * @param systemObject  the system object
+     * @param patternObject the pattern object
+     * @return the number of sub comparators that found a mismatch
+     */
     @Override
     public int compare(T systemObject, T patternObject) {
-        return (int) subComparators.stream()
-                .filter(subComparator -> subComparator.compare(systemObject, patternObject) != 0)
-                .count();
+        int mismatches = 0;
+        for (int i = 0; i < subComparators.size(); i++) {
+            if (subComparators.get(i).compare(systemObject, patternObject) != 0) {
+                mismatches++;
+            }
+        }
+        return mismatches;
     }
 
     @Override
@@ -4,48 +4,84 @@ import nl.ou.dpd.domain.SystemUnderConsideration;
 import nl.ou.dpd.domain.node.Node;
 import nl.ou.dpd.domain.relation.Relation;
 
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
- * A container for feedback messages that are generated during the matching process.
+ * A container for feedback that is generated during the matching process.
+ * <p>
+ * The feedback is recorded as {@link FeedbackEvent}s, and the text of the feedback messages is rendered only when it
+ * is asked for (see {@link #getFeedbackMessages(Node, FeedbackType)}). Recording the same event twice has no effect.
+ * <p>
+ * A disabled {@link Feedback} (see {@link #disabled()}) ignores all feedback, for analyses that are only interested in
+ * the solutions.
  *
  * @author Martin de Boer
  */
 public class Feedback {
 
     // The default feedback: not analysed
-    private static final String MSG_NOT_ANALYSED = "Not analysed.";
+    private static final FeedbackEvent NOT_ANALYSED_EVENT = new FeedbackEvent(FeedbackCode.NOT_ANALYSED, null, null, null);
 
+    private final boolean enabled;
     private final Set<String> patternRelatedNotes = new HashSet<>();
-    private final Map<Node, Map<FeedbackType, List<String>>> nodeRelatedFeedbackMessages = new HashMap<>();
-    private final Map<Relation, Map<FeedbackType, List<String>>> relationRelatedFeedbackMessages = new HashMap<>();
+    private final Map<Node, Map<FeedbackType, Set<FeedbackEvent>>> nodeRelatedFeedbackEvents = new HashMap<>();
+    private final Map<Relation, Map<FeedbackType, Set<FeedbackEvent>>> relationRelatedFeedbackEvents = new HashMap<>();
 
     public Feedback() {
+        this(true);
     }
 
     public Feedback(SystemUnderConsideration systemUnderConsideration) {
+        this(true);
         systemUnderConsideration.edgeSet().forEach(relation -> {
-            addFeedbackMessage(relation, FeedbackType.NOT_ANALYSED, MSG_NOT_ANALYSED);
-            addFeedbackMessage(systemUnderConsideration.getEdgeSource(relation), FeedbackType.NOT_ANALYSED, MSG_NOT_ANALYSED);
-            addFeedbackMessage(systemUnderConsideration.getEdgeTarget(relation), FeedbackType.NOT_ANALYSED, MSG_NOT_ANALYSED);
+            addFeedbackEvent(relation, FeedbackType.NOT_ANALYSED, NOT_ANALYSED_EVENT);
+            addFeedbackEvent(systemUnderConsideration.getEdgeSource(relation), FeedbackType.NOT_ANALYSED, NOT_ANALYSED_EVENT);
+            addFeedbackEvent(systemUnderConsideration.getEdgeTarget(relation), FeedbackType.NOT_ANALYSED, NOT_ANALYSED_EVENT);
         });
     }
 
+    private Feedback(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Creates a disabled {@link Feedback}, that ignores all feedback that is added or merged into it.
+     *
+     * @return a new, disabled {@link Feedback}
+     */
+    public static Feedback disabled() {
+        return new Feedback(false);
+    }
+
+    /**
+     * Determines whether this {@link Feedback} records feedback.
+     *
+     * @return {@code true} if this {@link Feedback} records feedback, or {@code false} if it is disabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
     public Set<Node> getNodeSet() {
-        return nodeRelatedFeedbackMessages.keySet();
+        return nodeRelatedFeedbackEvents.keySet();
     }
 
     public Set<Relation> getRelationSet() {
-        return relationRelatedFeedbackMessages.keySet();
+        return relationRelatedFeedbackEvents.keySet();
     }
 
     public Feedback addNotes(Set<String> notes) {
-        patternRelatedNotes.addAll(notes);
+        if (enabled) {
+            patternRelatedNotes.addAll(notes);
+        }
         return this;
     }
 
@@ -53,68 +89,140 @@ public class Feedback {
         return patternRelatedNotes;
     }
 
+    /**
+     * Renders the feedback messages of the specified {@code type} for the specified {@code node}.
+     *
+     * @param node the {@link Node} to get the feedback messages for
+     * @param type the {@link FeedbackType} of the feedback messages
+     * @return a {@link List} of (distinct) feedback messages, in the order they were added
+     */
     public List<String> getFeedbackMessages(Node node, FeedbackType type) {
-        if (nodeRelatedFeedbackMessages.get(node) == null) {
-            return new ArrayList<>();
-        }
-        final List<String> messages = nodeRelatedFeedbackMessages.get(node).get(type);
-        if (messages == null) {
-            return new ArrayList<>();
-        }
-        return messages;
+        return render(getFeedbackEvents(node, type));
     }
 
+    /**
+     * Renders the feedback messages of the specified {@code type} for the specified {@code relation}.
+     *
+     * @param relation the {@link Relation} to get the feedback messages for
+     * @param type     the {@link FeedbackType} of the feedback messages
+     * @return a {@link List} of (distinct) feedback messages, in the order they were added
+     */
     public List<String> getFeedbackMessages(Relation relation, FeedbackType type) {
-        if (relationRelatedFeedbackMessages.get(relation) == null) {
-            return new ArrayList<>();
-        }
-        final List<String> messages = relationRelatedFeedbackMessages.get(relation).get(type);
-        if (messages == null) {
-            return new ArrayList<>();
+        return render(getFeedbackEvents(relation, type));
+    }
+
+    private List<String> render(Set<FeedbackEvent> events) {
+        return events.stream()
+                .map(FeedbackEvent::getMessage)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the {@link FeedbackEvent}s of the specified {@code type} for the specified {@code node}.
+     *
+     * @param node the {@link Node} to get the feedback events for
+     * @param type the {@link FeedbackType} of the feedback events
+     * @return an unmodifiable {@link Set} of {@link FeedbackEvent}s, in the order they were added
+     */
+    public Set<FeedbackEvent> getFeedbackEvents(Node node, FeedbackType type) {
+        return getFeedbackEvents(nodeRelatedFeedbackEvents.get(node), type);
+    }
+
+    /**
+     * Returns the {@link FeedbackEvent}s of the specified {@code type} for the specified {@code relation}.
+     *
+     * @param relation the {@link Relation} to get the feedback events for
+     * @param type     the {@link FeedbackType} of the feedback events
+     * @return an unmodifiable {@link Set} of {@link FeedbackEvent}s, in the order they were added
+     */
+    public Set<FeedbackEvent> getFeedbackEvents(Relation relation, FeedbackType type) {
+        return getFeedbackEvents(relationRelatedFeedbackEvents.get(relation), type);
+    }
+
+    private Set<FeedbackEvent> getFeedbackEvents(Map<FeedbackType, Set<FeedbackEvent>> eventsByType, FeedbackType type) {
+        if (eventsByType == null || eventsByType.get(type) == null) {
+            return Collections.emptySet();
         }
-        return messages;
+        return Collections.unmodifiableSet(eventsByType.get(type));
     }
 
     public Feedback addFeedbackMessage(Node node, FeedbackType type, String message) {
-        nodeRelatedFeedbackMessages.computeIfAbsent(node, k -> new HashMap<>());
-        nodeRelatedFeedbackMessages.get(node).remove(FeedbackType.NOT_ANALYSED);
-        nodeRelatedFeedbackMessages.get(node).computeIfAbsent(type, k -> new ArrayList<>());
-        return addUniqueMessage(nodeRelatedFeedbackMessages.get(node).get(type), message);
+        return addFeedbackEvent(node, type, FeedbackEvent.message(message));
     }
 
     public Feedback addFeedbackMessage(Relation relation, FeedbackType type, String message) {
-        relationRelatedFeedbackMessages.computeIfAbsent(relation, k -> new HashMap<>());
-        relationRelatedFeedbackMessages.get(relation).remove(FeedbackType.NOT_ANALYSED);
-        relationRelatedFeedbackMessages.get(relation).computeIfAbsent(type, k -> new ArrayList<>());
-        return addUniqueMessage(relationRelatedFeedbackMessages.get(relation).get(type), message);
+        return addFeedbackEvent(relation, type, FeedbackEvent.message(message));
     }
 
-    private Feedback addUniqueMessage(List<String> messages, String message) {
-        if (messages.stream().filter(s -> s.equals(message)).count() == 0) {
-            messages.add(message);
+    /**
+     * Records a {@link FeedbackEvent} for the specified system {@code node}. The event is only created when this
+     * {@link Feedback} is enabled.
+     *
+     * @param node           the system {@link Node} the feedback is about
+     * @param type           the {@link FeedbackType} of the feedback
+     * @param code           the {@link FeedbackCode} of the feedback
+     * @param patternElement the pattern element the system node was compared with
+     * @param detail         the detail of the feedback, or {@code null}
+     * @return this {@link Feedback}
+     */
+    public Feedback addFeedback(Node node, FeedbackType type, FeedbackCode code, Object patternElement, Object detail) {
+        if (!enabled) {
+            return this;
         }
-        return this;
+        return addFeedbackEvent(node, type, new FeedbackEvent(code, patternElement, node, detail));
     }
 
-    public Feedback merge(Feedback other) {
-        if (other == null) {
+    /**
+     * Records a {@link FeedbackEvent} for the specified system {@code relation}. The event is only created when this
+     * {@link Feedback} is enabled.
+     *
+     * @param relation       the system {@link Relation} the feedback is about
+     * @param type           the {@link FeedbackType} of the feedback
+     * @param code           the {@link FeedbackCode} of the feedback
+     * @param patternElement the pattern element the system relation was compared with
+     * @param detail         the detail of the feedback, or {@code null}
+     * @return this {@link Feedback}
+     */
+    public Feedback addFeedback(Relation relation, FeedbackType type, FeedbackCode code, Object patternElement, Object detail) {
+        if (!enabled) {
             return this;
         }
-        if (other.patternRelatedNotes != null && other.patternRelatedNotes.size() > 0) {
-            patternRelatedNotes.addAll(other.patternRelatedNotes);
+        return addFeedbackEvent(relation, type, new FeedbackEvent(code, patternElement, relation, detail));
+    }
+
+    public Feedback addFeedbackEvent(Node node, FeedbackType type, FeedbackEvent event) {
+        if (enabled) {
+            addEvent(nodeRelatedFeedbackEvents.computeIfAbsent(node, k -> new EnumMap<>(FeedbackType.class)), type, event);
         }
-        if (other.nodeRelatedFeedbackMessages != null && other.nodeRelatedFeedbackMessages.size() > 0) {
-            other.nodeRelatedFeedbackMessages.keySet()
-                    .forEach(node -> other.nodeRelatedFeedbackMessages.get(node)
-                            .forEach((type, message) -> other.nodeRelatedFeedbackMessages.get(node).get(type)
-                                    .forEach(msg -> addFeedbackMessage(node, type, msg))));
+        return this;
+    }
+
+    public Feedback addFeedbackEvent(Relation relation, FeedbackType type, FeedbackEvent event) {
+        if (enabled) {
+            addEvent(relationRelatedFeedbackEvents.computeIfAbsent(relation, k -> new EnumMap<>(FeedbackType.class)), type, event);
         }
-        if (other.relationRelatedFeedbackMessages != null && other.relationRelatedFeedbackMessages.size() > 0) {
-            other.relationRelatedFeedbackMessages.keySet()
-                    .forEach(relation -> other.relationRelatedFeedbackMessages.get(relation)
-                            .forEach((type, message) -> other.relationRelatedFeedbackMessages.get(relation).get(type)
-                                    .forEach(msg -> addFeedbackMessage(relation, type, msg))));
+        return this;
+    }
+
+    private void addEvent(Map<FeedbackType, Set<FeedbackEvent>> eventsByType, FeedbackType type, FeedbackEvent event) {
+        if (type != FeedbackType.NOT_ANALYSED) {
+            eventsByType.remove(FeedbackType.NOT_ANALYSED);
+        }
+        eventsByType.computeIfAbsent(type, k -> new LinkedHashSet<>()).add(event);
+    }
+
+    public Feedback merge(Feedback other) {
+        if (other == null || !enabled) {
+            return this;
         }
+        patternRelatedNotes.addAll(other.patternRelatedNotes);
+        other.nodeRelatedFeedbackEvents.forEach((node, eventsByType) ->
+                eventsByType.forEach((type, events) ->
+                        events.forEach(event -> addFeedbackEvent(node, type, event))));
+        other.relationRelatedFeedbackEvents.forEach((relation, eventsByType) ->
+                eventsByType.forEach((type, events) ->
+                        events.forEach(event -> addFeedbackEvent(relation, type, event))));
         return this;
     }
 
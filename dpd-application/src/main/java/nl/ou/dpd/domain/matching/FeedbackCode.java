@@ -0,0 +1,47 @@
+package nl.ou.dpd.domain.matching;
+
+/**
+ * The codes of the {@link FeedbackEvent}s that are recorded during the matching process. Every code has a message
+ * format, that is used to render the text of a {@link FeedbackEvent} only when it is asked for.
+ * <p>
+ * The message format refers to the name of the pattern element ({@code %1$s}), the detail ({@code %2$s}) and the name
+ * of the system element ({@code %3$s}) of the {@link FeedbackEvent}, in that order.
+ *
+ * @author Martin de Boer
+ */
+public enum FeedbackCode {
+
+    /**
+     * A free text message, which is the detail of the {@link FeedbackEvent}.
+     */
+    MESSAGE("%2$s"),
+
+    NOT_ANALYSED("Not analysed."),
+    MATCHED_WITH(CompoundComparator.MATCHED_WITH_MSG),
+    MATCH_FAILED_WITH(CompoundComparator.MATCH_FAILED_WITH_MSG),
+    NODE_TYPES_ANALYSED(NodeComparatorFactory.NODE_TYPES_ANALYSED_MSG),
+    MISSING_NODE_TYPE(NodeComparatorFactory.MISMATCH_MISSING_NODE_TYPE_MSG),
+    RELATION_TYPES_ANALYSED(RelationComparatorFactory.RELATION_TYPE_ANALYSED_MSG),
+    CARDINALITIES_ANALYSED(RelationComparatorFactory.CARDINALITIES_ANALYSED_MSG),
+    MISSING_RELATION_TYPE(RelationComparatorFactory.MISMATCH_MISSING_RELATION_TYPE_MSG),
+    UNEXPECTED_LEFT_CARDINALITY(RelationComparatorFactory.MISMATCH_UNEXPECTED_LEFT_CARDINALITY_MSG),
+    UNEXPECTED_RIGHT_CARDINALITY(RelationComparatorFactory.MISMATCH_UNEXPECTED_RIGHT_CARDINALITY_MSG);
+
+    private final String format;
+
+    FeedbackCode(String format) {
+        this.format = format;
+    }
+
+    /**
+     * Renders the text of a feedback message with this code.
+     *
+     * @param patternElementName the name of the pattern element
+     * @param detail             the detail of the message
+     * @param systemElementName  the name of the system element
+     * @return the rendered text
+     */
+    public String render(String patternElementName, Object detail, String systemElementName) {
+        return String.format(format, patternElementName, detail, systemElementName);
+    }
+}
@@ -0,0 +1,107 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+
+import java.util.Objects;
+
+/**
+ * A {@link FeedbackEvent} is a feedback message that is recorded during the matching process. It consists of a
+ * {@link FeedbackCode} and references to the pattern element, the system element and a detail (e.g. a missing node
+ * type), but not of the text of the message. The text is rendered only when it is asked for (see
+ * {@link #getMessage()}), so recording feedback in the matching process is cheap.
+ *
+ * @author Martin de Boer
+ */
+public final class FeedbackEvent {
+
+    private final FeedbackCode code;
+    private final Object patternElement;
+    private final Object systemElement;
+    private final Object detail;
+
+    /**
+     * Creates a {@link FeedbackEvent}.
+     *
+     * @param code           the {@link FeedbackCode} of the event
+     * @param patternElement the pattern element ({@link Node} or {@link Relation}), or {@code null}
+     * @param systemElement  the system element ({@link Node} or {@link Relation}), or {@code null}
+     * @param detail         the detail of the event, or {@code null}
+     */
+    public FeedbackEvent(FeedbackCode code, Object patternElement, Object systemElement, Object detail) {
+        this.code = code;
+        this.patternElement = patternElement;
+        this.systemElement = systemElement;
+        this.detail = detail;
+    }
+
+    /**
+     * Creates a {@link FeedbackEvent} for a free text message.
+     *
+     * @param message the text of the message
+     * @return the created {@link FeedbackEvent}
+     */
+    public static FeedbackEvent message(String message) {
+        return new FeedbackEvent(FeedbackCode.MESSAGE, null, null, message);
+    }
+
+    public FeedbackCode getCode() {
+        return code;
+    }
+
+    public Object getPatternElement() {
+        return patternElement;
+    }
+
+    public Object getSystemElement() {
+        return systemElement;
+    }
+
+    public Object getDetail() {
+        return detail;
+    }
+
+    /**
+     * Renders the text of this event.
+     *
+     * @return the text of the feedback message
+     */
+    public String getMessage() {
+        return code.render(getName(patternElement), detail, getName(systemElement));
+    }
+
+    private static String getName(Object element) {
+        if (element instanceof Node) {
+            return ((Node) element).getName();
+        }
+        if (element instanceof Relation) {
+            return ((Relation) element).getName();
+        }
+        return element == null ? null : element.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FeedbackEvent that = (FeedbackEvent) o;
+        return code == that.code &&
+                Objects.equals(patternElement, that.patternElement) &&
+                Objects.equals(systemElement, that.systemElement) &&
+                Objects.equals(detail, that.detail);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = code.hashCode();
+        result = 31 * result + Objects.hashCode(patternElement);
+        result = 31 * result + Objects.hashCode(systemElement);
+        result = 31 * result + Objects.hashCode(detail);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
@@ -0,0 +1,262 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+import org.jgrapht.DirectedGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * An {@link IndexedGraph} numbers the nodes of a graph and holds its adjacency in arrays, so the
+ * {@link IndexedMatchingEngine} can walk the graph without looking up nodes and relations in hash tables. The
+ * successors and predecessors of every node are sorted by number, together with the (typed) relations connecting
+ * them, so a relation between two nodes is found by a binary search.
+ * <p>
+ * Self-referencing relations are included: a node with a self-referencing relation is a successor and a predecessor
+ * of its own.
+ * <p>
+ * An {@link IndexedGraph} can be restricted to the subgraph induced by some of its nodes (see {@link #induce(int[])}),
+ * which numbers these nodes from zero, so that the arrays of a search of the subgraph are no larger than the subgraph.
+ *
+ * @author Martin de Boer
+ */
+final class IndexedGraph {
+
+    static final int NO_NODE = -1;
+
+    private final DirectedGraph<Node, Relation> graph;
+    private final Node[] nodes;
+    private final Map<Node, Integer> numbers;
+    private final int[][] successors;
+    private final int[][] predecessors;
+    private final Relation[][] outgoingRelations;
+    private final Relation[][] incomingRelations;
+    private final int relationCount;
+
+    private IndexedGraph(DirectedGraph<Node, Relation> graph, List<Node> nodeOrder) {
+        final int nodeCount = nodeOrder.size();
+        this.graph = graph;
+        nodes = nodeOrder.toArray(new Node[nodeCount]);
+        numbers = new HashMap<>(nodeCount * 2);
+        for (int i = 0; i < nodeCount; i++) {
+            numbers.put(nodes[i], i);
+        }
+        successors = new int[nodeCount][];
+        predecessors = new int[nodeCount][];
+        outgoingRelations = new Relation[nodeCount][];
+        incomingRelations = new Relation[nodeCount][];
+        for (int i = 0; i < nodeCount; i++) {
+            final Set<Relation> outgoing = graph.outgoingEdgesOf(nodes[i]);
+            outgoingRelations[i] = outgoing.toArray(new Relation[outgoing.size()]);
+            successors[i] = sortByNode(outgoingRelations[i], graph::getEdgeTarget);
+            final Set<Relation> incoming = graph.incomingEdgesOf(nodes[i]);
+            incomingRelations[i] = incoming.toArray(new Relation[incoming.size()]);
+            predecessors[i] = sortByNode(incomingRelations[i], graph::getEdgeSource);
+        }
+        relationCount = graph.edgeSet().size();
+    }
+
+    private IndexedGraph(IndexedGraph base, int[] included) {
+        final int nodeCount = included.length;
+        this.graph = base.graph;
+        nodes = new Node[nodeCount];
+        numbers = new HashMap<>(nodeCount * 2);
+        successors = new int[nodeCount][];
+        predecessors = new int[nodeCount][];
+        outgoingRelations = new Relation[nodeCount][];
+        incomingRelations = new Relation[nodeCount][];
+        int inducedRelationCount = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            final int number = included[i];
+            nodes[i] = base.nodes[number];
+            numbers.put(nodes[i], i);
+            outgoingRelations[i] = induce(base.successors[number], base.outgoingRelations[number], included);
+            successors[i] = renumber(base.successors[number], included, outgoingRelations[i].length);
+            incomingRelations[i] = induce(base.predecessors[number], base.incomingRelations[number], included);
+            predecessors[i] = renumber(base.predecessors[number], included, incomingRelations[i].length);
+            inducedRelationCount += successors[i].length;
+        }
+        relationCount = inducedRelationCount;
+    }
+
+    /**
+     * Indexes the {@code graph}, numbering its nodes in the order of its vertex set.
+     *
+     * @param graph the graph to index
+     * @return the {@link IndexedGraph}
+     */
+    static IndexedGraph inVertexOrder(DirectedGraph<Node, Relation> graph) {
+        return new IndexedGraph(graph, new ArrayList<>(graph.vertexSet()));
+    }
+
+    /**
+     * Indexes the {@code graph}, numbering its nodes by ascending degree (and in the order of its vertex set for nodes
+     * with the same degree), like the VF2 isomorphism inspector of jgrapht orders the nodes.
+     *
+     * @param graph the graph to index
+     * @return the {@link IndexedGraph}
+     */
+    static IndexedGraph inDegreeOrder(DirectedGraph<Node, Relation> graph) {
+        final List<Node> nodeOrder = new ArrayList<>(graph.vertexSet());
+        nodeOrder.sort(Comparator.comparingInt(node -> graph.edgesOf(node).size()));
+        return new IndexedGraph(graph, nodeOrder);
+    }
+
+    /**
+     * Returns the subgraph induced by the nodes with the specified numbers: these nodes and the relations between
+     * them. The nodes are numbered in the order of the specified numbers, which must be ascending, so the nodes keep
+     * their order. Building the subgraph takes time in proportion to the size of the subgraph, not of this graph.
+     *
+     * @param included the numbers of the nodes of the subgraph, in ascending order
+     * @return the induced subgraph
+     */
+    IndexedGraph induce(int[] included) {
+        return new IndexedGraph(this, included);
+    }
+
+    /**
+     * Returns the {@code relations} to the {@code related} nodes (sorted by number) that are included.
+     */
+    private static Relation[] induce(int[] related, Relation[] relations, int[] included) {
+        int count = 0;
+        for (int number : related) {
+            count += Arrays.binarySearch(included, number) >= 0 ? 1 : 0;
+        }
+        final Relation[] induced = new Relation[count];
+        count = 0;
+        for (int i = 0; i < related.length; i++) {
+            if (Arrays.binarySearch(included, related[i]) >= 0) {
+                induced[count++] = relations[i];
+            }
+        }
+        return induced;
+    }
+
+    /**
+     * Returns the new numbers of the {@code related} nodes (sorted by number) that are included, in ascending order.
+     */
+    private static int[] renumber(int[] related, int[] included, int count) {
+        final int[] renumbered = new int[count];
+        count = 0;
+        for (int number : related) {
+            final int newNumber = Arrays.binarySearch(included, number);
+            if (newNumber >= 0) {
+                renumbered[count++] = newNumber;
+            }
+        }
+        return renumbered;
+    }
+
+    /**
+     * Sorts the {@code relations} by the number of the related node, and returns the sorted node numbers.
+     */
+    private int[] sortByNode(Relation[] relations, Function<Relation, Node> relatedNode) {
+        final int[] related = new int[relations.length];
+        final Integer[] order = new Integer[relations.length];
+        for (int i = 0; i < relations.length; i++) {
+            related[i] = numbers.get(relatedNode.apply(relations[i]));
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> related[i]));
+        final Relation[] unsortedRelations = relations.clone();
+        final int[] sortedRelated = new int[relations.length];
+        for (int i = 0; i < relations.length; i++) {
+            relations[i] = unsortedRelations[order[i]];
+            sortedRelated[i] = related[order[i]];
+        }
+        return sortedRelated;
+    }
+
+    int getNodeCount() {
+        return nodes.length;
+    }
+
+    int getRelationCount() {
+        return relationCount;
+    }
+
+    Node getNode(int number) {
+        return nodes[number];
+    }
+
+    /**
+     * Returns the number of the specified {@code node}.
+     *
+     * @param node the node
+     * @return the number of the node, or {@link #NO_NODE} if the node is not part of this graph
+     */
+    int getNumber(Node node) {
+        final Integer number = numbers.get(node);
+        return number == null ? NO_NODE : number;
+    }
+
+    /**
+     * Returns the numbers of the successors of the node with the specified {@code number}, in ascending order. The
+     * array must not be modified.
+     */
+    int[] getSuccessors(int number) {
+        return successors[number];
+    }
+
+    /**
+     * Returns the numbers of the predecessors of the node with the specified {@code number}, in ascending order. The
+     * array must not be modified.
+     */
+    int[] getPredecessors(int number) {
+        return predecessors[number];
+    }
+
+    /**
+     * Returns the relation to the {@code index}th successor of the node with the specified {@code number}.
+     */
+    Relation getOutgoingRelation(int number, int index) {
+        return outgoingRelations[number][index];
+    }
+
+    /**
+     * Returns the relation from the {@code index}th predecessor of the node with the specified {@code number}.
+     */
+    Relation getIncomingRelation(int number, int index) {
+        return incomingRelations[number][index];
+    }
+
+    /**
+     * Returns the relation from the node numbered {@code source} to the node numbered {@code target}.
+     *
+     * @param source the number of the source node
+     * @param target the number of the target node
+     * @return the relation, or {@code null} if there is no such relation
+     */
+    Relation getRelation(int source, int target) {
+        final int index = Arrays.binarySearch(successors[source], target);
+        return index < 0 ? null : outgoingRelations[source][index];
+    }
+
+    /**
+     * Returns the numbers of the source and the target node of the specified {@code relation}.
+     *
+     * @param relation the relation
+     * @return an array holding the number of the source node and the number of the target node, or {@code null} if
+     * the relation is not part of this graph
+     */
+    int[] getNumbers(Relation relation) {
+        if (!graph.containsEdge(relation)) {
+            return null;
+        }
+        // The nodes of a relation of the whole graph may be left out of an induced subgraph
+        final int source = getNumber(graph.getEdgeSource(relation));
+        final int target = getNumber(graph.getEdgeTarget(relation));
+        return source == NO_NODE || target == NO_NODE ? null : new int[]{source, target};
+    }
+
+    boolean hasRelation(int source, int target) {
+        return Arrays.binarySearch(successors[source], target) >= 0;
+    }
+}
@@ -0,0 +1,688 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+import org.jgrapht.GraphMapping;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import static nl.ou.dpd.domain.matching.IndexedGraph.NO_NODE;
+
+/**
+ * A {@link MatchingEngine} that searches the {@link SystemIndex} of the system under consideration: its nodes are
+ * numbered, and its (typed) relations are held in adjacency arrays. Unlike the {@link VF2MatchingEngine}, it does not
+ * build an adjacency matrix of the system, and it does not scan all system nodes for the next candidate: the
+ * candidates for a pattern node that is related to an already matched pattern node are the neighbours of the matching
+ * system node.
+ * <p>
+ * The pattern nodes are matched in the same order as the {@link VF2MatchingEngine} matches them, and the same
+ * feasibility rules (including the look-ahead rules of VF2) are applied, so the same mappings are found, but not
+ * necessarily in the same order. The comparators are called for fewer pairs of nodes and relations, so comparators
+ * that gather feedback will gather less of it.
+ * <p>
+ * The search can be split (see {@link #getMappingSpliterator(SystemIndex, DesignPattern, Comparator, Comparator)}):
+ * every part of the search matches the first pattern node with another range of system nodes, and searches the
+ * subtrees of these matches only.
+ * <p>
+ * An engine that breaks the symmetries of the design pattern (see {@link #breakingSymmetries()}) finds every instance
+ * of the design pattern once, instead of once for every permutation of its interchangeable roles (see
+ * {@link PatternSymmetry}).
+ * <p>
+ * Every search numbers the pattern nodes (and analyses the symmetries of the design pattern), unless the engine is
+ * prepared for the design pattern (see {@link #prepare(DesignPattern)}): the prepared engine does so only once, for all
+ * its searches.
+ *
+ * @author Martin de Boer
+ */
+public class IndexedMatchingEngine implements MatchingEngine {
+
+    private final boolean symmetryBreaking;
+
+    /**
+     * Creates an {@link IndexedMatchingEngine} that finds every mapping of every instance of the design pattern, like the
+     * {@link VF2MatchingEngine} does.
+     */
+    public IndexedMatchingEngine() {
+        this(false);
+    }
+
+    private IndexedMatchingEngine(boolean symmetryBreaking) {
+        this.symmetryBreaking = symmetryBreaking;
+    }
+
+    /**
+     * Creates an {@link IndexedMatchingEngine} that finds only one mapping of every instance of the design pattern. When
+     * roles of the design pattern are interchangeable (they have the same node types, and relations with the same
+     * properties), only the mapping that matches these roles with system nodes in the order of the system nodes is
+     * found. The similar mappings, that only differ in the interchangeable roles, are not enumerated at all. This is
+     * only valid for comparators that compare nothing but the node types and relation properties of the pattern (as
+     * the default comparators do).
+     *
+     * @return the created {@link IndexedMatchingEngine}
+     */
+    public static IndexedMatchingEngine breakingSymmetries() {
+        return new IndexedMatchingEngine(true);
+    }
+
+    @Override
+    public Iterator<GraphMapping<Node, Relation>> getMappings(
+            SystemIndex systemIndex,
+            DesignPattern designPattern,
+            Comparator<Node> nodeComparator,
+            Comparator<Relation> relationComparator) {
+        return createSearch(systemIndex, designPattern, nodeComparator, relationComparator);
+    }
+
+    @Override
+    public Spliterator<GraphMapping<Node, Relation>> getMappingSpliterator(
+            SystemIndex systemIndex,
+            DesignPattern designPattern,
+            Comparator<Node> nodeComparator,
+            Comparator<Relation> relationComparator) {
+        return new SearchSpliterator(createSearch(systemIndex, designPattern, nodeComparator, relationComparator));
+    }
+
+    @Override
+    public MatchingEngine prepare(DesignPattern designPattern) {
+        return new PreparedEngine(designPattern);
+    }
+
+    private Search createSearch(
+            SystemIndex systemIndex,
+            DesignPattern designPattern,
+            Comparator<Node> nodeComparator,
+            Comparator<Relation> relationComparator) {
+        final IndexedGraph pattern = IndexedGraph.inDegreeOrder(designPattern);
+        return new Search(systemIndex, pattern, getSymmetry(pattern), nodeComparator, relationComparator);
+    }
+
+    /**
+     * Returns the {@link PatternSymmetry} of the indexed {@code pattern}, or {@code null} if the symmetries are not
+     * broken, or if there are none.
+     */
+    private PatternSymmetry getSymmetry(IndexedGraph pattern) {
+        final PatternSymmetry symmetry = symmetryBreaking ? PatternSymmetry.of(pattern) : null;
+        return symmetry == null || symmetry.getConditionCount() == 0 ? null : symmetry;
+    }
+
+    /**
+     * An {@link IndexedMatchingEngine} prepared for one design pattern: the design pattern is numbered, and its
+     * symmetries are analysed, once, and shared (read-only) by all the searches for it. The searches for other design
+     * patterns are left to the engine it was prepared by.
+     */
+    private final class PreparedEngine implements MatchingEngine {
+
+        private final DesignPattern designPattern;
+        private final IndexedGraph pattern;
+        private final PatternSymmetry symmetry;
+
+        private PreparedEngine(DesignPattern designPattern) {
+            this.designPattern = designPattern;
+            this.pattern = IndexedGraph.inDegreeOrder(designPattern);
+            this.symmetry = getSymmetry(pattern);
+        }
+
+        @Override
+        public Iterator<GraphMapping<Node, Relation>> getMappings(
+                SystemIndex systemIndex,
+                DesignPattern designPattern,
+                Comparator<Node> nodeComparator,
+                Comparator<Relation> relationComparator) {
+            if (designPattern != this.designPattern) {
+                return IndexedMatchingEngine.this.getMappings(
+                        systemIndex, designPattern, nodeComparator, relationComparator);
+            }
+            return new Search(systemIndex, pattern, symmetry, nodeComparator, relationComparator);
+        }
+
+        @Override
+        public Spliterator<GraphMapping<Node, Relation>> getMappingSpliterator(
+                SystemIndex systemIndex,
+                DesignPattern designPattern,
+                Comparator<Node> nodeComparator,
+                Comparator<Relation> relationComparator) {
+            if (designPattern != this.designPattern) {
+                return IndexedMatchingEngine.this.getMappingSpliterator(
+                        systemIndex, designPattern, nodeComparator, relationComparator);
+            }
+            return new SearchSpliterator(
+                    new Search(systemIndex, pattern, symmetry, nodeComparator, relationComparator));
+        }
+
+        @Override
+        public MatchingEngine prepare(DesignPattern designPattern) {
+            return IndexedMatchingEngine.this.prepare(designPattern);
+        }
+    }
+
+    /**
+     * A {@link Spliterator} over the mappings of a {@link Search}, that splits off the first half of the system nodes
+     * the first pattern node is yet to be matched with. It can only be split before the search has started.
+     */
+    private static final class SearchSpliterator implements Spliterator<GraphMapping<Node, Relation>> {
+
+        private final Search search;
+
+        private SearchSpliterator(Search search) {
+            this.search = search;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super GraphMapping<Node, Relation>> action) {
+            if (!search.hasNext()) {
+                return false;
+            }
+            action.accept(search.next());
+            return true;
+        }
+
+        @Override
+        public Spliterator<GraphMapping<Node, Relation>> trySplit() {
+            final Search prefix = search.split();
+            return prefix == null ? null : new SearchSpliterator(prefix);
+        }
+
+        @Override
+        public long estimateSize() {
+            return search.getRootCount();
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+    }
+
+    /**
+     * The state of a depth first search, holding a (partial) mapping of system nodes to pattern nodes. Like in VF2,
+     * every node is marked with the depth at which it, or a predecessor or successor of it, was matched. The unmatched
+     * marked nodes are the "terminal" nodes.
+     */
+    private static final class Search implements Iterator<GraphMapping<Node, Relation>> {
+
+        // The kinds of terminal nodes the next pattern node is taken from
+        private static final int BOTH = 0;
+        private static final int OUT = 1;
+        private static final int IN = 2;
+        private static final int ANY = 3;
+
+        private final SystemIndex systemIndex;
+        private final IndexedGraph system;
+        private final IndexedGraph pattern;
+        private final PatternSymmetry symmetry;
+        private final Comparator<Node> nodeComparator;
+        private final Comparator<Relation> relationComparator;
+
+        private final int systemNodeCount;
+        private final int patternNodeCount;
+        private final int[] systemCore;
+        private final int[] systemIn;
+        private final int[] systemOut;
+        private final int[] patternCore;
+        private final int[] patternIn;
+        private final int[] patternOut;
+        private int patternInCount;
+        private int patternOutCount;
+        private int patternBothCount;
+        private int depth;
+
+        // The range of system nodes the first pattern node is matched with
+        private int rootStart;
+        private final int rootEnd;
+
+        // The pattern node, the kind of terminal nodes, the candidate system nodes (null for all system nodes), the
+        // position of the next candidate and the matched system node, per depth
+        private final int[] patternNodes;
+        private final int[] terminalKinds;
+        private final int[][] candidates;
+        private final int[] positions;
+        private final int[] systemNodes;
+
+        private boolean started;
+        private boolean finished;
+        private GraphMapping<Node, Relation> nextMapping;
+
+        private Search(
+                SystemIndex systemIndex,
+                IndexedGraph pattern,
+                PatternSymmetry symmetry,
+                Comparator<Node> nodeComparator,
+                Comparator<Relation> relationComparator) {
+            this(systemIndex, pattern, symmetry, nodeComparator, relationComparator,
+                    0, systemIndex.getGraph().getNodeCount());
+        }
+
+        private Search(
+                SystemIndex systemIndex,
+                IndexedGraph pattern,
+                PatternSymmetry symmetry,
+                Comparator<Node> nodeComparator,
+                Comparator<Relation> relationComparator,
+                int rootStart,
+                int rootEnd) {
+            this.systemIndex = systemIndex;
+            this.system = systemIndex.getGraph();
+            this.pattern = pattern;
+            this.symmetry = symmetry;
+            this.nodeComparator = nodeComparator;
+            this.relationComparator = relationComparator;
+            systemNodeCount = system.getNodeCount();
+            patternNodeCount = pattern.getNodeCount();
+            systemCore = createNodeArray(systemNodeCount);
+            systemIn = new int[systemNodeCount];
+            systemOut = new int[systemNodeCount];
+            patternCore = createNodeArray(patternNodeCount);
+            patternIn = new int[patternNodeCount];
+            patternOut = new int[patternNodeCount];
+            patternNodes = new int[patternNodeCount];
+            terminalKinds = new int[patternNodeCount];
+            candidates = new int[patternNodeCount][];
+            positions = new int[patternNodeCount];
+            systemNodes = new int[patternNodeCount];
+            this.rootStart = rootStart;
+            this.rootEnd = rootEnd;
+        }
+
+        /**
+         * Splits off the first half of the range of system nodes the first pattern node is matched with, if the search
+         * has not started yet. This search continues with the second half.
+         *
+         * @return the {@link Search} of the first half, or {@code null} if this search cannot be split
+         */
+        private Search split() {
+            if (started || patternNodeCount == 0 || rootEnd - rootStart < 2) {
+                return null;
+            }
+            final int middle = rootStart + (rootEnd - rootStart) / 2;
+            final Search prefix =
+                    new Search(systemIndex, pattern, symmetry, nodeComparator, relationComparator, rootStart, middle);
+            rootStart = middle;
+            return prefix;
+        }
+
+        /**
+         * Returns the number of searched system nodes the first pattern node is yet to be matched with.
+         */
+        private long getRootCount() {
+            if (finished) {
+                return 0;
+            }
+            return Math.max(0, rootEnd - (started ? positions[0] : rootStart));
+        }
+
+        private static int[] createNodeArray(int length) {
+            final int[] nodes = new int[length];
+            Arrays.fill(nodes, NO_NODE);
+            return nodes;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextMapping != null || (nextMapping = match()) != null;
+        }
+
+        @Override
+        public GraphMapping<Node, Relation> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final GraphMapping<Node, Relation> mapping = nextMapping;
+            nextMapping = null;
+            return mapping;
+        }
+
+        /**
+         * Continues the search until the next complete mapping is found.
+         *
+         * @return the next mapping, or {@code null} if there are no more mappings.
+         */
+        private GraphMapping<Node, Relation> match() {
+            if (finished) {
+                return null;
+            }
+            if (!started) {
+                started = true;
+                if (systemIndex.getSearchedNodeCount() < patternNodeCount
+                        || systemIndex.getSearchedRelationCount() < pattern.getRelationCount()) {
+                    finished = true;
+                    return null;
+                }
+                if (patternNodeCount == 0) {
+                    finished = true;
+                    return new IndexedGraphMapping(system, pattern, patternCore);
+                }
+                selectPatternNode();
+            } else {
+                // Resume the search after the last mapping found
+                removeLastPair();
+            }
+            while (depth >= 0) {
+                final int systemNode = nextCandidate();
+                if (systemNode == NO_NODE) {
+                    if (--depth >= 0) {
+                        removeLastPair();
+                    }
+                } else if (isFeasiblePair(systemNode, patternNodes[depth])) {
+                    addPair(systemNode, patternNodes[depth]);
+                    if (depth == patternNodeCount - 1) {
+                        return new IndexedGraphMapping(system, pattern, patternCore);
+                    }
+                    depth++;
+                    selectPatternNode();
+                }
+            }
+            finished = true;
+            return null;
+        }
+
+        /**
+         * Selects the pattern node to match at the current depth, like VF2 does: the first unmatched pattern node that
+         * is both an incoming and outgoing terminal node, or else an outgoing terminal node, or else an incoming
+         * terminal node, or else any unmatched pattern node. The candidates are the successors (or predecessors) of
+         * the system node matching a related pattern node, or all system nodes if there is no such pattern node.
+         */
+        private void selectPatternNode() {
+            final int terminalKind;
+            if (patternBothCount > depth) {
+                terminalKind = BOTH;
+            } else if (patternOutCount > depth) {
+                terminalKind = OUT;
+            } else if (patternInCount > depth) {
+                terminalKind = IN;
+            } else {
+                terminalKind = ANY;
+            }
+            int patternNode = 0;
+            while (patternCore[patternNode] != NO_NODE || !isTerminal(terminalKind, patternIn, patternOut, patternNode)) {
+                patternNode++;
+            }
+            patternNodes[depth] = patternNode;
+            terminalKinds[depth] = terminalKind;
+            candidates[depth] = selectCandidates(terminalKind, patternNode);
+            positions[depth] = depth == 0 ? rootStart : 0;
+        }
+
+        private int[] selectCandidates(int terminalKind, int patternNode) {
+            if (terminalKind == ANY) {
+                return null;
+            }
+            // An outgoing terminal node is a successor of a matched node, an incoming one a predecessor
+            final boolean successors = terminalKind != IN;
+            final int[] related = successors
+                    ? pattern.getPredecessors(patternNode)
+                    : pattern.getSuccessors(patternNode);
+            int[] selected = null;
+            for (int relatedPatternNode : related) {
+                final int relatedSystemNode = patternCore[relatedPatternNode];
+                if (relatedSystemNode != NO_NODE) {
+                    final int[] neighbours = successors
+                            ? system.getSuccessors(relatedSystemNode)
+                            : system.getPredecessors(relatedSystemNode);
+                    if (selected == null || neighbours.length < selected.length) {
+                        selected = neighbours;
+                    }
+                }
+            }
+            return selected;
+        }
+
+        private int nextCandidate() {
+            final int[] depthCandidates = candidates[depth];
+            final int candidateCount = depthCandidates != null
+                    ? depthCandidates.length
+                    : depth == 0 ? rootEnd : systemNodeCount;
+            while (positions[depth] < candidateCount) {
+                final int position = positions[depth]++;
+                final int systemNode = depthCandidates == null ? position : depthCandidates[position];
+                if (systemCore[systemNode] == NO_NODE
+                        && isTerminal(terminalKinds[depth], systemIn, systemOut, systemNode)) {
+                    return systemNode;
+                }
+            }
+            return NO_NODE;
+        }
+
+        private static boolean isTerminal(int terminalKind, int[] in, int[] out, int node) {
+            switch (terminalKind) {
+                case BOTH:
+                    return in[node] > 0 && out[node] > 0;
+                case OUT:
+                    return out[node] > 0;
+                case IN:
+                    return in[node] > 0;
+                default:
+                    return true;
+            }
+        }
+
+        /**
+         * Determines whether the {@code systemNode} can be matched with the {@code patternNode}, given the current
+         * (partial) mapping. The relations with matched nodes must correspond, and the look-ahead rules of VF2 must
+         * hold: the system node must have at least as many terminal and new neighbours as the pattern node. When the
+         * symmetries of the pattern are broken, the pair must satisfy the ordering conditions as well.
+         */
+        private boolean isFeasiblePair(int systemNode, int patternNode) {
+            if (symmetry != null && !symmetry.allows(systemNode, patternNode, patternCore)) {
+                return false;
+            }
+            if (nodeComparator != null
+                    && nodeComparator.compare(system.getNode(systemNode), pattern.getNode(patternNode)) != 0) {
+                return false;
+            }
+            return isFeasibleNeighbourhood(systemNode, patternNode, true)
+                    && isFeasibleNeighbourhood(systemNode, patternNode, false);
+        }
+
+        private boolean isFeasibleNeighbourhood(int systemNode, int patternNode, boolean successors) {
+            int systemTerminalIn = 0;
+            int systemTerminalOut = 0;
+            int systemNew = 0;
+            final int[] systemNeighbours = successors
+                    ? system.getSuccessors(systemNode)
+                    : system.getPredecessors(systemNode);
+            for (int i = 0; i < systemNeighbours.length; i++) {
+                final int systemNeighbour = systemNeighbours[i];
+                final int patternNeighbour = systemCore[systemNeighbour];
+                if (patternNeighbour != NO_NODE) {
+                    final Relation patternRelation = successors
+                            ? pattern.getRelation(patternNode, patternNeighbour)
+                            : pattern.getRelation(patternNeighbour, patternNode);
+                    final Relation systemRelation = successors
+                            ? system.getOutgoingRelation(systemNode, i)
+                            : system.getIncomingRelation(systemNode, i);
+                    if (patternRelation == null || !areCompatible(systemRelation, patternRelation)) {
+                        return false;
+                    }
+                } else {
+                    systemTerminalIn += systemIn[systemNeighbour] > 0 ? 1 : 0;
+                    systemTerminalOut += systemOut[systemNeighbour] > 0 ? 1 : 0;
+                    systemNew += systemIn[systemNeighbour] == 0 && systemOut[systemNeighbour] == 0 ? 1 : 0;
+                }
+            }
+
+            int patternTerminalIn = 0;
+            int patternTerminalOut = 0;
+            int patternNew = 0;
+            final int[] patternNeighbours = successors
+                    ? pattern.getSuccessors(patternNode)
+                    : pattern.getPredecessors(patternNode);
+            for (int patternNeighbour : patternNeighbours) {
+                final int systemNeighbour = patternCore[patternNeighbour];
+                if (systemNeighbour != NO_NODE) {
+                    final boolean related = successors
+                            ? system.hasRelation(systemNode, systemNeighbour)
+                            : system.hasRelation(systemNeighbour, systemNode);
+                    if (!related) {
+                        return false;
+                    }
+                } else {
+                    patternTerminalIn += patternIn[patternNeighbour] > 0 ? 1 : 0;
+                    patternTerminalOut += patternOut[patternNeighbour] > 0 ? 1 : 0;
+                    patternNew += patternIn[patternNeighbour] == 0 && patternOut[patternNeighbour] == 0 ? 1 : 0;
+                }
+            }
+            return systemTerminalIn >= patternTerminalIn
+                    && systemTerminalOut >= patternTerminalOut
+                    && systemNew >= patternNew;
+        }
+
+        private boolean areCompatible(Relation systemRelation, Relation patternRelation) {
+            return relationComparator == null || relationComparator.compare(systemRelation, patternRelation) == 0;
+        }
+
+        private void addPair(int systemNode, int patternNode) {
+            systemNodes[depth] = systemNode;
+            systemCore[systemNode] = patternNode;
+            patternCore[patternNode] = systemNode;
+            final int mark = depth + 1;
+            markSystemNode(systemIn, systemNode, mark);
+            markSystemNode(systemOut, systemNode, mark);
+            for (int predecessor : system.getPredecessors(systemNode)) {
+                markSystemNode(systemIn, predecessor, mark);
+            }
+            for (int successor : system.getSuccessors(systemNode)) {
+                markSystemNode(systemOut, successor, mark);
+            }
+            markPatternNode(true, patternNode, mark);
+            markPatternNode(false, patternNode, mark);
+            for (int predecessor : pattern.getPredecessors(patternNode)) {
+                markPatternNode(true, predecessor, mark);
+            }
+            for (int successor : pattern.getSuccessors(patternNode)) {
+                markPatternNode(false, successor, mark);
+            }
+        }
+
+        private static void markSystemNode(int[] marks, int node, int mark) {
+            if (marks[node] == 0) {
+                marks[node] = mark;
+            }
+        }
+
+        private void markPatternNode(boolean in, int node, int mark) {
+            final int[] marks = in ? patternIn : patternOut;
+            if (marks[node] == 0) {
+                marks[node] = mark;
+                if (in) {
+                    patternInCount++;
+                } else {
+                    patternOutCount++;
+                }
+                if ((in ? patternOut : patternIn)[node] > 0) {
+                    patternBothCount++;
+                }
+            }
+        }
+
+        /**
+         * Removes the pair that was added at the current depth, and the marks that were set at that depth.
+         */
+        private void removeLastPair() {
+            final int systemNode = systemNodes[depth];
+            final int patternNode = patternNodes[depth];
+            final int mark = depth + 1;
+            unmarkSystemNode(systemIn, systemNode, mark);
+            unmarkSystemNode(systemOut, systemNode, mark);
+            for (int predecessor : system.getPredecessors(systemNode)) {
+                unmarkSystemNode(systemIn, predecessor, mark);
+            }
+            for (int successor : system.getSuccessors(systemNode)) {
+                unmarkSystemNode(systemOut, successor, mark);
+            }
+            unmarkPatternNode(true, patternNode, mark);
+            unmarkPatternNode(false, patternNode, mark);
+            for (int predecessor : pattern.getPredecessors(patternNode)) {
+                unmarkPatternNode(true, predecessor, mark);
+            }
+            for (int successor : pattern.getSuccessors(patternNode)) {
+                unmarkPatternNode(false, successor, mark);
+            }
+            systemCore[systemNode] = NO_NODE;
+            patternCore[patternNode] = NO_NODE;
+        }
+
+        private static void unmarkSystemNode(int[] marks, int node, int mark) {
+            if (marks[node] == mark) {
+                marks[node] = 0;
+            }
+        }
+
+        private void unmarkPatternNode(boolean in, int node, int mark) {
+            final int[] marks = in ? patternIn : patternOut;
+            if (marks[node] == mark) {
+                marks[node] = 0;
+                if (in) {
+                    patternInCount--;
+                } else {
+                    patternOutCount--;
+                }
+                if ((in ? patternOut : patternIn)[node] > 0) {
+                    patternBothCount--;
+                }
+            }
+        }
+    }
+
+    /**
+     * A {@link GraphMapping} of system elements (the first graph) to pattern elements (the second graph), holding a
+     * copy of the mapping at the moment it was found. Only the pattern side of the mapping is copied, because its size
+     * does not depend on the size of the system. A system node is looked up by scanning the (small) pattern side.
+     */
+    private static final class IndexedGraphMapping implements GraphMapping<Node, Relation> {
+
+        private final IndexedGraph system;
+        private final IndexedGraph pattern;
+        private final int[] patternCore;
+
+        private IndexedGraphMapping(IndexedGraph system, IndexedGraph pattern, int[] patternCore) {
+            this.system = system;
+            this.pattern = pattern;
+            this.patternCore = patternCore.clone();
+        }
+
+        @Override
+        public Node getVertexCorrespondence(Node node, boolean forward) {
+            final IndexedGraph from = forward ? system : pattern;
+            final IndexedGraph to = forward ? pattern : system;
+            final int number = getCorrespondingNumber(from.getNumber(node), forward);
+            return number == NO_NODE ? null : to.getNode(number);
+        }
+
+        @Override
+        public Relation getEdgeCorrespondence(Relation relation, boolean forward) {
+            final IndexedGraph from = forward ? system : pattern;
+            final IndexedGraph to = forward ? pattern : system;
+            final int[] numbers = from.getNumbers(relation);
+            if (numbers == null) {
+                return null;
+            }
+            final int mappedSource = getCorrespondingNumber(numbers[0], forward);
+            final int mappedTarget = getCorrespondingNumber(numbers[1], forward);
+            if (mappedSource == NO_NODE || mappedTarget == NO_NODE) {
+                return null;
+            }
+            return to.getRelation(mappedSource, mappedTarget);
+        }
+
+        private int getCorrespondingNumber(int number, boolean forward) {
+            if (number == NO_NODE) {
+                return NO_NODE;
+            }
+            if (!forward) {
+                return patternCore[number];
+            }
+            for (int patternNode = 0; patternNode < patternCore.length; patternNode++) {
+                if (patternCore[patternNode] == number) {
+                    return patternNode;
+                }
+            }
+            return NO_NODE;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.EdgeFactory;
+import org.jgrapht.graph.AbstractGraph;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * An {@link IndexedSubgraph} is a read-only view of the part of a graph that an {@link IndexedGraph} is restricted to
+ * (see {@link IndexedGraph#induce(int[])}). Unlike a {@link org.jgrapht.graph.DirectedSubgraph}, it is built from the
+ * adjacency of the indexed nodes only, so building it takes time proportional to the subgraph rather than to the whole
+ * graph. The relations are not added to another graph, because that would change their source and target nodes.
+ *
+ * @author Martin de Boer
+ */
+final class IndexedSubgraph extends AbstractGraph<Node, Relation> implements DirectedGraph<Node, Relation> {
+
+    private final DirectedGraph<Node, Relation> base;
+    private final IndexedGraph graph;
+    private final Set<Node> vertices;
+    private final Set<Relation> edges;
+
+    /**
+     * Creates a view of the nodes and relations of the {@code graph}, which indexes (part of) the {@code base} graph.
+     *
+     * @param base  the graph holding the nodes and relations
+     * @param graph the indexed (sub)graph of the base graph
+     */
+    IndexedSubgraph(DirectedGraph<Node, Relation> base, IndexedGraph graph) {
+        this.base = base;
+        this.graph = graph;
+        final Set<Node> nodes = new LinkedHashSet<>(graph.getNodeCount() * 2);
+        final Set<Relation> relations = new LinkedHashSet<>(graph.getRelationCount() * 2);
+        for (int i = 0; i < graph.getNodeCount(); i++) {
+            nodes.add(graph.getNode(i));
+            relations.addAll(getOutgoingRelations(i));
+        }
+        this.vertices = Collections.unmodifiableSet(nodes);
+        this.edges = Collections.unmodifiableSet(relations);
+    }
+
+    @Override
+    public Set<Node> vertexSet() {
+        return vertices;
+    }
+
+    @Override
+    public Set<Relation> edgeSet() {
+        return edges;
+    }
+
+    @Override
+    public boolean containsVertex(Node node) {
+        return graph.getNumber(node) != IndexedGraph.NO_NODE;
+    }
+
+    @Override
+    public boolean containsEdge(Relation relation) {
+        return edges.contains(relation);
+    }
+
+    @Override
+    public Relation getEdge(Node source, Node target) {
+        final int sourceNumber = graph.getNumber(source);
+        final int targetNumber = graph.getNumber(target);
+        if (sourceNumber == IndexedGraph.NO_NODE || targetNumber == IndexedGraph.NO_NODE) {
+            return null;
+        }
+        return graph.getRelation(sourceNumber, targetNumber);
+    }
+
+    @Override
+    public Set<Relation> getAllEdges(Node source, Node target) {
+        final Relation relation = getEdge(source, target);
+        return relation == null ? Collections.emptySet() : Collections.singleton(relation);
+    }
+
+    @Override
+    public Set<Relation> outgoingEdgesOf(Node node) {
+        return getOutgoingRelations(getExistingNumber(node));
+    }
+
+    @Override
+    public Set<Relation> incomingEdgesOf(Node node) {
+        return getIncomingRelations(getExistingNumber(node));
+    }
+
+    @Override
+    public Set<Relation> edgesOf(Node node) {
+        final int number = getExistingNumber(node);
+        final Set<Relation> relations = new LinkedHashSet<>(getOutgoingRelations(number));
+        relations.addAll(getIncomingRelations(number));
+        return Collections.unmodifiableSet(relations);
+    }
+
+    @Override
+    public int outDegreeOf(Node node) {
+        return graph.getSuccessors(getExistingNumber(node)).length;
+    }
+
+    @Override
+    public int inDegreeOf(Node node) {
+        return graph.getPredecessors(getExistingNumber(node)).length;
+    }
+
+    @Override
+    public Node getEdgeSource(Relation relation) {
+        return base.getEdgeSource(relation);
+    }
+
+    @Override
+    public Node getEdgeTarget(Relation relation) {
+        return base.getEdgeTarget(relation);
+    }
+
+    @Override
+    public double getEdgeWeight(Relation relation) {
+        return base.getEdgeWeight(relation);
+    }
+
+    @Override
+    public EdgeFactory<Node, Relation> getEdgeFactory() {
+        return base.getEdgeFactory();
+    }
+
+    @Override
+    public Relation addEdge(Node source, Node target) {
+        throw new UnsupportedOperationException("An indexed subgraph cannot be modified.");
+    }
+
+    @Override
+    public boolean addEdge(Node source, Node target, Relation relation) {
+        throw new UnsupportedOperationException("An indexed subgraph cannot be modified.");
+    }
+
+    @Override
+    public boolean addVertex(Node node) {
+        throw new UnsupportedOperationException("An indexed subgraph cannot be modified.");
+    }
+
+    @Override
+    public Relation removeEdge(Node source, Node target) {
+        throw new UnsupportedOperationException("An indexed subgraph cannot be modified.");
+    }
+
+    @Override
+    public boolean removeEdge(Relation relation) {
+        throw new UnsupportedOperationException("An indexed subgraph cannot be modified.");
+    }
+
+    @Override
+    public boolean removeVertex(Node node) {
+        throw new UnsupportedOperationException("An indexed subgraph cannot be modified.");
+    }
+
+    private int getExistingNumber(Node node) {
+        final int number = graph.getNumber(node);
+        if (number == IndexedGraph.NO_NODE) {
+            throw new IllegalArgumentException("No such vertex in graph: " + node);
+        }
+        return number;
+    }
+
+    private Set<Relation> getOutgoingRelations(int number) {
+        final int count = graph.getSuccessors(number).length;
+        final Set<Relation> relations = new LinkedHashSet<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            relations.add(graph.getOutgoingRelation(number, i));
+        }
+        return Collections.unmodifiableSet(relations);
+    }
+
+    private Set<Relation> getIncomingRelations(int number) {
+        final int count = graph.getPredecessors(number).length;
+        final Set<Relation> relations = new LinkedHashSet<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            relations.add(graph.getIncomingRelation(number, i));
+        }
+        return Collections.unmodifiableSet(relations);
+    }
+}
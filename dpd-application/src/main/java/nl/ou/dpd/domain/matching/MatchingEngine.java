@@ -0,0 +1,95 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+import org.jgrapht.GraphMapping;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * A {@link MatchingEngine} searches a system under consideration for the instances of a {@link DesignPattern}: the
+ * subgraphs of the system that are isomorphic to the design pattern. It is used by the {@link PatternInspector}, that
+ * turns the mappings found into {@link Solution}s.
+ * <p>
+ * A system node matches a pattern node, and a system relation matches a pattern relation, if the specified comparator
+ * returns 0. The subgraphs found are induced subgraphs: every relation between two matched system nodes must match a
+ * pattern relation. Self-referencing relations are not matched.
+ * <p>
+ * The system under consideration is passed as a {@link SystemIndex}, that is built once and shared by all inspections
+ * of the system. Implementations are stateless, so one engine can be shared by concurrent inspections. An inspection
+ * that searches several parts of a system for the same design pattern prepares the engine for that design pattern
+ * first (see {@link #prepare(DesignPattern)}).
+ *
+ * @author Martin de Boer
+ * @see VF2MatchingEngine
+ * @see IndexedMatchingEngine
+ */
+public interface MatchingEngine {
+
+    /**
+     * Searches the indexed system for the instances of the {@code designPattern}. The search is performed lazily, while
+     * the returned {@link Iterator} is consumed, and every call performs a new search. Once exhausted, the returned
+     * {@link Iterator} remains exhausted.
+     *
+     * @param systemIndex        the index of the (part of the) system under consideration to search
+     * @param designPattern      the design pattern to search for
+     * @param nodeComparator     the comparator for matching system nodes with pattern nodes, or {@code null} to match
+     *                           every system node with every pattern node
+     * @param relationComparator the comparator for matching system relations with pattern relations, or {@code null}
+     *                           to match every system relation with every pattern relation
+     * @return an {@link Iterator} over the mappings of system elements (the first graph) to pattern elements (the
+     * second graph), one for every instance of the design pattern that was found.
+     */
+    Iterator<GraphMapping<Node, Relation>> getMappings(
+            SystemIndex systemIndex,
+            DesignPattern designPattern,
+            Comparator<Node> nodeComparator,
+            Comparator<Relation> relationComparator);
+
+    /**
+     * Searches the indexed system for the instances of the {@code designPattern}, like
+     * {@link #getMappings(SystemIndex, DesignPattern, Comparator, Comparator)} does, returning a {@link Spliterator}
+     * that may be split into parts that are searched concurrently (e.g. by a parallel {@link java.util.stream.Stream}).
+     * The mappings are encountered in the same order as in a sequential search. The comparators must be thread-safe
+     * when the search is split.
+     * <p>
+     * By default, the search itself is not split: the {@link Spliterator} only hands out batches of the mappings that
+     * were found, so they can be processed concurrently.
+     *
+     * @param systemIndex        the index of the (part of the) system under consideration to search
+     * @param designPattern      the design pattern to search for
+     * @param nodeComparator     the comparator for matching system nodes with pattern nodes, or {@code null} to match
+     *                           every system node with every pattern node
+     * @param relationComparator the comparator for matching system relations with pattern relations, or {@code null}
+     *                           to match every system relation with every pattern relation
+     * @return an ordered {@link Spliterator} over the mappings of system elements (the first graph) to pattern
+     * elements (the second graph), one for every instance of the design pattern that was found.
+     */
+    default Spliterator<GraphMapping<Node, Relation>> getMappingSpliterator(
+            SystemIndex systemIndex,
+            DesignPattern designPattern,
+            Comparator<Node> nodeComparator,
+            Comparator<Relation> relationComparator) {
+        return Spliterators.spliteratorUnknownSize(
+                getMappings(systemIndex, designPattern, nodeComparator, relationComparator),
+                Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    /**
+     * Prepares this engine for the searches for the {@code designPattern}: the returned {@link MatchingEngine} may
+     * analyse the design pattern once, instead of in every search. It can be used for other design patterns as well,
+     * but then it gains nothing. The design pattern must not be modified while the returned engine is in use.
+     * <p>
+     * By default, there is nothing to prepare, and this engine itself is returned.
+     *
+     * @param designPattern the design pattern to search for
+     * @return a {@link MatchingEngine} prepared for the searches for the design pattern
+     */
+    default MatchingEngine prepare(DesignPattern designPattern) {
+        return this;
+    }
+}
@@ -3,9 +3,6 @@ package nl.ou.dpd.domain.matching;
 import nl.ou.dpd.domain.node.Node;
 import nl.ou.dpd.domain.node.NodeType;
 
-import java.util.Set;
-import java.util.stream.Collectors;
-
 /**
  * A factory for {@link FeedbackEnabledComparator}s used for matching {@link Node}s of system designs with
  * {@link Node}s of design patterns.
@@ -29,7 +26,21 @@ public class NodeComparatorFactory {
      * @return the created {@link CompoundNodeComparator}.
      */
     public static CompoundComparator<Node> createCompoundNodeComparator() {
-        return createCompoundNodeComparator(createNodeTypeComparator());
+        return createCompoundNodeComparator(true);
+    }
+
+    /**
+     * Creates a {@link CompoundNodeComparator} containing all the available sub comparators for {@link Node}s, that
+     * gather feedback or not.
+     *
+     * @param feedbackEnabled {@code true} to gather feedback, or {@code false} for comparators that only compare (for
+     *                        analyses that are only interested in the solutions)
+     * @return the created {@link CompoundNodeComparator}.
+     */
+    public static CompoundComparator<Node> createCompoundNodeComparator(boolean feedbackEnabled) {
+        final CompoundNodeComparator compoundNodeComparator = new CompoundNodeComparator(feedbackEnabled);
+        compoundNodeComparator.addComparator(createNodeTypeComparator(feedbackEnabled));
+        return compoundNodeComparator;
     }
 
     /**
@@ -39,7 +50,7 @@ public class NodeComparatorFactory {
      * @return the created {@link CompoundNodeComparator}.
      */
     public static CompoundComparator<Node> createCompoundNodeComparator(FeedbackEnabledComparator<Node>... subComparators) {
-        final CompoundNodeComparator compoundNodeComparator = new CompoundNodeComparator();
+        final CompoundNodeComparator compoundNodeComparator = new CompoundNodeComparator(true);
         for (FeedbackEnabledComparator<Node> subComparator : subComparators) {
             compoundNodeComparator.addComparator(subComparator);
         }
@@ -47,71 +58,74 @@ public class NodeComparatorFactory {
     }
 
     public static FeedbackEnabledComparator<Node> createNodeTypeComparator() {
-        return new NodeTypeComparator();
+        return createNodeTypeComparator(true);
+    }
+
+    public static FeedbackEnabledComparator<Node> createNodeTypeComparator(boolean feedbackEnabled) {
+        return new NodeTypeComparator(feedbackEnabled);
     }
 
     private static class CompoundNodeComparator extends CompoundComparator<Node> {
-        private final Feedback feedback = new Feedback();
+        private final Feedback feedback;
+
+        CompoundNodeComparator(boolean feedbackEnabled) {
+            this.feedback = feedbackEnabled ? new Feedback() : Feedback.disabled();
+        }
 
         @Override
         public int compare(Node systemNode, Node patternNode) {
             final int result = super.compare(systemNode, patternNode);
             if (result == 0) {
-                final String feedbackMsg = String.format(MATCHED_WITH_MSG, patternNode.getName());
-                feedback.addFeedbackMessage(systemNode, FeedbackType.MATCH, feedbackMsg);
+                feedback.addFeedback(systemNode, FeedbackType.MATCH, FeedbackCode.MATCHED_WITH, patternNode, null);
             } else {
-                final String feedbackMsg = String.format(MATCH_FAILED_WITH_MSG, patternNode.getName());
-                feedback.addFeedbackMessage(systemNode, FeedbackType.MISMATCH, feedbackMsg);
+                feedback.addFeedback(systemNode, FeedbackType.MISMATCH, FeedbackCode.MATCH_FAILED_WITH, patternNode, null);
             }
             return result;
         }
 
         @Override
         public Feedback getFeedback() {
+            if (!feedback.isEnabled()) {
+                return feedback;
+            }
             return super.getFeedback().merge(feedback);
         }
     }
 
     private static class NodeTypeComparator implements FeedbackEnabledComparator<Node> {
-        private final Feedback feedback = new Feedback();
+        private final Feedback feedback;
+
+        NodeTypeComparator(boolean feedbackEnabled) {
+            this.feedback = feedbackEnabled ? new Feedback() : Feedback.disabled();
+        }
 
         @Override
         public Feedback getFeedback() {
             return feedback;
         }
 
+        /**
+         * Compares the {@link NodeType}s of the nodes as bitmasks. The missing node types are only looked up when
+         * feedback is gathered.
+         */
         @Override
         public int compare(Node systemNode, Node patternNode) {
-            final Set<NodeType> sysTypes = systemNode.getTypes();
-            final Set<NodeType> dpTypes = patternNode.getTypes();
-            final Set<NodeType> dpDisjunction = getLeftDisjunction(dpTypes, sysTypes);
-
-            feedback.addFeedbackMessage(systemNode, FeedbackType.INFO, NODE_TYPES_ANALYSED_MSG);
+            feedback.addFeedback(systemNode, FeedbackType.INFO, FeedbackCode.NODE_TYPES_ANALYSED, null, null);
 
-            final int result = dpDisjunction.size();
-            if (result != 0) {
-                createFeedback(systemNode, patternNode, dpDisjunction);
+            final int missingTypes = patternNode.getTypeMask() & ~systemNode.getTypeMask();
+            if (missingTypes != 0 && feedback.isEnabled()) {
+                createFeedback(systemNode, patternNode, missingTypes);
             }
-            return result;
+            return Integer.bitCount(missingTypes);
         }
 
-        private void createFeedback(Node systemNode, Node patternNode, Set<NodeType> dpDisjunction) {
-            dpDisjunction.forEach(nodeType -> {
-                final String feedbackMsg = String.format(
-                        MISMATCH_MISSING_NODE_TYPE_MSG,
-                        patternNode.getName(),
-                        nodeType,
-                        systemNode.getName());
-                feedback.addFeedbackMessage(systemNode, FeedbackType.MISMATCH, feedbackMsg);
-            });
-        }
-
-        private Set<NodeType> getLeftDisjunction(Set<NodeType> set1, Set<NodeType> set2) {
-            return set1.stream()
-                    .filter(type -> !set2.contains(type))
-                    .collect(Collectors.toSet());
+        private void createFeedback(Node systemNode, Node patternNode, int missingTypes) {
+            for (NodeType nodeType : NodeType.values()) {
+                if ((missingTypes & nodeType.mask()) != 0) {
+                    feedback.addFeedback(
+                            systemNode, FeedbackType.MISMATCH, FeedbackCode.MISSING_NODE_TYPE, patternNode, nodeType);
+                }
+            }
         }
-
-
     }
 }
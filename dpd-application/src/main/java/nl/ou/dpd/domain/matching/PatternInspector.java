@@ -7,44 +7,317 @@ import nl.ou.dpd.domain.relation.Relation;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jgrapht.GraphMapping;
-import org.jgrapht.alg.isomorphism.VF2SubgraphIsomorphismInspector;
+import org.jgrapht.alg.ConnectivityInspector;
+import org.jgrapht.alg.isomorphism.IsomorphismInspector;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Inspects a system under consideration for design patterns. Both objects (the system under control as well as the
  * design pattern) must be implemented as {@link org.jgrapht.DirectedGraph}s with {@link Node}s as vertices and
  * {@link Relation}s as edges.
+ * <p>
+ * The search itself is performed by a {@link MatchingEngine}. By default, the {@link VF2MatchingEngine} is used, and
+ * the whole system is searched sequentially. An inspector can pre-filter the system and search its components in
+ * parallel instead (see {@link #preFiltering(SystemIndex, DesignPattern, FeedbackEnabledComparator,
+ * FeedbackEnabledComparator, MatchingEngine)}).
  *
  * @author Martin de Boer
  */
-public class PatternInspector extends VF2SubgraphIsomorphismInspector<Node, Relation> {
+public class PatternInspector implements IsomorphismInspector<Node, Relation> {
 
     private static final Logger LOGGER = LogManager.getLogger(PatternInspector.class);
 
     private SystemUnderConsideration system;
     private DesignPattern designPattern;
+    private FeedbackEnabledComparator<Node> nodeComparator;
+    private FeedbackEnabledComparator<Relation> relationComparator;
+    private final MatchingEngine matchingEngine;
+    private final List<SystemIndex> searchedComponents;
+    private final boolean parallel;
+    private final PruningStatistics pruningStatistics;
 
     /**
-     * Construct a new {@link PatternInspector}.
+     * Construct a new {@link PatternInspector}, using the comparators of the {@code designPattern}.
      *
      * @param system        a system under consideration
      * @param designPattern a designPattern (possible subgraph of system)
      */
     public PatternInspector(SystemUnderConsideration system, DesignPattern designPattern) {
-        super(system, designPattern, designPattern.getNodeComparator(), designPattern.getRelationComparator());
+        this(system, designPattern, designPattern.getNodeComparator(), designPattern.getRelationComparator());
+    }
+
+    /**
+     * Construct a new {@link PatternInspector}, using the specified comparators instead of the comparators of the
+     * {@code designPattern}. Comparators gather feedback while matching, so an inspection that runs concurrently with
+     * other inspections of the same {@link DesignPattern} must have comparators of its own. The whole system is
+     * searched, sequentially.
+     *
+     * @param system             a system under consideration
+     * @param designPattern      a designPattern (possible subgraph of system)
+     * @param nodeComparator     the comparator for matching system nodes with pattern nodes
+     * @param relationComparator the comparator for matching system relations with pattern relations
+     */
+    public PatternInspector(
+            SystemUnderConsideration system,
+            DesignPattern designPattern,
+            FeedbackEnabledComparator<Node> nodeComparator,
+            FeedbackEnabledComparator<Relation> relationComparator) {
+        this(system, designPattern, nodeComparator, relationComparator, new VF2MatchingEngine());
+    }
+
+    /**
+     * Construct a new {@link PatternInspector}, using the specified comparators instead of the comparators of the
+     * {@code designPattern}, and the specified {@link MatchingEngine} to perform the search (see
+     * {@link #PatternInspector(SystemUnderConsideration, DesignPattern, FeedbackEnabledComparator,
+     * FeedbackEnabledComparator)}).
+     *
+     * @param system             a system under consideration
+     * @param designPattern      a designPattern (possible subgraph of system)
+     * @param nodeComparator     the comparator for matching system nodes with pattern nodes
+     * @param relationComparator the comparator for matching system relations with pattern relations
+     * @param matchingEngine     the {@link MatchingEngine} searching the system for the design pattern
+     */
+    public PatternInspector(
+            SystemUnderConsideration system,
+            DesignPattern designPattern,
+            FeedbackEnabledComparator<Node> nodeComparator,
+            FeedbackEnabledComparator<Relation> relationComparator,
+            MatchingEngine matchingEngine) {
+        this(SystemIndex.of(system), designPattern, nodeComparator, relationComparator, matchingEngine);
+    }
+
+    /**
+     * Construct a new {@link PatternInspector} for an indexed system, using the specified comparators and
+     * {@link MatchingEngine} (see {@link #PatternInspector(SystemUnderConsideration, DesignPattern,
+     * FeedbackEnabledComparator, FeedbackEnabledComparator)}). The {@link SystemIndex} is only read, so it can be
+     * shared by all (concurrent) inspections of the system.
+     *
+     * @param systemIndex        the index of a system under consideration
+     * @param designPattern      a designPattern (possible subgraph of system)
+     * @param nodeComparator     the comparator for matching system nodes with pattern nodes
+     * @param relationComparator the comparator for matching system relations with pattern relations
+     * @param matchingEngine     the {@link MatchingEngine} searching the system for the design pattern
+     */
+    public PatternInspector(
+            SystemIndex systemIndex,
+            DesignPattern designPattern,
+            FeedbackEnabledComparator<Node> nodeComparator,
+            FeedbackEnabledComparator<Relation> relationComparator,
+            MatchingEngine matchingEngine) {
+        this(systemIndex, designPattern, nodeComparator, relationComparator, matchingEngine, null);
+    }
+
+    /**
+     * Creates a {@link PatternInspector} for an indexed system that filters out the system nodes that cannot match any
+     * pattern node beforehand (see {@link CandidateFilter}), and searches only the remaining part of the system. The
+     * filter applies the constraints of the default comparators (see {@link NodeComparatorFactory} and
+     * {@link RelationComparatorFactory}), so this is only valid for comparators that apply (at least) these
+     * constraints. The same solutions are found, but not necessarily in the same order. Comparators that gather
+     * feedback only report on the remaining system nodes.
+     * <p>
+     * An instance of a (weakly) connected design pattern lies within one weakly connected component of the system.
+     * Therefore, the remaining part of the system is split into its components, the components that are smaller than
+     * the design pattern are skipped, and the other components are searched separately, and concurrently. The search
+     * of a component is split as well (see
+     * {@link MatchingEngine#getMappingSpliterator(SystemIndex, DesignPattern, Comparator, Comparator)}), so idle
+     * threads can take over unexplored parts of it. The comparators must therefore be thread-safe (as the default
+     * comparators are). The solutions are found in the same order, however the search is split.
+     *
+     * @param systemIndex        the index of a system under consideration
+     * @param designPattern      a designPattern (possible subgraph of system)
+     * @param nodeComparator     the comparator for matching system nodes with pattern nodes
+     * @param relationComparator the comparator for matching system relations with pattern relations
+     * @param matchingEngine     the {@link MatchingEngine} searching the system for the design pattern
+     * @return the created {@link PatternInspector}
+     */
+    public static PatternInspector preFiltering(
+            SystemIndex systemIndex,
+            DesignPattern designPattern,
+            FeedbackEnabledComparator<Node> nodeComparator,
+            FeedbackEnabledComparator<Relation> relationComparator,
+            MatchingEngine matchingEngine) {
+        return new PatternInspector(systemIndex, designPattern, nodeComparator, relationComparator, matchingEngine,
+                CandidateFilter.filter(systemIndex, designPattern));
+    }
+
+    private PatternInspector(
+            SystemIndex systemIndex,
+            DesignPattern designPattern,
+            FeedbackEnabledComparator<Node> nodeComparator,
+            FeedbackEnabledComparator<Relation> relationComparator,
+            MatchingEngine matchingEngine,
+            CandidateFilter candidateFilter) {
+        this.system = systemIndex.getSystem();
         LOGGER.info(String.format("Analysing system design '%s' for design pattern '%s'.",
                 system.getName(),
                 designPattern.getName()));
-        this.system = system;
         this.designPattern = designPattern;
+        this.nodeComparator = nodeComparator;
+        this.relationComparator = relationComparator;
+        // The components are searched for the same design pattern, so the engine analyses it only once
+        this.matchingEngine = matchingEngine.prepare(designPattern);
+        this.parallel = candidateFilter != null;
+        if (candidateFilter == null) {
+            this.searchedComponents = Collections.singletonList(systemIndex);
+            this.pruningStatistics = PruningStatistics.notApplied(system.vertexSet().size());
+        } else if (candidateFilter.hasUnmatchablePatternNode()
+                || !new ConnectivityInspector<>(designPattern).isGraphConnected()) {
+            this.searchedComponents = Collections.singletonList(candidateFilter.getSearchedIndex());
+            this.pruningStatistics = candidateFilter.getStatistics();
+        } else {
+            final List<SystemIndex> components = candidateFilter.getSearchedIndex().getComponents();
+            this.searchedComponents = components.stream()
+                    .filter(this::canContainDesignPattern)
+                    .collect(Collectors.toList());
+            this.pruningStatistics = candidateFilter.getStatistics()
+                    .withComponents(components.size(), searchedComponents.size());
+        }
+        if (candidateFilter != null) {
+            LOGGER.info(String.format("Pre-filtered system design '%s' for design pattern '%s': %s",
+                    system.getName(),
+                    designPattern.getName(),
+                    pruningStatistics));
+        }
+    }
+
+    private boolean canContainDesignPattern(SystemIndex component) {
+        return component.getSearchedNodeCount() >= designPattern.vertexSet().size()
+                && component.getSearchedRelationCount() >= designPattern.edgeSet().size();
+    }
+
+    /**
+     * Searches the (pre-filtered part of the) system for the design pattern, using the {@link MatchingEngine} of this
+     * inspector. The components of the system are searched one after the other. Every call performs a new search.
+     *
+     * @return an {@link Iterator} over the mappings of system elements to pattern elements
+     */
+    @Override
+    public Iterator<GraphMapping<Node, Relation>> getMappings() {
+        return getMappings(nodeComparator);
+    }
+
+    private Iterator<GraphMapping<Node, Relation>> getMappings(Comparator<Node> searchNodeComparator) {
+        if (searchedComponents.size() == 1) {
+            return getMappings(searchedComponents.get(0), searchNodeComparator);
+        }
+        final Iterator<SystemIndex> components = searchedComponents.iterator();
+        return new Iterator<GraphMapping<Node, Relation>>() {
+            private Iterator<GraphMapping<Node, Relation>> mappings = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!mappings.hasNext() && components.hasNext()) {
+                    mappings = getMappings(components.next(), searchNodeComparator);
+                }
+                return mappings.hasNext();
+            }
+
+            @Override
+            public GraphMapping<Node, Relation> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return mappings.next();
+            }
+        };
+    }
+
+    private Iterator<GraphMapping<Node, Relation>> getMappings(
+            SystemIndex component,
+            Comparator<Node> searchNodeComparator) {
+        return matchingEngine.getMappings(component, designPattern, searchNodeComparator, relationComparator);
+    }
+
+    @Override
+    public boolean isomorphismExists() {
+        return getMappings().hasNext();
     }
 
     public MatchingResult getMatchingResult() {
-        return new MatchingResult(getSolutions(), getFeedback());
+        return getMatchingResult(SearchLimit.none());
+    }
+
+    /**
+     * Inspects the system under consideration, within the specified {@link SearchLimit}.
+     *
+     * @param limit the limits of the search
+     * @return the {@link MatchingResult} of the inspection
+     */
+    public MatchingResult getMatchingResult(SearchLimit limit) {
+        return getMatchingResult(limit, solution -> {
+        });
+    }
+
+    /**
+     * Inspects the system under consideration, passing every {@link Solution} to the specified {@code solutionListener}
+     * as soon as it is found. The listener may stop the search by throwing an exception. When the components of the
+     * system are searched concurrently, the listener is called from several threads, but never concurrently.
+     *
+     * @param solutionListener is called for every {@link Solution} found
+     * @return the {@link MatchingResult} of the inspection
+     */
+    public MatchingResult getMatchingResult(Consumer<Solution> solutionListener) {
+        return getMatchingResult(SearchLimit.none(), solutionListener);
+    }
+
+    /**
+     * Inspects the system under consideration within the specified {@link SearchLimit}, passing every {@link Solution}
+     * to the specified {@code solutionListener} as soon as it is found (see {@link #getMatchingResult(Consumer)}).
+     * When the instances of the design pattern are only counted, no {@link Solution}s are built, and the listener is
+     * not called.
+     *
+     * @param limit            the limits of the search
+     * @param solutionListener is called for every {@link Solution} found
+     * @return the {@link MatchingResult} of the inspection, flagged as truncated when the search was stopped before it
+     * was complete
+     */
+    public MatchingResult getMatchingResult(SearchLimit limit, Consumer<Solution> solutionListener) {
+        if (pruningStatistics.isSearchSkipped()) {
+            LOGGER.info(String.format("Skipped the search for pattern '%s': a pattern node has no candidates.",
+                    designPattern.getName()));
+            return new MatchingResult(new ArrayList<>(), 0, false, getFeedback(), pruningStatistics);
+        }
+        final SearchBudget budget = new SearchBudget(limit);
+        Stream<GraphMapping<Node, Relation>> mappings = streamMappings(budget.limit(nodeComparator));
+        final long maxSolutions = limit.getMaxSolutions();
+        if (limit.hasMaxSolutions()) {
+            // One more mapping is requested, to tell whether the search was stopped by the maximum number of solutions
+            mappings = mappings.limit(maxSolutions + 1);
+        }
+        final List<Solution> solutions;
+        final long mappingCount;
+        if (limit.isCountOnly()) {
+            solutions = new ArrayList<>();
+            mappingCount = mappings.count();
+        } else if (limit.hasMaxSolutions()) {
+            final Iterator<GraphMapping<Node, Relation>> remainingMappings = mappings.iterator();
+            solutions = getSolutions(remainingMappings, maxSolutions, solutionListener);
+            mappingCount = solutions.size() + (remainingMappings.hasNext() ? 1 : 0);
+        } else {
+            solutions = getSolutions(mappings, solutionListener);
+            mappingCount = solutions.size();
+        }
+        final long solutionCount = Math.min(mappingCount, maxSolutions);
+        final boolean truncated = budget.isExhausted() || mappingCount > maxSolutions;
+        LOGGER.info(String.format("Found %d solutions for pattern '%s' (before filtering out duplicates)%s.",
+                solutionCount,
+                designPattern.getName(),
+                truncated ? ", search stopped at its limit" : ""));
+        return new MatchingResult(solutions, solutionCount, truncated, getFeedback(), pruningStatistics);
     }
 
     /**
@@ -53,62 +326,198 @@ public class PatternInspector extends VF2SubgraphIsomorphismInspector<Node, Rela
      *
      * @return the resulting {@link Feedback} object containing all the feedback messages from the comparators, or
      * a message "not analysed" and {@link FeedbackType#NOT_ANALYSED} when no feedback has been generated by the
-     * comparators.
+     * comparators. A disabled {@link Feedback} is returned when both comparators do not gather feedback.
      */
     private Feedback getFeedback() {
+        final Feedback nodeFeedback = nodeComparator.getFeedback();
+        final Feedback relationFeedback = relationComparator.getFeedback();
+        if (!nodeFeedback.isEnabled() && !relationFeedback.isEnabled()) {
+            return Feedback.disabled();
+        }
         return new Feedback(this.system)
                 .addNotes(designPattern.getNotes())
-                .merge(designPattern.getNodeComparator().getFeedback())
-                .merge(designPattern.getRelationComparator().getFeedback());
+                .merge(nodeFeedback)
+                .merge(relationFeedback);
     }
 
     /**
-     * Gathers the solutions, one for every instance of a detected design pattern.
+     * Returns a {@link Stream} that walks the mappings of the matching engine exactly once, because every enumeration
+     * performs the complete (and expensive) search. When the inspector pre-filters the system, the stream is
+     * parallel: the components are searched in parallel, and the search of every component is split over several
+     * threads. The stream is ordered, so the mappings are encountered in the order in which a sequential search finds
+     * them.
      *
+     * @param searchNodeComparator the node comparator to search with
+     * @return an ordered {@link Stream} of mappings of system elements to pattern elements
+     */
+    private Stream<GraphMapping<Node, Relation>> streamMappings(Comparator<Node> searchNodeComparator) {
+        if (parallel) {
+            return StreamSupport.stream(new ComponentSpliterator(searchedComponents, searchNodeComparator), true);
+        }
+        final Spliterator<GraphMapping<Node, Relation>> mappings = Spliterators.spliteratorUnknownSize(
+                getMappings(searchNodeComparator),
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(mappings, false);
+    }
+
+    /**
+     * Gathers the solutions, one for every mapping. The mappings are converted into {@link Solution}s lazily, as the
+     * stream is consumed.
+     *
+     * @param mappings         the mappings of system elements to pattern elements
+     * @param solutionListener is called for every {@link Solution} found
      * @return a {@link List} of {@link Solution} objects, one for every design pattern instance that was detected.
      */
-    private List<Solution> getSolutions() {
-        LOGGER.info(String.format("Found %d solutions for pattern '%s' (before filtering out duplicates).",
-                asList(getMappings()).size(),
-                designPattern.getName()));
-        return asList(getMappings())
-                .stream()
-                .map(graphMapping -> getSolutionFromGraphMapping(graphMapping))
+    private List<Solution> getSolutions(
+            Stream<GraphMapping<Node, Relation>> mappings,
+            Consumer<Solution> solutionListener) {
+        return mappings
+                .map(this::getSolutionFromGraphMapping)
+                .peek(parallel ? synchronize(solutionListener) : solutionListener)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Gathers the solutions of at most {@code maxSolutions} mappings, converting them as they are taken from the
+     * {@link Iterator}. The remaining mappings are left in the iterator.
+     *
+     * @param mappings         the mappings of system elements to pattern elements
+     * @param maxSolutions     the maximum number of solutions to gather
+     * @param solutionListener is called for every {@link Solution} gathered
+     * @return a {@link List} of at most {@code maxSolutions} {@link Solution} objects
+     */
+    private List<Solution> getSolutions(
+            Iterator<GraphMapping<Node, Relation>> mappings,
+            long maxSolutions,
+            Consumer<Solution> solutionListener) {
+        final List<Solution> solutions = new ArrayList<>();
+        while (solutions.size() < maxSolutions && mappings.hasNext()) {
+            final Solution solution = getSolutionFromGraphMapping(mappings.next());
+            solutionListener.accept(solution);
+            solutions.add(solution);
+        }
+        return solutions;
+    }
+
+    private static Consumer<Solution> synchronize(Consumer<Solution> solutionListener) {
+        final Object lock = new Object();
+        return solution -> {
+            synchronized (lock) {
+                solutionListener.accept(solution);
+            }
+        };
+    }
+
+    /**
+     * Builds a {@link Solution} from a {@link GraphMapping} by walking the relations of the design pattern and looking
+     * up the corresponding system nodes and relations. The cost therefore depends on the size of the design pattern,
+     * not on the size of the system under consideration.
+     * <p>
+     * The matching engine finds induced subgraphs, so every system relation between two different matched system
+     * nodes corresponds to a pattern relation. Self-referencing relations are not checked by the engine, and are
+     * therefore looked up separately for every matched system node.
+     *
+     * @param mapping the mapping of system elements to pattern elements
+     * @return the {@link Solution} representing the mapping
+     */
     private Solution getSolutionFromGraphMapping(GraphMapping<Node, Relation> mapping) {
         final Solution solution = new Solution(designPattern.getName(), designPattern.getFamily());
-        for (Relation relation : system.edgeSet()) {
-            final Node edgeSource = system.getEdgeSource(relation);
-            final Node edgeTarget = system.getEdgeTarget(relation);
-            final boolean isSourceAdded = addMatchingNodesToSolution(solution, edgeSource, mapping);
-            final boolean isTargetAdded = addMatchingNodesToSolution(solution, edgeTarget, mapping);
-            if (isSourceAdded && isTargetAdded) {
-                addMatchingRelationsToSolution(solution, relation, mapping);
+        for (Relation patternRelation : designPattern.edgeSet()) {
+            final Node patternSource = designPattern.getEdgeSource(patternRelation);
+            final Node patternTarget = designPattern.getEdgeTarget(patternRelation);
+            final Node systemSource = mapping.getVertexCorrespondence(patternSource, false);
+            final Node systemTarget = mapping.getVertexCorrespondence(patternTarget, false);
+            solution.addMatchingNodes(systemSource, patternSource);
+            solution.addMatchingNodes(systemTarget, patternTarget);
+            if (!patternSource.equals(patternTarget)) {
+                solution.addMatchingRelations(system.getEdge(systemSource, systemTarget), patternRelation);
             }
         }
+        for (Node[] nodes : solution.getMatchingNodes()) {
+            addSelfReferencingRelationToSolution(solution, nodes[0], nodes[1]);
+        }
         return solution;
     }
 
-    private void addMatchingRelationsToSolution(Solution solution, Relation systemRelation, GraphMapping<Node, Relation> mapping) {
-        final Relation patternRelation = mapping.getEdgeCorrespondence(systemRelation, true);
-        solution.addMatchingRelations(systemRelation, patternRelation);
+    private void addSelfReferencingRelationToSolution(Solution solution, Node systemNode, Node patternNode) {
+        final Relation systemRelation = system.getEdge(systemNode, systemNode);
+        if (systemRelation != null) {
+            solution.addMatchingRelations(systemRelation, designPattern.getEdge(patternNode, patternNode));
+        }
     }
 
-    private boolean addMatchingNodesToSolution(Solution solution, Node systemNode, GraphMapping<Node, Relation> mapping) {
-        final Node patternNode = mapping.getVertexCorrespondence(systemNode, true);
-        if (patternNode != null) {
-            solution.addMatchingNodes(systemNode, patternNode);
-            return true;
+    /**
+     * A {@link Spliterator} over the mappings found in a list of components of the system. It splits off the first
+     * half of the components that are yet to be searched, and when only one component is left, it splits the search of
+     * that component (see {@link MatchingEngine#getMappingSpliterator(SystemIndex, DesignPattern, Comparator,
+     * Comparator)}). The components are searched in order, and the search of a component is only started when the first
+     * of its mappings is needed.
+     */
+    private final class ComponentSpliterator implements Spliterator<GraphMapping<Node, Relation>> {
+
+        private final List<SystemIndex> components;
+        private final Comparator<Node> searchNodeComparator;
+        private int position;
+        private Spliterator<GraphMapping<Node, Relation>> mappings;
+
+        private ComponentSpliterator(List<SystemIndex> components, Comparator<Node> searchNodeComparator) {
+            this.components = components;
+            this.searchNodeComparator = searchNodeComparator;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super GraphMapping<Node, Relation>> action) {
+            while (true) {
+                if (mappings != null) {
+                    if (mappings.tryAdvance(action)) {
+                        return true;
+                    }
+                    mappings = null;
+                }
+                if (position == components.size()) {
+                    return false;
+                }
+                mappings = startSearch();
+            }
+        }
+
+        @Override
+        public Spliterator<GraphMapping<Node, Relation>> trySplit() {
+            final int remaining = components.size() - position;
+            if (mappings == null && remaining > 1) {
+                final int middle = position + remaining / 2;
+                final Spliterator<GraphMapping<Node, Relation>> prefix =
+                        new ComponentSpliterator(components.subList(position, middle), searchNodeComparator);
+                position = middle;
+                return prefix;
+            }
+            if (mappings == null && remaining == 1) {
+                mappings = startSearch();
+            }
+            return mappings != null && position == components.size() ? mappings.trySplit() : null;
+        }
+
+        private Spliterator<GraphMapping<Node, Relation>> startSearch() {
+            return matchingEngine.getMappingSpliterator(
+                    components.get(position++),
+                    designPattern,
+                    searchNodeComparator,
+                    relationComparator);
+        }
+
+        @Override
+        public long estimateSize() {
+            long size = mappings == null ? 0 : mappings.estimateSize();
+            for (SystemIndex component : components.subList(position, components.size())) {
+                size += component.getSearchedNodeCount();
+            }
+            return size;
         }
-        return false;
-    }
 
-    private List<GraphMapping<Node, Relation>> asList(Iterator<GraphMapping<Node, Relation>> iter) {
-        List<GraphMapping<Node, Relation>> graphMappings = new ArrayList<>();
-        iter.forEachRemaining(graphMapping -> graphMappings.add(graphMapping));
-        return graphMappings;
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
     }
 
     /**
@@ -116,11 +525,45 @@ public class PatternInspector extends VF2SubgraphIsomorphismInspector<Node, Rela
      */
     public class MatchingResult implements FeedbackEnabled {
         private final List<Solution> solutions;
+        private final long solutionCount;
+        private final boolean truncated;
         private final Feedback feedback;
+        private final PruningStatistics pruningStatistics;
+        private List<Solution> uniqueSolutions;
 
-        private MatchingResult(List<Solution> solutions, Feedback feedback) {
+        private MatchingResult(
+                List<Solution> solutions,
+                long solutionCount,
+                boolean truncated,
+                Feedback feedback,
+                PruningStatistics pruningStatistics) {
             this.solutions = solutions;
+            this.solutionCount = solutionCount;
+            this.truncated = truncated;
             this.feedback = feedback;
+            this.pruningStatistics = pruningStatistics;
+        }
+
+        /**
+         * Returns the number of design pattern instances that were found, including similar ones. When the instances
+         * were only counted (see {@link SearchLimit#isCountOnly()}), there are no {@link Solution}s, but there is a
+         * count.
+         *
+         * @return the number of instances found
+         */
+        public long getSolutionCount() {
+            return solutionCount;
+        }
+
+        /**
+         * Determines whether the search was stopped before it was complete, because it found the maximum number of
+         * instances, or because its budget was exhausted (see {@link SearchLimit}). The solutions of a truncated
+         * result are the instances found so far.
+         *
+         * @return {@code true} if the search was stopped before it was complete, or {@code false} otherwise.
+         */
+        public boolean isTruncated() {
+            return truncated;
         }
 
         public List<Solution> getSolutions() {
@@ -131,25 +574,39 @@ public class PatternInspector extends VF2SubgraphIsomorphismInspector<Node, Rela
             if (allowSimilarSolutions) {
                 return solutions;
             }
-            // Filter out similar solutions
-            List<Solution> result = new ArrayList<>();
-            solutions.forEach(solution -> {
-                if (!containsSimilarSolution(result, solution)) {
-                    result.add(solution);
-                }
-            });
-            LOGGER.info(String.format("Found %d solutions for pattern '%s' (after filtering out duplicates).",
-                    result.size(),
-                    designPattern.getName()));
-            return result;
+            if (uniqueSolutions == null) {
+                uniqueSolutions = filterSimilarSolutions();
+                LOGGER.info(String.format("Found %d solutions for pattern '%s' (after filtering out duplicates).",
+                        uniqueSolutions.size(),
+                        designPattern.getName()));
+            }
+            return uniqueSolutions;
         }
 
-        private boolean containsSimilarSolution(List<Solution> list, Solution solution) {
-            return list.stream().anyMatch(sol -> sol.isSimilar(solution));
+        /**
+         * Filters out similar solutions in a single pass, keeping the first of every group of similar solutions.
+         *
+         * @return the solutions without similar solutions
+         * @see Solution#isSimilar(Solution)
+         */
+        private List<Solution> filterSimilarSolutions() {
+            final Set<List<Object>> similarityKeys = new HashSet<>();
+            return solutions.stream()
+                    .filter(solution -> similarityKeys.add(solution.getSimilarityKey()))
+                    .collect(Collectors.toList());
         }
 
         public Feedback getFeedback() {
             return feedback;
         }
+
+        /**
+         * Returns the statistics of the candidate pre-filtering that preceded the search.
+         *
+         * @return the {@link PruningStatistics} of the search
+         */
+        public PruningStatistics getPruningStatistics() {
+            return pruningStatistics;
+        }
     }
 }
@@ -0,0 +1,196 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.relation.Relation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static nl.ou.dpd.domain.matching.IndexedGraph.NO_NODE;
+
+/**
+ * The symmetries of a design pattern: its interchangeable roles, like the leaves of a Composite that have the same node
+ * types and the same relations. An automorphism of the pattern maps every pattern node onto a pattern node with the
+ * same node types, and every pattern relation onto a pattern relation with the same relation properties (the relation
+ * types and their cardinalities). Every instance of a pattern with automorphisms is found once for every automorphism,
+ * as mappings that only differ in the roles that are interchanged.
+ * <p>
+ * The symmetries are broken by ordering conditions on the numbers of the system nodes that are matched with the
+ * pattern nodes (as described by Grochow and Kellis): for every pattern node (in order), the pattern nodes it can be
+ * interchanged with, while keeping the preceding pattern nodes in place, must be matched with system nodes that have a
+ * larger number. Exactly one mapping of every instance satisfies all conditions.
+ * <p>
+ * The conditions are only valid for comparators that compare the node types and relation properties of the pattern,
+ * and nothing else (as the default comparators do).
+ *
+ * @author Martin de Boer
+ */
+final class PatternSymmetry {
+
+    private static final int[] NO_NODES = new int[0];
+
+    private final IndexedGraph pattern;
+    private final int patternNodeCount;
+
+    // Per pattern node: the pattern nodes that must be matched with a system node with a smaller, or a larger, number
+    private final int[][] smallerNodes;
+    private final int[][] largerNodes;
+    private final int conditionCount;
+
+    private PatternSymmetry(IndexedGraph pattern) {
+        this.pattern = pattern;
+        this.patternNodeCount = pattern.getNodeCount();
+        final List<List<Integer>> smaller = createLists(patternNodeCount);
+        final List<List<Integer>> larger = createLists(patternNodeCount);
+        int count = 0;
+        final int[] fixed = new int[patternNodeCount];
+        Arrays.fill(fixed, NO_NODE);
+        for (int node = 0; node < patternNodeCount; node++) {
+            for (int other = node + 1; other < patternNodeCount; other++) {
+                if (isInterchangeable(fixed, node, other)) {
+                    larger.get(node).add(other);
+                    smaller.get(other).add(node);
+                    count++;
+                }
+            }
+            // Only the automorphisms that keep this node in place are left to be broken
+            fixed[node] = node;
+        }
+        this.smallerNodes = toArrays(smaller);
+        this.largerNodes = toArrays(larger);
+        this.conditionCount = count;
+    }
+
+    /**
+     * Determines the symmetries of the (indexed) design pattern, and the conditions that break them.
+     *
+     * @param pattern the indexed design pattern
+     * @return the {@link PatternSymmetry} of the design pattern
+     */
+    static PatternSymmetry of(IndexedGraph pattern) {
+        return new PatternSymmetry(pattern);
+    }
+
+    /**
+     * Returns the number of ordering conditions: the number of pairs of pattern nodes that are matched in order.
+     *
+     * @return the number of conditions, or 0 if the design pattern has no symmetries
+     */
+    int getConditionCount() {
+        return conditionCount;
+    }
+
+    /**
+     * Determines whether matching the {@code systemNode} with the {@code patternNode} satisfies the ordering conditions,
+     * with respect to the pattern nodes that are matched already.
+     *
+     * @param systemNode  the number of the system node
+     * @param patternNode the number of the pattern node
+     * @param patternCore the matched system node per pattern node, or {@link IndexedGraph#NO_NODE}
+     * @return {@code true} if the conditions are satisfied, or {@code false} otherwise.
+     */
+    boolean allows(int systemNode, int patternNode, int[] patternCore) {
+        for (int smallerNode : smallerNodes[patternNode]) {
+            final int matched = patternCore[smallerNode];
+            if (matched != NO_NODE && matched > systemNode) {
+                return false;
+            }
+        }
+        for (int largerNode : largerNodes[patternNode]) {
+            final int matched = patternCore[largerNode];
+            if (matched != NO_NODE && matched < systemNode) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determines whether there is an automorphism of the pattern that maps {@code node} onto {@code other}, and keeps
+     * the {@code fixed} nodes in place.
+     */
+    private boolean isInterchangeable(int[] fixed, int node, int other) {
+        final int[] image = fixed.clone();
+        final boolean[] used = new boolean[patternNodeCount];
+        for (int fixedNode : fixed) {
+            if (fixedNode != NO_NODE) {
+                used[fixedNode] = true;
+            }
+        }
+        if (!isConsistent(image, node, other)) {
+            return false;
+        }
+        image[node] = other;
+        used[other] = true;
+        return extend(image, used, 0);
+    }
+
+    /**
+     * Extends the (partial) automorphism {@code image} to the pattern nodes from {@code node} onwards, by backtracking.
+     */
+    private boolean extend(int[] image, boolean[] used, int node) {
+        if (node == patternNodeCount) {
+            return true;
+        }
+        if (image[node] != NO_NODE) {
+            return extend(image, used, node + 1);
+        }
+        for (int candidate = 0; candidate < patternNodeCount; candidate++) {
+            if (!used[candidate] && isConsistent(image, node, candidate)) {
+                image[node] = candidate;
+                used[candidate] = true;
+                if (extend(image, used, node + 1)) {
+                    return true;
+                }
+                image[node] = NO_NODE;
+                used[candidate] = false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines whether {@code node} can be mapped onto {@code candidate}, given the nodes that are mapped already: the
+     * nodes must have the same node types, and their relations (including self-referencing ones) must have the same
+     * properties.
+     */
+    private boolean isConsistent(int[] image, int node, int candidate) {
+        if (pattern.getNode(node).getTypeMask() != pattern.getNode(candidate).getTypeMask()
+                || !haveSameProperties(pattern.getRelation(node, node), pattern.getRelation(candidate, candidate))) {
+            return false;
+        }
+        for (int mapped = 0; mapped < patternNodeCount; mapped++) {
+            final int mappedImage = image[mapped];
+            if (mappedImage != NO_NODE && mapped != node
+                    && (!haveSameProperties(pattern.getRelation(node, mapped), pattern.getRelation(candidate, mappedImage))
+                    || !haveSameProperties(pattern.getRelation(mapped, node), pattern.getRelation(mappedImage, candidate)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean haveSameProperties(Relation relation, Relation other) {
+        if (relation == null || other == null) {
+            return relation == other;
+        }
+        return relation.getRelationProperties().equals(other.getRelationProperties());
+    }
+
+    private static List<List<Integer>> createLists(int count) {
+        final List<List<Integer>> lists = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lists.add(new ArrayList<>());
+        }
+        return lists;
+    }
+
+    private static int[][] toArrays(List<List<Integer>> lists) {
+        final int[][] arrays = new int[lists.size()][];
+        for (int i = 0; i < arrays.length; i++) {
+            final List<Integer> list = lists.get(i);
+            arrays[i] = list.isEmpty() ? NO_NODES : list.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return arrays;
+    }
+}
@@ -0,0 +1,178 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.node.Node;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The statistics of the candidate pre-filtering that precedes the search for a design pattern in a system under
+ * consideration (see {@link CandidateFilter}): how many system nodes were left to search, how many iterations it took
+ * to narrow down the candidates, and how many candidates every pattern node has.
+ * <p>
+ * The pre-filtering is only applied by inspectors that opt in to it (see {@link PatternInspector#preFiltering}),
+ * because it assumes the constraints of the default comparators. {@link #isApplied()} tells whether the search was pre-filtered.
+ * <p>
+ * A pre-filtered search for a connected design pattern is partitioned into the weakly connected components of the
+ * searched part of the system (see {@link #isPartitioned()}). The components that are smaller than the design pattern
+ * are not searched.
+ *
+ * @author Martin de Boer
+ */
+public final class PruningStatistics {
+
+    private final boolean applied;
+    private final int systemNodeCount;
+    private final int searchedNodeCount;
+    private final int iterations;
+    private final Map<Node, Integer> candidateCounts;
+    private final int componentCount;
+    private final int searchedComponentCount;
+
+    /**
+     * Creates the {@link PruningStatistics} of a search that was pre-filtered.
+     *
+     * @param systemNodeCount   the number of nodes in the system under consideration
+     * @param searchedNodeCount the number of system nodes that are searched
+     * @param iterations        the number of iterations needed to narrow down the candidates
+     * @param candidateCounts   the number of candidates per pattern node
+     */
+    PruningStatistics(int systemNodeCount, int searchedNodeCount, int iterations, Map<Node, Integer> candidateCounts) {
+        this(true, systemNodeCount, searchedNodeCount, iterations, candidateCounts, 0, 0);
+    }
+
+    private PruningStatistics(
+            boolean applied,
+            int systemNodeCount,
+            int searchedNodeCount,
+            int iterations,
+            Map<Node, Integer> candidateCounts,
+            int componentCount,
+            int searchedComponentCount) {
+        this.applied = applied;
+        this.systemNodeCount = systemNodeCount;
+        this.searchedNodeCount = searchedNodeCount;
+        this.iterations = iterations;
+        this.candidateCounts = Collections.unmodifiableMap(new LinkedHashMap<>(candidateCounts));
+        this.componentCount = componentCount;
+        this.searchedComponentCount = searchedComponentCount;
+    }
+
+    /**
+     * Creates the {@link PruningStatistics} of a search that was not pre-filtered: all system nodes are searched.
+     *
+     * @param systemNodeCount the number of nodes in the system under consideration
+     * @return the created {@link PruningStatistics}
+     */
+    static PruningStatistics notApplied(int systemNodeCount) {
+        return new PruningStatistics(false, systemNodeCount, systemNodeCount, 0, Collections.emptyMap(), 0, 0);
+    }
+
+    /**
+     * Creates a copy of these {@link PruningStatistics} for a search that was partitioned into components.
+     *
+     * @param componentCount         the number of weakly connected components of the searched part of the system
+     * @param searchedComponentCount the number of components that are not smaller than the design pattern
+     * @return the created {@link PruningStatistics}
+     */
+    PruningStatistics withComponents(int componentCount, int searchedComponentCount) {
+        return new PruningStatistics(applied, systemNodeCount, searchedNodeCount, iterations, candidateCounts,
+                componentCount, searchedComponentCount);
+    }
+
+    /**
+     * Determines whether the search was pre-filtered.
+     *
+     * @return {@code true} if the search was pre-filtered, or {@code false} if all system nodes were searched.
+     */
+    public boolean isApplied() {
+        return applied;
+    }
+
+    public int getSystemNodeCount() {
+        return systemNodeCount;
+    }
+
+    /**
+     * Returns the number of system nodes that are searched. These are the system nodes that are a candidate for at
+     * least one pattern node, and the neighbours of the candidates of self-referencing pattern nodes.
+     *
+     * @return the number of searched system nodes
+     */
+    public int getSearchedNodeCount() {
+        return searchedNodeCount;
+    }
+
+    public int getPrunedNodeCount() {
+        return systemNodeCount - searchedNodeCount;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Returns the number of candidates per pattern node. When the pre-filtering found a pattern node without
+     * candidates, it stopped immediately, so the pattern nodes after that one are missing.
+     *
+     * @return an unmodifiable {@link Map} with the number of candidates per pattern node
+     */
+    public Map<Node, Integer> getCandidateCounts() {
+        return candidateCounts;
+    }
+
+    /**
+     * Determines whether the search was skipped, because a pattern node has no candidates in the system.
+     *
+     * @return {@code true} if the search was skipped, or {@code false} otherwise.
+     */
+    public boolean isSearchSkipped() {
+        return candidateCounts.containsValue(0);
+    }
+
+    /**
+     * Determines whether the search was partitioned into the weakly connected components of the searched part of the
+     * system.
+     *
+     * @return {@code true} if the components were searched separately, or {@code false} otherwise.
+     */
+    public boolean isPartitioned() {
+        return componentCount > 0;
+    }
+
+    /**
+     * Returns the number of weakly connected components of the searched part of the system.
+     *
+     * @return the number of components, or 0 if the search was not partitioned
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Returns the number of components that were searched: the components that are not smaller than the design
+     * pattern.
+     *
+     * @return the number of searched components, or 0 if the search was not partitioned
+     */
+    public int getSearchedComponentCount() {
+        return searchedComponentCount;
+    }
+
+    @Override
+    public String toString() {
+        if (!applied) {
+            return String.format("Searched all %d system nodes (no pre-filtering).", systemNodeCount);
+        }
+        return String.format("Searched %d of %d system nodes (pruned %d in %d iterations)%s%s.",
+                searchedNodeCount,
+                systemNodeCount,
+                getPrunedNodeCount(),
+                iterations,
+                isPartitioned()
+                        ? String.format(", %d of %d components", searchedComponentCount, componentCount)
+                        : "",
+                isSearchSkipped() ? ", search skipped" : "");
+    }
+}
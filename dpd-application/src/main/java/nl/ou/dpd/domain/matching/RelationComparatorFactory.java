@@ -5,9 +5,6 @@ import nl.ou.dpd.domain.relation.Relation;
 import nl.ou.dpd.domain.relation.RelationProperty;
 import nl.ou.dpd.domain.relation.RelationType;
 
-import java.util.Set;
-import java.util.stream.Collectors;
-
 /**
  * A factory for {@link FeedbackEnabledComparator}s used for matching {@link Relation}s of system designs with design
  * patterns.
@@ -34,7 +31,21 @@ public class RelationComparatorFactory {
      * @return the created {@link CompoundRelationComparator}.
      */
     public static CompoundComparator<Relation> createCompoundRelationComparator() {
-        return createCompoundRelationComparator(createRelationComparator());
+        return createCompoundRelationComparator(true);
+    }
+
+    /**
+     * Creates a {@link CompoundRelationComparator} containing all the available sub comparators for {@link Relation}s,
+     * that gather feedback or not.
+     *
+     * @param feedbackEnabled {@code true} to gather feedback, or {@code false} for comparators that only compare (for
+     *                        analyses that are only interested in the solutions)
+     * @return the created {@link CompoundRelationComparator}.
+     */
+    public static CompoundComparator<Relation> createCompoundRelationComparator(boolean feedbackEnabled) {
+        final CompoundRelationComparator compoundRelationComparator = new CompoundRelationComparator(feedbackEnabled);
+        compoundRelationComparator.addComparator(createRelationComparator(feedbackEnabled));
+        return compoundRelationComparator;
     }
 
     /**
@@ -44,7 +55,7 @@ public class RelationComparatorFactory {
      * @return the created {@link CompoundRelationComparator}.
      */
     public static CompoundComparator<Relation> createCompoundRelationComparator(FeedbackEnabledComparator<Relation>... subComparators) {
-        final CompoundRelationComparator compoundRelationComparator = new CompoundRelationComparator();
+        final CompoundRelationComparator compoundRelationComparator = new CompoundRelationComparator(true);
         for (FeedbackEnabledComparator<Relation> subComparator : subComparators) {
             compoundRelationComparator.addComparator(subComparator);
         }
@@ -57,34 +68,53 @@ public class RelationComparatorFactory {
      * @return the created {@link FeedbackEnabledComparator}
      */
     public static FeedbackEnabledComparator<Relation> createRelationComparator() {
-        return new RelationComparator();
+        return createRelationComparator(true);
+    }
+
+    /**
+     * Creates a {@link FeedbackEnabledComparator} for {@link Relation}s, that gathers feedback or not.
+     *
+     * @param feedbackEnabled {@code true} to gather feedback, or {@code false} for a comparator that only compares
+     * @return the created {@link FeedbackEnabledComparator}
+     */
+    public static FeedbackEnabledComparator<Relation> createRelationComparator(boolean feedbackEnabled) {
+        return new RelationComparator(feedbackEnabled);
     }
 
     private static class CompoundRelationComparator extends CompoundComparator<Relation> {
-        private final Feedback feedback = new Feedback();
+        private final Feedback feedback;
+
+        CompoundRelationComparator(boolean feedbackEnabled) {
+            this.feedback = feedbackEnabled ? new Feedback() : Feedback.disabled();
+        }
 
         @Override
         public int compare(Relation systemRelation, Relation patternRelation) {
             final int result = super.compare(systemRelation, patternRelation);
             if (result == 0) {
-                final String feedbackMsg = String.format(MATCHED_WITH_MSG, patternRelation.getName());
-                feedback.addFeedbackMessage(systemRelation, FeedbackType.MATCH, feedbackMsg);
+                feedback.addFeedback(systemRelation, FeedbackType.MATCH, FeedbackCode.MATCHED_WITH, patternRelation, null);
             } else {
-                final String feedbackMsg = String.format(MATCH_FAILED_WITH_MSG, patternRelation.getName());
-                feedback.addFeedbackMessage(systemRelation, FeedbackType.MISMATCH, feedbackMsg);
+                feedback.addFeedback(systemRelation, FeedbackType.MISMATCH, FeedbackCode.MATCH_FAILED_WITH, patternRelation, null);
             }
             return result;
         }
 
         @Override
         public Feedback getFeedback() {
+            if (!feedback.isEnabled()) {
+                return feedback;
+            }
             return super.getFeedback().merge(feedback);
         }
 
     }
 
     private static class RelationComparator implements FeedbackEnabledComparator<Relation> {
-        private final Feedback feedback = new Feedback();
+        private final Feedback feedback;
+
+        RelationComparator(boolean feedbackEnabled) {
+            this.feedback = feedbackEnabled ? new Feedback() : Feedback.disabled();
+        }
 
         @Override
         public Feedback getFeedback() {
@@ -100,44 +130,46 @@ public class RelationComparatorFactory {
             return result;
         }
 
+        /**
+         * Compares the {@link RelationType}s of the relations as bitmasks. The missing relation types are only looked
+         * up when feedback is gathered.
+         */
         private int compareRelationTypes(Relation systemRelation, Relation patternRelation) {
-            final Set<RelationType> sysTypes = systemRelation.getRelationProperties().stream()
-                    .map(relationProperties -> relationProperties.getRelationType())
-                    .collect(Collectors.toSet());
-            final Set<RelationType> dpTypes = patternRelation.getRelationProperties().stream()
-                    .map(relationProperties -> relationProperties.getRelationType())
-                    .collect(Collectors.toSet());
-            final Set<RelationType> dpDisjunction = getLeftDisjunction(dpTypes, sysTypes);
-
-            feedback.addFeedbackMessage(systemRelation, FeedbackType.INFO, RELATION_TYPE_ANALYSED_MSG);
-
-            final int result = dpDisjunction.size();
-            if (result != 0) {
-                createMismatchFeedback(systemRelation, patternRelation, dpDisjunction);
-            }
-            return result;
-        }
+            feedback.addFeedback(systemRelation, FeedbackType.INFO, FeedbackCode.RELATION_TYPES_ANALYSED, null, null);
 
-        private void createMismatchFeedback(Relation systemRelation, Relation patternRelation, Set<RelationType> dpDisjunction) {
-            dpDisjunction.forEach(relationType -> {
-                final String feedbackMsg = String.format(
-                        MISMATCH_MISSING_RELATION_TYPE_MSG,
-                        patternRelation.getName(),
-                        relationType,
-                        systemRelation.getName());
-                feedback.addFeedbackMessage(systemRelation, FeedbackType.MISMATCH, feedbackMsg);
-            });
+            final int missingTypes = patternRelation.getRelationTypeMask() & ~systemRelation.getRelationTypeMask();
+            if (missingTypes != 0 && feedback.isEnabled()) {
+                createMismatchFeedback(systemRelation, patternRelation, missingTypes);
+            }
+            return Integer.bitCount(missingTypes);
         }
 
-        private Set<RelationType> getLeftDisjunction(Set<RelationType> set1, Set<RelationType> set2) {
-            return set1.stream()
-                    .filter(type -> !set2.contains(type))
-                    .collect(Collectors.toSet());
+        private void createMismatchFeedback(Relation systemRelation, Relation patternRelation, int missingTypes) {
+            for (RelationType relationType : RelationType.values()) {
+                if ((missingTypes & relationType.mask()) != 0) {
+                    feedback.addFeedback(systemRelation, FeedbackType.MISMATCH,
+                            FeedbackCode.MISSING_RELATION_TYPE, patternRelation, relationType);
+                }
+            }
         }
 
+        /**
+         * Compares the {@link Cardinality}s of the relations, using the cardinality bounds the relations compiled when
+         * they were created. The offending cardinality is only looked up when feedback is gathered.
+         */
         private int compareCardinalities(Relation systemRelation, Relation patternRelation) {
-            feedback.addFeedbackMessage(systemRelation, FeedbackType.INFO, CARDINALITIES_ANALYSED_MSG);
+            feedback.addFeedback(systemRelation, FeedbackType.INFO, FeedbackCode.CARDINALITIES_ANALYSED, null, null);
+
+            if (systemRelation.hasCardinalitiesWithinLimitsOf(patternRelation)) {
+                return 0;
+            }
+            if (feedback.isEnabled()) {
+                createCardinalityMismatchFeedback(systemRelation, patternRelation);
+            }
+            return 1;
+        }
 
+        private void createCardinalityMismatchFeedback(Relation systemRelation, Relation patternRelation) {
             for (RelationProperty patternRelationProperties : patternRelation.getRelationProperties()) {
                 final RelationType patternRelationType = patternRelationProperties.getRelationType();
                 final Cardinality patternCardinalityLeft = patternRelationProperties.getCardinalityLeft();
@@ -148,27 +180,18 @@ public class RelationComparatorFactory {
                     final Cardinality systemCardinalityRight = systemRelationProperties.getCardinalityRight();
                     if (systemRelationType == patternRelationType) {
                         if (!systemCardinalityLeft.isWithinLimitsOf(patternCardinalityLeft)) {
-                            final String feedbackMsg = String.format(
-                                    MISMATCH_UNEXPECTED_LEFT_CARDINALITY_MSG,
-                                    patternRelation.getName(),
-                                    systemCardinalityLeft.toString(),
-                                    systemRelation.getName());
-                            feedback.addFeedbackMessage(systemRelation, FeedbackType.MISMATCH, feedbackMsg);
-                            return 1;
+                            feedback.addFeedback(systemRelation, FeedbackType.MISMATCH,
+                                    FeedbackCode.UNEXPECTED_LEFT_CARDINALITY, patternRelation, systemCardinalityLeft);
+                            return;
                         }
                         if (!systemCardinalityRight.isWithinLimitsOf(patternCardinalityRight)) {
-                            final String feedbackMsg = String.format(
-                                    MISMATCH_UNEXPECTED_RIGHT_CARDINALITY_MSG,
-                                    patternRelation.getName(),
-                                    systemCardinalityLeft.toString(),
-                                    systemRelation.getName());
-                            feedback.addFeedbackMessage(systemRelation, FeedbackType.MISMATCH, feedbackMsg);
-                            return 1;
+                            feedback.addFeedback(systemRelation, FeedbackType.MISMATCH,
+                                    FeedbackCode.UNEXPECTED_RIGHT_CARDINALITY, patternRelation, systemCardinalityLeft);
+                            return;
                         }
                     }
                 }
             }
-            return 0;
         }
 
     }
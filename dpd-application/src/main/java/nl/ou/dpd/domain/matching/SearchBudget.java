@@ -0,0 +1,80 @@
+package nl.ou.dpd.domain.matching;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The budget of a single search: the steps and the time that are left, according to a {@link SearchLimit}. The budget
+ * is spent by a node comparator (see {@link #limit(Comparator)}): every comparison of a system node with a pattern
+ * node is a step. Once the budget is exhausted, the comparator rejects every pair of nodes, so the matching engine
+ * quickly runs out of candidates and finishes the search, and the mappings found so far are kept.
+ * <p>
+ * A budget may be spent concurrently by the parts of a search that was split.
+ *
+ * @author Martin de Boer
+ */
+final class SearchBudget {
+
+    // The clock is read once every so many steps, because reading it costs more than a comparison
+    private static final long CLOCK_INTERVAL_MASK = 0x3F;
+
+    private final boolean limited;
+    private final long maxSteps;
+    private final boolean timed;
+    private final long deadline;
+    private final AtomicLong steps = new AtomicLong();
+    private volatile boolean exhausted;
+
+    /**
+     * Creates the budget of a search that starts now.
+     *
+     * @param limit the {@link SearchLimit} of the search
+     */
+    SearchBudget(SearchLimit limit) {
+        this.limited = limit.hasBudget();
+        this.maxSteps = limit.getMaxSteps();
+        this.timed = limit.hasTimeout();
+        this.deadline = timed ? System.nanoTime() + limit.getTimeout(TimeUnit.NANOSECONDS) : 0;
+    }
+
+    /**
+     * Returns a node comparator that spends this budget, and rejects every pair of nodes once the budget is exhausted.
+     *
+     * @param nodeComparator the comparator to delegate to, or {@code null} to match every pair of nodes
+     * @param <T>            the subject type of the comparator
+     * @return the limited comparator, or {@code nodeComparator} itself if there is no budget
+     */
+    <T> Comparator<T> limit(Comparator<T> nodeComparator) {
+        if (!limited) {
+            return nodeComparator;
+        }
+        return (systemNode, patternNode) -> {
+            if (!spendStep()) {
+                return 1;
+            }
+            return nodeComparator == null ? 0 : nodeComparator.compare(systemNode, patternNode);
+        };
+    }
+
+    /**
+     * Determines whether this budget was exhausted, which means that the search was stopped before it was complete.
+     *
+     * @return {@code true} if the budget was exhausted, or {@code false} otherwise.
+     */
+    boolean isExhausted() {
+        return exhausted;
+    }
+
+    private boolean spendStep() {
+        if (exhausted) {
+            return false;
+        }
+        final long step = steps.incrementAndGet();
+        if (step > maxSteps || (timed && (step & CLOCK_INTERVAL_MASK) == 0 && System.nanoTime() - deadline > 0)) {
+            exhausted = true;
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,169 @@
+package nl.ou.dpd.domain.matching;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The limits of a search for a design pattern (see {@link PatternInspector#getMatchingResult(SearchLimit)}). By
+ * default, every instance of the design pattern is searched for, and a {@link Solution} is built for every instance
+ * found. A search can be limited to:
+ * <ul>
+ * <li>the existence of the design pattern: the search stops as soon as the first instance is found;</li>
+ * <li>the first instances of the design pattern: the search stops as soon as that many instances are found;</li>
+ * <li>counting the instances of the design pattern, without building {@link Solution}s for them.</li>
+ * </ul>
+ * On top of that, a search can be given a budget: a maximum duration, and a maximum number of steps. A step is the
+ * comparison of a system node with a pattern node. When the budget is exhausted, the search stops, and the instances
+ * that were found so far are returned. The resulting {@link PatternInspector.MatchingResult} is then flagged as
+ * truncated.
+ * <p>
+ * {@link SearchLimit}s are immutable.
+ *
+ * @author Martin de Boer
+ */
+public final class SearchLimit {
+
+    private static final long UNLIMITED = Long.MAX_VALUE;
+    private static final long NO_TIMEOUT = -1;
+
+    private final long maxSolutions;
+    private final boolean countOnly;
+    private final long maxSteps;
+    private final long timeoutNanos;
+
+    private SearchLimit(long maxSolutions, boolean countOnly, long maxSteps, long timeoutNanos) {
+        this.maxSolutions = maxSolutions;
+        this.countOnly = countOnly;
+        this.maxSteps = maxSteps;
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    /**
+     * Returns a {@link SearchLimit} that does not limit the search: every instance of the design pattern is searched
+     * for.
+     *
+     * @return the {@link SearchLimit}
+     */
+    public static SearchLimit none() {
+        return new SearchLimit(UNLIMITED, false, UNLIMITED, NO_TIMEOUT);
+    }
+
+    /**
+     * Returns a {@link SearchLimit} that stops the search as soon as the first instance of the design pattern is found.
+     * No {@link Solution}s are built: the instance is only counted.
+     *
+     * @return the {@link SearchLimit}
+     */
+    public static SearchLimit existence() {
+        return new SearchLimit(1, true, UNLIMITED, NO_TIMEOUT);
+    }
+
+    /**
+     * Returns a {@link SearchLimit} that stops the search as soon as the specified number of instances of the design
+     * pattern are found.
+     *
+     * @param maxSolutions the maximum number of {@link Solution}s to find
+     * @return the {@link SearchLimit}
+     * @throws IllegalArgumentException if {@code maxSolutions} is not positive
+     */
+    public static SearchLimit firstSolutions(long maxSolutions) {
+        if (maxSolutions < 1) {
+            throw new IllegalArgumentException("The maximum number of solutions must be positive.");
+        }
+        return new SearchLimit(maxSolutions, false, UNLIMITED, NO_TIMEOUT);
+    }
+
+    /**
+     * Returns a {@link SearchLimit} that counts every instance of the design pattern, without building
+     * {@link Solution}s for them.
+     *
+     * @return the {@link SearchLimit}
+     */
+    public static SearchLimit countOnly() {
+        return new SearchLimit(UNLIMITED, true, UNLIMITED, NO_TIMEOUT);
+    }
+
+    /**
+     * Returns a copy of this {@link SearchLimit} that stops the search when it takes longer than the specified
+     * duration.
+     *
+     * @param timeout the maximum duration of the search
+     * @param unit    the {@link TimeUnit} of {@code timeout}
+     * @return the {@link SearchLimit}
+     * @throws IllegalArgumentException if {@code timeout} is negative
+     */
+    public SearchLimit withTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("The timeout must not be negative.");
+        }
+        return new SearchLimit(maxSolutions, countOnly, maxSteps, unit.toNanos(timeout));
+    }
+
+    /**
+     * Returns a copy of this {@link SearchLimit} that stops the search after the specified number of comparisons of a
+     * system node with a pattern node.
+     *
+     * @param maxSteps the maximum number of steps of the search
+     * @return the {@link SearchLimit}
+     * @throws IllegalArgumentException if {@code maxSteps} is negative
+     */
+    public SearchLimit withMaxSteps(long maxSteps) {
+        if (maxSteps < 0) {
+            throw new IllegalArgumentException("The maximum number of steps must not be negative.");
+        }
+        return new SearchLimit(maxSolutions, countOnly, maxSteps, timeoutNanos);
+    }
+
+    /**
+     * Returns the maximum number of instances to find.
+     *
+     * @return the maximum number of instances, or {@link Long#MAX_VALUE} if the number of instances is not limited
+     */
+    public long getMaxSolutions() {
+        return maxSolutions;
+    }
+
+    public boolean hasMaxSolutions() {
+        return maxSolutions != UNLIMITED;
+    }
+
+    /**
+     * Determines whether the instances found are only counted.
+     *
+     * @return {@code true} if no {@link Solution}s are built, or {@code false} otherwise.
+     */
+    public boolean isCountOnly() {
+        return countOnly;
+    }
+
+    /**
+     * Returns the maximum number of steps of the search.
+     *
+     * @return the maximum number of steps, or {@link Long#MAX_VALUE} if the number of steps is not limited
+     */
+    public long getMaxSteps() {
+        return maxSteps;
+    }
+
+    public boolean hasTimeout() {
+        return timeoutNanos != NO_TIMEOUT;
+    }
+
+    /**
+     * Returns the maximum duration of the search.
+     *
+     * @param unit the {@link TimeUnit} to express the duration in
+     * @return the maximum duration, or -1 if the duration is not limited
+     */
+    public long getTimeout(TimeUnit unit) {
+        return hasTimeout() ? unit.convert(timeoutNanos, TimeUnit.NANOSECONDS) : NO_TIMEOUT;
+    }
+
+    /**
+     * Determines whether the search has a budget: a maximum duration or a maximum number of steps.
+     *
+     * @return {@code true} if the search has a budget, or {@code false} otherwise.
+     */
+    boolean hasBudget() {
+        return hasTimeout() || maxSteps != UNLIMITED;
+    }
+}
@@ -4,7 +4,11 @@ import nl.ou.dpd.domain.node.Node;
 import nl.ou.dpd.domain.relation.Relation;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 /**
@@ -16,6 +20,7 @@ public class Solution {
 
     private final static int SYSTEM_IDX = 0;
     private final static int PATTERN_IDX = 1;
+    private final static Comparator<String> NULLS_FIRST = Comparator.nullsFirst(Comparator.naturalOrder());
 
     private final String designPatternName;
     private final String patternFamilyName;
@@ -38,27 +43,28 @@ public class Solution {
      * @return {@code true} of this {@link Solution} is similar to the {@code other}, or {@code false} otherwise.
      */
     public boolean isSimilar(Solution other) {
-        if (!this.designPatternName.equals(other.designPatternName)) {
-            return false;
-        }
-        if (!this.patternFamilyName.equals(other.patternFamilyName)) {
-            return false;
-        }
-        if (this.matchingRelations.size() != other.matchingRelations.size()) {
-            return false;
-        }
-        if (this.matchingNodes.size() != other.matchingNodes.size()) {
-            return false;
-        }
-        final List<String> systemNodeIds = matchingNodes
-                .stream()
-                .map(nodes -> nodes[SYSTEM_IDX].getId())
-                .collect(Collectors.toList());
-        final List<String> otherSystemNodeIds = other.matchingNodes
+        return getSimilarityKey().equals(other.getSimilarityKey());
+    }
+
+    /**
+     * Returns a key that identifies this {@link Solution} with respect to similarity: two {@link Solution}s are
+     * similar if, and only if, their keys are equal. The key consists of the designPatternName, the patternFamilyName,
+     * the number of matchingNodes and matchingRelations, and the sorted ids of the matching system nodes. It can be used
+     * in hash based collections to filter out similar solutions in a single pass.
+     *
+     * @return the similarity key of this {@link Solution}.
+     */
+    List<Object> getSimilarityKey() {
+        final SortedSet<String> systemNodeIds = matchingNodes
                 .stream()
                 .map(nodes -> nodes[SYSTEM_IDX].getId())
-                .collect(Collectors.toList());
-        return systemNodeIds.containsAll(otherSystemNodeIds);
+                .collect(Collectors.toCollection(() -> new TreeSet<>(NULLS_FIRST)));
+        return Arrays.asList(
+                designPatternName,
+                patternFamilyName,
+                matchingNodes.size(),
+                matchingRelations.size(),
+                systemNodeIds);
     }
 
     public String getDesignPatternName() {
@@ -0,0 +1,292 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
+import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.domain.relation.RelationType;
+import org.jgrapht.DirectedGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * A {@link SystemIndex} is an immutable, precomputed index of a {@link SystemUnderConsideration}: the numbering of its
+ * nodes, its adjacency lists holding the (typed) relations, the node type masks of its nodes, and a table with the
+ * degrees of every node (per relation type and per neighbouring node type). It is built once, after the system has
+ * been parsed completely, and shared (read-only) by all the inspections of the system, sequential or concurrent. The
+ * system must not be modified after the index has been built.
+ * <p>
+ * An index can be restricted to part of the system (see {@link #restrictTo(BitSet)}): it then represents the induced
+ * subgraph of the searched nodes, which are numbered anew (in the same order), so the restricted index and the searches
+ * of it are no larger than the searched part of the system. The profiles of the nodes remain those of the whole
+ * system. An index can be restricted by ignoring hub nodes (see {@link #ignoring(Predicate)}), and split into its
+ * weakly connected components (see {@link #getComponents()}).
+ *
+ * @author Martin de Boer
+ */
+public final class SystemIndex {
+
+    // The layout of a node profile: the number of outgoing and incoming relations, the number of outgoing and incoming
+    // relations per relation type, and the number of neighbours per node type. Self-referencing relations are not
+    // counted.
+    private static final int RELATION_TYPES = RelationType.values().length;
+    private static final int NODE_TYPES = NodeType.values().length;
+    private static final int OUT_DEGREE = 0;
+    private static final int IN_DEGREE = 1;
+    private static final int OUT_DEGREE_PER_TYPE = 2;
+    private static final int IN_DEGREE_PER_TYPE = OUT_DEGREE_PER_TYPE + RELATION_TYPES;
+    private static final int NEIGHBOURS_PER_TYPE = IN_DEGREE_PER_TYPE + RELATION_TYPES;
+    private static final int PROFILE_SIZE = NEIGHBOURS_PER_TYPE + NODE_TYPES;
+
+    private final SystemUnderConsideration system;
+    private final IndexedGraph graph;
+    private final int[] nodeTypeMasks;
+    private final int[][] profiles;
+    private final boolean restricted;
+
+    private SystemIndex(SystemUnderConsideration system) {
+        this.system = system;
+        this.graph = IndexedGraph.inVertexOrder(system);
+        final int nodeCount = graph.getNodeCount();
+        this.nodeTypeMasks = new int[nodeCount];
+        this.profiles = new int[nodeCount][];
+        for (int i = 0; i < nodeCount; i++) {
+            nodeTypeMasks[i] = graph.getNode(i).getTypeMask();
+            profiles[i] = createProfile(system, graph.getNode(i));
+        }
+        this.restricted = false;
+    }
+
+    private SystemIndex(SystemIndex index, int[] searchedNodes) {
+        this.system = index.system;
+        this.graph = index.graph.induce(searchedNodes);
+        this.nodeTypeMasks = new int[searchedNodes.length];
+        this.profiles = new int[searchedNodes.length][];
+        for (int i = 0; i < searchedNodes.length; i++) {
+            nodeTypeMasks[i] = index.nodeTypeMasks[searchedNodes[i]];
+            profiles[i] = index.profiles[searchedNodes[i]];
+        }
+        this.restricted = true;
+    }
+
+    /**
+     * Builds the {@link SystemIndex} of the specified {@code system}.
+     *
+     * @param system the (completely parsed) system under consideration
+     * @return the {@link SystemIndex} of the system
+     */
+    public static SystemIndex of(SystemUnderConsideration system) {
+        return new SystemIndex(system);
+    }
+
+    /**
+     * Restricts this index to the specified system nodes, numbered as in this index. The restricted index numbers
+     * these nodes from zero, in the same order.
+     *
+     * @param nodes the numbers of the system nodes to search
+     * @return a {@link SystemIndex} representing the induced subgraph of the specified nodes
+     */
+    SystemIndex restrictTo(BitSet nodes) {
+        return new SystemIndex(this, nodes.stream().toArray());
+    }
+
+    /**
+     * Restricts this index by ignoring the nodes that match the specified predicate, typically hub nodes that are
+     * related to many otherwise unrelated parts of the system (e.g. a common base class or a logging utility). The
+     * ignored nodes are not searched, so they do not join the parts of the system they are related to into one
+     * connected component, and they are not part of any solution.
+     *
+     * @param ignored the predicate determining which nodes are ignored
+     * @return a {@link SystemIndex} without the ignored nodes, or this index if no node is ignored
+     */
+    public SystemIndex ignoring(Predicate<Node> ignored) {
+        final BitSet nodes = getSearchedNodes();
+        for (int i = nodes.nextSetBit(0); i >= 0; i = nodes.nextSetBit(i + 1)) {
+            if (ignored.test(graph.getNode(i))) {
+                nodes.clear(i);
+            }
+        }
+        return nodes.cardinality() == graph.getNodeCount() ? this : restrictTo(nodes);
+    }
+
+    /**
+     * Splits the searched part of the system into its weakly connected components: the maximal parts of the system in
+     * which every two nodes are connected by relations, regardless of their direction. The components are ordered by
+     * their first node.
+     *
+     * @return a {@link List} of {@link SystemIndex}es, one for every component, or a list containing only this index if
+     * the searched part of the system is connected
+     */
+    List<SystemIndex> getComponents() {
+        final BitSet unvisited = getSearchedNodes();
+        final List<int[]> components = new ArrayList<>();
+        // The nodes of a component are collected at the end of the array, the nodes to visit are stacked at its start
+        final int[] nodes = new int[graph.getNodeCount()];
+        int visited = nodes.length;
+        for (int first = unvisited.nextSetBit(0); first >= 0; first = unvisited.nextSetBit(first + 1)) {
+            final int componentEnd = visited;
+            int size = 0;
+            nodes[size++] = first;
+            unvisited.clear(first);
+            while (size > 0) {
+                final int node = nodes[--size];
+                nodes[--visited] = node;
+                for (int successor : graph.getSuccessors(node)) {
+                    if (unvisited.get(successor)) {
+                        unvisited.clear(successor);
+                        nodes[size++] = successor;
+                    }
+                }
+                for (int predecessor : graph.getPredecessors(node)) {
+                    if (unvisited.get(predecessor)) {
+                        unvisited.clear(predecessor);
+                        nodes[size++] = predecessor;
+                    }
+                }
+            }
+            final int[] component = Arrays.copyOfRange(nodes, visited, componentEnd);
+            Arrays.sort(component);
+            components.add(component);
+        }
+        if (components.size() <= 1) {
+            return Collections.singletonList(this);
+        }
+        final List<SystemIndex> indexes = new ArrayList<>(components.size());
+        components.forEach(component -> indexes.add(new SystemIndex(this, component)));
+        return indexes;
+    }
+
+    public SystemUnderConsideration getSystem() {
+        return system;
+    }
+
+    /**
+     * Determines whether this index is restricted to part of the system.
+     *
+     * @return {@code true} if only part of the system is searched, or {@code false} otherwise.
+     */
+    public boolean isRestricted() {
+        return restricted;
+    }
+
+    /**
+     * Returns the number of system nodes that are searched: all the nodes of the system, or the nodes this index is
+     * restricted to.
+     *
+     * @return the number of searched system nodes
+     */
+    public int getSearchedNodeCount() {
+        return graph.getNodeCount();
+    }
+
+    /**
+     * Returns the number of relations between the searched system nodes.
+     *
+     * @return the number of searched system relations
+     */
+    public int getSearchedRelationCount() {
+        return graph.getRelationCount();
+    }
+
+    /**
+     * Returns the searched part of the system as a graph: the system itself, or a read-only view of the induced
+     * subgraph of the nodes this index is restricted to (see {@link IndexedSubgraph}).
+     *
+     * @return the searched graph
+     */
+    public DirectedGraph<Node, Relation> getSearchedGraph() {
+        return restricted ? new IndexedSubgraph(system, graph) : system;
+    }
+
+    IndexedGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the numbers of the searched nodes: all the nodes of the (restricted) index.
+     *
+     * @return a new {@link BitSet} holding the numbers of the searched nodes
+     */
+    BitSet getSearchedNodes() {
+        final BitSet nodes = new BitSet(graph.getNodeCount());
+        nodes.set(0, graph.getNodeCount());
+        return nodes;
+    }
+
+    int getNodeTypeMask(int number) {
+        return nodeTypeMasks[number];
+    }
+
+    /**
+     * Returns the profile of the node with the specified {@code number} (see {@link #createProfile(DirectedGraph,
+     * Node)}). The array must not be modified.
+     */
+    int[] getProfile(int number) {
+        return profiles[number];
+    }
+
+    /**
+     * Creates the profile of a node: the number of its (not self-referencing) relations and neighbours, by type.
+     *
+     * @param graph the graph containing the node
+     * @param node  the node
+     * @return the profile of the node
+     */
+    static int[] createProfile(DirectedGraph<Node, Relation> graph, Node node) {
+        final int[] profile = new int[PROFILE_SIZE];
+        final Set<Node> neighbours = new HashSet<>();
+        for (Relation relation : graph.outgoingEdgesOf(node)) {
+            final Node target = graph.getEdgeTarget(relation);
+            if (!target.equals(node)) {
+                profile[OUT_DEGREE]++;
+                addRelationTypes(profile, OUT_DEGREE_PER_TYPE, relation);
+                neighbours.add(target);
+            }
+        }
+        for (Relation relation : graph.incomingEdgesOf(node)) {
+            final Node source = graph.getEdgeSource(relation);
+            if (!source.equals(node)) {
+                profile[IN_DEGREE]++;
+                addRelationTypes(profile, IN_DEGREE_PER_TYPE, relation);
+                neighbours.add(source);
+            }
+        }
+        for (Node neighbour : neighbours) {
+            for (NodeType nodeType : NodeType.values()) {
+                if ((neighbour.getTypeMask() & nodeType.mask()) != 0) {
+                    profile[NEIGHBOURS_PER_TYPE + nodeType.ordinal()]++;
+                }
+            }
+        }
+        return profile;
+    }
+
+    private static void addRelationTypes(int[] profile, int offset, Relation relation) {
+        for (RelationType relationType : relation.getRelationTypes()) {
+            profile[offset + relationType.ordinal()]++;
+        }
+    }
+
+    /**
+     * Determines whether the first profile has (at least) the relations and neighbours of the second profile.
+     *
+     * @param profile      a node profile
+     * @param otherProfile another node profile
+     * @return {@code true} if no count in {@code profile} is smaller than in {@code otherProfile}
+     */
+    static boolean dominates(int[] profile, int[] otherProfile) {
+        for (int i = 0; i < PROFILE_SIZE; i++) {
+            if (profile[i] < otherProfile[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,69 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+import org.jgrapht.GraphMapping;
+import org.jgrapht.alg.isomorphism.VF2SubgraphIsomorphismInspector;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link MatchingEngine} using the generic {@link VF2SubgraphIsomorphismInspector} of jgrapht. This is the default
+ * engine of the {@link PatternInspector}.
+ * <p>
+ * The inspector does not use the {@link SystemIndex}: it orders the nodes of both graphs by degree, and builds an
+ * adjacency matrix of the (searched part of the) system for every search. The memory it needs therefore grows
+ * quadratically with the number of system nodes.
+ * <p>
+ * The mappings of the inspector start all over again when they are asked for more after the last one, so they are
+ * wrapped in an {@link Iterator} that remains exhausted.
+ *
+ * @author Martin de Boer
+ */
+public class VF2MatchingEngine implements MatchingEngine {
+
+    @Override
+    public Iterator<GraphMapping<Node, Relation>> getMappings(
+            SystemIndex systemIndex,
+            DesignPattern designPattern,
+            Comparator<Node> nodeComparator,
+            Comparator<Relation> relationComparator) {
+        return new ExhaustibleIterator(new VF2SubgraphIsomorphismInspector<>(
+                systemIndex.getSearchedGraph(),
+                designPattern,
+                nodeComparator,
+                relationComparator)
+                .getMappings());
+    }
+
+    /**
+     * An {@link Iterator} that stops asking the wrapped {@link Iterator} for more elements once it is exhausted.
+     */
+    private static final class ExhaustibleIterator implements Iterator<GraphMapping<Node, Relation>> {
+
+        private Iterator<GraphMapping<Node, Relation>> mappings;
+
+        private ExhaustibleIterator(Iterator<GraphMapping<Node, Relation>> mappings) {
+            this.mappings = mappings;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (mappings != null && !mappings.hasNext()) {
+                mappings = null;
+            }
+            return mappings != null;
+        }
+
+        @Override
+        public GraphMapping<Node, Relation> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return mappings.next();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package nl.ou.dpd.domain.node;
 
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -16,7 +18,9 @@ public class Node implements SignatureComparable<Node> {
 
     final private String id;
     private String name;
-    private Set<NodeType> types;
+    private final Set<NodeType> types;
+    private final Set<NodeType> unmodifiableTypes;
+    private int typeMask;
     private Set<Attribute> attributes;
     private Set<Operation> operations;
     private Visibility visibility; //default PUBLIC
@@ -32,9 +36,10 @@ public class Node implements SignatureComparable<Node> {
     public Node(String id, String name, NodeType nodeType) {
         this.id = id;
         this.name = name;
-        this.types = new HashSet<>();
+        this.types = EnumSet.noneOf(NodeType.class);
+        this.unmodifiableTypes = Collections.unmodifiableSet(types);
         if (nodeType != null) {
-            types.add(nodeType);
+            addType(nodeType);
         }
         this.attributes = new HashSet<>();
         this.operations = new HashSet<>();
@@ -72,12 +77,28 @@ public class Node implements SignatureComparable<Node> {
         this.name = name;
     }
 
+    /**
+     * Returns the {@link NodeType}s of this node. Use {@link #addType(NodeType)} to add a type.
+     *
+     * @return an unmodifiable set of {@link NodeType}s.
+     */
     public Set<NodeType> getTypes() {
-        return types;
+        return unmodifiableTypes;
     }
 
     public void addType(NodeType type) {
         this.types.add(type);
+        this.typeMask |= type.mask();
+    }
+
+    /**
+     * Returns the {@link NodeType}s of this node as a bitmask.
+     *
+     * @return the bitmask of the {@link NodeType}s of this node
+     * @see NodeType#mask()
+     */
+    public int getTypeMask() {
+        return typeMask;
     }
 
     public Set<Attribute> getAttributes() {
@@ -11,5 +11,28 @@ public enum NodeType {
     ABSTRACT_CLASS,
     INTERFACE,
     ABSTRACT_CLASS_OR_INTERFACE,
-    DATATYPE
-};
+    DATATYPE;
+
+    /**
+     * Returns the bit representing this node type in a bitmask of node types.
+     *
+     * @return a bitmask with only the bit of this node type set
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Returns the bitmask of the specified {@code nodeTypes}.
+     *
+     * @param nodeTypes the {@link NodeType}s to put in the bitmask
+     * @return a bitmask with the bits of the specified {@code nodeTypes} set
+     */
+    public static int maskOf(Iterable<NodeType> nodeTypes) {
+        int mask = 0;
+        for (NodeType nodeType : nodeTypes) {
+            mask |= nodeType.mask();
+        }
+        return mask;
+    }
+}
@@ -1,6 +1,7 @@
 package nl.ou.dpd.domain.node;
 
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
 import static nl.ou.dpd.util.Util.nullSafeEquals;
@@ -90,6 +91,25 @@ public class Operation implements SignatureComparable<Operation> {
         return true;
     }
 
+    /**
+     * Returns a hash code for the signature of this {@link Operation}, based on its name, the name of its return type
+     * and the signatures of its parameters. Operations with equal signatures (see {@link #equalsSignature(Operation)})
+     * have equal signature hash codes, provided that the parameters of each operation have distinct signatures.
+     *
+     * @return the signature hash code
+     */
+    public int signatureHashCode() {
+        int hash = Objects.hashCode(name);
+        hash = 31 * hash + (returnType == null ? 0 : 1 + Objects.hashCode(returnType.getName()));
+        hash = 31 * hash + parameters.size();
+        int parametersHash = 0;
+        for (Parameter parameter : parameters) {
+            // The order of the parameters does not matter
+            parametersHash += parameter.signatureHashCode();
+        }
+        return 31 * hash + parametersHash;
+    }
+
     private boolean nullSafeEqualsReturnType(SignatureComparable a, SignatureComparable b) {
         return (a == null && b == null) || (a != null && a.equalsSignature(b));
     }
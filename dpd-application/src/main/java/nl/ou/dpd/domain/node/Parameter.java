@@ -1,5 +1,7 @@
 package nl.ou.dpd.domain.node;
 
+import java.util.Objects;
+
 import static nl.ou.dpd.util.Util.nullSafeEquals;
 
 /**
@@ -68,4 +70,14 @@ public class Parameter implements SignatureComparable<Parameter> {
         return true;
     }
 
+    /**
+     * Returns a hash code for the signature of this {@link Parameter}: parameters with equal signatures (see
+     * {@link #equalsSignature(Parameter)}) have equal signature hash codes.
+     *
+     * @return the signature hash code
+     */
+    public int signatureHashCode() {
+        return Objects.hash(name, type);
+    }
+
 }
\ No newline at end of file
@@ -2,53 +2,221 @@ package nl.ou.dpd.domain.relation;
 
 import org.jgrapht.graph.DefaultEdge;
 
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
 
 /**
  * A {@link Relation} represents a relation between two nodes in a system under consideration or a design pattern. A
  * {@link Relation} has a set of {@link RelationProperty}s that may be used during matching process.
+ * <p>
+ * A {@link Relation} is immutable. It is used as an edge in the hash based structures of the graphs and of the
+ * feedback, so its hash code must not change once it is created. The hash code is computed only once, and the
+ * {@link RelationType}s of the {@link RelationProperty}s are kept in an {@link EnumSet}, so they can be compared in
+ * constant time. Use a {@link Builder} to create a {@link Relation} with {@link RelationProperty}s, or to derive a
+ * {@link Relation} from an existing one (see {@link #toBuilder()}).
+ * <p>
+ * The {@link RelationType}s and {@link Cardinality}s of a {@link Relation} are compiled into a bitmask and a table of
+ * cardinality bounds when it is created, so a system relation can be matched with a pattern relation with a few
+ * integer operations (see {@link #hasRelationTypesOf(Relation)} and {@link #hasCardinalitiesWithinLimitsOf(Relation)}).
  *
  * @author Martin de Boer
  */
 public class Relation extends DefaultEdge {
 
-    private String id;
-    private String name;
-    private Set<RelationProperty> relationProperties;
+    // The cardinality bounds table holds BOUNDS_PER_TYPE values for every relation type of the relation, in the order
+    // of the relation types. An unlimited upper bound is represented by Integer.MAX_VALUE.
+    private static final int LEFT = 0;
+    private static final int RIGHT = 4;
+    private static final int MIN_LOWER = 0;
+    private static final int MAX_LOWER = 1;
+    private static final int MIN_UPPER = 2;
+    private static final int MAX_UPPER = 3;
+    private static final int BOUNDS_PER_TYPE = 8;
 
+    private final String id;
+    private final String name;
+    private final Set<RelationProperty> relationProperties;
+    private final EnumSet<RelationType> relationTypes;
+    private final Set<RelationType> unmodifiableRelationTypes;
+    private final int relationTypeMask;
+    private final int[] cardinalityBounds;
+    private final int hashCode;
+
+    /**
+     * Creates a {@link Relation} without {@link RelationProperty}s.
+     *
+     * @param id   the id of the relation
+     * @param name the name of the relation
+     */
     public Relation(String id, String name) {
+        this(id, name, Collections.emptySet());
+    }
+
+    private Relation(String id, String name, Set<RelationProperty> relationProperties) {
         this.id = id;
         this.name = name;
-        this.relationProperties = new HashSet<>();
+        this.relationProperties = Collections.unmodifiableSet(new LinkedHashSet<>(relationProperties));
+        this.relationTypes = EnumSet.noneOf(RelationType.class);
+        relationProperties.forEach(relationProperty -> relationTypes.add(relationProperty.getRelationType()));
+        this.unmodifiableRelationTypes = Collections.unmodifiableSet(relationTypes);
+        this.relationTypeMask = RelationType.maskOf(relationTypes);
+        this.cardinalityBounds = compileCardinalityBounds(relationTypeMask, this.relationProperties);
+        this.hashCode = Objects.hash(id, name, this.relationProperties);
     }
 
-    public String getId() {
-        return id;
+    private static int[] compileCardinalityBounds(int relationTypeMask, Set<RelationProperty> relationProperties) {
+        final int[] bounds = new int[Integer.bitCount(relationTypeMask) * BOUNDS_PER_TYPE];
+        for (int offset = 0; offset < bounds.length; offset += BOUNDS_PER_TYPE) {
+            initCardinalityBounds(bounds, offset + LEFT);
+            initCardinalityBounds(bounds, offset + RIGHT);
+        }
+        for (RelationProperty relationProperty : relationProperties) {
+            final int offset = getBoundsOffset(relationTypeMask, relationProperty.getRelationType());
+            addCardinalityBounds(bounds, offset + LEFT, relationProperty.getCardinalityLeft());
+            addCardinalityBounds(bounds, offset + RIGHT, relationProperty.getCardinalityRight());
+        }
+        return bounds;
     }
 
-    public Relation setId(String id) {
-        this.id = id;
-        return this;
+    private static void initCardinalityBounds(int[] bounds, int offset) {
+        bounds[offset + MIN_LOWER] = Integer.MAX_VALUE;
+        bounds[offset + MAX_LOWER] = 0;
+        bounds[offset + MIN_UPPER] = Integer.MAX_VALUE;
+        bounds[offset + MAX_UPPER] = 0;
     }
 
-    public String getName() {
-        return name;
+    private static void addCardinalityBounds(int[] bounds, int offset, Cardinality cardinality) {
+        final int lower = cardinality == null ? 0 : cardinality.getLower();
+        final int upper = cardinality == null || cardinality.getUpper() == Cardinality.UNLIMITED
+                ? Integer.MAX_VALUE
+                : cardinality.getUpper();
+        bounds[offset + MIN_LOWER] = Math.min(bounds[offset + MIN_LOWER], lower);
+        bounds[offset + MAX_LOWER] = Math.max(bounds[offset + MAX_LOWER], lower);
+        bounds[offset + MIN_UPPER] = Math.min(bounds[offset + MIN_UPPER], upper);
+        bounds[offset + MAX_UPPER] = Math.max(bounds[offset + MAX_UPPER], upper);
     }
 
-    public Relation setName(String name) {
-        this.name = name;
-        return this;
+    private static int getBoundsOffset(int relationTypeMask, RelationType relationType) {
+        return Integer.bitCount(relationTypeMask & (relationType.mask() - 1)) * BOUNDS_PER_TYPE;
     }
 
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the {@link RelationProperty}s of this relation.
+     *
+     * @return an unmodifiable set of {@link RelationProperty}s.
+     */
     public Set<RelationProperty> getRelationProperties() {
         return relationProperties;
     }
 
-    public Relation addRelationProperty(RelationProperty relationProperties) {
-        this.relationProperties.add(relationProperties);
-        return this;
+    /**
+     * Returns the {@link RelationType}s of the {@link RelationProperty}s of this relation.
+     *
+     * @return an unmodifiable set of {@link RelationType}s, backed by an {@link EnumSet}.
+     */
+    public Set<RelationType> getRelationTypes() {
+        return unmodifiableRelationTypes;
+    }
+
+    /**
+     * Returns the {@link RelationType}s of this relation as a bitmask.
+     *
+     * @return the bitmask of the {@link RelationType}s of this relation
+     * @see RelationType#mask()
+     */
+    public int getRelationTypeMask() {
+        return relationTypeMask;
+    }
+
+    /**
+     * Determines whether this relation has (at least) all the {@link RelationType}s of the specified {@code other}
+     * relation. The {@link RelationType}s are compared as bitmasks.
+     *
+     * @param other the {@link Relation} to compare with
+     * @return {@code true} if this relation has all the {@link RelationType}s of the {@code other} relation, or
+     * {@code false} otherwise.
+     */
+    public boolean hasRelationTypesOf(Relation other) {
+        return (other.relationTypeMask & ~relationTypeMask) == 0;
+    }
+
+    /**
+     * Determines whether the {@link Cardinality}s of this relation are within the limits of the {@link Cardinality}s of
+     * the specified {@code other} relation, for every {@link RelationType} the relations have in common. That is the
+     * case if every (left and right) {@link Cardinality} of this relation is within the limits (see
+     * {@link Cardinality#isWithinLimitsOf(Cardinality)}) of every {@link Cardinality} of the same side and
+     * {@link RelationType} of the {@code other} relation.
+     *
+     * @param other the {@link Relation} to compare with, e.g. a relation of a design pattern
+     * @return {@code true} if the {@link Cardinality}s of this relation are within the limits of the {@code other}
+     * relation, or {@code false} otherwise.
+     */
+    public boolean hasCardinalitiesWithinLimitsOf(Relation other) {
+        int commonTypes = relationTypeMask & other.relationTypeMask;
+        while (commonTypes != 0) {
+            final int type = Integer.lowestOneBit(commonTypes);
+            commonTypes &= ~type;
+            final int offset = Integer.bitCount(relationTypeMask & (type - 1)) * BOUNDS_PER_TYPE;
+            final int otherOffset = Integer.bitCount(other.relationTypeMask & (type - 1)) * BOUNDS_PER_TYPE;
+            if (!isWithinBounds(cardinalityBounds, offset + LEFT, other.cardinalityBounds, otherOffset + LEFT) ||
+                    !isWithinBounds(cardinalityBounds, offset + RIGHT, other.cardinalityBounds, otherOffset + RIGHT)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWithinBounds(int[] bounds, int offset, int[] otherBounds, int otherOffset) {
+        return bounds[offset + MIN_LOWER] >= otherBounds[otherOffset + MAX_LOWER] &&
+                bounds[offset + MAX_UPPER] <= otherBounds[otherOffset + MIN_UPPER];
+    }
+
+    /**
+     * Determines whether this relation has a {@link RelationProperty} of the specified {@link RelationType}.
+     *
+     * @param relationType the {@link RelationType} to look for
+     * @return {@code true} if this relation has a {@link RelationProperty} of the specified type, or {@code false}
+     * otherwise.
+     */
+    public boolean hasRelationType(RelationType relationType) {
+        return (relationTypeMask & relationType.mask()) != 0;
+    }
+
+    /**
+     * Returns the first {@link RelationProperty} of this relation with the specified {@link RelationType}.
+     *
+     * @param relationType the {@link RelationType} to look for
+     * @return the {@link RelationProperty}, or {@code null} if this relation has no {@link RelationProperty} of the
+     * specified type.
+     */
+    public RelationProperty getRelationProperty(RelationType relationType) {
+        if (!hasRelationType(relationType)) {
+            return null;
+        }
+        return relationProperties.stream()
+                .filter(relationProperty -> relationProperty.getRelationType() == relationType)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Returns a {@link Builder} initialised with the id, name and {@link RelationProperty}s of this relation.
+     *
+     * @return a new {@link Builder}.
+     */
+    public Builder toBuilder() {
+        return new Builder(id, name).addRelationProperties(relationProperties);
     }
 
     @Override
@@ -56,14 +224,92 @@ public class Relation extends DefaultEdge {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Relation relation = (Relation) o;
-        return Objects.equals(id, relation.id) &&
+        return hashCode == relation.hashCode &&
+                Objects.equals(id, relation.id) &&
                 Objects.equals(name, relation.name) &&
                 Objects.equals(relationProperties, relation.relationProperties);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, name, relationProperties);
+        return hashCode;
     }
-}
 
+    /**
+     * A builder for (immutable) {@link Relation}s.
+     */
+    public static class Builder {
+
+        private String id;
+        private String name;
+        private final Set<RelationProperty> relationProperties = new LinkedHashSet<>();
+
+        public Builder(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Builder setId(String id) {
+            this.id = id;
+            return this;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Builder setName(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder addRelationProperty(RelationProperty relationProperty) {
+            this.relationProperties.add(relationProperty);
+            return this;
+        }
+
+        public Builder addRelationProperties(Set<RelationProperty> relationProperties) {
+            this.relationProperties.addAll(relationProperties);
+            return this;
+        }
+
+        /**
+         * Replaces the first {@link RelationProperty} of the specified {@link RelationType} with a
+         * {@link RelationProperty} of the same type, with the specified {@link Cardinality}s. Nothing happens if there
+         * is no {@link RelationProperty} of the specified type.
+         *
+         * @param relationType     the {@link RelationType} of the {@link RelationProperty} to replace
+         * @param cardinalityLeft  the new left {@link Cardinality}
+         * @param cardinalityRight the new right {@link Cardinality}
+         * @return this {@link Builder}.
+         */
+        public Builder setCardinalities(RelationType relationType, Cardinality cardinalityLeft,
+                                        Cardinality cardinalityRight) {
+            final RelationProperty relationProperty = getRelationProperty(relationType);
+            if (relationProperty != null) {
+                relationProperties.remove(relationProperty);
+                relationProperties.add(relationProperty.withCardinalities(cardinalityLeft, cardinalityRight));
+            }
+            return this;
+        }
+
+        public boolean hasRelationType(RelationType relationType) {
+            return getRelationProperty(relationType) != null;
+        }
+
+        private RelationProperty getRelationProperty(RelationType relationType) {
+            return relationProperties.stream()
+                    .filter(relationProperty -> relationProperty.getRelationType() == relationType)
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        public Relation build() {
+            return new Relation(id, name, relationProperties);
+        }
+    }
+}
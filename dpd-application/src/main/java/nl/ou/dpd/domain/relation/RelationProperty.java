@@ -5,25 +5,29 @@ import java.util.Objects;
 /**
  * A {@link RelationProperty} is an object containing properties of a relation between two nodes. Currently, it contains
  * the {@link RelationType} and {@link Cardinality}s (left and right) of a relation.
+ * <p>
+ * A {@link RelationProperty} is immutable, so its hash code is computed only once.
  *
  * @author Martin de Boer
  */
 public class RelationProperty {
 
+    private static final Cardinality DEFAULT_CARDINALITY = Cardinality.valueOf("1");
+
     private final RelationType relationType;
-    private Cardinality cardinalityLeft;
-    private Cardinality cardinalityRight;
+    private final Cardinality cardinalityLeft;
+    private final Cardinality cardinalityRight;
+    private final int hashCode;
 
     public RelationProperty(RelationType relationType, Cardinality cardinalityLeft, Cardinality cardinalityRight) {
         this.relationType = relationType;
         this.cardinalityLeft = cardinalityLeft;
         this.cardinalityRight = cardinalityRight;
+        this.hashCode = Objects.hash(relationType, cardinalityLeft, cardinalityRight);
     }
 
     public RelationProperty(RelationType relationType) {
-        this.relationType = relationType;
-        this.cardinalityLeft = Cardinality.valueOf("1");
-        this.cardinalityRight = Cardinality.valueOf("1");
+        this(relationType, DEFAULT_CARDINALITY, DEFAULT_CARDINALITY);
     }
 
     public RelationType getRelationType() {
@@ -34,18 +38,20 @@ public class RelationProperty {
         return cardinalityLeft;
     }
 
-    public RelationProperty setCardinalityLeft(Cardinality cardinalityLeft) {
-        this.cardinalityLeft = cardinalityLeft;
-        return this;
-    }
-
     public Cardinality getCardinalityRight() {
         return cardinalityRight;
     }
 
-    public RelationProperty setCardinalityRight(Cardinality cardinalityRight) {
-        this.cardinalityRight = cardinalityRight;
-        return this;
+    /**
+     * Returns a {@link RelationProperty} with the same {@link RelationType} as this one, and the specified
+     * {@link Cardinality}s.
+     *
+     * @param cardinalityLeft  the left {@link Cardinality}
+     * @param cardinalityRight the right {@link Cardinality}
+     * @return a new {@link RelationProperty}.
+     */
+    public RelationProperty withCardinalities(Cardinality cardinalityLeft, Cardinality cardinalityRight) {
+        return new RelationProperty(relationType, cardinalityLeft, cardinalityRight);
     }
 
     @Override
@@ -53,14 +59,15 @@ public class RelationProperty {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         RelationProperty that = (RelationProperty) o;
-        return relationType == that.relationType &&
+        return hashCode == that.hashCode &&
+                relationType == that.relationType &&
                 Objects.equals(cardinalityLeft, that.cardinalityLeft) &&
                 Objects.equals(cardinalityRight, that.cardinalityRight);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(relationType, cardinalityLeft, cardinalityRight);
+        return hashCode;
     }
 
 }
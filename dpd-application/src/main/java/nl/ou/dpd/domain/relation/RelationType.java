@@ -17,4 +17,27 @@ public enum RelationType {
     HAS_METHOD_RETURNTYPE,
     CALLS_METHOD_OF,
     OVERRIDES_METHOD_OF;
-};
+
+    /**
+     * Returns the bit representing this relation type in a bitmask of relation types.
+     *
+     * @return a bitmask with only the bit of this relation type set
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Returns the bitmask of the specified {@code relationTypes}.
+     *
+     * @param relationTypes the {@link RelationType}s to put in the bitmask
+     * @return a bitmask with the bits of the specified {@code relationTypes} set
+     */
+    public static int maskOf(Iterable<RelationType> relationTypes) {
+        int mask = 0;
+        for (RelationType relationType : relationTypes) {
+            mask |= relationType.mask();
+        }
+        return mask;
+    }
+}
@@ -8,6 +8,7 @@ import javafx.scene.Node;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextField;
 import javafx.scene.control.TitledPane;
 import javafx.scene.control.TreeItem;
@@ -23,6 +24,7 @@ import nl.ou.dpd.domain.matching.FeedbackType;
 import nl.ou.dpd.domain.matching.PatternInspector;
 import nl.ou.dpd.domain.matching.Solution;
 import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.gui.model.AnalysisTask;
 import nl.ou.dpd.gui.model.Model;
 import nl.ou.dpd.gui.model.Project;
 import org.apache.logging.log4j.LogManager;
@@ -50,6 +52,9 @@ public class ProjectViewController extends Controller implements Observer {
     private static final Logger LOGGER = LogManager.getLogger(ProjectViewController.class);
 
     private static final String FEEDBACK = "Feedback";
+    private static final String DESIGN_PATTERNS = "Design patterns";
+    private static final String ANALYSED_MSG = "Analysed %d design patterns.";
+    private static final String CANCELLED_MSG = "Analysis cancelled.";
     private static final String IMG_ICON_ARROW_RIGHT = "/img/icon-arrow-right-16x16.png";
     private static final String ID_FORMAT = "ID [%s]";
 
@@ -64,6 +69,8 @@ public class ProjectViewController extends Controller implements Observer {
 
     private Map<String, Solution> solutionMap;
     private Map<String, Feedback> feedbackMap;
+    private int solutionCount;
+    private AnalysisTask analysisTask;
 
     @FXML
     private Label projectNameLabel;
@@ -77,6 +84,13 @@ public class ProjectViewController extends Controller implements Observer {
     private Button clearButton;
     @FXML
     private Button analyseButton;
+    @FXML
+    private Button cancelButton;
+
+    @FXML
+    private Label progressLabel;
+    @FXML
+    private ProgressBar progressBar;
 
     @FXML
     private TreeView<String> feedbackTreeView;
@@ -160,44 +174,78 @@ public class ProjectViewController extends Controller implements Observer {
     }
 
     /**
-     * Starts the analysis of the system under consideration, and processes the feedback data.
+     * Starts the analysis of the system under consideration in the background, and processes the feedback data of
+     * every design pattern as soon as it becomes available.
      */
     @FXML
     protected void analyse() {
-        Map<String, PatternInspector.MatchingResult> result;
-        try {
-            result = getModel().analyse();
-        } catch (Exception e) {
-            LOGGER.error("Error during analysis: ", e);
-
-            // Show error to the user.
-            Alert alert = new CustomAlert(Alert.AlertType.ERROR);
-            alert.setTitle("Error");
-            alert.setHeaderText("Could not analyse input data");
-            alert.setContentText(e.getMessage());
-            alert.showAndWait();
-
-            return;
-        }
+        clearFeedback();
 
-        final TreeItem<String> treeRoot = new TreeItem<>("Design patterns");
+        final TreeItem<String> treeRoot = new TreeItem<>(DESIGN_PATTERNS);
         treeRoot.setExpanded(true);
         feedbackTreeView.setRoot(treeRoot);
 
-        clearData();
+        final AnalysisTask task =
+                getModel().analyse((patternName, result) -> addPatternToTree(treeRoot, patternName, result));
+        task.setOnSucceeded(event -> finishAnalysis(String.format(ANALYSED_MSG, task.getValue().size())));
+        task.setOnCancelled(event -> finishAnalysis(CANCELLED_MSG));
+        task.setOnFailed(event -> {
+            finishAnalysis(null);
+            showAnalysisError(task.getException());
+        });
+        analysisTask = task;
 
-        int patternCount = 0;
-        for (String patternName : result.keySet()) {
-            final List<Solution> solutions = result.get(patternName).getSolutions();
-            final Feedback feedback = result.get(patternName).getFeedback();
-            final TreeItem<String> patternRoot = new TreeItem<>(makePatternRootName(patternName, solutions));
+        progressLabel.textProperty().bind(task.messageProperty());
+        progressBar.progressProperty().bind(task.progressProperty());
+        show(progressBar);
+        analyseButton.setDisable(true);
+        cancelButton.setDisable(false);
+    }
 
-            treeRoot.getChildren().add(patternRoot);
-            patternCount += addSolutionsToTree(solutions, patternRoot);
-            addFeedbackToTree(feedback, patternRoot, patternName);
+    /**
+     * Cancels the running analysis. The design patterns that have been analysed so far remain visible.
+     */
+    @FXML
+    protected void cancel() {
+        if (analysisTask != null) {
+            analysisTask.cancel();
         }
+    }
+
+    private void finishAnalysis(String message) {
+        analysisTask = null;
+        progressLabel.textProperty().unbind();
+        progressLabel.setText(message);
+        progressBar.progressProperty().unbind();
+        hide(progressBar);
+        cancelButton.setDisable(true);
+        analyseButton.setDisable(isTemplateFileEmpty() || isSystemFileEmpty());
+    }
+
+    private void showAnalysisError(Throwable e) {
+        LOGGER.error("Error during analysis: ", e);
+
+        // Show error to the user.
+        Alert alert = new CustomAlert(Alert.AlertType.ERROR);
+        alert.setTitle("Error");
+        alert.setHeaderText("Could not analyse input data");
+        alert.setContentText(e.getMessage());
+        alert.showAndWait();
+    }
+
+    private void addPatternToTree(
+            TreeItem<String> treeRoot,
+            String patternName,
+            PatternInspector.MatchingResult result) {
+        final List<Solution> solutions = result.getSolutions();
+        final Feedback feedback = result.getFeedback();
+        final TreeItem<String> patternRoot = new TreeItem<>(makePatternRootName(patternName, solutions));
+
+        treeRoot.getChildren().add(patternRoot);
+        solutionCount += addSolutionsToTree(solutions, patternRoot);
+        addFeedbackToTree(feedback, patternRoot, patternName);
 
-        treeRoot.setValue(treeRoot.getValue() + " (" + patternCount + ")");
+        treeRoot.setValue(DESIGN_PATTERNS + " (" + solutionCount + ")");
 
         // Sort by patterns by name
         treeRoot.getChildren().sort(Comparator.comparing(t -> t.getValue()));
@@ -453,6 +501,8 @@ public class ProjectViewController extends Controller implements Observer {
     }
 
     private void clearFeedback() {
+        cancel();
+        progressLabel.setText(null);
         clearData();
         clearTreeView(feedbackTreeView);
         clearDetails();
@@ -462,6 +512,7 @@ public class ProjectViewController extends Controller implements Observer {
     private void clearData() {
         solutionMap = new HashMap<>();
         feedbackMap = new HashMap<>();
+        solutionCount = 0;
     }
 
     private void clearTreeView(final TreeView<String> treeView) {
@@ -0,0 +1,123 @@
+package nl.ou.dpd.gui.model;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.matching.AnalysisEngine;
+import nl.ou.dpd.domain.matching.AnalysisListener;
+import nl.ou.dpd.domain.matching.PatternInspector;
+import nl.ou.dpd.parsing.CachingArgoUMLParser;
+import nl.ou.dpd.parsing.PatternCatalogue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * A {@link Task} that parses the input files and analyses the system under consideration in the background, keeping
+ * the JavaFX application thread free. The progress of the task is reported per design pattern, and the result of every
+ * design pattern is handed to a callback on the JavaFX application thread as soon as it is available. The number of
+ * mappings found is counted on the matching threads, but published only every {@value #MAPPINGS_PER_MESSAGE} mappings
+ * and whenever a design pattern has been analysed.
+ * <p>
+ * Cancelling the task stops the running inspections partway through their search.
+ *
+ * @author Martin de Boer
+ */
+public class AnalysisTask extends Task<Map<String, PatternInspector.MatchingResult>> {
+
+    private static final String PARSING_MSG = "Parsing input files ...";
+    private static final String ANALYSING_MSG = "Analysing %d design patterns ...";
+    private static final String PROGRESS_MSG = "%s: %d/%d patterns, %,d mappings";
+
+    // The number of mappings found between two progress messages, so the matching threads do not format and publish
+    // a message for every mapping
+    private static final long MAPPINGS_PER_MESSAGE = 1000;
+
+    private final AnalysisEngine analysisEngine;
+    private final CachingArgoUMLParser systemParser;
+    private final PatternCatalogue patternCatalogue;
+    private final String systemFilePath;
+    private final String designPatternFilePath;
+    private final BiConsumer<String, PatternInspector.MatchingResult> onPatternAnalysed;
+    private final AtomicInteger analysedPatterns = new AtomicInteger();
+    private final AtomicLong mappings = new AtomicLong();
+
+    private volatile int totalPatterns;
+
+    /**
+     * Creates an {@link AnalysisTask}.
+     *
+     * @param analysisEngine        the {@link AnalysisEngine} performing the analysis
+     * @param systemParser          the parser for the "system under consideration" file, that reads the system from
+     *                              its cached snapshot if the file has not changed since it was parsed before
+     * @param patternCatalogue      the catalogue providing the design patterns of the design pattern template file
+     * @param systemFilePath        the path of the "system under consideration" file
+     * @param designPatternFilePath the path of the design pattern template file
+     * @param onPatternAnalysed     is called on the JavaFX application thread with the key and the result of every
+     *                              design pattern that has been analysed
+     */
+    AnalysisTask(
+            AnalysisEngine analysisEngine,
+            CachingArgoUMLParser systemParser,
+            PatternCatalogue patternCatalogue,
+            String systemFilePath,
+            String designPatternFilePath,
+            BiConsumer<String, PatternInspector.MatchingResult> onPatternAnalysed) {
+        this.analysisEngine = analysisEngine;
+        this.systemParser = systemParser;
+        this.patternCatalogue = patternCatalogue;
+        this.systemFilePath = systemFilePath;
+        this.designPatternFilePath = designPatternFilePath;
+        this.onPatternAnalysed = onPatternAnalysed;
+    }
+
+    @Override
+    protected Map<String, PatternInspector.MatchingResult> call() {
+        updateMessage(PARSING_MSG);
+
+        // Parse the xmi input file, or read it from the cache
+        final SystemUnderConsideration system = systemParser.parse(systemFilePath);
+
+        // Parse the xml input file, or rebuild its design patterns from the catalogue
+        final List<DesignPattern> designPatterns = patternCatalogue.getDesignPatterns(designPatternFilePath);
+
+        totalPatterns = designPatterns.size();
+        updateMessage(String.format(ANALYSING_MSG, totalPatterns));
+        updateProgress(0, totalPatterns);
+
+        // Analyse the system under consideration
+        return analysisEngine.analyse(system, designPatterns, new AnalysisListener() {
+            @Override
+            public void mappingFound(DesignPattern designPattern) {
+                final long found = mappings.incrementAndGet();
+                if (found % MAPPINGS_PER_MESSAGE == 0) {
+                    updateMessage(String.format(PROGRESS_MSG,
+                            designPattern.getName(), analysedPatterns.get(), totalPatterns, found));
+                }
+            }
+
+            @Override
+            public void patternAnalysed(String key, PatternInspector.MatchingResult result, int analysed, int total) {
+                // Inspections complete concurrently, so keep the progress from going backwards
+                final int progress = analysedPatterns.accumulateAndGet(analysed, Math::max);
+                updateMessage(String.format(PROGRESS_MSG, key, progress, total, mappings.get()));
+                updateProgress(progress, total);
+                Platform.runLater(() -> {
+                    // Results that arrive after cancellation are dropped
+                    if (!AnalysisTask.this.isCancelled()) {
+                        onPatternAnalysed.accept(key, result);
+                    }
+                });
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return AnalysisTask.this.isCancelled();
+            }
+        });
+    }
+}
@@ -10,13 +10,12 @@ import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import javafx.util.Callback;
 import nl.ou.dpd.DesignPatternDetector;
-import nl.ou.dpd.domain.DesignPattern;
-import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.matching.AnalysisEngine;
 import nl.ou.dpd.domain.matching.PatternInspector;
 import nl.ou.dpd.exception.DesignPatternDetectorException;
-import nl.ou.dpd.parsing.ArgoUMLParser;
+import nl.ou.dpd.parsing.CachingArgoUMLParser;
 import nl.ou.dpd.parsing.ParserFactory;
-import nl.ou.dpd.parsing.PatternsParser;
+import nl.ou.dpd.parsing.PatternCatalogue;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -24,10 +23,11 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.net.URL;
-import java.util.HashMap;
-import java.util.List;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Map;
 import java.util.Observable;
+import java.util.function.BiConsumer;
 
 /**
  * Manages control flow of views.
@@ -45,8 +45,13 @@ public class Model extends Observable {
 
     private static final String NO_CONTROLLER_ERR_MSG = "Initialization error. No controller factory was set in model.";
     private static final String UNABLE_TO_OPEN_RESOURCE_MSG = "Unable to open resource '%s'.";
+    private static final String ANALYSIS_THREAD_NAME = "analysis";
+    private static final Path SNAPSHOT_CACHE_DIR = Paths.get(System.getProperty("user.home"), ".dpd", "cache");
 
     private final RetentionFileChooser fileChooser;
+    private final AnalysisEngine analysisEngine;
+    private final CachingArgoUMLParser systemParser;
+    private final PatternCatalogue patternCatalogue;
     private Scene scene;
     private Callback<Class<?>, Object> controllerFactory;
     private Project openProject = null;
@@ -59,6 +64,9 @@ public class Model extends Observable {
     public Model(Scene scene) {
         this.scene = scene;
         this.fileChooser = new RetentionFileChooser(new FileChooser());
+        this.analysisEngine = new AnalysisEngine();
+        this.systemParser = ParserFactory.createCachingArgoUMLParser(SNAPSHOT_CACHE_DIR);
+        this.patternCatalogue = ParserFactory.createPatternCatalogue(SNAPSHOT_CACHE_DIR);
     }
 
     /**
@@ -224,35 +232,29 @@ public class Model extends Observable {
     }
 
     /**
-     * Parses the specified input files, and attempts to detect design patterns defined in the template file, in the
-     * "system under consideration" file. The results are gathered in a {@link Map} containing {@link List}s of
-     * {@link PatternInspector.MatchingResult}s as values, and the name of the pattern as key.
+     * Starts an {@link AnalysisTask} in the background, that parses the specified input files, and attempts to detect
+     * design patterns defined in the template file, in the "system under consideration" file. The results are gathered
+     * in a {@link Map} containing {@link PatternInspector.MatchingResult}s as values, and the name of the pattern as
+     * key. The design patterns are inspected concurrently by the {@link AnalysisEngine}. A system that has not changed
+     * since it was analysed before is read from its snapshot in the cache (see {@link CachingArgoUMLParser}), and a
+     * template file is parsed only once (see {@link PatternCatalogue}).
      *
-     * @return a {@link Map} containing the gathered results
+     * @param onPatternAnalysed is called on the JavaFX application thread with the key and the result of every design
+     *                          pattern as soon as it has been analysed
+     * @return the running {@link AnalysisTask}, reporting progress and providing the gathered results
      */
-    public Map<String, PatternInspector.MatchingResult> analyse() {
-        // Parse the xmi input file
-        final ArgoUMLParser argoUMLParser = ParserFactory.createArgoUMLParser();
-        final SystemUnderConsideration system = argoUMLParser.parse(openProject.getSystemUnderConsiderationFilePath());
-
-        // Parse the xml input file
-        final PatternsParser patternsParser = ParserFactory.createPatternParser();
-        final List<DesignPattern> designPatterns = patternsParser.parse(openProject.getDesignPatternFilePath());
-
-        // Analyse the system under consideration
-        final Map<String, PatternInspector.MatchingResult> assembledMatchResults = new HashMap<>();
-        designPatterns.forEach(pattern -> {
-            final PatternInspector patternInspector = new PatternInspector(system, pattern);
-            final String patternName = pattern.getName();
-            final String patternFamilyName = pattern.getFamily();
-            String key = patternName;
-            if (!patternName.equals(patternFamilyName)) {
-                key = String.format("%s (%s)", patternName, patternFamilyName);
-            }
-            assembledMatchResults.put(key, patternInspector.getMatchingResult());
-        });
-
-        return assembledMatchResults;
+    public AnalysisTask analyse(BiConsumer<String, PatternInspector.MatchingResult> onPatternAnalysed) {
+        final AnalysisTask task = new AnalysisTask(
+                analysisEngine,
+                systemParser,
+                patternCatalogue,
+                openProject.getSystemUnderConsiderationFilePath(),
+                openProject.getDesignPatternFilePath(),
+                onPatternAnalysed);
+        final Thread thread = new Thread(task, ANALYSIS_THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+        return task;
     }
 
     private File chooseFile(String filterDescription, String... filterExtension) {
@@ -4,22 +4,23 @@ import nl.ou.dpd.domain.node.Node;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Stack;
 
 /**
  * An abstract parent class of specified ArgoUML parsers. This abstract parent class contains shared functionality of
  * inheriting classes.
+ * <p>
+ * The XMI file is read with an {@link XMLStreamReader}. Inheriting classes are presented with an {@link XmiElement} for
+ * every start and end of an element, which is a view on the current position of the reader. Attributes are read from
+ * the reader by index, only when they are asked for.
  *
  * @author Martin de Boer
  */
@@ -36,14 +37,6 @@ public abstract class ArgoUMLAbstractParser {
     protected static final String IS_ABSTRACT_ATTRIBUTE = "isAbstract";
     protected static final String IS_NAVIGABLE_ATTRIBUTE = "isNavigable";
 
-    //XMI tags
-    protected static final String MODEL_TAG = "Model";
-    protected static final String CLASS_TAG = "Class";
-    protected static final String DATATYPE_TAG = "DataType";
-    protected static final String INTERFACE_TAG = "Interface";
-    protected static final String ATTRIBUTE_TAG = "Attribute";
-    protected static final String DEPENDENCY_TAG = "Dependency";
-
     private static final Logger LOGGER = LogManager.getLogger(ArgoUMLAbstractParser.class);
 
     static final String XMI_FILE_COULD_NOT_BE_PARSED_LONG_MSG = "The XMI file '%s' could not be parsed.";
@@ -57,16 +50,16 @@ public abstract class ArgoUMLAbstractParser {
      * This constructor has protected access so it can only be instantiated from within the same package (by the
      * ParserFactory or in a unit test in the same package).
      *
-     * @param xmlInputFactory used for instantiating {@link XMLEventReader}s processing XML files.
+     * @param xmlInputFactory used for instantiating {@link XMLStreamReader}s processing XML files.
      */
     protected ArgoUMLAbstractParser(XMLInputFactory xmlInputFactory) {
         this.xmlInputFactory = xmlInputFactory;
     }
 
     /**
-     * Contains the passed events. Keeps track of the hierarchical structure of the XMI-tags.
+     * Contains the passed elements. Keeps track of the hierarchical structure of the XMI-tags.
      */
-    protected Stack<XMLEvent> events = new Stack<>();
+    final XmiElementStack elements = new XmiElementStack();
 
     /**
      * Contains the collected nodes from the XMI-tags.
@@ -75,67 +68,134 @@ public abstract class ArgoUMLAbstractParser {
 
     protected void doParse(String filename) {
         try (InputStream input = new FileInputStream(new File(filename))) {
-            final XMLEventReader eventReader = xmlInputFactory.createXMLEventReader(input);
-            handleEvents(eventReader);
-        } catch (ParseException pe) {
-            // We don't need to repackage a ParseException in a ParseException.
-            // Rethrow ParseExceptions directly
-            throw pe;
+            final XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(input);
+            try {
+                handleElements(reader);
+            } finally {
+                reader.close();
+            }
         } catch (Exception e) {
-            String msg = String.format(XMI_FILE_COULD_NOT_BE_PARSED_LONG_MSG, filename);
-            error(msg, XMI_FILE_COULD_NOT_BE_PARSED_SHORT_MSG, e);
+            handleParseException(filename, e);
         }
     }
 
-    protected void handleEvents(XMLEventReader eventReader) throws XMLStreamException {
-        while (eventReader.hasNext()) {
-            XMLEvent event = eventReader.nextEvent();
-            handleEvent(event);
+    /**
+     * Handles the specified {@code elements}, that were read from the file with the specified {@code filename}
+     * previously, instead of reading the file again.
+     *
+     * @param filename the name of the file the elements were read from
+     * @param elements the elements to handle, in the order they were read from the file
+     */
+    void doParse(String filename, List<XmiElement> elements) {
+        try {
+            elements.forEach(this::handleElement);
+        } catch (Exception e) {
+            handleParseException(filename, e);
         }
     }
 
-    protected void handleEvent(XMLEvent event) {
-        if (event.isStartElement()) {
-            handleStartElement(event);
-        }
-        if (event.isEndElement()) {
-            handleEndElement(event);
+    private void handleParseException(String filename, Exception e) {
+        if (e instanceof ParseException) {
+            // We don't need to repackage a ParseException in a ParseException.
+            // Rethrow ParseExceptions directly
+            throw (ParseException) e;
         }
+        String msg = String.format(XMI_FILE_COULD_NOT_BE_PARSED_LONG_MSG, filename);
+        error(msg, XMI_FILE_COULD_NOT_BE_PARSED_SHORT_MSG, e);
     }
 
-    protected abstract void handleStartElement(XMLEvent event);
-
-    protected abstract void handleEndElement(XMLEvent event);
+    protected void handleElements(XMLStreamReader reader) throws XMLStreamException {
+        final CursorElement element = new CursorElement(reader);
+        while (reader.hasNext()) {
+            final int eventType = reader.next();
+            if (eventType == XMLStreamConstants.START_ELEMENT || eventType == XMLStreamConstants.END_ELEMENT) {
+                element.update();
+                handleElement(element);
+            }
+        }
+    }
 
-    /**
-     * Return an Attributes Map with the attribute name as key and the attribute value as value, retrieved from the
-     * specified {@link XMLEvent}.
-     *
-     * @param event the {@link XMLEvent} containing the attributes.
-     * @return a Map containing attributes, extracted from the {@code event}.
-     */
-    protected Map<String, String> readAttributes(XMLEvent event) {
-        final Map<String, String> attributes = new HashMap<>();
-        final Iterator<Attribute> attributeIterator = event.asStartElement().getAttributes();
-        while (attributeIterator.hasNext()) {
-            final Attribute attribute = attributeIterator.next();
-            final String name = attribute.getName().getLocalPart();
-            final String value = attribute.getValue();
-            attributes.put(name, value);
+    void handleElement(XmiElement element) {
+        if (element.isStartElement()) {
+            handleStartElement(element);
+        } else {
+            handleEndElement(element);
         }
-        return attributes;
     }
 
-    protected String getParentElementNameLocalPart() {
-        return getStartElementNameLocalPart(events.peek());
+    abstract void handleStartElement(XmiElement element);
+
+    abstract void handleEndElement(XmiElement element);
+
+    protected XmiTag getParentTag() {
+        return elements.peekTag();
     }
 
-    protected String getStartElementNameLocalPart(XMLEvent event) {
-        return event.asStartElement().getName().getLocalPart();
+    protected String getParentId() {
+        return elements.peekId();
     }
 
     protected void error(String longMsg, String shortMsg, Exception cause) {
         LOGGER.error(longMsg);
         throw new ParseException(shortMsg, cause);
     }
+
+    /**
+     * An {@link XmiElement} that is a view on the current position of an {@link XMLStreamReader}. A single instance is
+     * used for all the elements in a file.
+     */
+    private static final class CursorElement implements XmiElement {
+
+        private final XMLStreamReader reader;
+        private XmiTag tag;
+
+        private CursorElement(XMLStreamReader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * Looks up the tag of the element at the current position of the reader.
+         */
+        private void update() {
+            tag = XmiTag.valueOfLocalName(reader.getLocalName());
+        }
+
+        @Override
+        public XmiTag getTag() {
+            return tag;
+        }
+
+        @Override
+        public boolean isStartElement() {
+            return reader.isStartElement();
+        }
+
+        @Override
+        public String getAttribute(String localName) {
+            if (!reader.isStartElement()) {
+                return null;
+            }
+            for (int i = 0, count = reader.getAttributeCount(); i < count; i++) {
+                if (localName.equals(reader.getAttributeLocalName(i))) {
+                    return reader.getAttributeValue(i);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public XmiElement copy() {
+            if (!reader.isStartElement()) {
+                return XmiElementSnapshot.endOf(tag);
+            }
+            final int count = reader.getAttributeCount();
+            final String[] names = new String[count];
+            final String[] values = new String[count];
+            for (int i = 0; i < count; i++) {
+                names[i] = reader.getAttributeLocalName(i);
+                values[i] = reader.getAttributeValue(i);
+            }
+            return new XmiElementSnapshot(tag, true, names, values);
+        }
+    }
 }
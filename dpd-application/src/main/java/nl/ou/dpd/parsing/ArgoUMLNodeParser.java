@@ -9,16 +9,14 @@ import nl.ou.dpd.util.Util;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.XMLEvent;
-import java.util.Arrays;
+import javax.xml.stream.XMLStreamReader;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * This class implements a parser for a xmi-file as generated by the ArgoUML-modelling tool (see
@@ -44,10 +42,6 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
     private static final String UNLIMITED_INTEGER = "87D";
     private static final String BOOLEAN = "880";
 
-    // XMI tags
-    private static final String OPERATION_TAG = "Operation";
-    private static final String PARAMETER_TAG = "Parameter";
-
     private static final Map<String, String> typeMap = new HashMap<>();
     static {
         typeMap.put(STRING, String.class.getSimpleName());
@@ -56,11 +50,14 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
         typeMap.put(UNLIMITED_INTEGER, "UnlimitedInteger");
     }
 
-    private static final List<String> eventTags = Arrays.asList(new String[]{
-            MODEL_TAG, CLASS_TAG, INTERFACE_TAG, ATTRIBUTE_TAG, DATATYPE_TAG, OPERATION_TAG, PARAMETER_TAG
-    });
+    private static final Set<XmiTag> eventTags = EnumSet.of(
+            XmiTag.MODEL, XmiTag.CLASS, XmiTag.INTERFACE, XmiTag.ATTRIBUTE, XmiTag.DATATYPE, XmiTag.OPERATION,
+            XmiTag.PARAMETER);
 
     private Operation parentOperation;
+    private String parameterKind;
+    private Consumer<XmiElement> elementListener;
+    private Members members;
 
     /**
      * A constructor expecting an {@link XMLInputFactory}.
@@ -68,7 +65,7 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
      * This constructor has package protected access so it can only be instantiated from within the same package (by the
      * ParserFactory or in a unit test in the same package).
      *
-     * @param xmlInputFactory used for instantiating {@link XMLEventReader}s processing XML files.
+     * @param xmlInputFactory used for instantiating {@link XMLStreamReader}s processing XML files.
      */
     ArgoUMLNodeParser(XMLInputFactory xmlInputFactory) {
         super(xmlInputFactory);
@@ -82,61 +79,89 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
      * value is represented by the node itself.
      */
     Map<String, Node> parse(String filename) {
+        return parse(filename, element -> {
+        });
+    }
+
+    /**
+     * Parses an xmi file with the specified {@code filename}, passing every {@link XmiElement} read from the file to
+     * the specified {@code elementListener} after handling it. This allows other parsers to process the same elements,
+     * without reading the file again. The {@link XmiElement} is only valid during the call, and must be copied to be
+     * kept.
+     *
+     * @param filename        the name of the file to be parsed.
+     * @param elementListener is called with every {@link XmiElement} read from the file.
+     * @return a map of {@link Node}s including attributes and operations. The key is represented by the node id, the
+     * value is represented by the node itself.
+     */
+    Map<String, Node> parse(String filename, Consumer<XmiElement> elementListener) {
         this.nodes = new HashMap<>();
-        doParse(filename);
+        this.elementListener = elementListener;
+        this.members = new Members();
+        elements.clear();
+        try {
+            doParse(filename);
+        } finally {
+            // The members are only looked up while parsing
+            this.members = null;
+        }
         LOGGER.info(String.format("Parsed %d nodes from %s.", nodes.size(), filename));
         return nodes;
     }
 
-    protected void handleStartElement(XMLEvent event) {
-        switch (getStartElementNameLocalPart(event)) {
-            case MODEL_TAG:
-                events.push(event);
+    @Override
+    void handleElement(XmiElement element) {
+        super.handleElement(element);
+        elementListener.accept(element);
+    }
+
+    @Override
+    void handleStartElement(XmiElement element) {
+        final XmiTag tag = element.getTag();
+        switch (tag) {
+            case MODEL:
                 break;
-            case CLASS_TAG:
-            case INTERFACE_TAG:
-                handleNodeEvent(event);
-                events.push(event);
+            case CLASS:
+            case INTERFACE:
+                handleNodeEvent(element);
                 break;
-            case ATTRIBUTE_TAG:
-                handleAttributeEvent(event);
-                events.push(event);
+            case ATTRIBUTE:
+                handleAttributeEvent(element);
                 break;
-            case OPERATION_TAG:
-                handleOperationEvent(event);
-                events.push(event);
+            case OPERATION:
+                handleOperationEvent(element);
                 break;
-            case DATATYPE_TAG:
+            case DATATYPE:
                 //internal ArgoUML datatype of an attribute
-                handleDatatypeEvent(event);
-                events.push(event);
+                handleDatatypeEvent(element);
                 break;
-            case PARAMETER_TAG:
-                handleParameterEvent(event);
-                events.push(event);
+            case PARAMETER:
+                handleParameterEvent(element);
                 break;
             default:
-                break;
+                return;
         }
+        elements.push(tag, element.getAttribute(ID_ATTRIBUTE));
     }
 
-    protected void handleEndElement(XMLEvent event) {
-        if (eventTags.contains(event.asEndElement().getName().getLocalPart())) {
-            events.pop();
+    @Override
+    void handleEndElement(XmiElement element) {
+        if (eventTags.contains(element.getTag())) {
+            elements.pop();
         }
     }
 
-    private void handleNodeEvent(XMLEvent event) {
-        //look for the event one level higher
-        switch (getParentElementNameLocalPart()) {
-            case MODEL_TAG:
-                handleModelEvent(event);
+    private void handleNodeEvent(XmiElement element) {
+        //look for the element one level higher
+        switch (getParentTag()) {
+            case MODEL:
+                handleModelEvent(element);
                 break;
-            case ATTRIBUTE_TAG:
-                setAttributeType(readAttributes(event).get(IDREF_ATTRIBUTE));
+            case ATTRIBUTE:
+                setAttributeType(element.getAttribute(IDREF_ATTRIBUTE));
                 break;
-            case PARAMETER_TAG:
-                setParameterType(readAttributes(event).get(IDREF_ATTRIBUTE));
+            case PARAMETER:
+                setParameterType(element.getAttribute(IDREF_ATTRIBUTE));
                 break;
             default:
                 break;
@@ -146,10 +171,10 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
     /**
      * Create a node (a class or interface) and add it to the {@link Node}s map.
      *
-     * @param event the XML event
+     * @param element the XMI element
      */
-    private void handleModelEvent(XMLEvent event) {
-        Node node = findOrcreateNode(event);
+    private void handleModelEvent(XmiElement element) {
+        Node node = findOrcreateNode(element);
         if (node != null) {
             addNode(node);
         }
@@ -159,25 +184,25 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
      * Create an attribute WITHOUT its type (null) and add it to the attributes of Node.  A type will be added as a
      * special handling of the Class/Interface event.
      *
-     * @param event the attribute event
+     * @param element the attribute element
      */
-    private void handleAttributeEvent(XMLEvent event) {
-        Node node = nodes.get(readAttributes(events.peek()).get(ID_ATTRIBUTE));
-        createIncompleteAttribute(event, node);
+    private void handleAttributeEvent(XmiElement element) {
+        Node node = nodes.get(getParentId());
+        createIncompleteAttribute(element, node);
     }
 
     /**
      * Create an operation WITHOUT the types (null) of return values and parameters and add it to the operations of the
      * node. A type will be added as a special handling of the Class/Interface event.
      *
-     * @param event the operation event
+     * @param element the operation element
      */
-    private void handleOperationEvent(XMLEvent event) {
-        switch (getParentElementNameLocalPart()) {
-            case CLASS_TAG:
-            case INTERFACE_TAG:
-                Node node = nodes.get(readAttributes(events.peek()).get(ID_ATTRIBUTE));
-                createIncompleteOperation(event, node);
+    private void handleOperationEvent(XmiElement element) {
+        switch (getParentTag()) {
+            case CLASS:
+            case INTERFACE:
+                Node node = nodes.get(getParentId());
+                createIncompleteOperation(element, node);
                 break;
             default:
                 break;
@@ -188,21 +213,21 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
      * Create or find the node of this particular Datatype and set this type to the corresponding {@link Attribute} or
      * {@link Parameter}. See <a href="http://argouml.tigris.org//profiles/uml14/default-uml14.xmi"></a>.
      *
-     * @param event the datatype event
+     * @param element the datatype element
      */
-    private void handleDatatypeEvent(XMLEvent event) {
+    private void handleDatatypeEvent(XmiElement element) {
         //make a node if necessary
-        Node node = findOrCreateDatatypeNode(event);
+        Node node = findOrCreateDatatypeNode(element);
         if (node != null) {
             addNode(node);
         }
-        //look for the event one level higher
-        switch (getParentElementNameLocalPart()) {
-            case ATTRIBUTE_TAG:
-                setAttributeType(readAttributes(event).get(HREF_ATTRIBUTE));
+        //look for the element one level higher
+        switch (getParentTag()) {
+            case ATTRIBUTE:
+                setAttributeType(element.getAttribute(HREF_ATTRIBUTE));
                 break;
-            case PARAMETER_TAG:
-                setParameterType(readAttributes(event).get(HREF_ATTRIBUTE));
+            case PARAMETER:
+                setParameterType(element.getAttribute(HREF_ATTRIBUTE));
                 break;
             default:
                 break;
@@ -214,14 +239,14 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
      * memorize the {@link Operation} under consideration. Types will be set as a special handling of the
      * CLASS_TAG/INTERFACE_TAG event.
      *
-     * @param event the parameter event
+     * @param element the parameter element
      */
-    private void handleParameterEvent(XMLEvent event) {
-        final Map<String, String> attributes = readAttributes(event);
-        final String opId = readAttributes(events.peek()).get(ID_ATTRIBUTE);
+    private void handleParameterEvent(XmiElement element) {
+        final String opId = getParentId();
         final Operation operation = findOperationById(opId);
-        if (INPUT_ATTRIBUTE.equals(attributes.get(KIND_ATTRIBUTE))) {
-            createIncompleteParameter(event, operation);
+        parameterKind = element.getAttribute(KIND_ATTRIBUTE);
+        if (INPUT_ATTRIBUTE.equals(parameterKind)) {
+            createIncompleteParameter(element, operation);
         } else {
             parentOperation = operation;
         }
@@ -234,7 +259,7 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
      *              nodes.
      */
     private void setAttributeType(String idref) {
-        String attrId = readAttributes(events.peek()).get(ID_ATTRIBUTE);
+        String attrId = getParentId();
         final nl.ou.dpd.domain.node.Attribute attr = findAttributeById(attrId);
         Node node = nodes.get(idref);
         if (node == null) {
@@ -251,8 +276,8 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
      *              nodes.
      */
     private void setParameterType(String idref) {
-        String kind = readAttributes(events.peek()).get(KIND_ATTRIBUTE);
-        if (INPUT_ATTRIBUTE.equals(kind)) {
+        // The kind of the parameter element one level higher
+        if (INPUT_ATTRIBUTE.equals(parameterKind)) {
             setParameterInType(idref);
         } else {
             setParameterReturnType(idref);
@@ -266,7 +291,7 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
      *              nodes.
      */
     private void setParameterInType(String idref) {
-        String paramId = readAttributes(events.peek()).get(ID_ATTRIBUTE);
+        String paramId = getParentId();
         Parameter parameter = findParameterById(paramId);
         Node node = nodes.get(idref);
         if (node == null) {
@@ -304,19 +329,18 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
      * Find a {@link Node} with the ID_ATTRIBUTE specified in the attributes of the given event. If a node with this ID_ATTRIBUTE does not
      * exist, create it. Finally, set the appropriate properties of the (found or newly created) node.
      *
-     * @param event the {@link XMLEvent} currently handled. Contains the attributes necessary for the creation of a
-     *              node.
+     * @param element the {@link XmiElement} currently handled. Contains the attributes necessary for the creation of
+     *                a node.
      * @return the created/found {@link Node}.
      */
-    private Node findOrcreateNode(XMLEvent event) {
-        final Map<String, String> attributes = readAttributes(event);
-        final String id = attributes.get(ID_ATTRIBUTE);
+    private Node findOrcreateNode(XmiElement element) {
+        final String id = element.getAttribute(ID_ATTRIBUTE);
         if (id != null) {
             Node node = nodes.get(id);
             if (node == null) {
                 node = new Node(id);
             }
-            return addNodeProperties(node, event);
+            return addNodeProperties(node, element);
         }
         return null;
     }
@@ -324,26 +348,25 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
     /**
      * Set the properties of a {@link Node}, including the name, visibility, type and abstractness.
      *
-     * @param node  the {@link Node} to be handled
-     * @param event currently handled, containing the necessary attributes.
+     * @param node    the {@link Node} to be handled
+     * @param element currently handled, containing the necessary attributes.
      * @return the newly updated {@link Node}
      */
-    private Node addNodeProperties(Node node, XMLEvent event) {
-        final Map<String, String> attributes = readAttributes(event);
-        final String name = attributes.get(NAME_ATTRIBUTE);
-        final Set<NodeType> types = determineNodeTypes(event);
-        final Visibility visibility = Visibility.valueOfIgnoreCase(attributes.get(VISIBILITY_ATTRIBUTE));
+    private Node addNodeProperties(Node node, XmiElement element) {
+        final String name = element.getAttribute(NAME_ATTRIBUTE);
+        final Set<NodeType> types = determineNodeTypes(element);
+        final Visibility visibility = Visibility.valueOfIgnoreCase(element.getAttribute(VISIBILITY_ATTRIBUTE));
         node.setName(name);
         node.setVisibility(visibility);
         types.forEach(t -> node.addType(t));
         return node;
     }
 
-    private Set<NodeType> determineNodeTypes(XMLEvent event) {
+    private Set<NodeType> determineNodeTypes(XmiElement element) {
     	final Set<NodeType> types = new HashSet<>();
-        final String typeString = getStartElementNameLocalPart(event).toUpperCase();
-        final boolean isAbstract = Boolean.parseBoolean(readAttributes(event).get(IS_ABSTRACT_ATTRIBUTE));
-        if (typeString.equals("CLASS")) {
+        final XmiTag tag = element.getTag();
+        final boolean isAbstract = Boolean.parseBoolean(element.getAttribute(IS_ABSTRACT_ATTRIBUTE));
+        if (tag == XmiTag.CLASS) {
             if (isAbstract) {
             	types.add(NodeType.ABSTRACT_CLASS);
             	types.add(NodeType.ABSTRACT_CLASS_OR_INTERFACE);
@@ -351,7 +374,7 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
             	types.add(NodeType.CONCRETE_CLASS);
             }
         }
-        if (typeString.equals("INTERFACE")) {
+        if (tag == XmiTag.INTERFACE) {
         	types.add(NodeType.INTERFACE);
         	types.add(NodeType.ABSTRACT_CLASS_OR_INTERFACE);
         }
@@ -363,18 +386,18 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
      * If a node with this ID_ATTRIBUTE does not exist, create it.
      * Finally, set the appropriate properties of the (found or newly created) node.
      *
-     * @param event the {@link XMLEvent} currently handled. Contains the attributes necessary for the creation of a node.
+     * @param element the {@link XmiElement} currently handled. Contains the attributes necessary for the creation of
+     *                a node.
      * @return the created of found {@link Node}
      */
-    private Node findOrCreateDatatypeNode(XMLEvent event) {
-        final Map<String, String> attributes = readAttributes(event);
-        final String id = attributes.get(HREF_ATTRIBUTE);
+    private Node findOrCreateDatatypeNode(XmiElement element) {
+        final String id = element.getAttribute(HREF_ATTRIBUTE);
         Node node = null;
         if (id != null) {
             node = nodes.get(id);
             if (node == null) {
                 node = new Node(id);
-                node = addDataTypeProperties(node, event);
+                node = addDataTypeProperties(node, element);
             }
         }
         return node;
@@ -383,12 +406,12 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
     /**
      * Set the properties of a {@link Node} of the {@link NodeType#DATATYPE}, including the name, visibility, and type.
      *
-     * @param node  the {@link Node} to be handled
-     * @param event currently handled, containing the necessary attributes.
+     * @param node    the {@link Node} to be handled
+     * @param element currently handled, containing the necessary attributes.
      * @return the newly updated {@link Node}
      */
-    private Node addDataTypeProperties(Node node, XMLEvent event) {
-        final String typeId = Util.inverseSubstringOf(readAttributes(event).get(HREF_ATTRIBUTE), 3);
+    private Node addDataTypeProperties(Node node, XmiElement element) {
+        final String typeId = Util.inverseSubstringOf(element.getAttribute(HREF_ATTRIBUTE), 3);
         node.setName(typeMap.get(typeId));
         node.setVisibility(Visibility.PUBLIC);
         node.addType(NodeType.DATATYPE);
@@ -399,83 +422,70 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
      * Create a new node attribute with the name and visibility specified in the event's attributes.
      * The type is not set. The attribute is added to the {@code parentNode}.
      *
-     * @param event      the {@link XMLEvent} containing the name and type in its attributes.
+     * @param element    the {@link XmiElement} containing the name and type in its attributes.
      * @param parentNode the node to add the attribute to
      */
-    private void createIncompleteAttribute(XMLEvent event, Node parentNode) {
-        final Map<String, String> attributes = readAttributes(event);
-        final String id = attributes.get(ID_ATTRIBUTE);
-        final String name = attributes.get(NAME_ATTRIBUTE);
-        final Visibility visibility = Visibility.valueOfIgnoreCase(attributes.get(VISIBILITY_ATTRIBUTE));
+    private void createIncompleteAttribute(XmiElement element, Node parentNode) {
+        final String id = element.getAttribute(ID_ATTRIBUTE);
+        final String name = element.getAttribute(NAME_ATTRIBUTE);
+        final Visibility visibility = Visibility.valueOfIgnoreCase(element.getAttribute(VISIBILITY_ATTRIBUTE));
         final nl.ou.dpd.domain.node.Attribute attr = new nl.ou.dpd.domain.node.Attribute(id, parentNode);
         attr.setName(name);
         attr.setVisibility(visibility);
+        members.attributes.putIfAbsent(id, attr);
     }
 
     /**
      * Create a new method 'in'-parameter with the name asspecified in the event's attributes.
      * The type is not set. The parameter is added to the specified operation.
      *
-     * @param event     the {@link XMLEvent} containing the name and type in its attributes.
+     * @param element   the {@link XmiElement} containing the name and type in its attributes.
      * @param operation the {@link Operation} to add the parameter to.
      */
-    private void createIncompleteParameter(XMLEvent event, Operation operation) {
-        final Map<String, String> attributes = readAttributes(event);
-        final String id = attributes.get(ID_ATTRIBUTE);
-        final String name = attributes.get(NAME_ATTRIBUTE);
+    private void createIncompleteParameter(XmiElement element, Operation operation) {
+        final String id = element.getAttribute(ID_ATTRIBUTE);
+        final String name = element.getAttribute(NAME_ATTRIBUTE);
         final Parameter parameter = new Parameter(id, operation);
         parameter.setName(name);
+        members.parameters.putIfAbsent(id, parameter);
     }
 
     /**
      * Create a new node operation with the name, type and visibility specified in the event's attributes.
      * ReturnType and parameters are not set. The operation is added to the specified parentNode.
      *
-     * @param event      the {@link XMLEvent} containing the name and type in its attributes.
+     * @param element    the {@link XmiElement} containing the name and type in its attributes.
      * @param parentNode the {@link Node} to add the {@link Operation} to
      */
-    private void createIncompleteOperation(XMLEvent event, Node parentNode) {
-        final Map<String, String> attributes = readAttributes(event);
-        final String id = attributes.get(ID_ATTRIBUTE);
-        final String name = attributes.get(NAME_ATTRIBUTE);
-        final Visibility visibility = Visibility.valueOfIgnoreCase(attributes.get(VISIBILITY_ATTRIBUTE));
+    private void createIncompleteOperation(XmiElement element, Node parentNode) {
+        final String id = element.getAttribute(ID_ATTRIBUTE);
+        final String name = element.getAttribute(NAME_ATTRIBUTE);
+        final Visibility visibility = Visibility.valueOfIgnoreCase(element.getAttribute(VISIBILITY_ATTRIBUTE));
         final Operation operation = new Operation(id, parentNode);
         operation.setName(name).setVisibility(visibility);
+        members.operations.putIfAbsent(id, operation);
     }
 
     private nl.ou.dpd.domain.node.Attribute findAttributeById(String id) {
-        for (Node n : nodes.values()) {
-            for (nl.ou.dpd.domain.node.Attribute a : n.getAttributes()) {
-                if (id.equals(a.getId())) {
-                    return a;
-                }
-            }
-        }
-        return null;
+        return members.attributes.get(id);
     }
 
     private Operation findOperationById(String id) {
-        for (Node n : nodes.values()) {
-            for (Operation op : n.getOperations()) {
-                if (id.equals(op.getId())) {
-                    return op;
-                }
-            }
-        }
-        return null;
+        return members.operations.get(id);
     }
 
     private Parameter findParameterById(String id) {
-        for (Node n : nodes.values()) {
-            for (Operation op : n.getOperations()) {
-                for (Parameter param : op.getParameters()) {
-                    if (id.equals(param.getId())) {
-                        return param;
-                    }
-                }
-            }
-        }
-        return null;
+        return members.parameters.get(id);
+    }
+
+    /**
+     * The attributes, operations and parameters created while parsing a file, by their id. The members are looked up
+     * when their types are parsed, which would otherwise require searching all members of all nodes parsed so far.
+     */
+    private static class Members {
+        private final Map<String, nl.ou.dpd.domain.node.Attribute> attributes = new HashMap<>();
+        private final Map<String, Operation> operations = new HashMap<>();
+        private final Map<String, Parameter> parameters = new HashMap<>();
     }
 
 }
@@ -1,8 +1,12 @@
 package nl.ou.dpd.parsing;
 
 import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Node;
 
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * A parser for ArgoUML export files (*.xmi). This parser creates an instance of {@link SystemUnderConsideration}
@@ -16,13 +20,22 @@ import java.net.URL;
  */
 public class ArgoUMLParser {
 
+    /**
+     * The version of the parsers and the {@link SystemRelationsExtractor}. It is part of the key of the snapshots of
+     * parsed systems (see {@link CachingArgoUMLParser}), so it must be incremented whenever a change to the parsing
+     * changes the resulting {@link SystemUnderConsideration}.
+     */
+    static final int VERSION = 2;
+
     private final ArgoUMLNodeParser nodeparser;
     private final ArgoUMLRelationParser relationparser;
     private final SystemRelationsExtractor systemRelationsExtractor;
+    private final boolean singlePass;
 
     /**
      * Creates a (compound) parser, consisting of the specified {@link ArgoUMLNodeParser}, {@link ArgoUMLRelationParser}
-     * and {@link SystemRelationsExtractor}.
+     * and {@link SystemRelationsExtractor}. The parser reads the xmi file twice: once for the nodes, and once for the
+     * relations.
      * <p>
      * This constructor has package protected access so it can only be instantiated from within the same package (by the
      * ParserFactory or in a unit test in the same package).
@@ -35,9 +48,35 @@ public class ArgoUMLParser {
             ArgoUMLNodeParser nodeparser,
             ArgoUMLRelationParser relationparser,
             SystemRelationsExtractor systemRelationsExtractor) {
+        this(nodeparser, relationparser, systemRelationsExtractor, false);
+    }
+
+    /**
+     * Creates a (compound) parser, consisting of the specified {@link ArgoUMLNodeParser}, {@link ArgoUMLRelationParser}
+     * and {@link SystemRelationsExtractor}.
+     * <p>
+     * In single pass mode, the xmi file is read only once. While the nodes are parsed, the elements that are relevant to
+     * the {@link ArgoUMLRelationParser} are collected. Relations may refer to nodes that appear further on in the file,
+     * so the collected elements are handed to the {@link ArgoUMLRelationParser} when the file has been read completely.
+     * The resulting {@link SystemUnderConsideration} is identical to the one created by reading the file twice.
+     * <p>
+     * This constructor has package protected access so it can only be instantiated from within the same package (by the
+     * ParserFactory or in a unit test in the same package).
+     *
+     * @param nodeparser               a parser for the nodes in the ArgoUML input xmi
+     * @param relationparser           a parser for the relations in the ArgoUML input xmi
+     * @param systemRelationsExtractor the system relation extractor performing a kind of post-parsing
+     * @param singlePass               {@code true} to read the xmi file only once, or {@code false} to read it twice
+     */
+    ArgoUMLParser(
+            ArgoUMLNodeParser nodeparser,
+            ArgoUMLRelationParser relationparser,
+            SystemRelationsExtractor systemRelationsExtractor,
+            boolean singlePass) {
         this.nodeparser = nodeparser;
         this.relationparser = relationparser;
         this.systemRelationsExtractor = systemRelationsExtractor;
+        this.singlePass = singlePass;
     }
 
     /**
@@ -57,7 +96,20 @@ public class ArgoUMLParser {
      * @return a new {@link SystemUnderConsideration}.
      */
     public SystemUnderConsideration parse(String xmiFilename) {
+        if (singlePass) {
+            return systemRelationsExtractor.execute(parseSinglePass(xmiFilename));
+        }
         return systemRelationsExtractor.execute(relationparser.parse(xmiFilename, nodeparser.parse(xmiFilename)));
     }
 
+    private SystemUnderConsideration parseSinglePass(String xmiFilename) {
+        final List<XmiElement> relationElements = new ArrayList<>();
+        final Map<String, Node> nodes = nodeparser.parse(xmiFilename, element -> {
+            if (relationparser.isRelevant(element)) {
+                relationElements.add(element.copy());
+            }
+        });
+        return relationparser.parse(xmiFilename, nodes, relationElements);
+    }
+
 }
@@ -9,12 +9,10 @@ import nl.ou.dpd.domain.relation.RelationType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.events.XMLEvent;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.HashSet;
+import javax.xml.stream.XMLStreamReader;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -39,32 +37,24 @@ public class ArgoUMLRelationParser extends ArgoUMLAbstractParser {
 
     static final String REVERSED_POSTFIX = "-reversed";
 
-    // XMI tags
-    private static final String ASSOCIATION_TAG = "Association";
-    private static final String ABSTRACTION_TAG = "Abstraction";
-    private static final String GENERALIZATION_TAG = "Generalization";
-    private static final String ASSOCIATION_END_TAG = "AssociationEnd";
-    private static final String MULTIPLICITY_RANGE_TAG = "MultiplicityRange";
-
     // XMI attributes
     private static final String LOWER_ATTRIBUTE = "lower";
     private static final String UPPER_ATTRIBUTE = "upper";
 
-    private static final Map<String, Set<RelationType>> RELATION_TYPE_BY_STRING_MAP = new HashMap<>();
+    private static final Map<XmiTag, Set<RelationType>> RELATION_TYPE_BY_TAG_MAP = new EnumMap<>(XmiTag.class);
 
     static {
-        RELATION_TYPE_BY_STRING_MAP.put(ATTRIBUTE_TAG, new HashSet<>(Arrays.asList(RelationType.HAS_ATTRIBUTE_OF)));
-        RELATION_TYPE_BY_STRING_MAP.put(ASSOCIATION_TAG, new HashSet<>(Arrays.asList(RelationType.ASSOCIATES_WITH)));
-        RELATION_TYPE_BY_STRING_MAP.put(ABSTRACTION_TAG, new HashSet<>(Arrays.asList(RelationType.IMPLEMENTS, RelationType.INHERITS_FROM_OR_IMPLEMENTS)));
-        RELATION_TYPE_BY_STRING_MAP.put(GENERALIZATION_TAG, new HashSet<>(Arrays.asList(RelationType.INHERITS_FROM, RelationType.INHERITS_FROM_OR_IMPLEMENTS)));
+        RELATION_TYPE_BY_TAG_MAP.put(XmiTag.ATTRIBUTE, EnumSet.of(RelationType.HAS_ATTRIBUTE_OF));
+        RELATION_TYPE_BY_TAG_MAP.put(XmiTag.ASSOCIATION, EnumSet.of(RelationType.ASSOCIATES_WITH));
+        RELATION_TYPE_BY_TAG_MAP.put(XmiTag.ABSTRACTION, EnumSet.of(RelationType.IMPLEMENTS, RelationType.INHERITS_FROM_OR_IMPLEMENTS));
+        RELATION_TYPE_BY_TAG_MAP.put(XmiTag.GENERALIZATION, EnumSet.of(RelationType.INHERITS_FROM, RelationType.INHERITS_FROM_OR_IMPLEMENTS));
     }
 
-    private static final List<String> eventTags = Arrays.asList(new String[]{
-            MODEL_TAG, CLASS_TAG, INTERFACE_TAG, ASSOCIATION_TAG, ASSOCIATION_END_TAG,
-            MULTIPLICITY_RANGE_TAG, ABSTRACTION_TAG, DEPENDENCY_TAG, GENERALIZATION_TAG
-    });
+    private static final Set<XmiTag> eventTags = EnumSet.of(
+            XmiTag.MODEL, XmiTag.CLASS, XmiTag.INTERFACE, XmiTag.ASSOCIATION, XmiTag.ASSOCIATION_END,
+            XmiTag.MULTIPLICITY_RANGE, XmiTag.ABSTRACTION, XmiTag.DEPENDENCY, XmiTag.GENERALIZATION);
 
-    private Relation lastRelation; //holds the information of the last Relation.
+    private Relation.Builder lastRelation; //holds the information of the last Relation.
     private SystemUnderConsideration system; // The system under consideration that will be returned.
     private Stack<Node> sourceAndTarget; // Keeps track of source and target vertices. If size is 2, an edge can be made.
     private Stack<Boolean> navigabilities; // Keeps track of the isNavigable attribute which determines directed or undirected associations.
@@ -76,7 +66,7 @@ public class ArgoUMLRelationParser extends ArgoUMLAbstractParser {
      * This constructor has package protected access so it can only be instantiated from within the same package (by the
      * ParserFactory or in a unit test in the same package).
      *
-     * @param xmlInputFactory used for instantiating {@link XMLEventReader}s processing XML files.
+     * @param xmlInputFactory used for instantiating {@link XMLStreamReader}s processing XML files.
      */
     ArgoUMLRelationParser(XMLInputFactory xmlInputFactory) {
         super(xmlInputFactory);
@@ -96,87 +86,115 @@ public class ArgoUMLRelationParser extends ArgoUMLAbstractParser {
         return system;
     }
 
+    /**
+     * Parses the specified {@code elements}, that were read from an xmi file with the specified {@code filename}
+     * previously. This allows the elements to be collected while the {@link ArgoUMLNodeParser} reads the file, so the
+     * file needs to be read only once. Only the elements that are relevant to this parser need to be collected (see
+     * {@link #isRelevant(XmiElement)}).
+     *
+     * @param filename the name of the file the elements were read from.
+     * @param nodes    the nodes that were parsed previously by the {@link ArgoUMLNodeParser}.
+     * @param elements the elements read from the file, in the original order.
+     * @return a new {@link SystemUnderConsideration}.
+     */
+    SystemUnderConsideration parse(String filename, Map<String, Node> nodes, List<XmiElement> elements) {
+        initParse(nodes);
+        doParse(filename, elements);
+        LOGGER.info(String.format("Parsed %d relations from '%s'.", system.edgeSet().size(), filename));
+        return system;
+    }
+
+    /**
+     * Determines whether the specified {@code element} is relevant to this parser. Elements that are not relevant are
+     * ignored by this parser, and need not be collected for {@link #parse(String, Map, List)}.
+     *
+     * @param element the {@link XmiElement} to check.
+     * @return {@code true} if the element is the start or the end of an element handled by this parser, or
+     * {@code false} otherwise.
+     */
+    boolean isRelevant(XmiElement element) {
+        return eventTags.contains(element.getTag());
+    }
+
     private void initParse(Map<String, Node> nodes) {
         this.nodes = nodes;
+        elements.clear();
         navigabilities = new Stack<>();
         sourceAndTarget = new Stack<>();
         cardinalities = new Stack<>();
     }
 
-    protected void handleStartElement(XMLEvent event) {
-        switch (getStartElementNameLocalPart(event)) {
-            case MODEL_TAG:
-                system = createSystem(event);
+    @Override
+    void handleStartElement(XmiElement element) {
+        final XmiTag tag = element.getTag();
+        switch (tag) {
+            case MODEL:
+                system = createSystem(element);
                 nodes.values().forEach(node -> system.addVertex(node));
-                events.push(event);
                 break;
-            case CLASS_TAG:
-            case INTERFACE_TAG:
-                handleNodeEvent(event);
-                events.push(event);
+            case CLASS:
+            case INTERFACE:
+                handleNodeEvent(element);
                 break;
-            case ASSOCIATION_TAG:
-                handleAssociationEvent(event);
-                events.push(event);
+            case ASSOCIATION:
+                handleAssociationEvent(element);
                 break;
-            case ABSTRACTION_TAG:
-            case GENERALIZATION_TAG:
-                handleInheritance(event);
-                events.push(event);
+            case ABSTRACTION:
+            case GENERALIZATION:
+                handleInheritance(element);
                 break;
-            case ASSOCIATION_END_TAG:
-                handleAssociationEndEvent(event);
-                events.push(event);
+            case ASSOCIATION_END:
+                handleAssociationEndEvent(element);
                 break;
-            case DEPENDENCY_TAG:
-                handleDependencyEvent(event);
-                events.push(event);
+            case DEPENDENCY:
+                handleDependencyEvent(element);
                 break;
-            case MULTIPLICITY_RANGE_TAG:
-                handleMultiplicityRangeEvent(event);
-                events.push(event);
+            case MULTIPLICITY_RANGE:
+                handleMultiplicityRangeEvent(element);
                 break;
             default:
-                break;
+                return;
         }
+        elements.push(tag, null);
     }
 
     /**
-     * Remove an {@link XMLEvent} from the stack.
+     * Remove an {@link XmiElement} from the stack.
      *
-     * @param event the {@link XMLEvent} to remove.
+     * @param element the end of the {@link XmiElement} to remove.
      */
-    protected void handleEndElement(XMLEvent event) {
-        if (eventTags.contains(event.asEndElement().getName().getLocalPart())) {
-            events.pop();
+    @Override
+    void handleEndElement(XmiElement element) {
+        if (eventTags.contains(element.getTag())) {
+            elements.pop();
         }
     }
 
     /**
-     * Create a new {@link SystemUnderConsideration} with the id and name that are specified in the event.
+     * Create a new {@link SystemUnderConsideration} with the id and name that are specified in the element.
      *
-     * @param event the {@link XMLEvent} that specifies the name and the id of the {@link SystemUnderConsideration}
-     * @return a new {@link SystemUnderConsideration} with the id and name specified in the event.
+     * @param element the {@link XmiElement} that specifies the name and the id of the {@link SystemUnderConsideration}
+     * @return a new {@link SystemUnderConsideration} with the id and name specified in the element.
      */
-    private SystemUnderConsideration createSystem(XMLEvent event) {
-        final String id = readAttributes(event).get(ID_ATTRIBUTE);
-        final String name = readAttributes(event).get(NAME_ATTRIBUTE);
+    private SystemUnderConsideration createSystem(XmiElement element) {
+        final String id = element.getAttribute(ID_ATTRIBUTE);
+        final String name = element.getAttribute(NAME_ATTRIBUTE);
         return new SystemUnderConsideration(id, name);
     }
 
     /**
-     * Handles the attribute and Interface events, based on the event on level higher.
+     * Handles the attribute and Interface elements, based on the element on level higher.
      *
-     * @param event the {@link XMLEvent} to handle.
+     * @param element the {@link XmiElement} to handle.
      */
-    private void handleNodeEvent(XMLEvent event) {
-        //look for the event one level higher
-        switch (getParentElementNameLocalPart()) {
-            case ASSOCIATION_END_TAG:
-            case ABSTRACTION_TAG:
-            case GENERALIZATION_TAG:
-            case DEPENDENCY_TAG:
-                setSourceOrTargetNode(event);
+    private void handleNodeEvent(XmiElement element) {
+        //look for the element one level higher
+        switch (getParentTag()) {
+            case ASSOCIATION_END:
+            case ABSTRACTION:
+            case GENERALIZATION:
+            case DEPENDENCY:
+                setSourceOrTargetNode(element);
                 break;
             default:
                 break;
@@ -186,64 +204,66 @@ public class ArgoUMLRelationParser extends ArgoUMLAbstractParser {
     /**
      * Find or create an {@link Relation} and add the {@link RelationType}.
      *
-     * @param event the {@link XMLEvent} containing the name and id in its attributes.
+     * @param element the {@link XmiElement} containing the name and id in its attributes.
      */
-    private void handleAssociationEvent(XMLEvent event) {
-        final String id = readAttributes(event).get(ID_ATTRIBUTE);
-        final String name = readAttributes(event).get(NAME_ATTRIBUTE);
-        lastRelation = findSystemRelationById(id);
-        if (lastRelation == null) {
+    private void handleAssociationEvent(XmiElement element) {
+        final String id = element.getAttribute(ID_ATTRIBUTE);
+        final String name = element.getAttribute(NAME_ATTRIBUTE);
+        final Relation relation = findSystemRelationById(id);
+        if (relation == null) {
             lastRelation = createIncompleteRelation(id, name);
+        } else {
+            lastRelation = relation.toBuilder();
         }
-        final Set<RelationType> rts = findRelationTypesByString(getStartElementNameLocalPart(event));
-        rts.forEach(rt -> lastRelation.getRelationProperties().add(new RelationProperty(rt)));
+        final Set<RelationType> rts = findRelationTypesByTag(element.getTag());
+        rts.forEach(rt -> lastRelation.addRelationProperty(new RelationProperty(rt)));
     }
 
     /**
      * Adds an inheritance, abstraction (realization) or generalization (inheritance)) relation to the system under
      * consideration.
      *
-     * @param event the {@link XMLEvent} that contains the id and name in its attributes.
+     * @param element the {@link XmiElement} that contains the id and name in its attributes.
      */
-    private void handleInheritance(XMLEvent event) {
-        if (MODEL_TAG.equals(getParentElementNameLocalPart())) {
-            final String id = readAttributes(event).get(ID_ATTRIBUTE);
-            final String name = readAttributes(event).get(NAME_ATTRIBUTE);
+    private void handleInheritance(XmiElement element) {
+        if (getParentTag() == XmiTag.MODEL) {
+            final String id = element.getAttribute(ID_ATTRIBUTE);
+            final String name = element.getAttribute(NAME_ATTRIBUTE);
             lastRelation = createIncompleteRelation(id, name);
 
-            final Set<RelationType> rts = findRelationTypesByString(getStartElementNameLocalPart(event));
-            rts.forEach(rt -> lastRelation.getRelationProperties().add(new RelationProperty(rt)));
+            final Set<RelationType> rts = findRelationTypesByTag(element.getTag());
+            rts.forEach(rt -> lastRelation.addRelationProperty(new RelationProperty(rt)));
         }
     }
 
-    private Set<RelationType> findRelationTypesByString(String relationType) {
-        return RELATION_TYPE_BY_STRING_MAP.get(relationType);
+    private Set<RelationType> findRelationTypesByTag(XmiTag tag) {
+        return RELATION_TYPE_BY_TAG_MAP.get(tag);
     }
 
     /**
      * Keep track of the navigabilities of the association in order to find out if the association is directed.
      *
-     * @param event the {@link XMLEvent} containing the necessary XML attributes
+     * @param element the {@link XmiElement} containing the necessary XML attributes
      */
-    private void handleAssociationEndEvent(XMLEvent event) {
+    private void handleAssociationEndEvent(XmiElement element) {
         //association directed if first node !isNavigable and second node isNavigable
         //will be used when an association edge is created
-        navigabilities.push(Boolean.valueOf(readAttributes(event).get(IS_NAVIGABLE_ATTRIBUTE)));
+        navigabilities.push(Boolean.valueOf(element.getAttribute(IS_NAVIGABLE_ATTRIBUTE)));
     }
 
     /**
      * Find or create an {@link Relation} and add the {@link RelationType}.
      *
-     * @param event the {@link XMLEvent} containing the necessary XML attributes
+     * @param element the {@link XmiElement} containing the necessary XML attributes
      */
-    private void handleDependencyEvent(XMLEvent event) {
-        if (CLASS_TAG.equals(getParentElementNameLocalPart())) {
-            final String id = readAttributes(event).get(ID_ATTRIBUTE);
-            final String name = readAttributes(event).get(NAME_ATTRIBUTE);
+    private void handleDependencyEvent(XmiElement element) {
+        if (getParentTag() == XmiTag.CLASS) {
+            final String id = element.getAttribute(ID_ATTRIBUTE);
+            final String name = element.getAttribute(NAME_ATTRIBUTE);
             if (id != null && findSystemRelationById(id) == null) {
                 //create an incomplete relation if the relation does not exist yet
                 lastRelation = createIncompleteRelation(id, name);
-                lastRelation.getRelationProperties().add(new RelationProperty(RelationType.DEPENDS_ON));
+                lastRelation.addRelationProperty(new RelationProperty(RelationType.DEPENDS_ON));
             }
         }
     }
@@ -251,25 +271,25 @@ public class ArgoUMLRelationParser extends ArgoUMLAbstractParser {
     /**
      * Sets the multiplicity of an association end.
      *
-     * @param event the {@link XMLEvent} containing the necessary XML attributes
+     * @param element the {@link XmiElement} containing the necessary XML attributes
      */
-    private void handleMultiplicityRangeEvent(XMLEvent event) {
-        if (!events.empty() && getParentElementNameLocalPart().equals(ASSOCIATION_END_TAG)) {
-            final Map<String, String> attributes = readAttributes(event);
-            final int lower = Integer.parseInt(attributes.get(LOWER_ATTRIBUTE));
-            final int upper = Integer.parseInt(attributes.get(UPPER_ATTRIBUTE));
-            final RelationProperty rp = findRelationPropertyByType(lastRelation, RelationType.ASSOCIATES_WITH);
-            if (rp != null) {
+    private void handleMultiplicityRangeEvent(XmiElement element) {
+        if (!elements.isEmpty() && getParentTag() == XmiTag.ASSOCIATION_END) {
+            final int lower = Integer.parseInt(element.getAttribute(LOWER_ATTRIBUTE));
+            final int upper = Integer.parseInt(element.getAttribute(UPPER_ATTRIBUTE));
+            if (lastRelation.hasRelationType(RelationType.ASSOCIATES_WITH)) {
                 cardinalities.push(new Cardinality(lower, upper));
                 if (cardinalities.size() == 2) {
-                    rp.setCardinalityRight(cardinalities.pop()).setCardinalityLeft(cardinalities.pop());
+                    final Cardinality cardinalityRight = cardinalities.pop();
+                    final Cardinality cardinalityLeft = cardinalities.pop();
+                    lastRelation.setCardinalities(RelationType.ASSOCIATES_WITH, cardinalityLeft, cardinalityRight);
                 }
             }
         }
     }
 
-    private void setSourceOrTargetNode(XMLEvent event) {
-        final String idref = readAttributes(event).get(IDREF_ATTRIBUTE);
+    private void setSourceOrTargetNode(XmiElement element) {
+        final String idref = element.getAttribute(IDREF_ATTRIBUTE);
         final Node node = nodes.get(idref);
         //add node to system (if new Node, e.g. datatype)
         system.addVertex(node);
@@ -282,31 +302,31 @@ public class ArgoUMLRelationParser extends ArgoUMLAbstractParser {
     private void addEdgeToSystem() {
         final Node targetNode = sourceAndTarget.pop();
         final Node sourceNode = sourceAndTarget.pop();
-        boolean added = system.addEdge(sourceNode, targetNode, lastRelation);
+        final Relation relation = lastRelation.build();
+        boolean added = system.addEdge(sourceNode, targetNode, relation);
         if (!added) {
             //add the new relationproperties to the existing relation
-            addRelationProperties(lastRelation, system.getEdge(sourceNode, targetNode));
+            final Relation existingRelation = system.getEdge(sourceNode, targetNode);
+            if (existingRelation != null) {
+                addRelationProperties(relation, existingRelation);
+            }
         }
         addReverseRelation(sourceNode, targetNode);
     }
 
     private Relation findSystemRelationById(String id) {
-        return system.edgeSet().stream()
-                .filter(relation -> relation.getId().equals(id))
-                .findFirst()
-                .orElse(null);
+        return system.getRelationById(id);
     }
 
     /**
-     * Adds the {@link RelationProperty} (or properties) of the source to the target.
+     * Adds the {@link RelationProperty} (or properties) of the source to the target. The target is replaced in the
+     * system by a {@link Relation} containing the properties of both.
      *
      * @param source the {@link Relation} to get the properties from
      * @param target the {@link Relation} to add the properties to
      */
     private void addRelationProperties(Relation source, Relation target) {
-        for (RelationProperty srcProperty : source.getRelationProperties()) {
-            target.addRelationProperty(srcProperty);
-        }
+        system.replaceEdge(target, target.toBuilder().addRelationProperties(source.getRelationProperties()).build());
     }
 
     /**
@@ -318,58 +338,44 @@ public class ArgoUMLRelationParser extends ArgoUMLAbstractParser {
      */
     private void addReverseRelation(Node sourceNode, Node targetNode) {
         final Relation relation = system.getEdge(sourceNode, targetNode);
-        final boolean isAssociation = containsRelationType(relation, RelationType.ASSOCIATES_WITH);
+        final boolean isAssociation = relation.hasRelationType(RelationType.ASSOCIATES_WITH);
         if (isAssociation) {
             final boolean reverseRelationExists = system.containsEdge(targetNode, sourceNode);
             if (!reverseRelationExists && navigabilities.size() == 2) {
                 final boolean nav1 = navigabilities.pop();
                 final boolean nav2 = navigabilities.pop();
                 if (nav1 && nav2) {
-                    lastRelation = createReverseAssociation(relation, sourceNode, targetNode);
+                    lastRelation = createReverseAssociation(relation, sourceNode, targetNode).toBuilder();
                 }
             }
         }
     }
 
     private Relation createReverseAssociation(Relation originalRelation, Node originalSourceNode, Node originalTargetNode) {
-        final Relation relation = new Relation(originalRelation.getId() + REVERSED_POSTFIX, null);
+        final Relation.Builder builder = new Relation.Builder(originalRelation.getId() + REVERSED_POSTFIX, null);
         if (originalRelation.getName() != null) {
-            relation.setName(originalRelation.getName() + REVERSED_POSTFIX);
+            builder.setName(originalRelation.getName() + REVERSED_POSTFIX);
         }
-        final RelationProperty originalRelationProperty = findRelationPropertyByType(originalRelation, RelationType.ASSOCIATES_WITH);
+        final RelationProperty originalRelationProperty = originalRelation.getRelationProperty(RelationType.ASSOCIATES_WITH);
         final RelationProperty relationProperty = new RelationProperty(
                 RelationType.ASSOCIATES_WITH,
                 originalRelationProperty.getCardinalityRight(),
                 originalRelationProperty.getCardinalityLeft());
-        relation.addRelationProperty(relationProperty);
+        final Relation relation = builder.addRelationProperty(relationProperty).build();
         system.addEdge(originalTargetNode, originalSourceNode, relation);
         return relation;
     }
 
-    private RelationProperty findRelationPropertyByType(Relation relation, RelationType relationType) {
-        return relation.getRelationProperties()
-                .stream()
-                .filter(rp -> relationType.equals(rp.getRelationType()))
-                .findFirst()
-                .orElse(null);
-    }
-
     /**
-     * Creates a new {@link Relation} with the name and id, specified in the event attributes.
-     * Relationproperties are not set.
+     * Creates a {@link Relation.Builder} for a {@link Relation} with the name and id, specified in the element
+     * attributes. Relationproperties are not set.
      *
      * @param id   the id of the relation
      * @param name the name of the relation
-     * @return the newly created {@link Relation}
+     * @return the newly created {@link Relation.Builder}
      */
-    private Relation createIncompleteRelation(String id, String name) {
-        return new Relation(id, name);
-    }
-
-    private boolean containsRelationType(Relation relation, RelationType relationtype) {
-        return relation.getRelationProperties()
-                .stream()
-                .anyMatch(rp -> relationtype.equals(rp.getRelationType()));
+    private Relation.Builder createIncompleteRelation(String id, String name) {
+        return new Relation.Builder(id, name);
     }
 
 }
@@ -0,0 +1,105 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * A parser for ArgoUML export files (*.xmi) that keeps a binary snapshot (see {@link SystemSnapshot}) of every
+ * {@link SystemUnderConsideration} it has parsed in a cache directory. When the same file is parsed again, and its
+ * content has not changed, the system is read from the snapshot instead of parsing the file with the
+ * {@link ArgoUMLParser}.
+ * <p>
+ * The snapshots are keyed by the SHA-256 hash of the content of the xmi file, and by the version of the parser (see
+ * {@link ArgoUMLParser#VERSION}), so a snapshot is never used for a changed file, or after a change to the parsing. A
+ * snapshot that cannot be read or written is ignored: the file is parsed as if there was no cache.
+ *
+ * @author Martin de Boer
+ */
+public class CachingArgoUMLParser {
+
+    private static final Logger LOGGER = LogManager.getLogger(CachingArgoUMLParser.class);
+
+    private static final String SNAPSHOT_EXTENSION = ".snapshot";
+
+    private final ArgoUMLParser parser;
+    private final Path cacheDirectory;
+
+    /**
+     * Creates a parser that parses the files that are not in the cache with the specified {@link ArgoUMLParser}.
+     * <p>
+     * This constructor has package protected access so it can only be instantiated from within the same package (by the
+     * ParserFactory or in a unit test in the same package).
+     *
+     * @param parser         the parser for the files that are not in the cache
+     * @param cacheDirectory the directory holding the snapshots; it is created when the first snapshot is written
+     */
+    CachingArgoUMLParser(ArgoUMLParser parser, Path cacheDirectory) {
+        this.parser = parser;
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Parses an xmi file with the specified {@code xmiUrl}, or reads it from the cache.
+     *
+     * @param xmiUrl the url of the file to be parsed.
+     * @return a new {@link SystemUnderConsideration}.
+     */
+    public SystemUnderConsideration parse(URL xmiUrl) {
+        return this.parse(xmiUrl.getPath());
+    }
+
+    /**
+     * Parses an xmi file with the specified {@code xmiFileName}, or reads it from the cache.
+     *
+     * @param xmiFilename the name of the file to be parsed.
+     * @return a new {@link SystemUnderConsideration}.
+     */
+    public SystemUnderConsideration parse(String xmiFilename) {
+        final Path snapshot;
+        try {
+            snapshot = getSnapshot(Paths.get(xmiFilename));
+        } catch (IOException | InvalidPathException e) {
+            // The parser reports the file that cannot be read
+            return parser.parse(xmiFilename);
+        }
+        if (Files.isRegularFile(snapshot)) {
+            try {
+                final SystemUnderConsideration system = SystemSnapshot.read(snapshot);
+                LOGGER.info(String.format("Read the snapshot of '%s' from '%s'.", xmiFilename, snapshot));
+                return system;
+            } catch (IOException e) {
+                LOGGER.warn(String.format("The snapshot '%s' could not be read.", snapshot), e);
+            }
+        }
+        final SystemUnderConsideration system = parser.parse(xmiFilename);
+        store(system, snapshot);
+        return system;
+    }
+
+    /**
+     * Returns the path of the snapshot of the specified xmi file, whether it exists or not.
+     *
+     * @param xmiFile the xmi file
+     * @return the path of the snapshot in the cache directory
+     * @throws IOException if the xmi file could not be read
+     */
+    Path getSnapshot(Path xmiFile) throws IOException {
+        return cacheDirectory.resolve(SnapshotFiles.hash(xmiFile) + "-v" + ArgoUMLParser.VERSION + SNAPSHOT_EXTENSION);
+    }
+
+    private void store(SystemUnderConsideration system, Path snapshot) {
+        try {
+            SnapshotFiles.store(snapshot, file -> SystemSnapshot.write(system, file));
+        } catch (IOException e) {
+            LOGGER.warn(String.format("The snapshot '%s' could not be written.", snapshot), e);
+        }
+    }
+}
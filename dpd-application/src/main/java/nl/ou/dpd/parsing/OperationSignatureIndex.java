@@ -0,0 +1,98 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.Operation;
+import nl.ou.dpd.domain.node.Parameter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An index of the {@link Operation}s of a {@link Node} by the hash code of their signature (see
+ * {@link Operation#signatureHashCode()}). It finds an operation with the same signature as another operation without
+ * comparing the other operation to every operation of the node.
+ * <p>
+ * The signature hash code only selects the candidates: every candidate is compared with
+ * {@link Operation#equalsSignature(Operation)}, so the index finds exactly the operations a linear search would find.
+ * The hash codes of operations having several parameters with the same signature do not agree with
+ * {@link Operation#equalsSignature(Operation)}, so these (rare) operations are not indexed, but always compared.
+ *
+ * @author Martin de Boer
+ */
+final class OperationSignatureIndex {
+
+    private final Map<Integer, List<Operation>> operationsBySignature = new HashMap<>();
+    private final List<Operation> unindexedOperations = new ArrayList<>();
+
+    private OperationSignatureIndex(Node node) {
+        for (Operation operation : node.getOperations()) {
+            if (hasDistinctParameterSignatures(operation)) {
+                operationsBySignature
+                        .computeIfAbsent(operation.signatureHashCode(), signature -> new ArrayList<>(1))
+                        .add(operation);
+            } else {
+                unindexedOperations.add(operation);
+            }
+        }
+    }
+
+    /**
+     * Creates an index of the current operations of the specified {@code node}. Operations that are added to the node
+     * later on are not indexed.
+     *
+     * @param node the node to index the operations of
+     * @return the created index
+     */
+    static OperationSignatureIndex of(Node node) {
+        return new OperationSignatureIndex(node);
+    }
+
+    /**
+     * Returns whether the indexed node has an operation with the same signature as the specified {@code operation}.
+     *
+     * @param operation the operation to look for
+     * @return {@code true} if an indexed operation has the same signature as {@code operation}, or {@code false}
+     * otherwise.
+     */
+    boolean containsSignatureOf(Operation operation) {
+        // An indexed operation, having distinct parameter signatures, only has the same signature as an operation with
+        // the same distinct parameter signatures, and thus the same signature hash code
+        if (hasDistinctParameterSignatures(operation)) {
+            final List<Operation> candidates =
+                    operationsBySignature.getOrDefault(operation.signatureHashCode(), Collections.emptyList());
+            if (containsSignatureOf(candidates, operation)) {
+                return true;
+            }
+        }
+        return containsSignatureOf(unindexedOperations, operation);
+    }
+
+    private static boolean containsSignatureOf(List<Operation> candidates, Operation operation) {
+        for (Operation candidate : candidates) {
+            if (candidate.equalsSignature(operation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasDistinctParameterSignatures(Operation operation) {
+        final Set<Parameter> parameters = operation.getParameters();
+        if (parameters.size() < 2) {
+            return true;
+        }
+        final Set<List<Object>> signatures = new HashSet<>();
+        for (Parameter parameter : parameters) {
+            if (!signatures.add(Arrays.asList(parameter.getName(), parameter.getType()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,8 +1,13 @@
 package nl.ou.dpd.parsing;
 
+import org.xml.sax.SAXException;
+
 import javax.xml.XMLConstants;
+import javax.xml.parsers.SAXParserFactory;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
+import java.nio.file.Path;
 
 /**
  * A factory for creating parsers.
@@ -11,6 +16,8 @@ import javax.xml.validation.SchemaFactory;
  */
 public class ParserFactory {
 
+    private static Schema patternsSchema;
+
     /**
      * Private constructor, because this is a utility class.
      */
@@ -19,26 +26,93 @@ public class ParserFactory {
 
     /**
      * Creates an {@link ArgoUMLParser}, consisting of an {@link ArgoUMLNodeParser}, an {@link ArgoUMLRelationParser}
-     * and a {@link SystemRelationsExtractor}.
+     * and a {@link SystemRelationsExtractor}. The created parser reads the xmi file only once.
      *
      * @return the created {@link ArgoUMLParser}
      */
     public static ArgoUMLParser createArgoUMLParser() {
+        return createArgoUMLParser(true);
+    }
+
+    /**
+     * Creates an {@link ArgoUMLParser}, consisting of an {@link ArgoUMLNodeParser}, an {@link ArgoUMLRelationParser}
+     * and a {@link SystemRelationsExtractor} exploring the nodes in parallel.
+     *
+     * @param singlePass {@code true} for a parser reading the xmi file only once, or {@code false} for a parser reading
+     *                   it twice (once for the nodes, and once for the relations)
+     * @return the created {@link ArgoUMLParser}
+     */
+    public static ArgoUMLParser createArgoUMLParser(boolean singlePass) {
         final ArgoUMLNodeParser nodeParser = new ArgoUMLNodeParser(XMLInputFactory.newInstance());
         final ArgoUMLRelationParser relationParser = new ArgoUMLRelationParser(XMLInputFactory.newInstance());
-        final SystemRelationsExtractor systemRelationsExtractor = new SystemRelationsExtractor();
-        return new ArgoUMLParser(nodeParser, relationParser, systemRelationsExtractor);
+        final SystemRelationsExtractor systemRelationsExtractor = new SystemRelationsExtractor(true);
+        return new ArgoUMLParser(nodeParser, relationParser, systemRelationsExtractor, singlePass);
+    }
+
+    /**
+     * Creates a {@link CachingArgoUMLParser}, that keeps snapshots of the parsed systems in the specified directory, and
+     * parses the files that are not in the cache with a (single pass) {@link ArgoUMLParser}.
+     *
+     * @param cacheDirectory the directory holding the snapshots
+     * @return the created {@link CachingArgoUMLParser}
+     */
+    public static CachingArgoUMLParser createCachingArgoUMLParser(Path cacheDirectory) {
+        return new CachingArgoUMLParser(createArgoUMLParser(), cacheDirectory);
     }
 
     /**
-     * Creates a {@link PatternsParser} having a {@link SchemaFactory} (for XSD validation) and an
-     * {@link XMLInputFactory} for creating an XML input stream.
+     * Creates a {@link PatternsParser} having a compiled XSD {@link Schema} (for XSD validation). The created parser
+     * validates the XML file while reading it, reading it only once.
      *
      * @return the created {@link PatternsParser}
      */
     public static PatternsParser createPatternParser() {
-        final SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-        final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
-        return new PatternsParser(schemaFactory, xmlInputFactory);
+        return createPatternParser(true);
+    }
+
+    /**
+     * Creates a {@link PatternsParser} having a compiled XSD {@link Schema} (for XSD validation), and a
+     * {@link SAXParserFactory} or an {@link XMLInputFactory} for reading the XML file. The {@link Schema} is compiled
+     * only once, and shared by all created parsers.
+     *
+     * @param singlePass {@code true} for a parser validating the XML file while reading it, or {@code false} for a
+     *                   parser reading it twice (once for the validation, and once for the design patterns)
+     * @return the created {@link PatternsParser}
+     */
+    public static PatternsParser createPatternParser(boolean singlePass) {
+        final Schema schema;
+        try {
+            schema = getPatternsSchema();
+        } catch (SAXException e) {
+            // Let the parser compile the schema itself, so it reports the error when parsing
+            final SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            return new PatternsParser(schemaFactory, XMLInputFactory.newInstance());
+        }
+        if (singlePass) {
+            final SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
+            saxParserFactory.setNamespaceAware(true);
+            return new PatternsParser(schema, saxParserFactory);
+        }
+        return new PatternsParser(schema, XMLInputFactory.newInstance());
+    }
+
+    /**
+     * Creates a {@link PatternCatalogue}, that keeps the compiled design patterns of the parsed template files in
+     * memory and in the specified directory, and parses the template files that are not in the cache with a
+     * {@link PatternsParser}.
+     *
+     * @param cacheDirectory the directory holding the compiled design patterns
+     * @return the created {@link PatternCatalogue}
+     */
+    public static PatternCatalogue createPatternCatalogue(Path cacheDirectory) {
+        return new PatternCatalogue(ParserFactory::createPatternParser, cacheDirectory);
+    }
+
+    private static synchronized Schema getPatternsSchema() throws SAXException {
+        if (patternsSchema == null) {
+            final SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            patternsSchema = schemaFactory.newSchema(PatternsParser.class.getResource(PatternsParser.PATTERNS_XSD));
+        }
+        return patternsSchema;
     }
 }
@@ -0,0 +1,156 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.DesignPattern;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A catalogue of the design patterns that are defined in design pattern template files. Every template file is parsed
+ * and validated only once: the catalogue keeps the parsed design patterns in a compiled form (see
+ * {@link PatternsSnapshot}), both in memory and in a cache directory, and rebuilds them from that form when they are
+ * requested again.
+ * <p>
+ * The compiled design patterns are keyed by the path and the SHA-256 hash of the content of the template file, and by
+ * the version of the parser (see {@link PatternsParser#VERSION}), so a changed file is always parsed again. The
+ * {@link DesignPattern}s themselves are not shared, because their comparators collect feedback during an analysis:
+ * every request gets new ones. A compiled form that cannot be read or written is ignored: the file is parsed as if
+ * there was no cache.
+ * <p>
+ * A {@link PatternCatalogue} is thread safe.
+ *
+ * @author Martin de Boer
+ */
+public class PatternCatalogue {
+
+    private static final Logger LOGGER = LogManager.getLogger(PatternCatalogue.class);
+
+    private static final String SNAPSHOT_EXTENSION = ".patterns";
+
+    private final Supplier<PatternsParser> parsers;
+    private final Path cacheDirectory;
+    private final Map<Path, CompiledPatterns> compiledPatterns = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a catalogue that parses the template files that are not in the cache with the {@link PatternsParser}s
+     * supplied by {@code parsers}. A {@link PatternsParser} collects the design patterns of every file it parses, so a
+     * new one is needed for every file.
+     * <p>
+     * This constructor has package protected access so it can only be instantiated from within the same package (by the
+     * ParserFactory or in a unit test in the same package).
+     *
+     * @param parsers        supplies a new parser for every template file that is not in the cache
+     * @param cacheDirectory the directory holding the compiled design patterns; it is created when the first one is
+     *                       written
+     */
+    PatternCatalogue(Supplier<PatternsParser> parsers, Path cacheDirectory) {
+        this.parsers = parsers;
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Returns the design patterns that are defined in the template file with the specified {@code xmlFilename}.
+     *
+     * @param xmlFilename the name of the template file.
+     * @return a list of new {@link DesignPattern}s.
+     * @throws ParseException if the template file could not be parsed.
+     */
+    public List<DesignPattern> getDesignPatterns(String xmlFilename) {
+        final Path path;
+        final String hash;
+        try {
+            path = Paths.get(xmlFilename).toAbsolutePath().normalize();
+            hash = SnapshotFiles.hash(path);
+        } catch (IOException | InvalidPathException e) {
+            // The parser reports the file that cannot be read
+            return parsers.get().parse(xmlFilename);
+        }
+
+        final CompiledPatterns inMemory = compiledPatterns.get(path);
+        if (inMemory != null && inMemory.hash.equals(hash)) {
+            final List<DesignPattern> designPatterns = rebuild(inMemory.snapshot, xmlFilename);
+            if (designPatterns != null) {
+                return designPatterns;
+            }
+        }
+
+        final Path snapshot = getSnapshot(hash);
+        if (Files.isRegularFile(snapshot)) {
+            try {
+                final byte[] bytes = Files.readAllBytes(snapshot);
+                final List<DesignPattern> designPatterns = rebuild(bytes, xmlFilename);
+                if (designPatterns != null) {
+                    compiledPatterns.put(path, new CompiledPatterns(hash, bytes));
+                    LOGGER.info(String.format("Read the design patterns of '%s' from '%s'.", xmlFilename, snapshot));
+                    return designPatterns;
+                }
+            } catch (IOException e) {
+                LOGGER.warn(String.format("The compiled design patterns '%s' could not be read.", snapshot), e);
+            }
+        }
+
+        final List<DesignPattern> designPatterns = parsers.get().parse(xmlFilename);
+        store(path, hash, designPatterns, snapshot);
+        return designPatterns;
+    }
+
+    /**
+     * Returns the path of the compiled design patterns of a template file with the specified content hash, whether it
+     * exists or not.
+     *
+     * @param hash the hash of the content of the template file
+     * @return the path of the compiled design patterns in the cache directory
+     */
+    Path getSnapshot(String hash) {
+        return cacheDirectory.resolve(hash + "-v" + PatternsParser.VERSION + SNAPSHOT_EXTENSION);
+    }
+
+    private List<DesignPattern> rebuild(byte[] snapshot, String xmlFilename) {
+        try {
+            return PatternsSnapshot.read(ByteBuffer.wrap(snapshot));
+        } catch (IOException e) {
+            LOGGER.warn(String.format("The compiled design patterns of '%s' could not be read.", xmlFilename), e);
+            return null;
+        }
+    }
+
+    private void store(Path path, String hash, List<DesignPattern> designPatterns, Path snapshot) {
+        final byte[] bytes;
+        try {
+            bytes = PatternsSnapshot.write(designPatterns);
+        } catch (IOException e) {
+            LOGGER.warn(String.format("The design patterns of '%s' could not be compiled.", path), e);
+            return;
+        }
+        compiledPatterns.put(path, new CompiledPatterns(hash, bytes));
+        try {
+            SnapshotFiles.store(snapshot, file -> Files.write(file, bytes));
+        } catch (IOException e) {
+            LOGGER.warn(String.format("The compiled design patterns '%s' could not be written.", snapshot), e);
+        }
+    }
+
+    /**
+     * The compiled design patterns of a template file, and the hash of the content they were parsed from.
+     */
+    private static final class CompiledPatterns {
+
+        private final String hash;
+        private final byte[] snapshot;
+
+        private CompiledPatterns(String hash, byte[] snapshot) {
+            this.hash = hash;
+            this.snapshot = snapshot;
+        }
+    }
+}
@@ -11,32 +11,46 @@ import nl.ou.dpd.domain.relation.RelationProperty;
 import nl.ou.dpd.domain.relation.RelationType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
 import javax.xml.stream.events.XMLEvent;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
+import javax.xml.validation.ValidatorHandler;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * A parser/validator for XML-files containing design pattern definitions. Parsing results in a list of
  * {@link DesignPattern} objects that are an object representation of the patterns that are defined in the
  * XML-file.
+ * <p>
+ * A parser created with a {@link SAXParserFactory} reads the XML-file only once: the SAX events pass through a
+ * {@link ValidatorHandler} that validates them while the design patterns are built. Otherwise, the XML-file is
+ * validated first, and then read again with an {@link XMLEventReader}. Either way, the attributes of every element are
+ * read once, and the nodes of the relations are looked up by id in a map per design pattern.
  *
  * @author Martin de Boer
  */
@@ -62,17 +76,27 @@ public class PatternsParser {
 
     private static final Cardinality DEFAULT_CARDINALITY = Cardinality.valueOf("1");
 
+    /**
+     * The version of the parsing. It is part of the key of the compiled design patterns in a {@link PatternCatalogue},
+     * so it must be incremented whenever a change to the parser changes the resulting design patterns.
+     */
+    static final int VERSION = 1;
+
+    static final String PATTERNS_XSD = "/patterns.xsd";
+
     static final String PATTERN_TEMPLATE_FILE_COULD_NOT_BE_PARSED_LONG_MSG = "The design pattern template file '%s' could not be parsed.";
     static final String PATTERN_TEMPLATE_FILE_COULD_NOT_BE_PARSED_SHORT_MSG = "The design pattern template file could not be parsed.";
 
     private List<DesignPattern> designPatterns = new ArrayList<>();
     private DesignPattern designPattern;
-    private Set<Node> nodes;
+    private Map<String, Node> nodes;
     private Node node;
     private Relation relation;
 
     private final SchemaFactory xsdSchemaFactory;
     private final XMLInputFactory xmlInputFactory;
+    private final SAXParserFactory saxParserFactory;
+    private Schema schema;
 
     /**
      * A constructor expecting a {@link SchemaFactory} and an {@link XMLInputFactory} a parameter.
@@ -86,17 +110,69 @@ public class PatternsParser {
     protected PatternsParser(SchemaFactory xsdSchemaFactory, XMLInputFactory xmlInputFactory) {
         this.xsdSchemaFactory = xsdSchemaFactory;
         this.xmlInputFactory = xmlInputFactory;
+        this.saxParserFactory = null;
+    }
+
+    /**
+     * A constructor expecting an already compiled XSD {@link Schema} and an {@link XMLInputFactory} as parameters. A
+     * {@link Schema} is immutable and thread safe, so it can be compiled once and shared by all parsers.
+     * <p>
+     * This constructor has package protected access so it can only be instantiated from within the same package (by the
+     * ParserFactory or in a unit test in the same package).
+     *
+     * @param schema          the compiled XSD {@link Schema} for validation of XML files.
+     * @param xmlInputFactory used for instantiating an {@link XMLEventReader} for processing XML files.
+     */
+    PatternsParser(Schema schema, XMLInputFactory xmlInputFactory) {
+        this.xsdSchemaFactory = null;
+        this.xmlInputFactory = xmlInputFactory;
+        this.saxParserFactory = null;
+        this.schema = schema;
+    }
+
+    /**
+     * A constructor expecting an already compiled XSD {@link Schema} and a {@link SAXParserFactory} as parameters. The
+     * created parser validates XML files while parsing them, reading them only once.
+     * <p>
+     * This constructor has package protected access so it can only be instantiated from within the same package (by the
+     * ParserFactory or in a unit test in the same package).
+     *
+     * @param schema           the compiled XSD {@link Schema} for validation of XML files.
+     * @param saxParserFactory used for instantiating a namespace aware {@link XMLReader} for processing XML files.
+     */
+    PatternsParser(Schema schema, SAXParserFactory saxParserFactory) {
+        this.xsdSchemaFactory = null;
+        this.xmlInputFactory = null;
+        this.saxParserFactory = saxParserFactory;
+        this.schema = schema;
     }
 
     public List<DesignPattern> parse(String xmlFilename) {
-        final URL xsdUrl = PatternsParser.class.getResource("/patterns.xsd");
+        final URL xsdUrl = PatternsParser.class.getResource(PATTERNS_XSD);
         return parse(xmlFilename, xsdUrl);
     }
 
+    /**
+     * Creates an empty {@link DesignPattern}, having the comparators that are used for matching it.
+     *
+     * @param name   the name of the design pattern
+     * @param family the family of the design pattern
+     * @return the created {@link DesignPattern}
+     */
+    static DesignPattern createDesignPattern(String name, String family) {
+        return new DesignPattern(name, family)
+                .setNodeComparator(NodeComparatorFactory.createCompoundNodeComparator())
+                .setRelationComparator(RelationComparatorFactory.createCompoundRelationComparator());
+    }
+
     private List<DesignPattern> parse(String xmlFilename, URL xsdUrl) {
         try {
-            validate(xmlFilename, xsdUrl);
-            doParse(xmlFilename);
+            if (saxParserFactory != null) {
+                parseValidating(xmlFilename, xsdUrl);
+            } else {
+                validate(xmlFilename, xsdUrl);
+                doParse(xmlFilename);
+            }
         } catch (ParseException pe) {
             // We don't need to repackage a ParseException in a ParseException.
             // Rethrow ParseExceptions directly
@@ -117,9 +193,19 @@ public class PatternsParser {
         }
     }
 
+    private void parseValidating(String xmlFilename, URL xsdUrl)
+            throws IOException, SAXException, ParserConfigurationException {
+        final ValidatorHandler validatorHandler = getSchema(xsdUrl).newValidatorHandler();
+        validatorHandler.setContentHandler(new PatternsHandler());
+        final XMLReader xmlReader = saxParserFactory.newSAXParser().getXMLReader();
+        xmlReader.setContentHandler(validatorHandler);
+        try (final InputStream input = new FileInputStream(new File(xmlFilename))) {
+            xmlReader.parse(new InputSource(input));
+        }
+    }
+
     private void validate(String xmlFilename, URL xsdUrl) throws IOException, SAXException {
-        final Schema schema = xsdSchemaFactory.newSchema(xsdUrl);
-        final Validator validator = schema.newValidator();
+        final Validator validator = getSchema(xsdUrl).newValidator();
         try (final InputStream stream = new FileInputStream(new File(xmlFilename))) {
             validator.validate(new StreamSource(stream));
         } catch (Exception ex) {
@@ -127,6 +213,14 @@ public class PatternsParser {
         }
     }
 
+    private Schema getSchema(URL xsdUrl) throws SAXException {
+        if (schema == null) {
+            // Compile the schema only once
+            schema = xsdSchemaFactory.newSchema(xsdUrl);
+        }
+        return schema;
+    }
+
     private void handleEvents(XMLEventReader eventReader) throws XMLStreamException {
         while (eventReader.hasNext()) {
             handleEvent(eventReader.nextEvent(), eventReader);
@@ -140,61 +234,70 @@ public class PatternsParser {
     }
 
     private void handleStartElement(XMLEvent event, XMLEventReader eventReader) throws XMLStreamException {
-        switch (event.asStartElement().getName().getLocalPart()) {
+        final StartElement startElement = event.asStartElement();
+        final String elementName = startElement.getName().getLocalPart();
+        if (NOTE.equals(elementName)) {
+            designPattern.addNote(eventReader.getElementText());
+        } else {
+            handleStartElement(elementName, new StartElementAttributes(startElement));
+        }
+    }
+
+    /**
+     * Handles the start of an element, other than a note.
+     *
+     * @param elementName the local name of the element
+     * @param attributes  returns the value of an attribute of the element by its local name, or {@code null} if the
+     *                    element does not have the attribute
+     */
+    private void handleStartElement(String elementName, Function<String, String> attributes) {
+        switch (elementName) {
             case PATTERN:
-                handlePatternStartElement(event);
-                break;
-            case NOTE:
-                designPattern.addNote(eventReader.getElementText());
+                handlePatternStartElement(attributes);
                 break;
             case NODE:
-                handleNodeStartElement(event);
+                handleNodeStartElement(attributes);
                 break;
             case NODE_RULE:
-                handleNodeRuleStartElement(event);
+                handleNodeRuleStartElement(attributes);
                 break;
             case RELATION:
-                handleRelationStartElement(event);
+                handleRelationStartElement(attributes);
                 break;
             case RELATION_RULE:
-                handleRelationRuleStartElement(event);
+                handleRelationRuleStartElement(attributes);
                 break;
             default:
                 break;
         }
     }
 
-    private void handlePatternStartElement(XMLEvent event) {
-        this.nodes = new HashSet<>();
-        this.designPattern = new DesignPattern(getAttributeFromEvent(event, NAME), getAttributeFromEvent(event, FAMILY));
+    private void handlePatternStartElement(Function<String, String> attributes) {
+        this.nodes = new HashMap<>();
+        this.designPattern = createDesignPattern(attributes.apply(NAME), attributes.apply(FAMILY));
         this.designPatterns.add(designPattern);
-        this.designPattern
-                .setNodeComparator(NodeComparatorFactory.createCompoundNodeComparator())
-                .setRelationComparator(RelationComparatorFactory.createCompoundRelationComparator());
     }
 
-    private void handleNodeStartElement(XMLEvent event) {
-        final String name = getAttributeFromEvent(event, NAME);
-        final String id = getAttributeFromEvent(event, ID);
+    private void handleNodeStartElement(Function<String, String> attributes) {
+        final String name = attributes.apply(NAME);
+        final String id = attributes.apply(ID);
         if (name == null || name.isEmpty()) {
             node = new Node(id, id);
         } else {
             node = new Node(id, name);
         }
-        nodes.add(node);
+        nodes.putIfAbsent(id, node);
     }
 
-    private void handleRelationStartElement(XMLEvent event) {
-        final Node source = getNodeById(getAttributeFromEvent(event, NODE_1));
-        final Node target = getNodeById(getAttributeFromEvent(event, NODE_2));
+    private void handleRelationStartElement(Function<String, String> attributes) {
+        final Node source = nodes.get(attributes.apply(NODE_1));
+        final Node target = nodes.get(attributes.apply(NODE_2));
 
         if (!designPattern.containsEdge(source, target)) {
             final String name = String.format("%s-%s", source.getName(), target.getName());
             designPattern.addVertex(source);
             designPattern.addVertex(target);
-            designPattern.addEdge(source, target)
-                    .setId(name)
-                    .setName(name);
+            designPattern.addEdge(source, target, new Relation(name, name));
         }
         relation = designPattern.getEdge(source, target);
     }
@@ -202,26 +305,26 @@ public class PatternsParser {
     /**
      * A node.rule element in the XML is converted to a node type in the {@link DesignPattern} object.
      *
-     * @param event the XML event of the rule element
+     * @param attributes the attributes of the rule element
      */
-    private void handleNodeRuleStartElement(XMLEvent event) {
-        node.addType(NodeType.valueOf(getAttributeFromEvent(event, NODE_TYPE)));
+    private void handleNodeRuleStartElement(Function<String, String> attributes) {
+        node.addType(NodeType.valueOf(attributes.apply(NODE_TYPE)));
     }
 
     /**
      * A relation.rule element in the XML is converted to a relation characteristic in the {@link DesignPattern} object.
      *
-     * @param event the XML event of the rule element
+     * @param attributes the attributes of the rule element
      */
-    private void handleRelationRuleStartElement(XMLEvent event) {
-        final RelationType type = RelationType.valueOf(getAttributeFromEvent(event, RELATION_TYPE));
-        final Cardinality cardinalityLeft = getCardinality(event, CARDINALITY_LEFT);
-        final Cardinality cardinalityRight = getCardinality(event, CARDINALITY_RIGHT);
-        relation.addRelationProperty(new RelationProperty(type, cardinalityLeft, cardinalityRight));
+    private void handleRelationRuleStartElement(Function<String, String> attributes) {
+        final RelationType type = RelationType.valueOf(attributes.apply(RELATION_TYPE));
+        final Cardinality cardinalityLeft = getCardinality(attributes.apply(CARDINALITY_LEFT));
+        final Cardinality cardinalityRight = getCardinality(attributes.apply(CARDINALITY_RIGHT));
+        final RelationProperty relationProperty = new RelationProperty(type, cardinalityLeft, cardinalityRight);
+        relation = designPattern.replaceEdge(relation, relation.toBuilder().addRelationProperty(relationProperty).build());
     }
 
-    private Cardinality getCardinality(XMLEvent event, String elementName) {
-        final String elementValue = getAttributeFromEvent(event, elementName);
+    private Cardinality getCardinality(String elementValue) {
         if (elementValue == null) {
             return DEFAULT_CARDINALITY;
         } else {
@@ -229,28 +332,68 @@ public class PatternsParser {
         }
     }
 
-    private Node getNodeById(String nodeId) {
-        return nodes.stream()
-                .filter(node -> node.getId().equals(nodeId))
-                .findFirst()
-                .orElse(null);
+    private void error(String longMsg, String shortMsg, Exception cause) {
+        LOGGER.error(longMsg);
+        throw new ParseException(shortMsg, cause);
     }
 
-    private String getAttributeFromEvent(XMLEvent event, String attributeName) {
-        final Iterator<Attribute> attrIterator = event.asStartElement().getAttributes();
-        while (attrIterator.hasNext()) {
-            final Attribute a = attrIterator.next();
-            if (a.getName().getLocalPart().equals(attributeName)) {
-                return a.getValue();
+    /**
+     * Looks up the attributes of a {@link StartElement} by their local name. The attributes are read only once, when
+     * the first one is looked up.
+     */
+    private static class StartElementAttributes implements Function<String, String> {
+
+        private final StartElement startElement;
+        private Map<String, String> attributes;
+
+        private StartElementAttributes(StartElement startElement) {
+            this.startElement = startElement;
+        }
+
+        @Override
+        public String apply(String attributeName) {
+            if (attributes == null) {
+                attributes = new HashMap<>();
+                final Iterator<Attribute> attrIterator = startElement.getAttributes();
+                while (attrIterator.hasNext()) {
+                    final Attribute a = attrIterator.next();
+                    attributes.put(a.getName().getLocalPart(), a.getValue());
+                }
             }
+            return attributes.get(attributeName);
         }
-        return null;
     }
 
-    private void error(String longMsg, String shortMsg, Exception cause) {
-        LOGGER.error(longMsg);
-        throw new ParseException(shortMsg, cause);
-    }
+    /**
+     * Builds the design patterns from the (validated) SAX events.
+     */
+    private class PatternsHandler extends DefaultHandler {
 
+        private StringBuilder note;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if (NOTE.equals(localName)) {
+                note = new StringBuilder();
+            } else {
+                handleStartElement(localName, attributes::getValue);
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (note != null) {
+                note.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if (NOTE.equals(localName)) {
+                designPattern.addNote(note.toString());
+                note = null;
+            }
+        }
+    }
 }
 
@@ -0,0 +1,125 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
+import nl.ou.dpd.domain.relation.Relation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary snapshot of the {@link DesignPattern}s that are defined in a design pattern template file: their
+ * names, families and notes, their nodes and their relations. Rebuilding the design patterns from a snapshot takes
+ * neither XML parsing nor XSD validation.
+ * <p>
+ * A snapshot consists of a header (a magic number and the version of the format), a table of all distinct strings (see
+ * {@link SnapshotOutput}), and the design patterns. The nodes and relations of every design pattern are written in the
+ * order of its vertex set and edge set, so the rebuilt design patterns are matched in the same order as the parsed
+ * ones. Every rebuilt design pattern gets new comparators, like a parsed one.
+ *
+ * @author Martin de Boer
+ */
+final class PatternsSnapshot {
+
+    private static final int MAGIC = 0x44504450; // "DPDP"
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Private constructor, because this is a utility class.
+     */
+    private PatternsSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of the specified {@code designPatterns}.
+     *
+     * @param designPatterns the design patterns to write
+     * @return the snapshot
+     * @throws IOException if the snapshot could not be written
+     */
+    static byte[] write(List<DesignPattern> designPatterns) throws IOException {
+        final SnapshotOutput output = new SnapshotOutput();
+        output.writeInt(designPatterns.size());
+        for (DesignPattern designPattern : designPatterns) {
+            write(designPattern, output);
+        }
+        final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        output.writeTo(snapshot, MAGIC, FORMAT_VERSION);
+        return snapshot.toByteArray();
+    }
+
+    /**
+     * Reads a snapshot from the specified {@code buffer}, and rebuilds the design patterns it was written from.
+     *
+     * @param buffer the buffer holding the snapshot
+     * @return the rebuilt {@link DesignPattern}s
+     * @throws IOException if the buffer does not hold a valid snapshot of the current format
+     */
+    static List<DesignPattern> read(ByteBuffer buffer) throws IOException {
+        return SnapshotInput.read(buffer, MAGIC, FORMAT_VERSION, input -> {
+            final int count = input.readInt();
+            final List<DesignPattern> designPatterns = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                designPatterns.add(read(input));
+            }
+            return designPatterns;
+        });
+    }
+
+    private static void write(DesignPattern designPattern, SnapshotOutput output) throws IOException {
+        output.writeString(designPattern.getName());
+        output.writeString(designPattern.getFamily());
+        output.writeInt(designPattern.getNotes().size());
+        for (String note : designPattern.getNotes()) {
+            output.writeString(note);
+        }
+
+        final Map<Node, Integer> nodeNumbers = new IdentityHashMap<>();
+        output.writeInt(designPattern.vertexSet().size());
+        for (Node node : designPattern.vertexSet()) {
+            nodeNumbers.put(node, nodeNumbers.size());
+            output.writeString(node.getId());
+            output.writeString(node.getName());
+            output.writeInt(node.getTypeMask());
+        }
+        output.writeInt(designPattern.edgeSet().size());
+        for (Relation relation : designPattern.edgeSet()) {
+            output.writeInt(nodeNumbers.get(designPattern.getEdgeSource(relation)));
+            output.writeInt(nodeNumbers.get(designPattern.getEdgeTarget(relation)));
+            output.writeRelation(relation);
+        }
+    }
+
+    private static DesignPattern read(SnapshotInput input) {
+        final DesignPattern designPattern = PatternsParser.createDesignPattern(input.readString(), input.readString());
+        final int noteCount = input.readInt();
+        for (int i = 0; i < noteCount; i++) {
+            designPattern.addNote(input.readString());
+        }
+
+        final Node[] nodes = new Node[input.readInt()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new Node(input.readString(), input.readString());
+            final int typeMask = input.readInt();
+            for (NodeType nodeType : NodeType.values()) {
+                if ((typeMask & nodeType.mask()) != 0) {
+                    nodes[i].addType(nodeType);
+                }
+            }
+            designPattern.addVertex(nodes[i]);
+        }
+        final int relationCount = input.readInt();
+        for (int i = 0; i < relationCount; i++) {
+            final Node source = nodes[input.readInt()];
+            final Node target = nodes[input.readInt()];
+            designPattern.addEdge(source, target, input.readRelation());
+        }
+        return designPattern;
+    }
+}
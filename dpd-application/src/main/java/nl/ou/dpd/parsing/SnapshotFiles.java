@@ -0,0 +1,99 @@
+package nl.ou.dpd.parsing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Utilities for the files in a snapshot cache: hashing the content of the input files the snapshots are keyed by, and
+ * storing snapshots safely.
+ *
+ * @author Martin de Boer
+ */
+final class SnapshotFiles {
+
+    private static final int HASH_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Private constructor, because this is a utility class.
+     */
+    private SnapshotFiles() {
+    }
+
+    /**
+     * Returns the SHA-256 hash of the content of the specified file, as a hexadecimal string.
+     *
+     * @param file the file to hash
+     * @return the hash of the content of the file
+     * @throws IOException if the file could not be read
+     */
+    static String hash(Path file) throws IOException {
+        final MessageDigest digest = createDigest();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        final StringBuilder hash = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hash.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Stores a snapshot in the specified {@code file}. The snapshot is written to a temporary file in the same
+     * directory first, and then moved into place, so concurrent readers never read a partially written snapshot. The
+     * directory is created if it does not exist.
+     *
+     * @param file     the snapshot file
+     * @param snapshot writes the snapshot to the temporary file
+     * @throws IOException if the snapshot could not be stored
+     */
+    static void store(Path file, Snapshot snapshot) throws IOException {
+        final Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        final Path temporary = Files.createTempFile(directory, "snapshot", ".tmp");
+        try {
+            snapshot.write(temporary);
+            move(temporary, file);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes a snapshot to a file.
+     */
+    @FunctionalInterface
+    interface Snapshot {
+        void write(Path file) throws IOException;
+    }
+}
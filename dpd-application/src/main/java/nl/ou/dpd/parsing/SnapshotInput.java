@@ -0,0 +1,126 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.relation.Cardinality;
+import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.domain.relation.RelationProperty;
+import nl.ou.dpd.domain.relation.RelationType;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static nl.ou.dpd.parsing.SnapshotOutput.NONE;
+
+/**
+ * Reads the content of a binary snapshot that was written with a {@link SnapshotOutput}, from a {@link ByteBuffer}.
+ *
+ * @author Martin de Boer
+ */
+final class SnapshotInput {
+
+    private static final RelationType[] RELATION_TYPES = RelationType.values();
+
+    private final ByteBuffer buffer;
+    private final String[] strings;
+
+    private SnapshotInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            final byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Reads the content of a snapshot from the specified file, which is memory-mapped.
+     *
+     * @param file          the snapshot file
+     * @param magic         the magic number identifying the kind of snapshot
+     * @param formatVersion the current version of the format of the content
+     * @param content       reads the content of the snapshot
+     * @param <T>           the type of the object that is read from the snapshot
+     * @return the object that is read from the snapshot
+     * @throws IOException if the file could not be read, or if it is not a valid snapshot of the current format
+     */
+    static <T> T read(Path file, int magic, int formatVersion, Content<T> content) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), magic, formatVersion, content);
+        }
+    }
+
+    /**
+     * Reads the content of a snapshot from the specified buffer.
+     *
+     * @param buffer        the buffer holding the snapshot
+     * @param magic         the magic number identifying the kind of snapshot
+     * @param formatVersion the current version of the format of the content
+     * @param content       reads the content of the snapshot
+     * @param <T>           the type of the object that is read from the snapshot
+     * @return the object that is read from the snapshot
+     * @throws IOException if the buffer does not hold a valid snapshot of the current format
+     */
+    static <T> T read(ByteBuffer buffer, int magic, int formatVersion, Content<T> content) throws IOException {
+        try {
+            if (buffer.getInt() != magic || buffer.getInt() != formatVersion) {
+                throw new IOException("Not a snapshot of the current format.");
+            }
+            return content.read(new SnapshotInput(buffer));
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException
+                | IllegalArgumentException e) {
+            throw new IOException("The snapshot is corrupt.", e);
+        }
+    }
+
+    int readInt() {
+        return buffer.getInt();
+    }
+
+    byte readByte() {
+        return buffer.get();
+    }
+
+    String readString() {
+        final int index = buffer.getInt();
+        return index == NONE ? null : strings[index];
+    }
+
+    /**
+     * Reads a {@link Relation} that was written with {@link SnapshotOutput#writeRelation(Relation)}.
+     *
+     * @return the {@link Relation}
+     */
+    Relation readRelation() {
+        final Relation.Builder builder = new Relation.Builder(readString(), readString());
+        final int propertyCount = buffer.getInt();
+        for (int i = 0; i < propertyCount; i++) {
+            builder.addRelationProperty(new RelationProperty(
+                    RELATION_TYPES[buffer.get()],
+                    readCardinality(),
+                    readCardinality()));
+        }
+        return builder.build();
+    }
+
+    private Cardinality readCardinality() {
+        if (buffer.get() == 0) {
+            return null;
+        }
+        return new Cardinality(buffer.getInt(), buffer.getInt());
+    }
+
+    /**
+     * Reads the content of a snapshot, following its string table.
+     *
+     * @param <T> the type of the object that is read from the snapshot
+     */
+    @FunctionalInterface
+    interface Content<T> {
+        T read(SnapshotInput input) throws IOException;
+    }
+}
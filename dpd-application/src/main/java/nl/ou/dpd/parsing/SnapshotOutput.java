@@ -0,0 +1,102 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.relation.Cardinality;
+import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.domain.relation.RelationProperty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes the content of a binary snapshot (see {@link SystemSnapshot} and {@link PatternsSnapshot}). The content is
+ * buffered while the strings it refers to are collected, so {@link #writeTo(OutputStream, int, int)} can write the
+ * header and the table of all distinct strings in front of it.
+ * <p>
+ * Strings are written as their index in the string table, or as {@link #NONE} for {@code null}. A snapshot is read
+ * with a {@link SnapshotInput}.
+ *
+ * @author Martin de Boer
+ */
+final class SnapshotOutput {
+
+    static final int NONE = -1;
+
+    private final Map<String, Integer> strings = new LinkedHashMap<>();
+    private final ByteArrayOutputStream contentBytes = new ByteArrayOutputStream();
+    private final DataOutputStream content = new DataOutputStream(contentBytes);
+
+    void writeInt(int value) throws IOException {
+        content.writeInt(value);
+    }
+
+    void writeByte(int value) throws IOException {
+        content.writeByte(value);
+    }
+
+    void writeString(String string) throws IOException {
+        if (string == null) {
+            content.writeInt(NONE);
+        } else {
+            Integer index = strings.get(string);
+            if (index == null) {
+                index = strings.size();
+                strings.put(string, index);
+            }
+            content.writeInt(index);
+        }
+    }
+
+    /**
+     * Writes the id, the name and the properties of the specified {@link Relation}, but not its source and target.
+     *
+     * @param relation the {@link Relation} to write
+     * @throws IOException if the relation could not be written
+     */
+    void writeRelation(Relation relation) throws IOException {
+        writeString(relation.getId());
+        writeString(relation.getName());
+        content.writeInt(relation.getRelationProperties().size());
+        for (RelationProperty relationProperty : relation.getRelationProperties()) {
+            content.writeByte(relationProperty.getRelationType().ordinal());
+            writeCardinality(relationProperty.getCardinalityLeft());
+            writeCardinality(relationProperty.getCardinalityRight());
+        }
+    }
+
+    private void writeCardinality(Cardinality cardinality) throws IOException {
+        content.writeBoolean(cardinality != null);
+        if (cardinality != null) {
+            content.writeInt(cardinality.getLower());
+            content.writeInt(cardinality.getUpper());
+        }
+    }
+
+    /**
+     * Writes the snapshot: a header (the specified magic number and format version), the string table, and the
+     * content that has been written so far.
+     *
+     * @param output        the stream to write the snapshot to
+     * @param magic         the magic number identifying the kind of snapshot
+     * @param formatVersion the version of the format of the content
+     * @throws IOException if the snapshot could not be written
+     */
+    void writeTo(OutputStream output, int magic, int formatVersion) throws IOException {
+        content.flush();
+        final DataOutputStream data = new DataOutputStream(output);
+        data.writeInt(magic);
+        data.writeInt(formatVersion);
+        data.writeInt(strings.size());
+        for (String string : strings.keySet()) {
+            final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            data.writeInt(bytes.length);
+            data.write(bytes);
+        }
+        contentBytes.writeTo(data);
+        data.flush();
+    }
+}
@@ -9,6 +9,16 @@ import nl.ou.dpd.domain.relation.Relation;
 import nl.ou.dpd.domain.relation.RelationProperty;
 import nl.ou.dpd.domain.relation.RelationType;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 /**
  * This class extracts extra {@link Relation}s out of a {@link SystemUnderConsideration}, which are not explicitly in
  * the Class diagram. This step is the final part of the parsing process of an ArgoUML export file. Previous steps are
@@ -16,6 +26,17 @@ import nl.ou.dpd.domain.relation.RelationType;
  * <p>
  * Relations can be added, based on {@link Attribute}s or based on {@link Operation}s that are present in a
  * {@link Node}.
+ * <p>
+ * Whether an operation overrides an operation of a related {@link Node} is looked up in an index of the operations of
+ * that {@link Node} by signature (see {@link OperationSignatureIndex}), which is built when it is first needed.
+ * <p>
+ * The relations that are added for a {@link Node} are all outgoing edges of that {@link Node}, and depend only on its
+ * own outgoing edges and members. The nodes are therefore explored independently (and, optionally, in parallel),
+ * without changing the system. The resulting changes, a single addition or replacement for every edge that is added
+ * or changed, are applied afterwards, node by node, in the order of the
+ * {@link SystemUnderConsideration#vertexSet()}. The attributes and operations of a {@link Node} are explored in the
+ * order of their ids, so the ids and names of the added relations do not depend on the exploration order, and the
+ * system is changed in exactly the same way in both modes.
  *
  * @author Peter Vansweevelt
  * @author Martin de Boer
@@ -25,43 +46,73 @@ import nl.ou.dpd.domain.relation.RelationType;
 public class SystemRelationsExtractor {
 
     private SystemUnderConsideration system;
+    private final Map<Node, OperationSignatureIndex> operationIndexes = new ConcurrentHashMap<>();
+    private final boolean parallel;
 
     static final String SYSTEM_RELATION_PREFIX = "SystemRelation";
 
     /**
      * This constructor has package protected access so it can only be instantiated from within the same package (by the
-     * ParserFactory or in a unit test in the same package).
+     * ParserFactory or in a unit test in the same package). The created extractor explores the nodes sequentially.
      */
     SystemRelationsExtractor() {
+        this(false);
+    }
+
+    /**
+     * This constructor has package protected access so it can only be instantiated from within the same package (by the
+     * ParserFactory or in a unit test in the same package).
+     *
+     * @param parallel {@code true} for an extractor exploring the nodes in parallel, or {@code false} for an extractor
+     *                 exploring them sequentially
+     */
+    SystemRelationsExtractor(boolean parallel) {
+        this.parallel = parallel;
     }
 
     SystemUnderConsideration execute(SystemUnderConsideration system) {
         this.system = system;
-        for (Node node : system.vertexSet()) {
-            exploreAttributesRelations(node);
-            exploreOperationsRelations(node);
+        try {
+            if (parallel) {
+                final List<List<EdgeChange>> changes = new ArrayList<>(system.vertexSet()).parallelStream()
+                        .map(this::exploreRelations)
+                        .collect(Collectors.toList());
+                changes.forEach(this::apply);
+            } else {
+                for (Node node : system.vertexSet()) {
+                    apply(exploreRelations(node));
+                }
+            }
+        } finally {
+            operationIndexes.clear();
         }
         return this.system;
     }
 
-    private void exploreAttributesRelations(Node node) {
-        for (Attribute attr : node.getAttributes()) {
-            updateOrCreateAttributeRelation(attr);
-        }
+    private List<EdgeChange> exploreRelations(Node node) {
+        final NodeRelations nodeRelations = new NodeRelations(node);
+        nodeRelations.exploreAttributesRelations();
+        nodeRelations.exploreOperationsRelations();
+        return nodeRelations.getChanges();
+    }
+
+    private boolean containsSameSignatureOperation(Node node, Operation operation) {
+        return operationIndexes
+                .computeIfAbsent(node, OperationSignatureIndex::of)
+                .containsSignatureOf(operation);
     }
 
-    private void updateOrCreateAttributeRelation(Attribute attribute) {
-    	if (attribute.getType() != null) {
-	        Relation relation = system.getEdge(attribute.getParentNode(), attribute.getType());
-	        if (relation == null) {
-	            relation = createSystemAttributeRelation(attribute);
-	        }
-	        relation.addRelationProperty(new RelationProperty(RelationType.HAS_ATTRIBUTE_OF));
-	        addEdge(attribute, relation);
-    	}
+    private void apply(List<EdgeChange> changes) {
+        for (EdgeChange change : changes) {
+            if (change.replaced == null) {
+                system.addEdge(change.source, change.target, change.relation);
+            } else {
+                system.replaceEdge(change.replaced, change.relation);
+            }
+        }
     }
 
-    private Relation createSystemAttributeRelation(Attribute attribute) {
+    private static Relation.Builder createSystemAttributeRelation(Attribute attribute) {
         final Node parentNode = attribute.getParentNode();
         final String relationId = String.format("%s-%s-%s", SYSTEM_RELATION_PREFIX, parentNode.getId(), attribute.getId());
 
@@ -69,82 +120,186 @@ public class SystemRelationsExtractor {
         final String typeName = type.getName();
         final String relationName = String.format("%s-%s (%s)", parentNode.getName(), typeName, attribute.getName());
 
-        return new Relation(relationId, relationName);
+        return new Relation.Builder(relationId, relationName)
+                .addRelationProperty(new RelationProperty(RelationType.HAS_ATTRIBUTE_OF));
     }
 
-    private void exploreOperationsRelations(Node node) {
-        for (Operation operation : node.getOperations()) {
-            updateOrCreateInputParameterRelation(operation);
-            updateOrCreateReturnValueRelation(operation);
-            updateOverrideRelation(node, operation);
-        }
+    private static Relation.Builder createSystemOperationRelation(
+            Operation operation, Node type, RelationType relationType) {
+        final Node parentNode = operation.getParentNode();
+        final String relationId = String.format("%s-%s-%s", SYSTEM_RELATION_PREFIX, parentNode.getId(), operation.getId());
+        final String typeName = type.getName();
+        final String relationName = String.format("%s-%s (%s)", parentNode.getName(), typeName, operation.getName());
+
+        return new Relation.Builder(relationId, relationName)
+                .addRelationProperty(new RelationProperty(relationType));
+    }
+
+    private static <T> List<T> sortedById(Set<T> members, Function<T, String> id) {
+        final List<T> sorted = new ArrayList<>(members);
+        sorted.sort(Comparator.comparing(id, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return sorted;
     }
 
-    private void updateOverrideRelation(Node node, Operation operation) {
-        //for all outgoing edges of node, look if the operation signature of the source equals the signature of the target
-        for (Relation relation : system.outgoingEdgesOf(node)) {
-            boolean hasOverrideOperation = containsSameSignatureOperation(relation, operation);
-            if (hasOverrideOperation) {
-                relation.addRelationProperty(new RelationProperty(RelationType.OVERRIDES_METHOD_OF));
+    /**
+     * Explores the relations of a single {@link Node}, without changing the system. The relations that are added or
+     * changed are all outgoing edges of the node. They are collected in a {@link Relation.Builder} per target node, so
+     * every edge is added or replaced only once, however many properties it gets. The resulting {@link EdgeChange}s are
+     * applied to the system later on.
+     */
+    private class NodeRelations {
+
+        private final Node node;
+        private final Map<Node, Relation.Builder> changedEdges = new LinkedHashMap<>();
+        private Map<Node, Relation> systemEdges;
+
+        NodeRelations(Node node) {
+            this.node = node;
+        }
+
+        void exploreAttributesRelations() {
+            for (Attribute attr : sortedById(node.getAttributes(), Attribute::getId)) {
+                updateOrCreateAttributeRelation(attr);
             }
         }
-    }
 
-    private boolean containsSameSignatureOperation(Relation relation, Operation operation) {
-        return system.getEdgeTarget(relation).getOperations().stream()
-                .anyMatch(targetOperation -> targetOperation.equalsSignature(operation));
-    }
+        private void updateOrCreateAttributeRelation(Attribute attribute) {
+            if (attribute.getType() != null) {
+                if (hasEdge(attribute.getType())) {
+                    addRelationProperty(attribute.getType(), RelationType.HAS_ATTRIBUTE_OF);
+                } else {
+                    addEdge(attribute.getType(), createSystemAttributeRelation(attribute));
+                }
+            }
+        }
 
-    private void updateOrCreateInputParameterRelation(Operation operation) {
-        for (Parameter param : operation.getParameters()) {
-            final Node paramType = param.getType();
-            if (paramType != null) {
-	            Relation relation = system.getEdge(operation.getParentNode(), paramType);
-	            if (relation == null) {
-                    relation = createSystemOperationRelation(operation, paramType);
-	            }
-	            relation.addRelationProperty(new RelationProperty(RelationType.HAS_METHOD_PARAMETER_OF_TYPE));
-	            addEdge(operation, param, relation);
-        	}
+        void exploreOperationsRelations() {
+            for (Operation operation : sortedById(node.getOperations(), Operation::getId)) {
+                updateOrCreateInputParameterRelation(operation);
+                updateOrCreateReturnValueRelation(operation);
+                updateOverrideRelation(operation);
+            }
         }
-    }
 
-    private void updateOrCreateReturnValueRelation(Operation operation) {
-        if (operation.getReturnType() != null) {
-            Relation relation = system.getEdge(operation.getParentNode(), operation.getReturnType());
-            if (relation == null) {
-                relation = createSystemOperationRelation(operation, operation.getReturnType());
+        private void updateOverrideRelation(Operation operation) {
+            //for all outgoing edges of node, look if the operation signature of the source equals the signature of the
+            //target. Adding properties does not add edges, so the edges are not copied.
+            for (Node target : getSystemEdges().keySet()) {
+                updateOverrideRelation(target, operation);
+            }
+            for (Node target : changedEdges.keySet()) {
+                if (!getSystemEdges().containsKey(target)) {
+                    updateOverrideRelation(target, operation);
+                }
             }
-            relation.addRelationProperty(new RelationProperty(RelationType.HAS_METHOD_RETURNTYPE));
-            addEdge(operation, relation);
         }
-    }
 
-    private Relation createSystemOperationRelation(Operation operation, Node type) {
-        final Node parentNode = operation.getParentNode();
-        final String relationId = String.format("%s-%s-%s", SYSTEM_RELATION_PREFIX, parentNode.getId(), operation.getId());
-        final String typeName = type.getName();
-        final String relationName = String.format("%s-%s (%s)", parentNode.getName(), typeName, operation.getName());
+        private void updateOverrideRelation(Node target, Operation operation) {
+            if (containsSameSignatureOperation(target, operation)) {
+                addRelationProperty(target, RelationType.OVERRIDES_METHOD_OF);
+            }
+        }
 
-        return new Relation(relationId, relationName);
-    }
+        private void updateOrCreateInputParameterRelation(Operation operation) {
+            for (Parameter param : operation.getParameters()) {
+                final Node paramType = param.getType();
+                if (paramType != null) {
+                    if (hasEdge(paramType)) {
+                        addRelationProperty(paramType, RelationType.HAS_METHOD_PARAMETER_OF_TYPE);
+                    } else {
+                        addEdge(paramType, createSystemOperationRelation(
+                                operation, paramType, RelationType.HAS_METHOD_PARAMETER_OF_TYPE));
+                    }
+                }
+            }
+        }
 
-    private void addEdge(Attribute attr, Relation relation) {
-        Node source = attr.getParentNode();
-        Node target = attr.getType();
-        system.addEdge(source, target, relation);
-    }
+        private void updateOrCreateReturnValueRelation(Operation operation) {
+            final Node returnType = operation.getReturnType();
+            if (returnType != null) {
+                if (hasEdge(returnType)) {
+                    addRelationProperty(returnType, RelationType.HAS_METHOD_RETURNTYPE);
+                } else {
+                    addEdge(returnType, createSystemOperationRelation(
+                            operation, returnType, RelationType.HAS_METHOD_RETURNTYPE));
+                }
+            }
+        }
+
+        /**
+         * Returns the outgoing edges the node has in the system, by their target. The edges are read from the system
+         * when they are first needed.
+         *
+         * @return the outgoing edges of the node in the system
+         */
+        private Map<Node, Relation> getSystemEdges() {
+            if (systemEdges == null) {
+                systemEdges = new LinkedHashMap<>();
+                for (Relation relation : system.outgoingEdgesOf(node)) {
+                    systemEdges.put(system.getEdgeTarget(relation), relation);
+                }
+            }
+            return systemEdges;
+        }
+
+        private boolean hasEdge(Node target) {
+            return changedEdges.containsKey(target) || getSystemEdges().containsKey(target);
+        }
+
+        private void addEdge(Node target, Relation.Builder relation) {
+            changedEdges.put(target, relation);
+        }
 
-    private void addEdge(Operation operation, Parameter parameter, Relation relation) {
-        Node source = operation.getParentNode();
-        Node target = parameter.getType();
-        system.addEdge(source, target, relation);
+        /**
+         * Adds a {@link RelationProperty} of the specified {@link RelationType} to the {@link Relation} between the
+         * node and the specified {@code target}. The {@link Relation} will be replaced by a {@link Relation} containing
+         * the new property.
+         *
+         * @param target       the target of the {@link Relation} to add the property to
+         * @param relationType the {@link RelationType} of the property
+         */
+        private void addRelationProperty(Node target, RelationType relationType) {
+            changedEdges
+                    .computeIfAbsent(target, key -> getSystemEdges().get(key).toBuilder())
+                    .addRelationProperty(new RelationProperty(relationType));
+        }
+
+        /**
+         * Returns the changes to the outgoing edges of the node: the addition of every new edge, and the replacement of
+         * every edge of the system that got new properties.
+         *
+         * @return the changes to be applied to the system
+         */
+        List<EdgeChange> getChanges() {
+            final List<EdgeChange> changes = new ArrayList<>(changedEdges.size());
+            changedEdges.forEach((target, builder) -> {
+                final Relation relation = builder.build();
+                final Relation replaced = getSystemEdges().get(target);
+                if (!relation.equals(replaced)) {
+                    changes.add(new EdgeChange(node, target, relation, replaced));
+                }
+            });
+            return changes;
+        }
     }
 
-    private void addEdge(Operation operation, Relation relation) {
-        Node source = operation.getParentNode();
-        Node target = operation.getReturnType();
-        system.addEdge(source, target, relation);
+    /**
+     * A change to the edges of the system: the addition of a {@link Relation} between a source and a target
+     * {@link Node}, or the replacement of a {@link Relation} by another one.
+     */
+    private static final class EdgeChange {
+
+        private final Node source;
+        private final Node target;
+        private final Relation relation;
+        private final Relation replaced;
+
+        EdgeChange(Node source, Node target, Relation relation, Relation replaced) {
+            this.source = source;
+            this.target = target;
+            this.relation = relation;
+            this.replaced = replaced;
+        }
     }
 
 }
@@ -0,0 +1,247 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Attribute;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
+import nl.ou.dpd.domain.node.Operation;
+import nl.ou.dpd.domain.node.Parameter;
+import nl.ou.dpd.domain.node.Visibility;
+import nl.ou.dpd.domain.relation.Relation;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static nl.ou.dpd.parsing.SnapshotOutput.NONE;
+
+/**
+ * A compact binary snapshot of a (completely parsed and extracted) {@link SystemUnderConsideration}: its nodes with
+ * their attributes, operations and parameters, and its relations with their properties. Reading a snapshot is much
+ * faster than parsing the xmi file again: the snapshot is memory-mapped, and the system is rebuilt without any lookups
+ * by id.
+ * <p>
+ * A snapshot consists of a header (a magic number and the version of the format), a table of all distinct strings (see
+ * {@link SnapshotOutput}), the nodes, and the relations. Strings and nodes are referred to by their index in the table
+ * or in the list of nodes, or by -1 for {@code null}. The list of nodes contains the nodes of the system, in the order
+ * of its vertex set, followed by the nodes that are only referred to as a type. The relations are written in the order of the edge set of the
+ * system, so the rebuilt system looks up relations by id (see {@link SystemUnderConsideration#getRelationById(String)})
+ * like the original one does.
+ *
+ * @author Martin de Boer
+ */
+final class SystemSnapshot {
+
+    private static final int MAGIC = 0x44504453; // "DPDS"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final Visibility[] VISIBILITIES = Visibility.values();
+
+    /**
+     * Private constructor, because this is a utility class.
+     */
+    private SystemSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of the specified {@code system} to the specified {@code file}.
+     *
+     * @param system the system to write
+     * @param file   the snapshot file
+     * @throws IOException if the snapshot could not be written
+     */
+    static void write(SystemUnderConsideration system, Path file) throws IOException {
+        final SnapshotOutput snapshot = new Writer(system).write();
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(file))) {
+            snapshot.writeTo(output, MAGIC, FORMAT_VERSION);
+        }
+    }
+
+    /**
+     * Reads a snapshot from the specified {@code file}, and rebuilds the system it was written from.
+     *
+     * @param file the snapshot file
+     * @return the rebuilt {@link SystemUnderConsideration}
+     * @throws IOException if the file could not be read, or if it is not a valid snapshot of the current format
+     */
+    static SystemUnderConsideration read(Path file) throws IOException {
+        return SnapshotInput.read(file, MAGIC, FORMAT_VERSION, input -> new Reader(input).read());
+    }
+
+    /**
+     * Numbers the nodes, and writes them and the relations of the system.
+     */
+    private static final class Writer {
+
+        private final SystemUnderConsideration system;
+        private final Map<Node, Integer> nodeNumbers = new IdentityHashMap<>();
+        private final List<Node> nodes = new ArrayList<>();
+        private final SnapshotOutput output = new SnapshotOutput();
+
+        private Writer(SystemUnderConsideration system) {
+            this.system = system;
+        }
+
+        private SnapshotOutput write() throws IOException {
+            output.writeString(system.getId());
+            output.writeString(system.getName());
+
+            // Number the nodes of the system first, and then the nodes that are only referred to as a type
+            system.vertexSet().forEach(this::number);
+            for (int i = 0; i < nodes.size(); i++) {
+                numberTypes(nodes.get(i));
+            }
+            output.writeInt(system.vertexSet().size());
+            output.writeInt(nodes.size());
+            for (Node node : nodes) {
+                output.writeString(node.getId());
+                output.writeString(node.getName());
+                output.writeInt(node.getTypeMask());
+                writeVisibility(node.getVisibility());
+            }
+            for (Node node : nodes) {
+                writeMembers(node);
+            }
+
+            output.writeInt(system.edgeSet().size());
+            for (Relation relation : system.edgeSet()) {
+                output.writeInt(nodeNumbers.get(system.getEdgeSource(relation)));
+                output.writeInt(nodeNumbers.get(system.getEdgeTarget(relation)));
+                output.writeRelation(relation);
+            }
+            return output;
+        }
+
+        private void number(Node node) {
+            if (node != null && !nodeNumbers.containsKey(node)) {
+                nodeNumbers.put(node, nodes.size());
+                nodes.add(node);
+            }
+        }
+
+        private void numberTypes(Node node) {
+            for (Attribute attribute : node.getAttributes()) {
+                number(attribute.getType());
+            }
+            for (Operation operation : node.getOperations()) {
+                number(operation.getReturnType());
+                for (Parameter parameter : operation.getParameters()) {
+                    number(parameter.getType());
+                }
+            }
+        }
+
+        private void writeMembers(Node node) throws IOException {
+            output.writeInt(node.getAttributes().size());
+            for (Attribute attribute : node.getAttributes()) {
+                output.writeString(attribute.getId());
+                output.writeString(attribute.getName());
+                writeNode(attribute.getType());
+                writeVisibility(attribute.getVisibility());
+            }
+            output.writeInt(node.getOperations().size());
+            for (Operation operation : node.getOperations()) {
+                output.writeString(operation.getId());
+                output.writeString(operation.getName());
+                writeVisibility(operation.getVisibility());
+                writeNode(operation.getReturnType());
+                output.writeInt(operation.getParameters().size());
+                for (Parameter parameter : operation.getParameters()) {
+                    output.writeString(parameter.getId());
+                    output.writeString(parameter.getName());
+                    writeNode(parameter.getType());
+                }
+            }
+        }
+
+        private void writeNode(Node node) throws IOException {
+            output.writeInt(node == null ? NONE : nodeNumbers.get(node));
+        }
+
+        private void writeVisibility(Visibility visibility) throws IOException {
+            output.writeByte(visibility == null ? NONE : visibility.ordinal());
+        }
+    }
+
+    /**
+     * Rebuilds a system from a (memory-mapped) snapshot.
+     */
+    private static final class Reader {
+
+        private final SnapshotInput input;
+        private Node[] nodes;
+
+        private Reader(SnapshotInput input) {
+            this.input = input;
+        }
+
+        private SystemUnderConsideration read() {
+            final SystemUnderConsideration system = new SystemUnderConsideration(input.readString(), input.readString());
+            final int vertexCount = input.readInt();
+            nodes = new Node[input.readInt()];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = new Node(input.readString(), input.readString());
+                final int typeMask = input.readInt();
+                for (NodeType nodeType : NodeType.values()) {
+                    if ((typeMask & nodeType.mask()) != 0) {
+                        nodes[i].addType(nodeType);
+                    }
+                }
+                nodes[i].setVisibility(readVisibility());
+            }
+            for (Node node : nodes) {
+                readMembers(node);
+            }
+            for (int i = 0; i < vertexCount; i++) {
+                system.addVertex(nodes[i]);
+            }
+
+            final int relationCount = input.readInt();
+            for (int i = 0; i < relationCount; i++) {
+                final Node source = nodes[input.readInt()];
+                final Node target = nodes[input.readInt()];
+                system.addEdge(source, target, input.readRelation());
+            }
+            return system;
+        }
+
+        private void readMembers(Node node) {
+            final int attributeCount = input.readInt();
+            for (int i = 0; i < attributeCount; i++) {
+                new Attribute(input.readString(), node)
+                        .setName(input.readString())
+                        .setType(readNode())
+                        .setVisibility(readVisibility());
+            }
+            final int operationCount = input.readInt();
+            for (int i = 0; i < operationCount; i++) {
+                final Operation operation = new Operation(input.readString(), node)
+                        .setName(input.readString())
+                        .setVisibility(readVisibility())
+                        .setReturnType(readNode());
+                final int parameterCount = input.readInt();
+                for (int j = 0; j < parameterCount; j++) {
+                    final Parameter parameter = new Parameter(input.readString(), operation);
+                    parameter.setName(input.readString());
+                    parameter.setType(readNode());
+                }
+            }
+        }
+
+        private Node readNode() {
+            final int number = input.readInt();
+            return number == NONE ? null : nodes[number];
+        }
+
+        private Visibility readVisibility() {
+            final byte visibility = input.readByte();
+            return visibility == NONE ? null : VISIBILITIES[visibility];
+        }
+    }
+}
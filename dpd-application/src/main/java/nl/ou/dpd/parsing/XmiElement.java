@@ -0,0 +1,42 @@
+package nl.ou.dpd.parsing;
+
+/**
+ * The start or the end of an element in an XMI file, as it is presented to the ArgoUML parsers.
+ * <p>
+ * While parsing, an {@link XmiElement} is a view on the current position of the XML stream reader. It is only valid
+ * until the reader moves on, and must be copied (see {@link #copy()}) to be kept for later use.
+ *
+ * @author Martin de Boer
+ */
+interface XmiElement {
+
+    /**
+     * Returns the tag of this element.
+     *
+     * @return the {@link XmiTag} of this element.
+     */
+    XmiTag getTag();
+
+    /**
+     * Determines whether this is the start of an element.
+     *
+     * @return {@code true} if this is the start of an element, or {@code false} if this is the end of an element.
+     */
+    boolean isStartElement();
+
+    /**
+     * Returns the value of the attribute with the specified {@code localName}.
+     *
+     * @param localName the local name (the name without the namespace prefix) of the attribute
+     * @return the value of the attribute, or {@code null} if this element has no such attribute, or if this is the end
+     * of an element.
+     */
+    String getAttribute(String localName);
+
+    /**
+     * Returns a copy of this element that remains valid after the XML stream reader has moved on.
+     *
+     * @return a copy of this element.
+     */
+    XmiElement copy();
+}
@@ -0,0 +1,67 @@
+package nl.ou.dpd.parsing;
+
+/**
+ * An {@link XmiElement} holding a copy of the tag and the attributes of an element, so it can be kept after the XML
+ * stream reader has moved on.
+ *
+ * @author Martin de Boer
+ */
+final class XmiElementSnapshot implements XmiElement {
+
+    private static final String[] NO_ATTRIBUTES = new String[0];
+
+    private final XmiTag tag;
+    private final boolean startElement;
+    private final String[] attributeNames;
+    private final String[] attributeValues;
+
+    /**
+     * Creates an {@link XmiElementSnapshot}.
+     *
+     * @param tag             the tag of the element
+     * @param startElement    {@code true} for the start of an element, or {@code false} for the end of an element
+     * @param attributeNames  the local names of the attributes of the element
+     * @param attributeValues the values of the attributes of the element, in the same order as the names
+     */
+    XmiElementSnapshot(XmiTag tag, boolean startElement, String[] attributeNames, String[] attributeValues) {
+        this.tag = tag;
+        this.startElement = startElement;
+        this.attributeNames = attributeNames;
+        this.attributeValues = attributeValues;
+    }
+
+    /**
+     * Creates an {@link XmiElementSnapshot} representing the end of an element.
+     *
+     * @param tag the tag of the element
+     * @return the end of the element
+     */
+    static XmiElementSnapshot endOf(XmiTag tag) {
+        return new XmiElementSnapshot(tag, false, NO_ATTRIBUTES, NO_ATTRIBUTES);
+    }
+
+    @Override
+    public XmiTag getTag() {
+        return tag;
+    }
+
+    @Override
+    public boolean isStartElement() {
+        return startElement;
+    }
+
+    @Override
+    public String getAttribute(String localName) {
+        for (int i = 0; i < attributeNames.length; i++) {
+            if (localName.equals(attributeNames[i])) {
+                return attributeValues[i];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public XmiElement copy() {
+        return this;
+    }
+}
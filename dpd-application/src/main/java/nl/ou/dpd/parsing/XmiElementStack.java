@@ -0,0 +1,82 @@
+package nl.ou.dpd.parsing;
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
+/**
+ * Keeps track of the hierarchical structure of the XMI tags while parsing. For every element on the stack, only its
+ * {@link XmiTag} and its id are kept. The stack grows when necessary, but does not allocate anything when elements are
+ * pushed or popped.
+ *
+ * @author Martin de Boer
+ */
+final class XmiElementStack {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private XmiTag[] tags = new XmiTag[INITIAL_CAPACITY];
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Pushes an element onto the stack.
+     *
+     * @param tag the tag of the element
+     * @param id  the id of the element, or {@code null} if the id is of no interest
+     */
+    void push(XmiTag tag, String id) {
+        if (size == tags.length) {
+            tags = Arrays.copyOf(tags, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        tags[size] = tag;
+        ids[size] = id;
+        size++;
+    }
+
+    /**
+     * Removes the top element from the stack.
+     */
+    void pop() {
+        checkNotEmpty();
+        size--;
+        tags[size] = null;
+        ids[size] = null;
+    }
+
+    /**
+     * Returns the tag of the top element of the stack.
+     *
+     * @return the tag of the top element.
+     */
+    XmiTag peekTag() {
+        checkNotEmpty();
+        return tags[size - 1];
+    }
+
+    /**
+     * Returns the id of the top element of the stack.
+     *
+     * @return the id of the top element, or {@code null} if it was pushed without an id.
+     */
+    String peekId() {
+        checkNotEmpty();
+        return ids[size - 1];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        Arrays.fill(tags, 0, size, null);
+        Arrays.fill(ids, 0, size, null);
+        size = 0;
+    }
+
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new EmptyStackException();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package nl.ou.dpd.parsing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The XMI tags that are handled by the ArgoUML parsers. Element names are looked up only once per element, after which
+ * the parsers work with these constants instead of {@link String}s.
+ *
+ * @author Martin de Boer
+ */
+enum XmiTag {
+
+    MODEL("Model"),
+    CLASS("Class"),
+    DATATYPE("DataType"),
+    INTERFACE("Interface"),
+    ATTRIBUTE("Attribute"),
+    OPERATION("Operation"),
+    PARAMETER("Parameter"),
+    DEPENDENCY("Dependency"),
+    ASSOCIATION("Association"),
+    ABSTRACTION("Abstraction"),
+    GENERALIZATION("Generalization"),
+    ASSOCIATION_END("AssociationEnd"),
+    MULTIPLICITY_RANGE("MultiplicityRange"),
+
+    /**
+     * Represents all the tags that are not handled by any of the ArgoUML parsers.
+     */
+    OTHER(null);
+
+    private static final Map<String, XmiTag> TAGS_BY_LOCAL_NAME = new HashMap<>();
+
+    static {
+        for (XmiTag tag : values()) {
+            if (tag.localName != null) {
+                TAGS_BY_LOCAL_NAME.put(tag.localName, tag);
+            }
+        }
+    }
+
+    private final String localName;
+
+    XmiTag(String localName) {
+        this.localName = localName;
+    }
+
+    /**
+     * Returns the local name (the name without the namespace prefix) of the tag.
+     *
+     * @return the local name of the tag, or {@code null} for {@link #OTHER}.
+     */
+    String getLocalName() {
+        return localName;
+    }
+
+    /**
+     * Returns the {@link XmiTag} with the specified {@code localName}.
+     *
+     * @param localName the local name (the name without the namespace prefix) of an XML element
+     * @return the {@link XmiTag} with the specified {@code localName}, or {@link #OTHER} if there is no such tag.
+     */
+    static XmiTag valueOfLocalName(String localName) {
+        return TAGS_BY_LOCAL_NAME.getOrDefault(localName, OTHER);
+    }
+}
@@ -1,9 +1,16 @@
 package nl.ou.dpd.domain;
 
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.domain.relation.RelationProperty;
+import nl.ou.dpd.domain.relation.RelationType;
+import org.junit.Before;
 import org.junit.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
 
 /**
  * Test the {@link SystemUnderConsideration} class.
@@ -15,10 +22,129 @@ public class SystemUnderConsiderationTest {
     private static final String ID = "id";
     private static final String NAME = "name";
 
+    private SystemUnderConsideration sys;
+    private Node node1, node2, node3;
+
+    @Before
+    public void initSystem() {
+        sys = new SystemUnderConsideration(ID, NAME);
+        node1 = new Node("node1");
+        node2 = new Node("node2");
+        node3 = new Node("node3");
+        sys.addVertex(node1);
+        sys.addVertex(node2);
+        sys.addVertex(node3);
+    }
+
     @Test
     public void testConstructor() {
         SystemUnderConsideration sys = new SystemUnderConsideration(ID, NAME);
         assertThat(sys.getId(), is(ID));
         assertThat(sys.getName(), is(NAME));
     }
+
+    @Test
+    public void testGetRelationById() {
+        final Relation relation1 = new Relation("relation1", null);
+        final Relation relation2 = new Relation("relation2", null);
+        sys.addEdge(node1, node2, relation1);
+        sys.addEdge(node2, node3, relation2);
+
+        assertThat(sys.getRelationById("relation1"), sameInstance(relation1));
+        assertThat(sys.getRelationById("relation2"), sameInstance(relation2));
+        assertThat(sys.getRelationById("relation3"), nullValue());
+    }
+
+    @Test
+    public void testReplaceEdge() {
+        final Relation relation = new Relation("relation1", null);
+        sys.addEdge(node1, node2, relation);
+        final Relation replacement = relation.toBuilder()
+                .addRelationProperty(new RelationProperty(RelationType.ASSOCIATES_WITH))
+                .build();
+
+        assertThat(sys.replaceEdge(relation, replacement), sameInstance(replacement));
+        assertThat(sys.getEdge(node1, node2), sameInstance(replacement));
+        assertThat(sys.getRelationById("relation1"), sameInstance(replacement));
+        assertThat(sys.edgeSet().size(), is(1));
+
+        // Replacing a relation with an equal relation leaves the system unchanged
+        assertThat(sys.replaceEdge(replacement, replacement.toBuilder().build()), sameInstance(replacement));
+        assertThat(sys.getEdge(node1, node2), sameInstance(replacement));
+    }
+
+    @Test
+    public void testGetRelationByIdAfterRemoval() {
+        final Relation relation1 = new Relation("relation1", null);
+        final Relation relation2 = new Relation("relation2", null);
+        sys.addEdge(node1, node2, relation1);
+        sys.addEdge(node2, node3, relation2);
+
+        sys.removeEdge(relation1);
+        assertThat(sys.getRelationById("relation1"), nullValue());
+
+        sys.removeEdge(node2, node3);
+        assertThat(sys.getRelationById("relation2"), nullValue());
+    }
+
+    @Test
+    public void testGetRelationByIdAfterVertexRemoval() {
+        final Relation relation1 = new Relation("relation1", null);
+        sys.addEdge(node1, node2, relation1);
+
+        sys.removeVertex(node1);
+        assertThat(sys.getRelationById("relation1"), nullValue());
+    }
+
+    @Test
+    public void testGetRelationByIdWithDuplicateIds() {
+        final Relation relation1 = new Relation("relation", "first");
+        final Relation relation2 = new Relation("relation", "second");
+        sys.addEdge(node1, node2, relation1);
+        sys.addEdge(node2, node3, relation2);
+
+        // The relation that was added first is returned
+        assertThat(sys.getRelationById("relation"), sameInstance(relation1));
+
+        // After removing it, the other relation with the same id takes its place
+        sys.removeEdge(relation1);
+        assertThat(sys.getRelationById("relation"), sameInstance(relation2));
+    }
+
+    @Test
+    public void testReplaceEdgeWithDuplicateIds() {
+        final Relation relation1 = new Relation("relation", "first");
+        final Relation relation2 = new Relation("relation", "second");
+        final Relation relation3 = new Relation("relation", "third");
+        sys.addEdge(node1, node2, relation1);
+        sys.addEdge(node2, node3, relation2);
+        sys.addEdge(node1, node3, relation3);
+
+        // A replacement takes the place of the replaced relation
+        final Relation replacement1 = sys.replaceEdge(relation1, relation1.toBuilder()
+                .addRelationProperty(new RelationProperty(RelationType.ASSOCIATES_WITH))
+                .build());
+        final Relation replacement2 = sys.replaceEdge(relation2, relation2.toBuilder()
+                .addRelationProperty(new RelationProperty(RelationType.ASSOCIATES_WITH))
+                .build());
+        assertThat(sys.getRelationById("relation"), sameInstance(replacement1));
+
+        sys.removeEdge(replacement1);
+        assertThat(sys.getRelationById("relation"), sameInstance(replacement2));
+        sys.removeEdge(replacement2);
+        assertThat(sys.getRelationById("relation"), sameInstance(relation3));
+        sys.removeEdge(relation3);
+        assertThat(sys.getRelationById("relation"), nullValue());
+    }
+
+    @Test
+    public void testReplaceEdgeWithOtherId() {
+        final Relation relation = new Relation("relation1", null);
+        sys.addEdge(node1, node2, relation);
+        final Relation replacement = new Relation("relation2", null);
+
+        sys.replaceEdge(relation, replacement);
+        assertThat(sys.getRelationById("relation1"), nullValue());
+        assertThat(sys.getRelationById("relation2"), sameInstance(replacement));
+    }
 }
@@ -0,0 +1,277 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
+import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.domain.relation.RelationProperty;
+import nl.ou.dpd.domain.relation.RelationType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link AnalysisEngine} class.
+ *
+ * @author Martin de Boer
+ */
+public class AnalysisEngineTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private ExecutorService executor;
+    private SystemUnderConsideration system;
+    private DesignPattern associationPattern, inheritancePattern, familyPattern;
+
+    @Before
+    public void initExecutor() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Before
+    public void initSystem() {
+        system = new SystemUnderConsideration("sysId", "sysName");
+        final Node client = new Node("client", "Client", NodeType.CONCRETE_CLASS);
+        final Node service = new Node("service", "Service", NodeType.CONCRETE_CLASS);
+        system.addVertex(client);
+        system.addVertex(service);
+        system.addEdge(client, service, createRelation(client, service, RelationType.ASSOCIATES_WITH));
+    }
+
+    @Before
+    public void initDesignPatterns() {
+        associationPattern = createPattern("Association", "Association", RelationType.ASSOCIATES_WITH);
+        inheritancePattern = createPattern("Inheritance", "Inheritance", RelationType.INHERITS_FROM);
+        familyPattern = createPattern("Association", "Family", RelationType.ASSOCIATES_WITH);
+    }
+
+    private DesignPattern createPattern(String name, String family, RelationType relationType) {
+        final DesignPattern pattern = new DesignPattern(name, family);
+        final Node source = new Node(name + "Source", "Source", NodeType.CONCRETE_CLASS);
+        final Node target = new Node(name + "Target", "Target", NodeType.CONCRETE_CLASS);
+        pattern.addVertex(source);
+        pattern.addVertex(target);
+        pattern.addEdge(source, target, createRelation(source, target, relationType));
+        return pattern;
+    }
+
+    private static Relation createRelation(Node source, Node target, RelationType relationType) {
+        final String id = String.format("%s-%s", source.getId(), target.getId());
+        return new Relation.Builder(id, id)
+                .addRelationProperty(new RelationProperty(relationType))
+                .build();
+    }
+
+    @Test
+    public void testAnalyse() {
+        final AnalysisEngine engine = new AnalysisEngine(executor);
+        final Map<String, PatternInspector.MatchingResult> results =
+                engine.analyse(system, Arrays.asList(associationPattern, inheritancePattern, familyPattern));
+
+        assertThat(results, instanceOf(ConcurrentHashMap.class));
+        assertThat(results.size(), is(3));
+        assertThat(results.get("Association").getSolutions().size(), is(1));
+        assertThat(results.get("Association (Family)").getSolutions().size(), is(1));
+        assertTrue(results.get("Inheritance").getSolutions().isEmpty());
+    }
+
+    @Test
+    public void testAnalyseWithoutFeedback() {
+        final AnalysisEngine engine = AnalysisEngine.withoutFeedback(executor);
+        final Map<String, PatternInspector.MatchingResult> results =
+                engine.analyse(system, Arrays.asList(associationPattern, inheritancePattern));
+
+        assertThat(results.get("Association").getSolutions().size(), is(1));
+        assertTrue(results.get("Inheritance").getSolutions().isEmpty());
+        assertFalse(results.get("Association").getFeedback().isEnabled());
+        assertTrue(results.get("Association").getFeedback().getRelationSet().isEmpty());
+        assertTrue(results.get("Association").getPruningStatistics().isApplied());
+    }
+
+    @Test
+    public void testNoPreFilteringForOtherComparators() {
+        // Comparators without feedback may be looser than the default comparators, so they are not pre-filtered
+        final AnalysisEngine engine = new AnalysisEngine(
+                executor,
+                () -> NodeComparatorFactory.createCompoundNodeComparator(false),
+                () -> RelationComparatorFactory.createCompoundRelationComparator(false));
+        final Map<String, PatternInspector.MatchingResult> results =
+                engine.analyse(system, Arrays.asList(associationPattern));
+
+        assertThat(results.get("Association").getSolutions().size(), is(1));
+        assertFalse(results.get("Association").getPruningStatistics().isApplied());
+    }
+
+    @Test
+    public void testAnalyseIgnoringHubs() {
+        final AnalysisEngine engine = AnalysisEngine.withoutFeedback(executor)
+                .ignoringHubs(node -> node.getId().equals("service"));
+        final Map<String, PatternInspector.MatchingResult> results =
+                engine.analyse(system, Arrays.asList(associationPattern));
+
+        assertTrue(results.get("Association").getSolutions().isEmpty());
+        assertThat(results.get("Association").getPruningStatistics().getSearchedNodeCount(), is(0));
+    }
+
+    @Test
+    public void testComparatorsPerInspection() {
+        final AtomicInteger nodeComparators = new AtomicInteger();
+        final AtomicInteger relationComparators = new AtomicInteger();
+        final AnalysisEngine engine = new AnalysisEngine(
+                executor,
+                () -> {
+                    nodeComparators.incrementAndGet();
+                    return NodeComparatorFactory.createCompoundNodeComparator();
+                },
+                () -> {
+                    relationComparators.incrementAndGet();
+                    return RelationComparatorFactory.createCompoundRelationComparator();
+                });
+        final Map<String, PatternInspector.MatchingResult> results =
+                engine.analyse(system, Arrays.asList(associationPattern, inheritancePattern, familyPattern));
+
+        assertThat(nodeComparators.get(), is(3));
+        assertThat(relationComparators.get(), is(3));
+
+        // Every inspection has feedback of its own
+        final Relation relation = system.edgeSet().iterator().next();
+        final Feedback associationFeedback = results.get("Association").getFeedback();
+        final Feedback inheritanceFeedback = results.get("Inheritance").getFeedback();
+        assertNotSame(associationFeedback, inheritanceFeedback);
+        assertThat(associationFeedback.getFeedbackMessages(relation, FeedbackType.MISMATCH).size(), is(0));
+        assertThat(inheritanceFeedback.getFeedbackMessages(relation, FeedbackType.MATCH).size(), is(0));
+    }
+
+    @Test
+    public void testAnalyseFailure() {
+        final AnalysisEngine engine = new AnalysisEngine(
+                executor,
+                () -> {
+                    throw new IllegalStateException("No comparator");
+                },
+                RelationComparatorFactory::createCompoundRelationComparator);
+
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("No comparator");
+        engine.analyse(system, Arrays.asList(associationPattern));
+    }
+
+    @Test
+    public void testAnalyseWithListener() {
+        final AtomicInteger mappings = new AtomicInteger();
+        final Map<String, Integer> analysed = new ConcurrentHashMap<>();
+        final AnalysisEngine engine = new AnalysisEngine(executor);
+        engine.analyse(system, Arrays.asList(associationPattern, inheritancePattern, familyPattern),
+                new AnalysisListener() {
+                    @Override
+                    public void mappingFound(DesignPattern designPattern) {
+                        mappings.incrementAndGet();
+                    }
+
+                    @Override
+                    public void patternAnalysed(
+                            String key, PatternInspector.MatchingResult result, int analysedCount, int total) {
+                        assertThat(total, is(3));
+                        analysed.put(key, analysedCount);
+                    }
+                });
+
+        assertThat(mappings.get(), is(2));
+        assertThat(analysed.keySet(), is(new HashSet<>(Arrays.asList(
+                "Association", "Inheritance", "Association (Family)"))));
+        assertThat(new HashSet<>(analysed.values()), is(new HashSet<>(Arrays.asList(1, 2, 3))));
+    }
+
+    @Test
+    public void testAnalyseCancelledBeforeStart() {
+        final AtomicInteger analysed = new AtomicInteger();
+        final AnalysisEngine engine = new AnalysisEngine(executor);
+
+        thrown.expect(CancellationException.class);
+        try {
+            engine.analyse(system, Arrays.asList(associationPattern, inheritancePattern),
+                    new AnalysisListener() {
+                        @Override
+                        public void patternAnalysed(
+                                String key, PatternInspector.MatchingResult result, int analysedCount, int total) {
+                            analysed.incrementAndGet();
+                        }
+
+                        @Override
+                        public boolean isCancelled() {
+                            return true;
+                        }
+                    });
+        } finally {
+            assertThat(analysed.get(), is(0));
+        }
+    }
+
+    @Test
+    public void testAnalyseCancelledPartway() {
+        // Every client is associated with every service, resulting in many mappings
+        for (int i = 0; i < 10; i++) {
+            final Node client = new Node("client" + i, "Client" + i, NodeType.CONCRETE_CLASS);
+            system.addVertex(client);
+            system.vertexSet().stream()
+                    .filter(node -> node.getId().startsWith("service"))
+                    .forEach(service -> system.addEdge(client, service,
+                            createRelation(client, service, RelationType.ASSOCIATES_WITH)));
+        }
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final AtomicInteger mappings = new AtomicInteger();
+        final AnalysisEngine engine = new AnalysisEngine(executor);
+
+        thrown.expect(CancellationException.class);
+        try {
+            engine.analyse(system, Arrays.asList(associationPattern), new AnalysisListener() {
+                @Override
+                public void mappingFound(DesignPattern designPattern) {
+                    mappings.incrementAndGet();
+                    cancelled.set(true);
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return cancelled.get();
+                }
+            });
+        } finally {
+            // The search stopped right after the first mapping
+            assertThat(mappings.get(), is(1));
+        }
+    }
+
+    @Test
+    public void testGetKey() {
+        assertThat(AnalysisEngine.getKey(associationPattern), is("Association"));
+        assertThat(AnalysisEngine.getKey(familyPattern), is("Association (Family)"));
+    }
+
+}
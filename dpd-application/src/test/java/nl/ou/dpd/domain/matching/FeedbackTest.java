@@ -89,6 +89,51 @@ public class FeedbackTest {
         assertTrue(feedback.getRelationSet().contains(relation2));
     }
 
+    /**
+     * Tests that feedback events are rendered to messages when they are asked for, and that recording the same event
+     * twice has no effect.
+     */
+    @Test
+    public void testFeedbackEvents() {
+        when(node1.getName()).thenReturn("SystemNode");
+        when(node2.getName()).thenReturn("PatternNode");
+        final Feedback feedback = new Feedback();
+
+        feedback.addFeedback(node1, FeedbackType.MATCH, FeedbackCode.MATCHED_WITH, node2, null);
+        feedback.addFeedback(node1, FeedbackType.MATCH, FeedbackCode.MATCHED_WITH, node2, null);
+        feedback.addFeedback(node1, FeedbackType.MISMATCH, FeedbackCode.MISSING_NODE_TYPE, node2, "INTERFACE");
+
+        assertThat(feedback.getFeedbackEvents(node1, FeedbackType.MATCH).size(), is(1));
+        final FeedbackEvent event = feedback.getFeedbackEvents(node1, FeedbackType.MATCH).iterator().next();
+        assertThat(event.getCode(), is(FeedbackCode.MATCHED_WITH));
+        assertThat(event.getPatternElement(), is(node2));
+        assertThat(event.getSystemElement(), is(node1));
+
+        assertFeedbackMessages(feedback, node1, FeedbackType.MATCH, "Matched with 'PatternNode'.");
+        assertFeedbackMessages(feedback, node1, FeedbackType.MISMATCH,
+                "Mismatch with 'PatternNode': missing node type 'INTERFACE' in 'SystemNode'.");
+        assertThat(feedback.getFeedbackEvents(node2, FeedbackType.MATCH).isEmpty(), is(true));
+    }
+
+    /**
+     * Tests that a disabled {@link Feedback} ignores all feedback.
+     */
+    @Test
+    public void testDisabled() {
+        final Feedback feedback = Feedback.disabled();
+        assertThat(feedback.isEnabled(), is(false));
+        assertThat(new Feedback().isEnabled(), is(true));
+
+        feedback.addFeedback(node1, FeedbackType.MATCH, FeedbackCode.MATCHED_WITH, node2, null);
+        feedback.addFeedbackMessage(relation1, FeedbackType.INFO, "Testing...");
+        feedback.addNotes(new HashSet<>(Arrays.asList("Note")));
+        feedback.merge(new Feedback(systemUnderConsideration));
+
+        assertTrue(feedback.getNodeSet().isEmpty());
+        assertTrue(feedback.getRelationSet().isEmpty());
+        assertTrue(feedback.getNotes().isEmpty());
+    }
+
     /**
      * Tests the merging of multiple {@link Feedback} instances.
      */
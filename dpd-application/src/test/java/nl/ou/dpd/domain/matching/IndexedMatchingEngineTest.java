@@ -0,0 +1,277 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
+import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.domain.relation.RelationProperty;
+import nl.ou.dpd.domain.relation.RelationType;
+import org.jgrapht.GraphMapping;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link IndexedMatchingEngine} class.
+ *
+ * @author Martin de Boer
+ */
+public class IndexedMatchingEngineTest {
+
+    private final MatchingEngine matchingEngine = new IndexedMatchingEngine();
+
+    private SystemUnderConsideration system;
+    private Node classA, classB, classC;
+    private Relation relationAB, relationBC, relationAC;
+
+    @Before
+    public void initSystem() {
+        // A triangle: A -> B -> C, and A -> C
+        classA = new Node("n1", "ClassA", NodeType.CONCRETE_CLASS);
+        classB = new Node("n2", "ClassB", NodeType.CONCRETE_CLASS);
+        classC = new Node("n3", "ClassC", NodeType.CONCRETE_CLASS);
+        relationAB = createAssociation("r1");
+        relationBC = createAssociation("r2");
+        relationAC = createAssociation("r3");
+        system = new SystemUnderConsideration("sysId", "sysName");
+        system.addVertex(classA);
+        system.addVertex(classB);
+        system.addVertex(classC);
+        system.addEdge(classA, classB, relationAB);
+        system.addEdge(classB, classC, relationBC);
+        system.addEdge(classA, classC, relationAC);
+    }
+
+    @Test
+    public void testSingleRelation() {
+        final Node source = new Node("p1", "Source", NodeType.CONCRETE_CLASS);
+        final Node target = new Node("p2", "Target", NodeType.CONCRETE_CLASS);
+        final Relation patternRelation = createAssociation("pr1");
+        final DesignPattern designPattern = new DesignPattern("patternName", "patternFamily");
+        designPattern.addVertex(source);
+        designPattern.addVertex(target);
+        designPattern.addEdge(source, target, patternRelation);
+
+        final Set<Relation> matchedRelations = new HashSet<>();
+        final Iterator<GraphMapping<Node, Relation>> mappings = getMappings(designPattern);
+        while (mappings.hasNext()) {
+            final GraphMapping<Node, Relation> mapping = mappings.next();
+            final Relation systemRelation = mapping.getEdgeCorrespondence(patternRelation, false);
+            assertThat(mapping.getEdgeCorrespondence(systemRelation, true), is(patternRelation));
+            assertThat(system.getEdgeSource(systemRelation), is(mapping.getVertexCorrespondence(source, false)));
+            assertThat(system.getEdgeTarget(systemRelation), is(mapping.getVertexCorrespondence(target, false)));
+            matchedRelations.add(systemRelation);
+        }
+        assertThat(matchedRelations.size(), is(3));
+    }
+
+    @Test
+    public void testInducedSubgraphsOnly() {
+        // The path A -> B -> C is not an induced subgraph of the system, because of the relation A -> C
+        final Node first = new Node("p1", "First", NodeType.CONCRETE_CLASS);
+        final Node second = new Node("p2", "Second", NodeType.CONCRETE_CLASS);
+        final Node third = new Node("p3", "Third", NodeType.CONCRETE_CLASS);
+        final DesignPattern designPattern = new DesignPattern("patternName", "patternFamily");
+        designPattern.addVertex(first);
+        designPattern.addVertex(second);
+        designPattern.addVertex(third);
+        designPattern.addEdge(first, second, createAssociation("pr1"));
+        designPattern.addEdge(second, third, createAssociation("pr2"));
+        assertFalse(getMappings(designPattern).hasNext());
+
+        designPattern.addEdge(first, third, createAssociation("pr3"));
+        final Iterator<GraphMapping<Node, Relation>> mappings = getMappings(designPattern);
+        assertTrue(mappings.hasNext());
+        final GraphMapping<Node, Relation> mapping = mappings.next();
+        assertThat(mapping.getVertexCorrespondence(classA, true), is(first));
+        assertThat(mapping.getVertexCorrespondence(classB, true), is(second));
+        assertThat(mapping.getVertexCorrespondence(classC, true), is(third));
+        assertFalse(mappings.hasNext());
+    }
+
+    @Test
+    public void testNodeTypeMismatch() {
+        final Node source = new Node("p1", "Source", NodeType.ABSTRACT_CLASS);
+        final Node target = new Node("p2", "Target", NodeType.CONCRETE_CLASS);
+        final DesignPattern designPattern = new DesignPattern("patternName", "patternFamily");
+        designPattern.addVertex(source);
+        designPattern.addVertex(target);
+        designPattern.addEdge(source, target, createAssociation("pr1"));
+        assertFalse(getMappings(designPattern).hasNext());
+    }
+
+    @Test
+    public void testPatternLargerThanSystem() {
+        final DesignPattern designPattern = new DesignPattern("patternName", "patternFamily");
+        for (int i = 0; i < 4; i++) {
+            designPattern.addVertex(new Node("p" + i, "Class" + i, NodeType.CONCRETE_CLASS));
+        }
+        assertFalse(getMappings(designPattern).hasNext());
+    }
+
+    @Test
+    public void testUnmatchedElements() {
+        final Node source = new Node("p1", "Source", NodeType.CONCRETE_CLASS);
+        final Node target = new Node("p2", "Target", NodeType.CONCRETE_CLASS);
+        final DesignPattern designPattern = new DesignPattern("patternName", "patternFamily");
+        designPattern.addVertex(source);
+        designPattern.addVertex(target);
+        designPattern.addEdge(source, target, createAssociation("pr1"));
+
+        final GraphMapping<Node, Relation> mapping = getMappings(designPattern).next();
+        final Node unmatchedNode = system.vertexSet().stream()
+                .filter(node -> mapping.getVertexCorrespondence(node, true) == null)
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+        assertThat(system.vertexSet().stream().filter(node -> node != unmatchedNode)
+                .allMatch(node -> mapping.getVertexCorrespondence(node, true) != null), is(true));
+        assertThat(mapping.getVertexCorrespondence(new Node("n4", "Unknown", NodeType.CONCRETE_CLASS), true),
+                is(nullValue()));
+        assertThat(mapping.getEdgeCorrespondence(createAssociation("r4"), true), is(nullValue()));
+    }
+
+    @Test
+    public void testSplitSearch() {
+        final Node source = new Node("p1", "Source", NodeType.CONCRETE_CLASS);
+        final Node target = new Node("p2", "Target", NodeType.CONCRETE_CLASS);
+        final DesignPattern designPattern = new DesignPattern("patternName", "patternFamily");
+        designPattern.addVertex(source);
+        designPattern.addVertex(target);
+        designPattern.addEdge(source, target, createAssociation("pr1"));
+
+        final List<String> expected = new ArrayList<>();
+        getMappings(designPattern).forEachRemaining(mapping -> expected.add(toString(mapping, source, target)));
+        assertThat(expected.size(), is(3));
+
+        // The prefix covers the mappings that are found first in a sequential search
+        final Spliterator<GraphMapping<Node, Relation>> suffix = getMappingSpliterator(designPattern);
+        assertThat(suffix.estimateSize(), is(3L));
+        final Spliterator<GraphMapping<Node, Relation>> prefix = suffix.trySplit();
+        assertNotNull(prefix);
+        assertThat(prefix.estimateSize() + suffix.estimateSize(), is(3L));
+        final List<String> actual = new ArrayList<>();
+        prefix.forEachRemaining(mapping -> actual.add(toString(mapping, source, target)));
+        assertTrue(suffix.tryAdvance(mapping -> actual.add(toString(mapping, source, target))));
+        assertNull(suffix.trySplit());
+        suffix.forEachRemaining(mapping -> actual.add(toString(mapping, source, target)));
+        assertThat(actual, is(expected));
+
+        assertThat(StreamSupport.stream(getMappingSpliterator(designPattern), true)
+                .map(mapping -> toString(mapping, source, target))
+                .collect(Collectors.toList()), is(expected));
+    }
+
+    @Test
+    public void testBreakingSymmetries() {
+        // The sources of an association with the same target are interchangeable: C is associated with by A and B
+        final Node first = new Node("p1", "First", NodeType.CONCRETE_CLASS);
+        final Node second = new Node("p2", "Second", NodeType.CONCRETE_CLASS);
+        final Node target = new Node("p3", "Target", NodeType.CONCRETE_CLASS);
+        final DesignPattern designPattern = new DesignPattern("patternName", "patternFamily");
+        designPattern.addVertex(first);
+        designPattern.addVertex(second);
+        designPattern.addVertex(target);
+        designPattern.addEdge(first, target, createAssociation("pr1"));
+        designPattern.addEdge(second, target, createAssociation("pr2"));
+        system.removeEdge(relationAB);
+
+        final List<String> all = new ArrayList<>();
+        getMappings(designPattern).forEachRemaining(mapping -> all.add(toString(mapping, first, second)));
+        assertThat(all.size(), is(2));
+
+        final List<String> canonical = new ArrayList<>();
+        IndexedMatchingEngine.breakingSymmetries()
+                .getMappings(
+                        SystemIndex.of(system),
+                        designPattern,
+                        NodeComparatorFactory.createCompoundNodeComparator(false),
+                        RelationComparatorFactory.createCompoundRelationComparator(false))
+                .forEachRemaining(mapping -> canonical.add(toString(mapping, first, second)));
+        assertThat(canonical, is(Collections.singletonList("n1->n2")));
+    }
+
+    @Test
+    public void testPreparedEngine() {
+        final Node first = new Node("p1", "First", NodeType.CONCRETE_CLASS);
+        final Node second = new Node("p2", "Second", NodeType.CONCRETE_CLASS);
+        final Node target = new Node("p3", "Target", NodeType.CONCRETE_CLASS);
+        final DesignPattern designPattern = new DesignPattern("patternName", "patternFamily");
+        designPattern.addVertex(first);
+        designPattern.addVertex(second);
+        designPattern.addVertex(target);
+        designPattern.addEdge(first, target, createAssociation("pr1"));
+        designPattern.addEdge(second, target, createAssociation("pr2"));
+        system.removeEdge(relationAB);
+
+        // The prepared engine finds the same mappings in every search, and still searches for other design patterns
+        final MatchingEngine preparedEngine = IndexedMatchingEngine.breakingSymmetries().prepare(designPattern);
+        for (int i = 0; i < 2; i++) {
+            final List<String> mappings = new ArrayList<>();
+            preparedEngine
+                    .getMappings(
+                            SystemIndex.of(system),
+                            designPattern,
+                            NodeComparatorFactory.createCompoundNodeComparator(false),
+                            RelationComparatorFactory.createCompoundRelationComparator(false))
+                    .forEachRemaining(mapping -> mappings.add(toString(mapping, first, second)));
+            assertThat(mappings, is(Collections.singletonList("n1->n2")));
+        }
+        final DesignPattern otherPattern = new DesignPattern("otherName", "otherFamily");
+        otherPattern.addVertex(first);
+        otherPattern.addVertex(target);
+        otherPattern.addEdge(first, target, createAssociation("pr1"));
+        final long otherMappings = StreamSupport.stream(preparedEngine.getMappingSpliterator(
+                SystemIndex.of(system),
+                otherPattern,
+                NodeComparatorFactory.createCompoundNodeComparator(false),
+                RelationComparatorFactory.createCompoundRelationComparator(false)), false).count();
+        assertThat(otherMappings, is(2L));
+        assertThat(new VF2MatchingEngine().prepare(designPattern), is(instanceOf(VF2MatchingEngine.class)));
+    }
+
+    private static String toString(GraphMapping<Node, Relation> mapping, Node source, Node target) {
+        return mapping.getVertexCorrespondence(source, false).getId()
+                + "->" + mapping.getVertexCorrespondence(target, false).getId();
+    }
+
+    private Spliterator<GraphMapping<Node, Relation>> getMappingSpliterator(DesignPattern designPattern) {
+        return matchingEngine.getMappingSpliterator(
+                SystemIndex.of(system),
+                designPattern,
+                NodeComparatorFactory.createCompoundNodeComparator(false),
+                RelationComparatorFactory.createCompoundRelationComparator(false));
+    }
+
+    private Iterator<GraphMapping<Node, Relation>> getMappings(DesignPattern designPattern) {
+        return matchingEngine.getMappings(
+                SystemIndex.of(system),
+                designPattern,
+                NodeComparatorFactory.createCompoundNodeComparator(false),
+                RelationComparatorFactory.createCompoundRelationComparator(false));
+    }
+
+    private Relation createAssociation(String id) {
+        return new Relation.Builder(id, id)
+                .addRelationProperty(new RelationProperty(RelationType.ASSOCIATES_WITH))
+                .build();
+    }
+}
@@ -17,6 +17,7 @@ import static nl.ou.dpd.domain.matching.NodeComparatorFactory.MISMATCH_MISSING_N
 import static nl.ou.dpd.domain.matching.NodeComparatorFactory.NODE_TYPES_ANALYSED_MSG;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 
 /**
@@ -46,6 +47,7 @@ public class NodeComparatorFactoryTest {
         final HashSet<NodeType> types1 = new HashSet<>();
         types1.add(NodeType.CONCRETE_CLASS);
         when(concreteClassNode.getTypes()).thenReturn(types1);
+        when(concreteClassNode.getTypeMask()).thenReturn(NodeType.maskOf(types1));
         when(concreteClassNode.getId()).thenReturn("concreteClassNode");
         when(concreteClassNode.getName()).thenReturn("ConcreteClassNode");
 
@@ -53,6 +55,7 @@ public class NodeComparatorFactoryTest {
         final HashSet<NodeType> types2 = new HashSet<>();
         types2.add(NodeType.ABSTRACT_CLASS);
         when(abstractClassNode.getTypes()).thenReturn(types2);
+        when(abstractClassNode.getTypeMask()).thenReturn(NodeType.maskOf(types2));
         when(abstractClassNode.getId()).thenReturn("abstractClassNode");
         when(abstractClassNode.getName()).thenReturn("AbstractClassNode");
     }
@@ -73,6 +76,20 @@ public class NodeComparatorFactoryTest {
         assertFeedbackMessages(feedback, concreteClassNode, FeedbackType.INFO, new String[]{NODE_TYPES_ANALYSED_MSG});
     }
 
+    /**
+     * Tests that a compound comparator without feedback compares nodes, but does not gather feedback.
+     */
+    @Test
+    public void testWithoutFeedback() {
+        final CompoundComparator<Node> comparator = NodeComparatorFactory.createCompoundNodeComparator(false);
+        assertThat(comparator.compare(concreteClassNode, concreteClassNode), is(0));
+        assertThat(comparator.compare(concreteClassNode, abstractClassNode), is(1));
+
+        final Feedback feedback = comparator.getFeedback();
+        assertThat(feedback.isEnabled(), is(false));
+        assertTrue(feedback.getNodeSet().isEmpty());
+    }
+
     /**
      * Test the behaviour of a compound comparator and its feedback when matching the node type fails.
      */
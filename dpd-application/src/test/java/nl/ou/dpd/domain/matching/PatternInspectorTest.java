@@ -3,7 +3,10 @@ package nl.ou.dpd.domain.matching;
 import nl.ou.dpd.domain.DesignPattern;
 import nl.ou.dpd.domain.SystemUnderConsideration;
 import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
 import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.domain.relation.RelationProperty;
+import nl.ou.dpd.domain.relation.RelationType;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -11,6 +14,8 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static junit.framework.TestCase.assertFalse;
 import static nl.ou.dpd.domain.matching.MatchingTestHelper.assertFeedbackMessages;
@@ -192,5 +197,173 @@ public class PatternInspectorTest {
         assertFeedbackMessages(feedback, systemRelation, FeedbackType.MISMATCH, new String[]{RELATION_MISMATCH_MSG});
     }
 
+    @Test
+    public void testNoPreFilteringWithFeedback() {
+        designPattern
+                .setNodeComparator(acceptingNodeComparator)
+                .setRelationComparator(acceptingRelationComparator);
+
+        final PruningStatistics statistics = new PatternInspector(system, designPattern)
+                .getMatchingResult()
+                .getPruningStatistics();
+        assertFalse(statistics.isApplied());
+        assertFalse(statistics.isSearchSkipped());
+        assertThat(statistics.getSystemNodeCount(), is(2));
+        assertThat(statistics.getSearchedNodeCount(), is(2));
+    }
+
+    @Test
+    public void testPreFiltering() {
+        final Node abstractClass = new Node("n1", "AbstractClass", NodeType.ABSTRACT_CLASS);
+        final Node concreteClass = new Node("n2", "ConcreteClass", NodeType.CONCRETE_CLASS);
+        final Node otherClass = new Node("n3", "OtherClass", NodeType.CONCRETE_CLASS);
+        final SystemUnderConsideration system = new SystemUnderConsideration("sysId", "sysName");
+        system.addVertex(abstractClass);
+        system.addVertex(concreteClass);
+        system.addVertex(otherClass);
+        system.addEdge(concreteClass, abstractClass, createInheritance("r1"));
+
+        final Node abstractRole = new Node("p1", "AbstractRole", NodeType.ABSTRACT_CLASS);
+        final Node concreteRole = new Node("p2", "ConcreteRole", NodeType.CONCRETE_CLASS);
+        final DesignPattern designPattern = new DesignPattern("patternName", "patternFamily");
+        designPattern.addVertex(abstractRole);
+        designPattern.addVertex(concreteRole);
+        designPattern.addEdge(concreteRole, abstractRole, createInheritance("pr1"));
+
+        // Comparators without feedback do not switch on the pre-filtering
+        final PatternInspector.MatchingResult unfiltered = new PatternInspector(
+                system,
+                designPattern,
+                NodeComparatorFactory.createCompoundNodeComparator(false),
+                RelationComparatorFactory.createCompoundRelationComparator(false))
+                .getMatchingResult();
+        assertFalse(unfiltered.getPruningStatistics().isApplied());
+
+        final PatternInspector.MatchingResult result = PatternInspector.preFiltering(
+                SystemIndex.of(system),
+                designPattern,
+                NodeComparatorFactory.createCompoundNodeComparator(false),
+                RelationComparatorFactory.createCompoundRelationComparator(false),
+                new VF2MatchingEngine())
+                .getMatchingResult();
+        assertThat(result.getSolutions().size(), is(1));
+        assertThat(result.getSolutions().get(0).getMatchingNodes().size(), is(2));
+        assertThat(getSimilarityKeys(result), is(getSimilarityKeys(unfiltered)));
+
+        // OtherClass does not inherit from an abstract class
+        final PruningStatistics statistics = result.getPruningStatistics();
+        assertTrue(statistics.isApplied());
+        assertFalse(statistics.isSearchSkipped());
+        assertThat(statistics.getSystemNodeCount(), is(3));
+        assertThat(statistics.getSearchedNodeCount(), is(2));
+        assertThat(statistics.getPrunedNodeCount(), is(1));
+        assertThat(statistics.getCandidateCounts().get(abstractRole), is(1));
+        assertThat(statistics.getCandidateCounts().get(concreteRole), is(1));
+    }
+
+    @Test
+    public void testSearchSkippedWithoutCandidates() {
+        final Node interfaceRole = new Node("p1", "InterfaceRole", NodeType.INTERFACE);
+        final DesignPattern designPattern = new DesignPattern("patternName", "patternFamily");
+        designPattern.addVertex(interfaceRole);
+
+        final PatternInspector.MatchingResult result = PatternInspector.preFiltering(
+                SystemIndex.of(system),
+                designPattern,
+                NodeComparatorFactory.createCompoundNodeComparator(false),
+                RelationComparatorFactory.createCompoundRelationComparator(false),
+                new VF2MatchingEngine())
+                .getMatchingResult();
+        assertTrue(result.getSolutions().isEmpty());
+        assertTrue(result.getPruningStatistics().isSearchSkipped());
+        assertThat(result.getPruningStatistics().getSearchedNodeCount(), is(0));
+    }
 
+    @Test
+    public void testSearchLimits() {
+        final PatternInspector inspector = createHierarchyInspector(4);
+
+        final PatternInspector.MatchingResult all = inspector.getMatchingResult(SearchLimit.none());
+        assertThat(all.getSolutionCount(), is(4L));
+        assertThat(all.getSolutions(true).size(), is(4));
+        assertFalse(all.isTruncated());
+
+        final PatternInspector.MatchingResult existence = inspector.getMatchingResult(SearchLimit.existence());
+        assertThat(existence.getSolutionCount(), is(1L));
+        assertTrue(existence.getSolutions(true).isEmpty());
+        assertTrue(existence.isTruncated());
+
+        final PatternInspector.MatchingResult firstTwo = inspector.getMatchingResult(SearchLimit.firstSolutions(2));
+        assertThat(getSimilarityKeys(firstTwo), is(getSimilarityKeys(all).subList(0, 2)));
+        assertTrue(firstTwo.isTruncated());
+        assertFalse(inspector.getMatchingResult(SearchLimit.firstSolutions(5)).isTruncated());
+
+        // A search that finds exactly the maximum number of solutions is complete
+        final PatternInspector.MatchingResult firstFour = inspector.getMatchingResult(SearchLimit.firstSolutions(4));
+        assertThat(firstFour.getSolutionCount(), is(4L));
+        assertThat(firstFour.getSolutions(true).size(), is(4));
+        assertFalse(firstFour.isTruncated());
+        final PatternInspector.MatchingResult single =
+                createHierarchyInspector(1).getMatchingResult(SearchLimit.existence());
+        assertThat(single.getSolutionCount(), is(1L));
+        assertFalse(single.isTruncated());
+
+        final PatternInspector.MatchingResult count = inspector.getMatchingResult(SearchLimit.countOnly());
+        assertThat(count.getSolutionCount(), is(4L));
+        assertTrue(count.getSolutions(true).isEmpty());
+        assertFalse(count.isTruncated());
+    }
+
+    @Test
+    public void testSearchBudget() {
+        final PatternInspector inspector = createHierarchyInspector(4);
+
+        final PatternInspector.MatchingResult exhausted =
+                inspector.getMatchingResult(SearchLimit.none().withMaxSteps(0));
+        assertThat(exhausted.getSolutionCount(), is(0L));
+        assertTrue(exhausted.isTruncated());
+
+        final PatternInspector.MatchingResult sufficient =
+                inspector.getMatchingResult(SearchLimit.none().withMaxSteps(1000).withTimeout(1, TimeUnit.MINUTES));
+        assertThat(sufficient.getSolutionCount(), is(4L));
+        assertFalse(sufficient.isTruncated());
+    }
+
+    private static List<List<Object>> getSimilarityKeys(PatternInspector.MatchingResult result) {
+        return result.getSolutions(true).stream().map(Solution::getSimilarityKey).collect(Collectors.toList());
+    }
+
+    /**
+     * Creates an inspector without feedback, searching a system with an abstract class and the specified number of
+     * concrete subclasses for a single inheritance.
+     */
+    private PatternInspector createHierarchyInspector(int subClassCount) {
+        final Node abstractClass = new Node("n0", "AbstractClass", NodeType.ABSTRACT_CLASS);
+        final SystemUnderConsideration system = new SystemUnderConsideration("sysId", "sysName");
+        system.addVertex(abstractClass);
+        for (int i = 1; i <= subClassCount; i++) {
+            final Node subClass = new Node("n" + i, "SubClass" + i, NodeType.CONCRETE_CLASS);
+            system.addVertex(subClass);
+            system.addEdge(subClass, abstractClass, createInheritance("r" + i));
+        }
+
+        final Node abstractRole = new Node("p1", "AbstractRole", NodeType.ABSTRACT_CLASS);
+        final Node concreteRole = new Node("p2", "ConcreteRole", NodeType.CONCRETE_CLASS);
+        final DesignPattern designPattern = new DesignPattern("patternName", "patternFamily");
+        designPattern.addVertex(abstractRole);
+        designPattern.addVertex(concreteRole);
+        designPattern.addEdge(concreteRole, abstractRole, createInheritance("pr1"));
+
+        return new PatternInspector(
+                system,
+                designPattern,
+                NodeComparatorFactory.createCompoundNodeComparator(false),
+                RelationComparatorFactory.createCompoundRelationComparator(false));
+    }
+
+    private Relation createInheritance(String id) {
+        return new Relation.Builder(id, id)
+                .addRelationProperty(new RelationProperty(RelationType.INHERITS_FROM))
+                .build();
+    }
 }
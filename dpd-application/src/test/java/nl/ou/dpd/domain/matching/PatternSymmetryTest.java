@@ -0,0 +1,104 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
+import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.domain.relation.RelationProperty;
+import nl.ou.dpd.domain.relation.RelationType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static nl.ou.dpd.domain.matching.IndexedGraph.NO_NODE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link PatternSymmetry} class.
+ *
+ * @author Martin de Boer
+ */
+public class PatternSymmetryTest {
+
+    private DesignPattern designPattern;
+    private Node component;
+
+    @Before
+    public void initDesignPattern() {
+        component = new Node("p0", "Component", NodeType.ABSTRACT_CLASS);
+        designPattern = new DesignPattern("patternName", "patternFamily");
+        designPattern.addVertex(component);
+    }
+
+    @Test
+    public void testInterchangeableLeaves() {
+        final Node[] leaves = addLeaves(3, RelationType.INHERITS_FROM, RelationType.INHERITS_FROM,
+                RelationType.INHERITS_FROM);
+        final IndexedGraph pattern = IndexedGraph.inVertexOrder(designPattern);
+        final PatternSymmetry symmetry = PatternSymmetry.of(pattern);
+
+        // The leaves are matched in order: 1 < 2, 1 < 3 and 2 < 3
+        assertThat(symmetry.getConditionCount(), is(3));
+        final int[] patternCore = createPatternCore(pattern);
+        patternCore[pattern.getNumber(leaves[1])] = 5;
+        assertTrue(symmetry.allows(4, pattern.getNumber(leaves[0]), patternCore));
+        assertFalse(symmetry.allows(6, pattern.getNumber(leaves[0]), patternCore));
+        assertTrue(symmetry.allows(6, pattern.getNumber(leaves[2]), patternCore));
+        assertFalse(symmetry.allows(4, pattern.getNumber(leaves[2]), patternCore));
+        assertTrue(symmetry.allows(0, pattern.getNumber(component), patternCore));
+    }
+
+    @Test
+    public void testDistinguishableLeaves() {
+        addLeaves(2, RelationType.INHERITS_FROM, RelationType.ASSOCIATES_WITH);
+        assertThat(PatternSymmetry.of(IndexedGraph.inVertexOrder(designPattern)).getConditionCount(), is(0));
+
+        // Leaves with different node types are not interchangeable either
+        designPattern.addVertex(new Node("p3", "Leaf3", NodeType.INTERFACE));
+        designPattern.addVertex(new Node("p4", "Leaf4", NodeType.CONCRETE_CLASS));
+        assertThat(PatternSymmetry.of(IndexedGraph.inVertexOrder(designPattern)).getConditionCount(), is(0));
+    }
+
+    @Test
+    public void testCycle() {
+        // The rotations of a cycle are its automorphisms. Once the first node is kept in place, the other nodes can not
+        // be interchanged, because the relations are directed.
+        final Node[] nodes = new Node[3];
+        final DesignPattern cycle = new DesignPattern("patternName", "patternFamily");
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new Node("p" + i, "Class" + i, NodeType.CONCRETE_CLASS);
+            cycle.addVertex(nodes[i]);
+        }
+        for (int i = 0; i < nodes.length; i++) {
+            final Relation relation = createRelation("pr" + i, RelationType.ASSOCIATES_WITH);
+            cycle.addEdge(nodes[i], nodes[(i + 1) % nodes.length], relation);
+        }
+        assertThat(PatternSymmetry.of(IndexedGraph.inVertexOrder(cycle)).getConditionCount(), is(2));
+    }
+
+    private Node[] addLeaves(int count, RelationType... relationTypes) {
+        final Node[] leaves = new Node[count];
+        for (int i = 0; i < count; i++) {
+            leaves[i] = new Node("p" + (i + 1), "Leaf" + (i + 1), NodeType.CONCRETE_CLASS);
+            designPattern.addVertex(leaves[i]);
+            designPattern.addEdge(leaves[i], component, createRelation("pr" + (i + 1), relationTypes[i]));
+        }
+        return leaves;
+    }
+
+    private static int[] createPatternCore(IndexedGraph pattern) {
+        final int[] patternCore = new int[pattern.getNodeCount()];
+        Arrays.fill(patternCore, NO_NODE);
+        return patternCore;
+    }
+
+    private static Relation createRelation(String id, RelationType relationType) {
+        return new Relation.Builder(id, id)
+                .addRelationProperty(new RelationProperty(relationType))
+                .build();
+    }
+}
@@ -10,8 +10,6 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
-import java.util.HashSet;
-
 import static nl.ou.dpd.domain.matching.CompoundComparator.MATCHED_WITH_MSG;
 import static nl.ou.dpd.domain.matching.CompoundComparator.MATCH_FAILED_WITH_MSG;
 import static nl.ou.dpd.domain.matching.MatchingTestHelper.assertFeedbackMessages;
@@ -37,9 +35,9 @@ public class RelationComparatorFactoryTest {
     @Mock
     private FeedbackEnabledComparator<Relation> subComparator1, subComparator2, subComparator3;
     @Mock
-    private Relation dummyRelation1, dummyRelation2,
-            inheritanceRelation, inheritance2Relation,
-            inheritance3Relation, associationRelation;
+    private Relation dummyRelation1, dummyRelation2;
+
+    private Relation inheritanceRelation, inheritance2Relation, inheritance3Relation, associationRelation;
 
     @Before
     public void initComparator() {
@@ -49,45 +47,18 @@ public class RelationComparatorFactoryTest {
 
     @Before
     public void initRelations() {
-        // Init inheritanceRelation
-        final HashSet<RelationProperty> relationProperties1 = new HashSet<>();
-        final RelationProperty inheritance = new RelationProperty(RelationType.INHERITS_FROM);
-        inheritance.setCardinalityLeft(Cardinality.valueOf("1"));
-        inheritance.setCardinalityRight(Cardinality.valueOf("1"));
-        relationProperties1.add(inheritance);
-        when(inheritanceRelation.getRelationProperties()).thenReturn(relationProperties1);
-        when(inheritanceRelation.getId()).thenReturn("inheritanceRelation");
-        when(inheritanceRelation.getName()).thenReturn("inheritanceRelation");
-
-        // Init inheritance2Relation
-        final HashSet<RelationProperty> relationProperties2 = new HashSet<>();
-        final RelationProperty inheritance2 = new RelationProperty(RelationType.INHERITS_FROM);
-        inheritance2.setCardinalityLeft(Cardinality.valueOf("1"));
-        inheritance2.setCardinalityRight(Cardinality.valueOf("2"));
-        relationProperties2.add(inheritance2);
-        when(inheritance2Relation.getRelationProperties()).thenReturn(relationProperties2);
-        when(inheritance2Relation.getId()).thenReturn("inheritance2Relation");
-        when(inheritance2Relation.getName()).thenReturn("inheritance2Relation");
-
-        // Init inheritance3Relation
-        final HashSet<RelationProperty> relationProperties3 = new HashSet<>();
-        final RelationProperty inheritance3 = new RelationProperty(RelationType.INHERITS_FROM);
-        inheritance3.setCardinalityLeft(Cardinality.valueOf("2"));
-        inheritance3.setCardinalityRight(Cardinality.valueOf("1"));
-        relationProperties3.add(inheritance3);
-        when(inheritance3Relation.getRelationProperties()).thenReturn(relationProperties3);
-        when(inheritance3Relation.getId()).thenReturn("inheritance3Relation");
-        when(inheritance3Relation.getName()).thenReturn("inheritance3Relation");
-
-        // Init assocationRelation
-        final HashSet<RelationProperty> relationProperties4 = new HashSet<>();
-        final RelationProperty association = new RelationProperty(RelationType.ASSOCIATES_WITH);
-        relationProperties4.add(association);
-        association.setCardinalityLeft(Cardinality.valueOf("1"));
-        association.setCardinalityRight(Cardinality.valueOf("1"));
-        when(associationRelation.getRelationProperties()).thenReturn(relationProperties4);
-        when(associationRelation.getId()).thenReturn("associationRelation");
-        when(associationRelation.getName()).thenReturn("associationRelation");
+        inheritanceRelation = createRelation("inheritanceRelation", RelationType.INHERITS_FROM, "1", "1");
+        inheritance2Relation = createRelation("inheritance2Relation", RelationType.INHERITS_FROM, "1", "2");
+        inheritance3Relation = createRelation("inheritance3Relation", RelationType.INHERITS_FROM, "2", "1");
+        associationRelation = createRelation("associationRelation", RelationType.ASSOCIATES_WITH, "1", "1");
+    }
+
+    private Relation createRelation(String idAndName, RelationType type, String left, String right) {
+        final RelationProperty relationProperty =
+                new RelationProperty(type, Cardinality.valueOf(left), Cardinality.valueOf(right));
+        return new Relation.Builder(idAndName, idAndName)
+                .addRelationProperty(relationProperty)
+                .build();
     }
 
     /**
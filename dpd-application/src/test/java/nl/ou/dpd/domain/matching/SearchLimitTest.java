@@ -0,0 +1,64 @@
+package nl.ou.dpd.domain.matching;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link SearchLimit} class.
+ *
+ * @author Martin de Boer
+ */
+public class SearchLimitTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testNone() {
+        final SearchLimit limit = SearchLimit.none();
+        assertFalse(limit.hasMaxSolutions());
+        assertFalse(limit.isCountOnly());
+        assertFalse(limit.hasTimeout());
+        assertFalse(limit.hasBudget());
+        assertThat(limit.getTimeout(TimeUnit.SECONDS), is(-1L));
+    }
+
+    @Test
+    public void testModes() {
+        assertThat(SearchLimit.existence().getMaxSolutions(), is(1L));
+        assertTrue(SearchLimit.existence().isCountOnly());
+        assertThat(SearchLimit.firstSolutions(3).getMaxSolutions(), is(3L));
+        assertFalse(SearchLimit.firstSolutions(3).isCountOnly());
+        assertFalse(SearchLimit.countOnly().hasMaxSolutions());
+        assertTrue(SearchLimit.countOnly().isCountOnly());
+    }
+
+    @Test
+    public void testBudget() {
+        final SearchLimit limit = SearchLimit.firstSolutions(3).withTimeout(2, TimeUnit.SECONDS).withMaxSteps(100);
+        assertThat(limit.getMaxSolutions(), is(3L));
+        assertThat(limit.getTimeout(TimeUnit.MILLISECONDS), is(2000L));
+        assertThat(limit.getMaxSteps(), is(100L));
+        assertTrue(limit.hasBudget());
+    }
+
+    @Test
+    public void testInvalidMaxSolutions() {
+        thrown.expect(IllegalArgumentException.class);
+        SearchLimit.firstSolutions(0);
+    }
+
+    @Test
+    public void testInvalidTimeout() {
+        thrown.expect(IllegalArgumentException.class);
+        SearchLimit.none().withTimeout(-1, TimeUnit.SECONDS);
+    }
+}
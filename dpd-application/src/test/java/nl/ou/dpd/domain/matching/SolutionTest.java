@@ -140,4 +140,22 @@ public class SolutionTest {
         assertFalse(solution.isSimilar(solutionWithDifferentFamilyName));
     }
 
+    @Test
+    public void testSimilarityKey() {
+        solution.addMatchingNodes(systemNode, patternNode);
+        solution.addMatchingNodes(systemNode2, patternNode2);
+        solution.addMatchingRelations(systemRelation, patternRelation);
+
+        // The order of the matching nodes must not matter
+        final Solution other = new Solution(solution.getDesignPatternName(), solution.getPatternFamilyName());
+        other.addMatchingNodes(systemNode2, patternNode);
+        other.addMatchingNodes(systemNode, patternNode2);
+        other.addMatchingRelations(systemRelation, patternRelation2);
+        assertThat(solution.getSimilarityKey(), is(other.getSimilarityKey()));
+        assertThat(solution.getSimilarityKey().hashCode(), is(other.getSimilarityKey().hashCode()));
+
+        other.addMatchingRelations(systemRelation, patternRelation);
+        assertFalse(solution.getSimilarityKey().equals(other.getSimilarityKey()));
+    }
+
 }
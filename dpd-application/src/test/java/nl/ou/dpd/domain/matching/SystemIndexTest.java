@@ -0,0 +1,177 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
+import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.domain.relation.RelationProperty;
+import nl.ou.dpd.domain.relation.RelationType;
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.GraphMapping;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link SystemIndex} class.
+ *
+ * @author Martin de Boer
+ */
+public class SystemIndexTest {
+
+    private SystemUnderConsideration system;
+    private Node classA, classB, classC;
+
+    @Before
+    public void initSystem() {
+        // A -> B -> C, and a self-referencing relation of C
+        classA = new Node("n1", "ClassA", NodeType.CONCRETE_CLASS);
+        classB = new Node("n2", "ClassB", NodeType.ABSTRACT_CLASS);
+        classC = new Node("n3", "ClassC", NodeType.CONCRETE_CLASS);
+        system = new SystemUnderConsideration("sysId", "sysName");
+        system.addVertex(classA);
+        system.addVertex(classB);
+        system.addVertex(classC);
+        system.addEdge(classA, classB, createRelation("r1", RelationType.INHERITS_FROM));
+        system.addEdge(classB, classC, createRelation("r2", RelationType.ASSOCIATES_WITH));
+        system.addEdge(classC, classC, createRelation("r3", RelationType.ASSOCIATES_WITH));
+    }
+
+    @Test
+    public void testIndex() {
+        final SystemIndex systemIndex = SystemIndex.of(system);
+        assertThat(systemIndex.getSystem(), is(sameInstance(system)));
+        assertFalse(systemIndex.isRestricted());
+        assertThat(systemIndex.getSearchedNodeCount(), is(3));
+        assertThat(systemIndex.getSearchedRelationCount(), is(3));
+        assertThat(systemIndex.getSearchedGraph(), is(sameInstance((DirectedGraph<Node, Relation>) system)));
+
+        final IndexedGraph graph = systemIndex.getGraph();
+        final int a = graph.getNumber(classA);
+        final int b = graph.getNumber(classB);
+        final int c = graph.getNumber(classC);
+        assertThat(graph.getNode(b), is(classB));
+        assertThat(systemIndex.getNodeTypeMask(b), is(NodeType.ABSTRACT_CLASS.mask()));
+        assertThat(graph.getRelation(a, b), is(system.getEdge(classA, classB)));
+        assertFalse(graph.hasRelation(b, a));
+        assertTrue(graph.hasRelation(c, c));
+
+        // The self-referencing relation is not part of the profile
+        system.removeEdge(classC, classC);
+        assertArrayEquals(SystemIndex.createProfile(system, classC), systemIndex.getProfile(c));
+        assertFalse(SystemIndex.dominates(systemIndex.getProfile(c), systemIndex.getProfile(b)));
+        assertTrue(SystemIndex.dominates(systemIndex.getProfile(b), systemIndex.getProfile(b)));
+    }
+
+    @Test
+    public void testRestrictedIndex() {
+        final SystemIndex systemIndex = SystemIndex.of(system);
+        final BitSet searchedNodes = new BitSet();
+        searchedNodes.set(systemIndex.getGraph().getNumber(classB));
+        searchedNodes.set(systemIndex.getGraph().getNumber(classC));
+        final SystemIndex restrictedIndex = systemIndex.restrictTo(searchedNodes);
+
+        assertTrue(restrictedIndex.isRestricted());
+        assertThat(restrictedIndex.getSearchedNodeCount(), is(2));
+        assertThat(restrictedIndex.getSearchedRelationCount(), is(2));
+        assertFalse(systemIndex.isRestricted());
+
+        // The searched nodes are numbered anew, in the same order
+        final IndexedGraph graph = restrictedIndex.getGraph();
+        assertThat(graph.getNodeCount(), is(2));
+        assertThat(graph.getNumber(classA), is(IndexedGraph.NO_NODE));
+        assertThat(graph.getNode(0), is(classB));
+        assertThat(graph.getNode(1), is(classC));
+        assertThat(graph.getRelation(0, 1), is(system.getEdge(classB, classC)));
+        assertThat(graph.getPredecessors(0).length, is(0));
+        assertThat(graph.getNumbers(system.getEdge(classA, classB)), is(nullValue()));
+        assertThat(restrictedIndex.getNodeTypeMask(0), is(NodeType.ABSTRACT_CLASS.mask()));
+        assertArrayEquals(systemIndex.getProfile(systemIndex.getGraph().getNumber(classB)),
+                restrictedIndex.getProfile(0));
+
+        final DirectedGraph<Node, Relation> searchedGraph = restrictedIndex.getSearchedGraph();
+        assertThat(searchedGraph.vertexSet().size(), is(2));
+        assertThat(searchedGraph.edgeSet().size(), is(2));
+        assertFalse(searchedGraph.containsVertex(classA));
+        assertFalse(searchedGraph.containsEdge(system.getEdge(classA, classB)));
+        assertThat(searchedGraph.getEdge(classB, classC), is(system.getEdge(classB, classC)));
+        assertThat(searchedGraph.incomingEdgesOf(classB).size(), is(0));
+        assertThat(searchedGraph.edgesOf(classC).size(), is(2));
+        assertThat(searchedGraph.getEdgeSource(system.getEdge(classB, classC)), is(classB));
+    }
+
+    @Test
+    public void testIgnoring() {
+        final SystemIndex systemIndex = SystemIndex.of(system);
+        assertThat(systemIndex.ignoring(node -> false), is(sameInstance(systemIndex)));
+
+        final SystemIndex restrictedIndex = systemIndex.ignoring(node -> node == classB);
+        assertTrue(restrictedIndex.isRestricted());
+        assertThat(restrictedIndex.getSearchedNodeCount(), is(2));
+        assertThat(restrictedIndex.getSearchedRelationCount(), is(1));
+        assertThat(restrictedIndex.getGraph().getNumber(classB), is(IndexedGraph.NO_NODE));
+        assertThat(restrictedIndex.ignoring(node -> node == classB), is(sameInstance(restrictedIndex)));
+    }
+
+    @Test
+    public void testComponents() {
+        final SystemIndex systemIndex = SystemIndex.of(system);
+        assertThat(systemIndex.getComponents(), is(Collections.singletonList(systemIndex)));
+
+        // Without B, A and C are no longer connected
+        final List<SystemIndex> components = systemIndex.ignoring(node -> node == classB).getComponents();
+        assertThat(components.size(), is(2));
+        assertThat(components.get(0).getSearchedNodeCount(), is(1));
+        assertThat(components.get(1).getSearchedNodeCount(), is(1));
+        assertThat(components.get(0).getGraph().getNode(0), is(classA));
+        assertThat(components.get(1).getGraph().getNode(0), is(classC));
+        assertThat(components.get(1).getSearchedRelationCount(), is(1));
+    }
+
+    @Test
+    public void testRestrictedSearch() {
+        final Node subClass = new Node("p1", "SubClass", NodeType.CONCRETE_CLASS);
+        final Node superClass = new Node("p2", "SuperClass", NodeType.ABSTRACT_CLASS);
+        final DesignPattern designPattern = new DesignPattern("patternName", "patternFamily");
+        designPattern.addVertex(subClass);
+        designPattern.addVertex(superClass);
+        designPattern.addEdge(subClass, superClass, createRelation("pr1", RelationType.INHERITS_FROM));
+
+        final SystemIndex systemIndex = SystemIndex.of(system);
+        assertTrue(getMappings(systemIndex, designPattern).hasNext());
+
+        final BitSet searchedNodes = new BitSet();
+        searchedNodes.set(systemIndex.getGraph().getNumber(classB));
+        searchedNodes.set(systemIndex.getGraph().getNumber(classC));
+        final Iterator<GraphMapping<Node, Relation>> mappings =
+                getMappings(systemIndex.restrictTo(searchedNodes), designPattern);
+        assertFalse(mappings.hasNext());
+    }
+
+    private Iterator<GraphMapping<Node, Relation>> getMappings(SystemIndex systemIndex, DesignPattern designPattern) {
+        return new IndexedMatchingEngine().getMappings(
+                systemIndex,
+                designPattern,
+                NodeComparatorFactory.createCompoundNodeComparator(false),
+                RelationComparatorFactory.createCompoundRelationComparator(false));
+    }
+
+    private Relation createRelation(String id, RelationType relationType) {
+        return new Relation.Builder(id, id)
+                .addRelationProperty(new RelationProperty(relationType))
+                .build();
+    }
+}
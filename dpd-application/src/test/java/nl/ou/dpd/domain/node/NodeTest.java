@@ -186,4 +186,20 @@ public class NodeTest {
         assertFalse(node.equalsSignature(differentSignatureNode));
     }
 
+    @Test
+    public void testGetTypeMask() {
+        assertThat(node.getTypeMask(), is(0));
+        node.addType(NodeType.ABSTRACT_CLASS);
+        assertThat(node.getTypeMask(), is(NodeType.ABSTRACT_CLASS.mask()));
+        node.addType(NodeType.INTERFACE);
+        assertThat(node.getTypeMask(), is(NodeType.ABSTRACT_CLASS.mask() | NodeType.INTERFACE.mask()));
+        node.addType(NodeType.INTERFACE);
+        assertThat(node.getTypeMask(), is(NodeType.maskOf(node.getTypes())));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testTypesAreUnmodifiable() {
+        node.getTypes().add(NodeType.INTERFACE);
+    }
+
 }
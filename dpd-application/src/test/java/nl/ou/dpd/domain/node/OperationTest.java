@@ -133,4 +133,26 @@ public class OperationTest {
         assertFalse(op1.equalsSignature(op2));
     }
 
+    @Test
+    public void testSignatureHashCode() {
+        final Node type1 = new Node("t1", "int");
+        final Node type2 = new Node("t2", "String");
+        final Operation op1 = new Operation("id1", parent1).setName("name").setReturnType(new Node("r1", "Object"));
+        final Operation op2 = new Operation("id2", parent2).setName("name").setReturnType(new Node("r2", "Object"));
+        createParameter("p1", op1, "a", type1);
+        createParameter("p2", op1, "b", type2);
+        // The order of the parameters does not matter
+        createParameter("p3", op2, "b", type2);
+        createParameter("p4", op2, "a", type1);
+
+        // Operations with equal signatures have equal signature hash codes
+        assertTrue(op1.equalsSignature(op2));
+        assertThat(op1.signatureHashCode(), is(op2.signatureHashCode()));
+    }
+
+    private void createParameter(String id, Operation operation, String name, Node type) {
+        final Parameter parameter = new Parameter(id, operation);
+        parameter.setName(name);
+        parameter.setType(type);
+    }
 }
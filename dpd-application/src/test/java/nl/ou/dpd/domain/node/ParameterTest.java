@@ -76,4 +76,18 @@ public class ParameterTest {
             }
         }
     }
+
+    @Test
+    public void testSignatureHashCode() {
+        final Parameter par1 = new Parameter("par1", operation1);
+        par1.setName("name1");
+        par1.setType(type1);
+        final Parameter par2 = new Parameter("par2", operation2);
+        par2.setName("name1");
+        par2.setType(type1);
+
+        // Parameters with equal signatures have equal signature hash codes
+        assertThat(par1.equalsSignature(par2), is(true));
+        assertThat(par1.signatureHashCode(), is(par2.signatureHashCode()));
+    }
 }
@@ -53,6 +53,19 @@ public class RelationPropertyTest {
         assertThat(relationProperty.getCardinalityRight(), is(right_UNLIMITED));
     }
 
+    @Test
+    public void testWithCardinalities() {
+        final RelationProperty relationProperty = new RelationProperty(RelationType.ASSOCIATES_WITH);
+        final RelationProperty derived = relationProperty.withCardinalities(left_1_UNLIMITED, right_0_1);
+        assertThat(derived.getRelationType(), is(RelationType.ASSOCIATES_WITH));
+        assertThat(derived.getCardinalityLeft(), is(left_1_UNLIMITED));
+        assertThat(derived.getCardinalityRight(), is(right_0_1));
+
+        // The original relation property is left unchanged
+        assertThat(relationProperty.getCardinalityLeft(), is(defaultCardinality));
+        assertThat(relationProperty.getCardinalityRight(), is(defaultCardinality));
+    }
+
     @Test
     public void testEquals() {
         final RelationType[] relationTypes = new RelationType[]{
@@ -70,9 +83,8 @@ public class RelationPropertyTest {
         for (RelationType relationType : relationTypes) {
             for (Cardinality leftCardinality : leftCardinalities) {
                 for (Cardinality rightCardinality : rightCardinalities) {
-                    final RelationProperty rp2 = new RelationProperty(relationType);
-                    rp2.setCardinalityLeft(leftCardinality);
-                    rp2.setCardinalityRight(rightCardinality);
+                    final RelationProperty rp2 =
+                            new RelationProperty(relationType, leftCardinality, rightCardinality);
                     if (rp1.getRelationType().equals(rp2.getRelationType()) &&
                             rp1.getCardinalityLeft().equals(rp2.getCardinalityLeft()) &&
                             rp1.getCardinalityRight().equals(rp2.getCardinalityRight())) {
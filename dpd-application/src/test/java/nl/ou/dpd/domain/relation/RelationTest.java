@@ -1,7 +1,9 @@
 package nl.ou.dpd.domain.relation;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
@@ -9,7 +11,9 @@ import org.mockito.runners.MockitoJUnitRunner;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 
@@ -22,6 +26,9 @@ import static org.mockito.Mockito.when;
 @RunWith(MockitoJUnitRunner.class)
 public class RelationTest {
 
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
     @Mock
     private RelationProperty relationProperty;
 
@@ -46,46 +53,148 @@ public class RelationTest {
         assertThat(relation.getId(), is("id1"));
         assertThat(relation.getName(), is("relation1"));
         assertTrue(relation.getRelationProperties().isEmpty());
+        assertTrue(relation.getRelationTypes().isEmpty());
     }
 
     @Test
-    public void testAddRelationProperty() {
-        relation.addRelationProperty(relationProperty);
+    public void testBuilderAddRelationProperty() {
+        final Relation.Builder builder = new Relation.Builder("id1", "relation1")
+                .addRelationProperty(relationProperty);
+        assertTrue(builder.hasRelationType(RelationType.ASSOCIATES_WITH));
+        relation = builder.build();
         assertEquals(1, relation.getRelationProperties().size());
         assertTrue(relation.getRelationProperties().contains(relationProperty));
+        assertTrue(relation.hasRelationType(RelationType.ASSOCIATES_WITH));
+        assertFalse(relation.hasRelationType(RelationType.INHERITS_FROM));
+        assertThat(relation.getRelationProperty(RelationType.ASSOCIATES_WITH), is(relationProperty));
+        assertNull(relation.getRelationProperty(RelationType.INHERITS_FROM));
 
         // No doubles allowed: adding it again, and expect no changes
-        relation.addRelationProperty(relationProperty);
+        relation = builder.addRelationProperty(relationProperty).build();
         assertEquals(1, relation.getRelationProperties().size());
         assertTrue(relation.getRelationProperties().contains(relationProperty));
     }
 
+    @Test
+    public void testRelationPropertiesAreUnmodifiable() {
+        thrown.expect(UnsupportedOperationException.class);
+        relation.getRelationProperties().add(relationProperty);
+    }
+
+    @Test
+    public void testRelationTypesAreUnmodifiable() {
+        thrown.expect(UnsupportedOperationException.class);
+        relation.getRelationTypes().add(RelationType.ASSOCIATES_WITH);
+    }
+
+    @Test
+    public void testHasRelationTypesOf() {
+        final Relation association = new Relation.Builder("id2", "association")
+                .addRelationProperty(new RelationProperty(RelationType.ASSOCIATES_WITH))
+                .build();
+        final Relation associationAndDependency = new Relation.Builder("id3", "associationAndDependency")
+                .addRelationProperty(new RelationProperty(RelationType.ASSOCIATES_WITH))
+                .addRelationProperty(new RelationProperty(RelationType.DEPENDS_ON))
+                .build();
+
+        assertTrue(association.hasRelationTypesOf(relation));
+        assertTrue(association.hasRelationTypesOf(association));
+        assertTrue(associationAndDependency.hasRelationTypesOf(association));
+        assertFalse(association.hasRelationTypesOf(associationAndDependency));
+        assertFalse(relation.hasRelationTypesOf(association));
+    }
+
+    @Test
+    public void testToBuilder() {
+        relation = new Relation.Builder("id1", "relation1").addRelationProperty(relationProperty).build();
+        final Relation copy = relation.toBuilder().build();
+        assertEquals(relation, copy);
+        assertEquals(relation.hashCode(), copy.hashCode());
+
+        final Relation renamed = relation.toBuilder().setName("relation2").build();
+        assertThat(renamed.getName(), is("relation2"));
+        assertThat(renamed.getRelationProperties(), is(relation.getRelationProperties()));
+        assertThat(relation.getName(), is("relation1"));
+    }
+
+    @Test
+    public void testBuilderSetCardinalities() {
+        final Cardinality left = Cardinality.valueOf("0..1");
+        final Cardinality right = Cardinality.valueOf("*");
+        final Relation.Builder builder = new Relation.Builder("id1", "relation1")
+                .addRelationProperty(new RelationProperty(RelationType.ASSOCIATES_WITH));
+
+        relation = builder.setCardinalities(RelationType.ASSOCIATES_WITH, left, right).build();
+        assertEquals(1, relation.getRelationProperties().size());
+        final RelationProperty association = relation.getRelationProperty(RelationType.ASSOCIATES_WITH);
+        assertThat(association.getCardinalityLeft(), is(left));
+        assertThat(association.getCardinalityRight(), is(right));
+
+        // Nothing happens if there is no relation property of the specified type
+        relation = builder.setCardinalities(RelationType.DEPENDS_ON, left, right).build();
+        assertEquals(1, relation.getRelationProperties().size());
+        assertFalse(relation.hasRelationType(RelationType.DEPENDS_ON));
+    }
+
     @Test
     public void testEquals() {
-        final Relation relation2 = new Relation(null, relation.getName());
+        final Relation.Builder builder = new Relation.Builder(null, relation.getName());
 
         assertEquals(relation, relation);
         assertEquals(relation.hashCode(), relation.hashCode());
         assertNotEquals(relation, null);
         assertNotEquals(relation, relationProperty);
-        assertNotEquals(relation, relation2);
+        assertNotEquals(relation, builder.build());
+
+        builder.setId(relation.getId());
+        assertEquals(relation, builder.build());
+        assertEquals(relation.hashCode(), builder.build().hashCode());
 
-        relation2.setId(relation.getId());
-        assertEquals(relation, relation2);
-        assertEquals(relation.hashCode(), relation2.hashCode());
+        builder.setName(String.format("Not %s", builder.getName()));
+        assertNotEquals(relation, builder.build());
 
-        relation2.setName(String.format("Not %s", relation2.getName()));
-        assertNotEquals(relation, relation2);
+        builder.setName(null);
+        assertNotEquals(relation, builder.build());
 
-        relation2.setName(null);
-        assertNotEquals(relation, relation2);
+        builder.setName(relation.getName());
+        builder.addRelationProperty(relationProperty);
+        assertNotEquals(relation, builder.build());
 
-        relation2.setName(relation.getName());
-        relation2.addRelationProperty(relationProperty);
-        assertNotEquals(relation, relation2);
+        relation = relation.toBuilder().addRelationProperty(relationProperty).build();
+        assertEquals(relation, builder.build());
+        assertEquals(relation.hashCode(), builder.build().hashCode());
+    }
+
+    @Test
+    public void testGetRelationTypeMask() {
+        assertThat(relation.getRelationTypeMask(), is(0));
+        relation = new Relation.Builder("id1", "relation1")
+                .addRelationProperty(new RelationProperty(RelationType.ASSOCIATES_WITH))
+                .addRelationProperty(new RelationProperty(RelationType.DEPENDS_ON))
+                .build();
+        assertThat(relation.getRelationTypeMask(), is(RelationType.ASSOCIATES_WITH.mask() | RelationType.DEPENDS_ON.mask()));
+        assertThat(relation.getRelationTypeMask(), is(RelationType.maskOf(relation.getRelationTypes())));
+    }
+
+    @Test
+    public void testHasCardinalitiesWithinLimitsOf() {
+        final Relation pattern = createAssociation("pattern", "0..1", "*");
+        assertTrue(createAssociation("system", "1", "1..*").hasCardinalitiesWithinLimitsOf(pattern));
+        assertTrue(createAssociation("system", "0..1", "*").hasCardinalitiesWithinLimitsOf(pattern));
+        assertFalse(createAssociation("system", "1..2", "1").hasCardinalitiesWithinLimitsOf(pattern));
+        assertFalse(createAssociation("system", "1", "1").hasCardinalitiesWithinLimitsOf(createAssociation("pattern", "1", "2..*")));
+
+        // Relation types that are not common to both relations are not compared
+        final Relation dependency = new Relation.Builder("system", "system")
+                .addRelationProperty(new RelationProperty(RelationType.DEPENDS_ON, Cardinality.valueOf("5"), Cardinality.valueOf("5")))
+                .build();
+        assertTrue(dependency.hasCardinalitiesWithinLimitsOf(pattern));
+        assertTrue(relation.hasCardinalitiesWithinLimitsOf(pattern));
+    }
 
-        relation.addRelationProperty(relationProperty);
-        assertEquals(relation, relation2);
-        assertEquals(relation.hashCode(), relation2.hashCode());
+    private Relation createAssociation(String name, String left, String right) {
+        return new Relation.Builder(name, name)
+                .addRelationProperty(new RelationProperty(RelationType.ASSOCIATES_WITH, Cardinality.valueOf(left), Cardinality.valueOf(right)))
+                .build();
     }
 }
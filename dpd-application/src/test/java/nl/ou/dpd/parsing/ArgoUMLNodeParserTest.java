@@ -13,10 +13,8 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.XMLEvent;
 import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -24,9 +22,10 @@ import java.util.Map;
 
 import static junit.framework.TestCase.fail;
 import static nl.ou.dpd.parsing.ArgoUMLAbstractParser.XMI_FILE_COULD_NOT_BE_PARSED_SHORT_MSG;
-import static nl.ou.dpd.parsing.ParseTestHelper.createAttributeMock;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
@@ -39,23 +38,6 @@ import static org.mockito.Mockito.when;
 @RunWith(MockitoJUnitRunner.class)
 public class ArgoUMLNodeParserTest {
 
-    // XMI attributes
-    private static final String ID_ATTRIBUTE = "xmi.id";
-    private static final String KIND_ATTRIBUTE = "kind";
-    private static final String IDREF_ATTRIBUTE = "xmi.idref";
-    private static final String INPUT_ATTRIBUTE = "in";
-    private static final String RETURN_ATTRIBUTE = "return";
-    private static final String IS_ABSTRACT_ATTRIBUTE = "isAbstract";
-
-    // XMI tags
-    private static final String MODEL_TAG = "Model";
-    private static final String CLASS_TAG = "Class";
-    private static final String DATATYPE_TAG = "DataType";
-    private static final String ATTRIBUTE_TAG = "Attribute";
-    private static final String INTERFACE_TAG = "Interface";
-    private static final String OPERATION_TAG = "Operation";
-    private static final String PARAMETER_TAG = "Parameter";
-
     private static final String INTEGER = "87C";
     private static final String INTEGER_HREF = String.format(".......%s", INTEGER);
 
@@ -69,6 +51,33 @@ public class ArgoUMLNodeParserTest {
     private static final String INTERFACE_NODE_ID = "interfaceNodeId";
     private static final String ABSTRACT_CLASS_NODE_ID = "abstractClassNodeId";
 
+    /**
+     * A complete structure of the system design that is being parsed by the {@link ArgoUMLNodeParser}: an interface, a
+     * class and an abstract class. The class has an attribute of type "Integer", and an operation that has two input
+     * parameters (one of type "interfaceNode" and one of type Integer), and one return value of type "interfaceNode".
+     */
+    private static final String XMI = ""
+            + "<UML:Model xmlns:UML='org.omg.xmi.namespace.UML'>"
+            + "  <UML:Interface xmi.id='" + INTERFACE_NODE_ID + "'/>"
+            + "  <UML:Class xmi.id='" + CLASS_NODE_ID + "'>"
+            + "    <UML:Attribute xmi.id='" + ATTRIBUTE_ID + "'>"
+            + "      <UML:DataType href='" + INTEGER_HREF + "'/>"
+            + "    </UML:Attribute>"
+            + "    <UML:Operation xmi.id='" + OPERATION_ID + "'>"
+            + "      <UML:Parameter kind='in' xmi.id='" + PARAMETER_ID_1 + "'>"
+            + "        <UML:Interface xmi.idref='" + INTERFACE_NODE_ID + "'/>"
+            + "      </UML:Parameter>"
+            + "      <UML:Parameter kind='in' xmi.id='" + PARAMETER_ID_2 + "'>"
+            + "        <UML:DataType href='" + INTEGER_HREF + "'/>"
+            + "      </UML:Parameter>"
+            + "      <UML:Parameter kind='return' xmi.id='" + RETURN_TYPE_ID + "'>"
+            + "        <UML:Interface xmi.idref='" + INTERFACE_NODE_ID + "'/>"
+            + "      </UML:Parameter>"
+            + "    </UML:Operation>"
+            + "  </UML:Class>"
+            + "  <UML:Class xmi.id='" + ABSTRACT_CLASS_NODE_ID + "' isAbstract='true'/>"
+            + "</UML:Model>";
+
     // This file is created just to satisfy the FileInputStream of the parser
     private String xmiFile = getPath("/argoUML/dummy.xmi");
 
@@ -78,128 +87,23 @@ public class ArgoUMLNodeParserTest {
     @Mock
     private XMLInputFactory xmlInputFactory;
 
-    @Mock
-    private XMLEventReader xmlEventReader;
-
-    @Mock
-    XMLEvent modelEvent, classEvent, abstractClassEvent, interfaceEvent, datatypeEvent,
-            attributeEvent, operationEvent, inputParamEvent1, inputParamEvent2,
-            inputParamTypeEvent1, inputParamTypeEvent2, returnParamEvent, returnParamTypeEvent;
-
     private ArgoUMLNodeParser nodeParser;
 
     /**
-     * Initialises the test subject with a mocked xmlInputStream.
+     * Initialises the test subject with a mocked xmlInputStream, that reads the {@link #XMI} structure.
      *
      * @throws XMLStreamException not expected.
      */
     @Before
     public void initNodeParser() throws XMLStreamException {
         nodeParser = new ArgoUMLNodeParser(xmlInputFactory);
-        when(xmlInputFactory.createXMLEventReader(any(InputStream.class))).thenReturn(xmlEventReader);
-    }
-
-    /**
-     * Mocks the order in which the event reader reads the XML elements. Here, we put together a complete, mocked,
-     * structure of the system design that is being parsed by the {@link ArgoUMLNodeParser}.
-     *
-     * @throws XMLStreamException not expected
-     */
-    @Before
-    public void initEventReader() throws XMLStreamException {
-        when(xmlEventReader.hasNext()).thenReturn(
-                true, // model start-element
-                true, // interface start-element
-                true, // interface end-element
-                true, // class start-element
-                true, // attribute start-element
-                true, // datatype start-element
-                true, // datatype end-element
-                true, // attribute end-element
-                true, // operation start-element
-                true, // input parameter start-element 1
-                true, // input paramType start-element 1
-                true, // input paramType end-element 1
-                true, // input parameter end-element 1
-                true, // input parameter start-element 2
-                true, // input paramType start-element 2
-                true, // input paramType end-element 2
-                true, // input parameter end-element 2
-                true, // return parameter start-element
-                true, // return paramType start-element
-                true, // return paramType end-element
-                true, // return parameter end-element
-                true, // operation end-element
-                true, // class end-element
-                true, // abstract class start-element
-                true, // abstract class end-element
-                true, // model end-element
-                false);
-        when(xmlEventReader.nextEvent()).thenReturn(
-                modelEvent,
-                interfaceEvent, interfaceEvent,
-                classEvent,
-                attributeEvent, datatypeEvent, datatypeEvent, attributeEvent,
-                operationEvent,
-                inputParamEvent1, inputParamTypeEvent1, inputParamTypeEvent1, inputParamEvent1,
-                inputParamEvent2, inputParamTypeEvent2, inputParamTypeEvent2, inputParamEvent2,
-                returnParamEvent, returnParamTypeEvent, returnParamTypeEvent, returnParamEvent,
-                operationEvent,
-                classEvent,
-                abstractClassEvent, abstractClassEvent,
-                modelEvent);
-    }
-
-    /**
-     * Mocks the events that the event reader reads.
-     */
-    @Before
-    public void initEvents() {
-        modelEvent = ParseTestHelper.createXMLEventMock(MODEL_TAG);
-
-        // Mock an interface, a class and an abstract class
-        interfaceEvent = ParseTestHelper.createXMLEventMock(INTERFACE_TAG, mockId(INTERFACE_NODE_ID));
-        classEvent = ParseTestHelper.createXMLEventMock(CLASS_TAG, mockId(CLASS_NODE_ID));
-        abstractClassEvent = ParseTestHelper.createXMLEventMock(CLASS_TAG, mockId(ABSTRACT_CLASS_NODE_ID), mockIsAbstract(true));
-
-        // Mock an attribute of type "Integer"
-        attributeEvent = ParseTestHelper.createXMLEventMock(ATTRIBUTE_TAG, mockId(ATTRIBUTE_ID));
-        datatypeEvent = ParseTestHelper.createXMLEventMock(DATATYPE_TAG, mockHref(INTEGER_HREF));
-
-        // Mock an operation that has two input parameters: one of type "interfaceNode" and one of type Integer, and
-        // one return value of type "interfaceNode"
-        operationEvent = ParseTestHelper.createXMLEventMock(OPERATION_TAG, mockId(OPERATION_ID));
-        inputParamEvent1 = ParseTestHelper.createXMLEventMock(PARAMETER_TAG, mockParamKind(INPUT_ATTRIBUTE), mockId(PARAMETER_ID_1));
-        inputParamTypeEvent1 = ParseTestHelper.createXMLEventMock(INTERFACE_TAG, mockIdRef(INTERFACE_NODE_ID));
-        inputParamEvent2 = ParseTestHelper.createXMLEventMock(PARAMETER_TAG, mockParamKind(INPUT_ATTRIBUTE), mockId(PARAMETER_ID_2));
-        inputParamTypeEvent2 = ParseTestHelper.createXMLEventMock(DATATYPE_TAG, mockHref(INTEGER_HREF));
-        returnParamEvent = ParseTestHelper.createXMLEventMock(PARAMETER_TAG, mockParamKind(RETURN_ATTRIBUTE), mockId(RETURN_TYPE_ID));
-        returnParamTypeEvent = ParseTestHelper.createXMLEventMock(INTERFACE_TAG, mockIdRef(INTERFACE_NODE_ID));
-    }
-
-    private javax.xml.stream.events.Attribute mockHref(String href) {
-        return createAttributeMock(ArgoUMLAbstractParser.HREF_ATTRIBUTE, href);
-    }
-
-    private javax.xml.stream.events.Attribute mockIsAbstract(boolean isAbstract) {
-        return createAttributeMock(IS_ABSTRACT_ATTRIBUTE, Boolean.toString(isAbstract));
-    }
-
-    private javax.xml.stream.events.Attribute mockParamKind(String inOrReturn) {
-        return createAttributeMock(KIND_ATTRIBUTE, inOrReturn);
-    }
-
-    private javax.xml.stream.events.Attribute mockId(String id) {
-        return createAttributeMock(ID_ATTRIBUTE, id);
-    }
-
-    private javax.xml.stream.events.Attribute mockIdRef(String idRef) {
-        return createAttributeMock(IDREF_ATTRIBUTE, idRef);
+        when(xmlInputFactory.createXMLStreamReader(any(InputStream.class)))
+                .thenReturn(ParseTestHelper.createXMLStreamReader(XMI));
     }
 
     @Test
     public void testParsedNodes() {
-        assertTrue(nodeParser.events.isEmpty());
+        assertTrue(nodeParser.elements.isEmpty());
 
         final Map<String, Node> nodeMap = nodeParser.parse(xmiFile);
         assertThat(nodeMap.keySet().size(), is(4));
@@ -209,7 +113,7 @@ public class ArgoUMLNodeParserTest {
         assertInterface(nodeMap);
         assertDataType(nodeMap);
 
-        assertTrue(nodeParser.events.isEmpty());
+        assertTrue(nodeParser.elements.isEmpty());
     }
 
     private void assertClassNode(Map<String, Node> nodeMap) {
@@ -294,9 +198,28 @@ public class ArgoUMLNodeParserTest {
         Arrays.stream(types).forEach(nodeType -> assertTrue(node.getTypes().contains(nodeType)));
     }
 
+    /**
+     * Tests that a parser can be used for several files. The members (attributes, operations and parameters) of the
+     * second file are looked up among the ones of that file only, so their types are set on the new members.
+     *
+     * @throws XMLStreamException not expected.
+     */
+    @Test
+    public void testParseTwice() throws XMLStreamException {
+        when(xmlInputFactory.createXMLStreamReader(any(InputStream.class)))
+                .thenReturn(ParseTestHelper.createXMLStreamReader(XMI), ParseTestHelper.createXMLStreamReader(XMI));
+
+        final Map<String, Node> first = nodeParser.parse(xmiFile);
+        final Map<String, Node> second = nodeParser.parse(xmiFile);
+
+        assertClassNode(first);
+        assertClassNode(second);
+        assertThat(second.get(CLASS_NODE_ID), is(not(sameInstance(first.get(CLASS_NODE_ID)))));
+    }
+
     @Test
-    public void testAnyException() {
-        when(interfaceEvent.asEndElement()).thenThrow(new IllegalArgumentException());
+    public void testAnyException() throws XMLStreamException {
+        when(xmlInputFactory.createXMLStreamReader(any(InputStream.class))).thenThrow(new IllegalArgumentException());
         thrown.expect(ParseException.class);
         thrown.expectCause(is(IllegalArgumentException.class));
         thrown.expectMessage(XMI_FILE_COULD_NOT_BE_PARSED_SHORT_MSG);
@@ -304,9 +227,10 @@ public class ArgoUMLNodeParserTest {
     }
 
     @Test
-    public void testParseException() {
+    public void testParseException() throws XMLStreamException {
         final String errorMsg = "Darn!";
-        when(interfaceEvent.asEndElement()).thenThrow(new ParseException(errorMsg, null));
+        when(xmlInputFactory.createXMLStreamReader(any(InputStream.class)))
+                .thenThrow(new ParseException(errorMsg, null));
         thrown.expect(ParseException.class);
         thrown.expectMessage(errorMsg);
         nodeParser.parse(xmiFile);
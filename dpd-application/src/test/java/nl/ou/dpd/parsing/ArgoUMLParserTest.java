@@ -9,8 +9,12 @@ import org.mockito.runners.MockitoJUnitRunner;
 
 import java.net.URL;
 import java.util.Map;
+import java.util.function.Consumer;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -70,6 +74,22 @@ public class ArgoUMLParserTest {
         verify(systemRelationsExtractor, times(1)).execute(system);
     }
 
+    @Test
+    public void testParseFileSinglePass() {
+        final ArgoUMLParser parser = new ArgoUMLParser(nodeParser, relationParser, systemRelationsExtractor, true);
+        final String xmiFilename = getPath(DUMMY_XMI);
+        when(nodeParser.parse(eq(xmiFilename), any(Consumer.class))).thenReturn(nodes);
+        when(relationParser.parse(eq(xmiFilename), eq(nodes), anyListOf(XmiElement.class))).thenReturn(system);
+
+        parser.parse(xmiFilename);
+
+        verify(nodeParser, times(1)).parse(eq(xmiFilename), any(Consumer.class));
+        verify(nodeParser, never()).parse(xmiFilename);
+        verify(relationParser, times(1)).parse(eq(xmiFilename), eq(nodes), anyListOf(XmiElement.class));
+        verify(relationParser, never()).parse(xmiFilename, nodes);
+        verify(systemRelationsExtractor, times(1)).execute(system);
+    }
+
     private String getPath(String resourceName) {
         return this.getClass().getResource(resourceName).getPath();
     }
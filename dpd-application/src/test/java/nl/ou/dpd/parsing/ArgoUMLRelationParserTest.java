@@ -15,14 +15,10 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.XMLEvent;
 import java.io.InputStream;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
@@ -32,7 +28,6 @@ import static nl.ou.dpd.domain.relation.RelationType.IMPLEMENTS;
 import static nl.ou.dpd.domain.relation.RelationType.INHERITS_FROM_OR_IMPLEMENTS;
 import static nl.ou.dpd.parsing.ArgoUMLAbstractParser.XMI_FILE_COULD_NOT_BE_PARSED_SHORT_MSG;
 import static nl.ou.dpd.parsing.ArgoUMLRelationParser.REVERSED_POSTFIX;
-import static nl.ou.dpd.parsing.ParseTestHelper.createAttributeMock;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.core.Is.is;
@@ -50,23 +45,6 @@ import static org.mockito.Mockito.when;
 @RunWith(MockitoJUnitRunner.class)
 public class ArgoUMLRelationParserTest {
 
-    // XMI tags
-    private static final String MODEL_TAG = "Model";
-    private static final String CLASS_TAG = "Class";
-    private static final String INTERFACE_TAG = "Interface";
-    private static final String ABSTRACTION_TAG = "Abstraction";
-    private static final String ASSOCIATION_TAG = "Association";
-    private static final String ASSOCIATION_END_TAG = "AssociationEnd";
-    private static final String MULTIPLICITY_RANGE_TAG = "MultiplicityRange";
-
-    // XMI attributes
-    private static final String ID_ATTRIBUTE = "xmi.id";
-    private static final String NAME_ATTRIBUTE = "name";
-    private static final String LOWER_ATTRIBUTE = "lower";
-    private static final String UPPER_ATTRIBUTE = "upper";
-    private static final String IDREF_ATTRIBUTE = "xmi.idref";
-    private static final String IS_NAVIGABLE_ATTRIBUTE = "isNavigable";
-
     // Id's in tests
     private static final String CLASS_ID = "classId";
     private static final String MODEL_ID = "modelId";
@@ -82,6 +60,29 @@ public class ArgoUMLRelationParserTest {
 
     private static final Cardinality CARDINALITY_1 = Cardinality.valueOf("1");
 
+    /**
+     * A complete structure of the system design that is being parsed by the {@link ArgoUMLRelationParser}: an
+     * association between an interface with a multiplicity of 1..1 and a class with a multiplicity of 0..-1, and an
+     * abstraction between the class and the interface.
+     */
+    private static final String XMI = ""
+            + "<UML:Model xmlns:UML='org.omg.xmi.namespace.UML' xmi.id='" + MODEL_ID + "'>"
+            + "  <UML:Association xmi.id='" + ASSOCIATION_ID + "'>"
+            + "    <UML:AssociationEnd xmi.id='" + ASSOCIATION_CLASS_END_ID + "' isNavigable='true'>"
+            + "      <UML:MultiplicityRange xmi.id='" + MULTIPLICITY_RANGE_ID + "' lower='1' upper='1'/>"
+            + "      <UML:Interface xmi.idref='" + INTERFACE_ID + "'/>"
+            + "    </UML:AssociationEnd>"
+            + "    <UML:AssociationEnd xmi.id='" + ASSOCIATION_INTERFACE_END_ID + "' isNavigable='true'>"
+            + "      <UML:MultiplicityRange xmi.id='" + MULTIPLICITY_RANGE_ID + "' lower='0' upper='-1'/>"
+            + "      <UML:Class xmi.idref='" + CLASS_ID + "'/>"
+            + "    </UML:AssociationEnd>"
+            + "  </UML:Association>"
+            + "  <UML:Abstraction xmi.id='" + ABSTRACTION_ID + "' name='" + ABSTRACTION_NAME + "'>"
+            + "    <UML:Class xmi.idref='" + CLASS_ID + "'/>"
+            + "    <UML:Interface xmi.idref='" + INTERFACE_ID + "'/>"
+            + "  </UML:Abstraction>"
+            + "</UML:Model>";
+
     // This file is created just to satisfy the FileInputStream of the parser
     private String xmiFile = getPath("/argoUML/dummy.xmi");
 
@@ -91,28 +92,20 @@ public class ArgoUMLRelationParserTest {
     @Mock
     private XMLInputFactory xmlInputFactory;
 
-    @Mock
-    private XMLEventReader xmlEventReader;
-
-    @Mock
-    XMLEvent
-            modelEvent, classEvent, interfaceEvent, abstractionEvent, multiplicityRangeClassEvent,
-            multiplicityRangeInterfaceEvent, associationEvent, associationClassEndEvent,
-            associationInterfaceEndEvent;
-
     private Map<String, Node> nodes;
 
     private ArgoUMLRelationParser relationParser;
 
     /**
-     * Initialises the test subject with a mocked xmlInputStream.
+     * Initialises the test subject with a mocked xmlInputStream, that reads the {@link #XMI} structure.
      *
      * @throws XMLStreamException not expected.
      */
     @Before
     public void initRelationParser() throws XMLStreamException {
         relationParser = new ArgoUMLRelationParser(xmlInputFactory);
-        when(xmlInputFactory.createXMLEventReader(any(InputStream.class))).thenReturn(xmlEventReader);
+        when(xmlInputFactory.createXMLStreamReader(any(InputStream.class)))
+                .thenReturn(ParseTestHelper.createXMLStreamReader(XMI));
     }
 
     /**
@@ -133,112 +126,9 @@ public class ArgoUMLRelationParserTest {
         nodes.put(classNode.getId(), classNode);
     }
 
-    /**
-     * Mocks the order in which the event reader reads the XML elements. Here, we put together a complete, mocked,
-     * structure of the system design that is being parsed by the {@link ArgoUMLRelationParser}.
-     *
-     * @throws XMLStreamException not expected
-     */
-    @Before
-    public void initEventReader() throws XMLStreamException {
-        when(xmlEventReader.hasNext()).thenReturn(
-                true, // model start-element
-                true, // association start-element
-                true, // association-end start-element
-                true, // multiplicity-range start-element
-                true, // multiplicity-range end-element
-                true, // interface start-element
-                true, // interface end-element
-                true, // association-end end-element
-                true, // association-end start-element
-                true, // multiplicity-range start-element
-                true, // multiplicity-range end-element
-                true, // class start-element
-                true, // class end-element
-                true, // association-end end-element
-                true, // association end-element
-                true, // model end-element
-                true, // abstraction start-element
-                true, // class start-element
-                true, // class end-element
-                true, // interface start-element
-                true, // interface end-element
-                true, // abstraction end-element
-                false
-        );
-        when(xmlEventReader.nextEvent()).thenReturn(
-                // Start model
-                modelEvent,
-                // Een association tussen een interface met een mulitpliciteit van 1..1, en een class met een
-                // multipliciteit 0..-1
-                associationEvent,
-                associationInterfaceEndEvent, multiplicityRangeInterfaceEvent, multiplicityRangeInterfaceEvent, interfaceEvent, interfaceEvent, associationInterfaceEndEvent,
-                associationClassEndEvent, multiplicityRangeClassEvent, multiplicityRangeClassEvent, classEvent, classEvent, associationClassEndEvent,
-                associationEvent,
-                // Een abstraction tussen een class en en interface
-                abstractionEvent,
-                classEvent, classEvent,
-                interfaceEvent, interfaceEvent,
-                abstractionEvent,
-                // End model
-                modelEvent
-        );
-    }
-
-    /**
-     * Mocks the events that the event reader reads.
-     */
-    @Before
-    public void initEvents() {
-        modelEvent = ParseTestHelper.createXMLEventMock(MODEL_TAG, mockId(MODEL_ID));
-        abstractionEvent = ParseTestHelper.createXMLEventMock(ABSTRACTION_TAG, mockId(ABSTRACTION_ID), mockName(ABSTRACTION_NAME));
-        classEvent = ParseTestHelper.createXMLEventMock(CLASS_TAG, mockIdRef(CLASS_ID));
-        interfaceEvent = ParseTestHelper.createXMLEventMock(INTERFACE_TAG, mockIdRef(INTERFACE_ID));
-
-        associationEvent = ParseTestHelper.createXMLEventMock(ASSOCIATION_TAG, mockId(ASSOCIATION_ID));
-        multiplicityRangeClassEvent = ParseTestHelper.createXMLEventMock(
-                MULTIPLICITY_RANGE_TAG,
-                mockIdAndCardinality(MULTIPLICITY_RANGE_ID, 0, Cardinality.UNLIMITED));
-        multiplicityRangeInterfaceEvent = ParseTestHelper.createXMLEventMock(
-                MULTIPLICITY_RANGE_TAG,
-                mockIdAndCardinality(MULTIPLICITY_RANGE_ID, 1, 1));
-        associationInterfaceEndEvent = ParseTestHelper.createXMLEventMock(
-                ASSOCIATION_END_TAG,
-                mockId(ASSOCIATION_CLASS_END_ID),
-                mockNavigable("true"));
-        associationClassEndEvent = ParseTestHelper.createXMLEventMock(
-                ASSOCIATION_END_TAG,
-                mockId(ASSOCIATION_INTERFACE_END_ID),
-                mockNavigable("true"));
-    }
-
-    private Iterator<Attribute> mockIdAndCardinality(String id, int lower, int upper) {
-        final Set<Attribute> attributes = new HashSet<>();
-        attributes.add(mockId(id));
-        attributes.add(createAttributeMock(LOWER_ATTRIBUTE, Integer.toString(lower)));
-        attributes.add(createAttributeMock(UPPER_ATTRIBUTE, Integer.toString(upper)));
-        return attributes.iterator();
-    }
-
-    private Attribute mockId(String id) {
-        return createAttributeMock(ID_ATTRIBUTE, id);
-    }
-
-    private Attribute mockIdRef(String idRef) {
-        return createAttributeMock(IDREF_ATTRIBUTE, idRef);
-    }
-
-    private Attribute mockNavigable(String isNavigable) {
-        return createAttributeMock(IS_NAVIGABLE_ATTRIBUTE, isNavigable);
-    }
-
-    private Attribute mockName(String name) {
-        return createAttributeMock(NAME_ATTRIBUTE, name);
-    }
-
     @Test
     public void testParseRelations() {
-        assertTrue(relationParser.events.isEmpty());
+        assertTrue(relationParser.elements.isEmpty());
 
         final SystemUnderConsideration system = relationParser.parse(xmiFile, nodes);
         assertThat(system.getId(), is(MODEL_ID));
@@ -311,7 +201,7 @@ public class ArgoUMLRelationParserTest {
             assertThat(associationProperty.getCardinalityRight(), is(Cardinality.valueOf("*")));
         }
 
-        assertTrue(relationParser.events.isEmpty());
+        assertTrue(relationParser.elements.isEmpty());
     }
 
     private Map<String, Relation> setToMap(Set<Relation> relations) {
@@ -321,8 +211,8 @@ public class ArgoUMLRelationParserTest {
     }
 
     @Test
-    public void testAnyException() {
-        when(modelEvent.asEndElement()).thenThrow(new IllegalArgumentException());
+    public void testAnyException() throws XMLStreamException {
+        when(xmlInputFactory.createXMLStreamReader(any(InputStream.class))).thenThrow(new IllegalArgumentException());
         thrown.expect(ParseException.class);
         thrown.expectCause(is(IllegalArgumentException.class));
         thrown.expectMessage(XMI_FILE_COULD_NOT_BE_PARSED_SHORT_MSG);
@@ -330,9 +220,10 @@ public class ArgoUMLRelationParserTest {
     }
 
     @Test
-    public void testParseException() {
+    public void testParseException() throws XMLStreamException {
         final String errorMsg = "Darn!";
-        when(modelEvent.asEndElement()).thenThrow(new ParseException(errorMsg, null));
+        when(xmlInputFactory.createXMLStreamReader(any(InputStream.class)))
+                .thenThrow(new ParseException(errorMsg, null));
         thrown.expect(ParseException.class);
         thrown.expectMessage(errorMsg);
         relationParser.parse(xmiFile, nodes);
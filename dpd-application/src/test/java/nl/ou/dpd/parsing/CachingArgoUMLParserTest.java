@@ -0,0 +1,108 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the {@link CachingArgoUMLParser} class.
+ *
+ * @author Martin de Boer
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CachingArgoUMLParserTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    private ArgoUMLParser parser;
+
+    private Path cacheDirectory;
+    private Path xmiFile;
+    private String xmiFilename;
+    private SystemUnderConsideration system;
+    private CachingArgoUMLParser cachingParser;
+
+    @Before
+    public void initParser() throws IOException {
+        cacheDirectory = temporaryFolder.getRoot().toPath().resolve("cache");
+        xmiFile = temporaryFolder.newFile("system.xmi").toPath();
+        xmiFilename = xmiFile.toString();
+        writeXmi("<XMI version='1'/>");
+
+        system = new SystemUnderConsideration("sysId", "sysName");
+        system.addVertex(new Node("n1", "ClassA", NodeType.CONCRETE_CLASS));
+        when(parser.parse(xmiFilename)).thenReturn(system);
+
+        cachingParser = new CachingArgoUMLParser(parser, cacheDirectory);
+    }
+
+    @Test
+    public void testParseFromCache() throws IOException {
+        assertThat(cachingParser.parse(xmiFilename), is(sameInstance(system)));
+        assertTrue(Files.isRegularFile(cachingParser.getSnapshot(xmiFile)));
+
+        final SystemUnderConsideration cached = cachingParser.parse(xmiFilename);
+        assertThat(cached, is(not(sameInstance(system))));
+        assertThat(cached.getId(), is("sysId"));
+        assertThat(cached.vertexSet().iterator().next().getName(), is("ClassA"));
+        verify(parser, times(1)).parse(xmiFilename);
+    }
+
+    @Test
+    public void testParseChangedFile() throws IOException {
+        cachingParser.parse(xmiFilename);
+        final Path snapshot = cachingParser.getSnapshot(xmiFile);
+
+        writeXmi("<XMI version='2'/>");
+        assertThat(cachingParser.getSnapshot(xmiFile), is(not(snapshot)));
+        assertThat(cachingParser.parse(xmiFilename), is(sameInstance(system)));
+        verify(parser, times(2)).parse(xmiFilename);
+    }
+
+    @Test
+    public void testParseWithCorruptSnapshot() throws IOException {
+        cachingParser.parse(xmiFilename);
+        Files.write(cachingParser.getSnapshot(xmiFile), new byte[]{1, 2, 3});
+
+        assertThat(cachingParser.parse(xmiFilename), is(sameInstance(system)));
+        verify(parser, times(2)).parse(xmiFilename);
+
+        // The corrupt snapshot has been replaced
+        cachingParser.parse(xmiFilename);
+        verify(parser, times(2)).parse(xmiFilename);
+    }
+
+    @Test
+    public void testParseMissingFile() {
+        final String missingFilename = xmiFile.resolveSibling("missing.xmi").toString();
+        cachingParser.parse(missingFilename);
+        verify(parser, times(1)).parse(missingFilename);
+    }
+
+    private void writeXmi(String content) throws IOException {
+        Files.write(xmiFile, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
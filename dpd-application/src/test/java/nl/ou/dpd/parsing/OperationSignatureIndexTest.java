@@ -0,0 +1,73 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
+import nl.ou.dpd.domain.node.Operation;
+import nl.ou.dpd.domain.node.Parameter;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link OperationSignatureIndex} class.
+ *
+ * @author Martin de Boer
+ */
+public class OperationSignatureIndexTest {
+
+    private Node intType;
+    private Node stringType;
+    private Node superclass;
+    private Node subclass;
+
+    @Before
+    public void initNodes() {
+        intType = new Node("t1", "int", NodeType.DATATYPE);
+        stringType = new Node("t2", "String", NodeType.CONCRETE_CLASS);
+        superclass = new Node("n1", "Superclass", NodeType.ABSTRACT_CLASS);
+        subclass = new Node("n2", "Subclass", NodeType.CONCRETE_CLASS);
+    }
+
+    @Test
+    public void testContainsSignatureOf() {
+        createOperation("o1", superclass, "add", intType, "a", intType, "b", intType);
+        createOperation("o2", superclass, "toString", new Node("r1", "String"));
+        final OperationSignatureIndex index = OperationSignatureIndex.of(superclass);
+
+        assertTrue(index.containsSignatureOf(
+                createOperation("o3", subclass, "add", intType, "b", intType, "a", intType)));
+        assertTrue(index.containsSignatureOf(createOperation("o4", subclass, "toString", new Node("r2", "String"))));
+        assertFalse(index.containsSignatureOf(createOperation("o5", subclass, "add", intType, "a", intType)));
+        assertFalse(index.containsSignatureOf(
+                createOperation("o6", subclass, "add", null, "a", intType, "b", intType)));
+        assertFalse(index.containsSignatureOf(
+                createOperation("o7", subclass, "add", intType, "a", intType, "b", stringType)));
+        assertFalse(index.containsSignatureOf(createOperation("o8", subclass, "toString", null)));
+    }
+
+    @Test
+    public void testContainsSignatureOfWithSameParameterSignatures() {
+        // Operations having several parameters with the same signature are compared, rather than indexed
+        createOperation("o1", superclass, "max", intType, "a", intType, "a", intType);
+        final OperationSignatureIndex index = OperationSignatureIndex.of(superclass);
+
+        assertTrue(index.containsSignatureOf(
+                createOperation("o2", subclass, "max", intType, "a", intType, "b", intType)));
+        assertTrue(index.containsSignatureOf(
+                createOperation("o3", subclass, "max", intType, "a", intType, "a", intType)));
+        assertFalse(index.containsSignatureOf(
+                createOperation("o4", subclass, "max", intType, "b", intType, "c", intType)));
+    }
+
+    private Operation createOperation(String id, Node node, String name, Node returnType, Object... parameters) {
+        final Operation operation = new Operation(id, node).setName(name).setReturnType(returnType);
+        for (int i = 0; i < parameters.length; i += 2) {
+            final Parameter parameter = new Parameter(id + "p" + i, operation);
+            parameter.setName((String) parameters[i]);
+            parameter.setType((Node) parameters[i + 1]);
+        }
+        return operation;
+    }
+}
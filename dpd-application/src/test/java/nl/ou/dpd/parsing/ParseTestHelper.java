@@ -1,17 +1,22 @@
 package nl.ou.dpd.parsing;
 
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.events.Attribute;
 import javax.xml.stream.events.EndElement;
 import javax.xml.stream.events.StartElement;
 import javax.xml.stream.events.XMLEvent;
+import java.io.StringReader;
 import java.util.Iterator;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 /**
- * A helper class for XML parser unit testing. Mainly creates {@link XMLEvent} mock objects and their attributes.
+ * A helper class for XML parser unit testing. Mainly creates {@link XMLEvent} mock objects and their attributes, and
+ * {@link XMLStreamReader}s reading an XML structure from a {@link String}.
  *
  * @author Martin de Boer
  */
@@ -148,4 +153,15 @@ public class ParseTestHelper {
         return event;
     }
 
+    /**
+     * Creates an {@link XMLStreamReader} reading the specified {@code xml}.
+     *
+     * @param xml the XML structure to read
+     * @return the created {@link XMLStreamReader}
+     * @throws XMLStreamException not expected
+     */
+    static XMLStreamReader createXMLStreamReader(String xml) throws XMLStreamException {
+        return XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(xml));
+    }
+
 }
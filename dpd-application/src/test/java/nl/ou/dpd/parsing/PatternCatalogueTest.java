@@ -0,0 +1,135 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
+import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.domain.relation.RelationProperty;
+import nl.ou.dpd.domain.relation.RelationType;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the {@link PatternCatalogue} class.
+ *
+ * @author Martin de Boer
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class PatternCatalogueTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    private PatternsParser parser;
+
+    private Path cacheDirectory;
+    private Path xmlFile;
+    private String xmlFilename;
+    private List<DesignPattern> designPatterns;
+    private PatternCatalogue catalogue;
+
+    @Before
+    public void initCatalogue() throws IOException {
+        cacheDirectory = temporaryFolder.getRoot().toPath().resolve("cache");
+        xmlFile = temporaryFolder.newFile("patterns.xml").toPath();
+        xmlFilename = xmlFile.toString();
+        writeXml("<patterns version='1'/>");
+
+        final Node subject = new Node("p1", "Subject", NodeType.INTERFACE);
+        final Node realSubject = new Node("p2", "RealSubject", NodeType.CONCRETE_CLASS);
+        final DesignPattern designPattern = PatternsParser.createDesignPattern("Proxy", "Structural");
+        designPattern.addVertex(subject);
+        designPattern.addVertex(realSubject);
+        designPattern.addEdge(realSubject, subject, new Relation.Builder("RealSubject-Subject", "RealSubject-Subject")
+                .addRelationProperty(new RelationProperty(RelationType.IMPLEMENTS))
+                .build());
+        designPatterns = Collections.singletonList(designPattern);
+        when(parser.parse(xmlFilename)).thenReturn(designPatterns);
+
+        catalogue = new PatternCatalogue(() -> parser, cacheDirectory);
+    }
+
+    @Test
+    public void testGetFromMemory() {
+        assertThat(catalogue.getDesignPatterns(xmlFilename), is(sameInstance(designPatterns)));
+
+        final List<DesignPattern> first = catalogue.getDesignPatterns(xmlFilename);
+        final List<DesignPattern> second = catalogue.getDesignPatterns(xmlFilename);
+        assertRebuilt(first);
+        assertRebuilt(second);
+        assertThat(first.get(0), is(not(sameInstance(second.get(0)))));
+        verify(parser, times(1)).parse(xmlFilename);
+    }
+
+    @Test
+    public void testGetFromDisk() throws IOException {
+        catalogue.getDesignPatterns(xmlFilename);
+        assertTrue(Files.isRegularFile(catalogue.getSnapshot(SnapshotFiles.hash(xmlFile))));
+
+        // Another catalogue, with the same cache directory, does not parse the file either
+        final PatternCatalogue otherCatalogue = new PatternCatalogue(() -> parser, cacheDirectory);
+        assertRebuilt(otherCatalogue.getDesignPatterns(xmlFilename));
+        verify(parser, times(1)).parse(xmlFilename);
+    }
+
+    @Test
+    public void testGetChangedFile() throws IOException {
+        catalogue.getDesignPatterns(xmlFilename);
+
+        writeXml("<patterns version='2'/>");
+        assertThat(catalogue.getDesignPatterns(xmlFilename), is(sameInstance(designPatterns)));
+        verify(parser, times(2)).parse(xmlFilename);
+    }
+
+    @Test
+    public void testGetWithCorruptSnapshot() throws IOException {
+        catalogue.getDesignPatterns(xmlFilename);
+        Files.write(catalogue.getSnapshot(SnapshotFiles.hash(xmlFile)), new byte[]{1, 2, 3});
+
+        final PatternCatalogue otherCatalogue = new PatternCatalogue(() -> parser, cacheDirectory);
+        assertThat(otherCatalogue.getDesignPatterns(xmlFilename), is(sameInstance(designPatterns)));
+        verify(parser, times(2)).parse(xmlFilename);
+    }
+
+    @Test
+    public void testGetMissingFile() {
+        final String missingFilename = xmlFile.resolveSibling("missing.xml").toString();
+        catalogue.getDesignPatterns(missingFilename);
+        verify(parser, times(1)).parse(missingFilename);
+    }
+
+    private void assertRebuilt(List<DesignPattern> actual) {
+        assertThat(actual.size(), is(1));
+        final DesignPattern designPattern = actual.get(0);
+        assertThat(designPattern, is(not(sameInstance(designPatterns.get(0)))));
+        assertThat(designPattern.getName(), is("Proxy"));
+        assertThat(new ArrayList<>(designPattern.edgeSet()), is(new ArrayList<>(designPatterns.get(0).edgeSet())));
+    }
+
+    private void writeXml(String content) throws IOException {
+        Files.write(xmlFile, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -9,10 +9,12 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
 
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
@@ -22,9 +24,12 @@ import javax.xml.transform.Source;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -37,6 +42,9 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -86,6 +94,9 @@ public class PatternsParserTest {
     @Rule
     public ExpectedException thrown = ExpectedException.none();
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Mock
     private XMLInputFactory xmlInputFactory;
 
@@ -245,6 +256,28 @@ public class PatternsParserTest {
         patternsParser.parse(xmlFile);
     }
 
+    @Test
+    public void testSchemaCompiledOnce() throws XMLStreamException, SAXException {
+        when(xmlEventReader.hasNext()).thenReturn(false);
+
+        patternsParser.parse(xmlFile);
+        patternsParser.parse(xmlFile);
+
+        // The schema is compiled once, and validates both files
+        verify(xsdSchemaFactory, times(1)).newSchema(any(URL.class));
+        verify(schema, times(2)).newValidator();
+    }
+
+    @Test
+    public void testPrecompiledSchema() throws XMLStreamException, SAXException {
+        when(xmlEventReader.hasNext()).thenReturn(false);
+        patternsParser = new PatternsParser(schema, xmlInputFactory);
+
+        assertThat(patternsParser.parse(xmlFile).size(), is(0));
+        verify(xsdSchemaFactory, never()).newSchema(any(URL.class));
+        verify(schema, times(1)).newValidator();
+    }
+
     @Test
     public void testAnyException() {
         // Simulate an arbitrary exception somewhere along the way
@@ -318,6 +351,70 @@ public class PatternsParserTest {
         assertThat(relationProperty.getCardinalityRight(), is(DEFAULT_CARDINALITY));
     }
 
+    @Test
+    public void testSinglePassParseSuccess() throws IOException {
+        final String xml = String.format("<patterns>"
+                        + "<pattern name='%s' family='%s'>"
+                        + "<notes><note>  A nice\n note </note></notes>"
+                        + "<nodes>"
+                        + "<node id='%s' name='%s'><node.rule nodeType='%s'/></node>"
+                        + "<node id='%s'><node.rule nodeType='%s'/></node>"
+                        + "</nodes>"
+                        + "<relations>"
+                        + "<relation node1='%s' node2='%s'>"
+                        + "<relation.rule relationType='%s' cardinalityLeft='%s'/>"
+                        + "</relation>"
+                        + "</relations>"
+                        + "</pattern>"
+                        + "</patterns>",
+                A_PATTERN_NAME, A_PATTERN_FAMILY_NAME,
+                A_CONCRETE_CLASS_ID, A_CONCRETE_CLASS_NAME, CONCRETE_CLASS.name(),
+                AN_INTERFACE_ID, INTERFACE.name(),
+                A_CONCRETE_CLASS_ID, AN_INTERFACE_ID, IMPLEMENTS.name(), CARDINALITY_1_UNLIMITED);
+        final List<DesignPattern> designPatterns = ParserFactory.createPatternParser(true).parse(createXmlFile(xml));
+
+        assertThat(designPatterns.size(), is(1));
+        final DesignPattern designPattern = designPatterns.get(0);
+        assertThat(designPattern.getName(), is(A_PATTERN_NAME));
+        assertThat(designPattern.getFamily(), is(A_PATTERN_FAMILY_NAME));
+        assertThat(designPattern.getNotes().iterator().next(), is(A_NOTE_VALUE));
+
+        final Iterator<Node> nodeIterator = designPattern.vertexSet().iterator();
+        final Node concreteClassNode = nodeIterator.next();
+        assertThat(concreteClassNode.getId(), is(A_CONCRETE_CLASS_ID));
+        assertThat(concreteClassNode.getName(), is(A_CONCRETE_CLASS_NAME));
+        assertThat(concreteClassNode.getTypes().iterator().next(), is(CONCRETE_CLASS));
+        final Node interfaceNode = nodeIterator.next();
+        assertThat(interfaceNode.getName(), is(AN_INTERFACE_ID));
+        assertThat(interfaceNode.getTypes().iterator().next(), is(INTERFACE));
+
+        final Relation relation = designPattern.getEdge(concreteClassNode, interfaceNode);
+        assertThat(relation.getName(), is(String.format("%s-%s", A_CONCRETE_CLASS_NAME, AN_INTERFACE_ID)));
+        final RelationProperty relationProperty = relation.getRelationProperties().iterator().next();
+        assertThat(relationProperty.getRelationType(), is(IMPLEMENTS));
+        assertThat(relationProperty.getCardinalityLeft(), is(CARDINALITY_1_UNLIMITED));
+        assertThat(relationProperty.getCardinalityRight(), is(DEFAULT_CARDINALITY));
+    }
+
+    @Test
+    public void testSinglePassValidationFailing() throws IOException {
+        final String xmlFilename =
+                createXmlFile("<patterns><pattern name='p' family='f'><unknown/></pattern></patterns>");
+
+        // We expect the parser to throw a ParseException, caused by the validation
+        thrown.expect(ParseException.class);
+        thrown.expectCause(is(SAXParseException.class));
+        thrown.expectMessage(PATTERN_TEMPLATE_FILE_COULD_NOT_BE_PARSED_SHORT_MSG);
+
+        ParserFactory.createPatternParser(true).parse(xmlFilename);
+    }
+
+    private String createXmlFile(String xml) throws IOException {
+        final File file = temporaryFolder.newFile("patterns.xml");
+        Files.write(file.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+        return file.getPath();
+    }
+
     private String getPath(String resourceName) {
         return this.getClass().getResource(resourceName).getPath();
     }
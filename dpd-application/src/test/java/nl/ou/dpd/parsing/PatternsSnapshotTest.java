@@ -0,0 +1,96 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
+import nl.ou.dpd.domain.relation.Cardinality;
+import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.domain.relation.RelationProperty;
+import nl.ou.dpd.domain.relation.RelationType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+/**
+ * Tests the {@link PatternsSnapshot} class.
+ *
+ * @author Martin de Boer
+ */
+public class PatternsSnapshotTest {
+
+    private DesignPattern designPattern;
+
+    @Before
+    public void initDesignPattern() {
+        final Node anInterface = new Node("p1", "Subject", NodeType.INTERFACE);
+        anInterface.addType(NodeType.ABSTRACT_CLASS_OR_INTERFACE);
+        final Node aClass = new Node("p2", "RealSubject", NodeType.CONCRETE_CLASS);
+
+        designPattern = PatternsParser.createDesignPattern("Proxy", "Structural");
+        designPattern.addNote("A note.");
+        designPattern.addVertex(anInterface);
+        designPattern.addVertex(aClass);
+        designPattern.addEdge(aClass, anInterface, new Relation.Builder("RealSubject-Subject", "RealSubject-Subject")
+                .addRelationProperty(new RelationProperty(RelationType.IMPLEMENTS))
+                .addRelationProperty(new RelationProperty(RelationType.ASSOCIATES_WITH,
+                        Cardinality.valueOf("1"), Cardinality.valueOf("0..*")))
+                .build());
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        final byte[] snapshot = PatternsSnapshot.write(Arrays.asList(designPattern, designPattern));
+        final List<DesignPattern> actual = PatternsSnapshot.read(ByteBuffer.wrap(snapshot));
+
+        assertThat(actual.size(), is(2));
+        final DesignPattern rebuilt = actual.get(0);
+        assertThat(rebuilt, is(not(sameInstance(actual.get(1)))));
+        assertThat(rebuilt.getName(), is("Proxy"));
+        assertThat(rebuilt.getFamily(), is("Structural"));
+        assertThat(rebuilt.getNotes(), is(Collections.singleton("A note.")));
+        assertThat(rebuilt.getNodeComparator(), is(notNullValue()));
+        assertThat(rebuilt.getRelationComparator(), is(notNullValue()));
+        assertThat(rebuilt.getNodeComparator(), is(not(sameInstance(designPattern.getNodeComparator()))));
+
+        final List<Node> nodes = new ArrayList<>(rebuilt.vertexSet());
+        assertThat(nodes.size(), is(2));
+        assertThat(nodes.get(0).getId(), is("p1"));
+        assertThat(nodes.get(0).getName(), is("Subject"));
+        assertThat(nodes.get(0).getTypes(), is(EnumSet.of(NodeType.INTERFACE, NodeType.ABSTRACT_CLASS_OR_INTERFACE)));
+        assertThat(nodes.get(1).getTypes(), is(EnumSet.of(NodeType.CONCRETE_CLASS)));
+
+        assertThat(new ArrayList<>(rebuilt.edgeSet()), is(new ArrayList<>(designPattern.edgeSet())));
+        final Relation relation = rebuilt.edgeSet().iterator().next();
+        assertThat(rebuilt.getEdgeSource(relation), is(sameInstance(nodes.get(1))));
+        assertThat(rebuilt.getEdgeTarget(relation), is(sameInstance(nodes.get(0))));
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadCorruptSnapshot() throws IOException {
+        final byte[] snapshot = PatternsSnapshot.write(Collections.singletonList(designPattern));
+        PatternsSnapshot.read(ByteBuffer.wrap(Arrays.copyOf(snapshot, snapshot.length - 1)));
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadSystemSnapshot() throws IOException {
+        // A snapshot of another kind has another magic number
+        final SnapshotOutput output = new SnapshotOutput();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        output.writeTo(bytes, 0x44504453, 1);
+        PatternsSnapshot.read(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+}
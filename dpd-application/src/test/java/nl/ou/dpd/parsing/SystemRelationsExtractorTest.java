@@ -3,6 +3,7 @@ package nl.ou.dpd.parsing;
 import nl.ou.dpd.domain.SystemUnderConsideration;
 import nl.ou.dpd.domain.node.Attribute;
 import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
 import nl.ou.dpd.domain.node.Operation;
 import nl.ou.dpd.domain.node.Parameter;
 import nl.ou.dpd.domain.relation.Cardinality;
@@ -16,16 +17,21 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import static nl.ou.dpd.parsing.SystemRelationsExtractor.SYSTEM_RELATION_PREFIX;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -130,7 +136,7 @@ public class SystemRelationsExtractorTest {
         final Set<Parameter> parameterSet = new HashSet<>();
 
         final Set<Relation> outgoingEdges = new HashSet<>();
-        Relation outgoingEdge = mock(Relation.class);
+        final Relation outgoingEdge = new Relation("outgoingEdge", "outgoingEdge");
         outgoingEdges.add(outgoingEdge);
 
         when(node1Operation.getParentNode()).thenReturn(node1);
@@ -159,11 +165,12 @@ public class SystemRelationsExtractorTest {
         assertThat(relationProperty.getCardinalityLeft(), is(Cardinality.valueOf("1")));
         assertThat(relationProperty.getCardinalityRight(), is(Cardinality.valueOf("1")));
 
-        // Check if the relation gets the override property
-        final ArgumentCaptor<RelationProperty> relationPropertyCaptor = ArgumentCaptor.forClass(RelationProperty.class);
-        verify(outgoingEdge, times(1)).addRelationProperty(relationPropertyCaptor.capture());
-        final RelationProperty expectedRelationProperty = relationPropertyCaptor.getValue();
-        assertThat(expectedRelationProperty.getRelationType(), is(RelationType.OVERRIDES_METHOD_OF));
+        // Check if the relation is replaced by a relation with the override property
+        final ArgumentCaptor<Relation> replacementCaptor = ArgumentCaptor.forClass(Relation.class);
+        verify(system, times(1)).replaceEdge(eq(outgoingEdge), replacementCaptor.capture());
+        final Relation replacement = replacementCaptor.getValue();
+        assertThat(replacement.getId(), is(outgoingEdge.getId()));
+        assertTrue(replacement.hasRelationType(RelationType.OVERRIDES_METHOD_OF));
 
         assertThat(result, is(system));
     }
@@ -205,4 +212,108 @@ public class SystemRelationsExtractorTest {
 
         assertThat(result, is(system));
     }
+
+    /**
+     * Tests that the attributes of a node are explored in the order of their ids, so the relation that is shared by
+     * attributes of the same type is named after the attribute with the lowest id.
+     */
+    @Test
+    public void testAttributesExploredById() {
+        final SystemUnderConsideration realSystem = new SystemUnderConsideration("system", "System");
+        final Node node = new Node(NODE_1_ID, NODE_1_NAME, NodeType.CONCRETE_CLASS);
+        final Node type = new Node(NODE_2_ID, NODE_2_NAME, NodeType.CONCRETE_CLASS);
+        realSystem.addVertex(node);
+        realSystem.addVertex(type);
+        new Attribute("attr2", node).setName("b").setType(type);
+        new Attribute("attr1", node).setName("a").setType(type);
+
+        systemRelationsExtractor.execute(realSystem);
+
+        final Relation relation = realSystem.getEdge(node, type);
+        assertThat(relation.getId(), is(String.format("%s-%s-%s", SYSTEM_RELATION_PREFIX, NODE_1_ID, "attr1")));
+        assertThat(relation.getName(), is(String.format("%s-%s (%s)", NODE_1_NAME, NODE_2_NAME, "a")));
+    }
+
+    /**
+     * Tests that an edge getting several properties is replaced only once, by a relation having all of them.
+     */
+    @Test
+    public void testEdgeReplacedOnce() {
+        final SystemUnderConsideration realSystem = spy(new SystemUnderConsideration("system", "System"));
+        final Node shape = new Node("shape", "Shape", NodeType.ABSTRACT_CLASS);
+        final Node circle = new Node("circle", "Circle", NodeType.CONCRETE_CLASS);
+        realSystem.addVertex(shape);
+        realSystem.addVertex(circle);
+        final Relation inherits = new Relation.Builder("inherits", "Circle-Shape")
+                .addRelationProperty(new RelationProperty(RelationType.INHERITS_FROM))
+                .build();
+        realSystem.addEdge(circle, shape, inherits);
+        new Attribute("circleParent", circle).setName("parent").setType(shape);
+        new Operation("shapeArea", shape).setName("area");
+        new Operation("circleArea", circle).setName("area");
+        new Operation("circleContains", circle).setName("contains").setReturnType(shape);
+
+        systemRelationsExtractor.execute(realSystem);
+
+        verify(realSystem, times(1)).replaceEdge(eq(inherits), any(Relation.class));
+        final Relation relation = realSystem.getEdge(circle, shape);
+        assertThat(relation.getId(), is("inherits"));
+        assertThat(relation.getRelationTypes(), is(EnumSet.of(RelationType.INHERITS_FROM,
+                RelationType.HAS_ATTRIBUTE_OF, RelationType.OVERRIDES_METHOD_OF, RelationType.HAS_METHOD_RETURNTYPE)));
+    }
+
+    /**
+     * Tests that exploring the nodes in parallel changes the system in exactly the same way as exploring them
+     * sequentially.
+     */
+    @Test
+    public void testParallelEqualsSequential() {
+        final SystemUnderConsideration expected = new SystemRelationsExtractor(false).execute(createSystem());
+        final SystemUnderConsideration actual = new SystemRelationsExtractor(true).execute(createSystem());
+        assertThat(describeRelations(actual), is(describeRelations(expected)));
+    }
+
+    private SystemUnderConsideration createSystem() {
+        final SystemUnderConsideration realSystem = new SystemUnderConsideration("system", "System");
+        final Node shape = new Node("shape", "Shape", NodeType.ABSTRACT_CLASS);
+        final Node canvas = new Node("canvas", "Canvas", NodeType.CONCRETE_CLASS);
+        final Node point = new Node("point", "Point", NodeType.CONCRETE_CLASS);
+        realSystem.addVertex(shape);
+        realSystem.addVertex(canvas);
+        realSystem.addVertex(point);
+        createDraw("shapeDraw", shape, canvas);
+        new Attribute("shapeOrigin", shape).setName("origin").setType(point);
+        for (int i = 0; i < 20; i++) {
+            final Node circle = new Node("circle" + i, "Circle" + i, NodeType.CONCRETE_CLASS);
+            realSystem.addVertex(circle);
+            realSystem.addEdge(circle, shape, new Relation.Builder("inherits" + i, "Circle" + i + "-Shape")
+                    .addRelationProperty(new RelationProperty(RelationType.INHERITS_FROM))
+                    .build());
+            createDraw("circleDraw" + i, circle, canvas);
+            new Operation("circleCenter" + i, circle).setName("center").setReturnType(point);
+            new Attribute("circlePosition" + i, circle).setName("center").setType(point);
+            new Attribute("circleShape" + i, circle).setName("parent").setType(shape);
+        }
+        return realSystem;
+    }
+
+    private void createDraw(String id, Node node, Node canvas) {
+        final Operation draw = new Operation(id, node).setName("draw");
+        final Parameter parameter = new Parameter(id + "Canvas", draw);
+        parameter.setName("canvas");
+        parameter.setType(canvas);
+    }
+
+    private List<String> describeRelations(SystemUnderConsideration realSystem) {
+        final List<String> descriptions = new ArrayList<>();
+        for (Relation relation : realSystem.edgeSet()) {
+            descriptions.add(String.join("|",
+                    relation.getId(),
+                    relation.getName(),
+                    realSystem.getEdgeSource(relation).getId(),
+                    realSystem.getEdgeTarget(relation).getId(),
+                    relation.getRelationTypes().toString()));
+        }
+        return descriptions;
+    }
 }
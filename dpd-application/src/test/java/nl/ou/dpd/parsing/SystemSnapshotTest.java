@@ -0,0 +1,122 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Attribute;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
+import nl.ou.dpd.domain.node.Operation;
+import nl.ou.dpd.domain.node.Parameter;
+import nl.ou.dpd.domain.node.Visibility;
+import nl.ou.dpd.domain.relation.Cardinality;
+import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.domain.relation.RelationProperty;
+import nl.ou.dpd.domain.relation.RelationType;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+/**
+ * Tests the {@link SystemSnapshot} class.
+ *
+ * @author Martin de Boer
+ */
+public class SystemSnapshotTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private SystemUnderConsideration system;
+    private Path snapshot;
+
+    @Before
+    public void initSystem() throws IOException {
+        // An interface, implemented by a class with an attribute and an operation, typed by a node outside the system
+        final Node anInterface = new Node("n1", "AnInterface", NodeType.INTERFACE);
+        anInterface.addType(NodeType.ABSTRACT_CLASS_OR_INTERFACE);
+        final Node aClass = new Node("n2", "AClass", NodeType.CONCRETE_CLASS);
+        aClass.setVisibility(Visibility.PACKAGE);
+        final Node dataType = new Node("n3", "int", NodeType.DATATYPE);
+        new Attribute("a1", aClass).setName("count").setType(dataType).setVisibility(Visibility.PRIVATE);
+        final Operation operation = new Operation("o1", aClass).setName("add").setReturnType(anInterface);
+        new Parameter("p1", operation).setType(dataType);
+
+        system = new SystemUnderConsideration("sysId", "sysName");
+        system.addVertex(anInterface);
+        system.addVertex(aClass);
+        system.addEdge(aClass, anInterface, new Relation.Builder("r1", "implements")
+                .addRelationProperty(new RelationProperty(RelationType.IMPLEMENTS))
+                .addRelationProperty(new RelationProperty(RelationType.ASSOCIATES_WITH,
+                        Cardinality.valueOf("0..*"), null))
+                .build());
+        system.addEdge(aClass, aClass, new Relation("r2", null));
+
+        snapshot = temporaryFolder.getRoot().toPath().resolve("system.snapshot");
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        SystemSnapshot.write(system, snapshot);
+        final SystemUnderConsideration actual = SystemSnapshot.read(snapshot);
+
+        assertThat(actual.getId(), is("sysId"));
+        assertThat(actual.getName(), is("sysName"));
+        final List<Node> nodes = new ArrayList<>(actual.vertexSet());
+        assertThat(nodes.size(), is(2));
+        final Node anInterface = nodes.get(0);
+        final Node aClass = nodes.get(1);
+        assertThat(anInterface.getName(), is("AnInterface"));
+        assertThat(anInterface.getTypes(), is(EnumSet.of(NodeType.INTERFACE, NodeType.ABSTRACT_CLASS_OR_INTERFACE)));
+        assertThat(aClass.getVisibility(), is(Visibility.PACKAGE));
+
+        final Attribute attribute = aClass.getAttributes().iterator().next();
+        assertThat(attribute.getId(), is("a1"));
+        assertThat(attribute.getName(), is("count"));
+        assertThat(attribute.getParentNode(), is(sameInstance(aClass)));
+        assertThat(attribute.getVisibility(), is(Visibility.PRIVATE));
+        final Node dataType = attribute.getType();
+        assertThat(dataType.getName(), is("int"));
+        assertThat(dataType.getTypes(), is(EnumSet.of(NodeType.DATATYPE)));
+
+        final Operation operation = aClass.getOperations().iterator().next();
+        assertThat(operation.getName(), is("add"));
+        assertThat(operation.getReturnType(), is(sameInstance(anInterface)));
+        final Parameter parameter = operation.getParameters().iterator().next();
+        assertThat(parameter.getName(), is(nullValue()));
+        assertThat(parameter.getType(), is(sameInstance(dataType)));
+
+        assertThat(new ArrayList<>(actual.edgeSet()), is(new ArrayList<>(system.edgeSet())));
+        final Relation relation = actual.getRelationById("r1");
+        assertThat(actual.getEdgeSource(relation), is(sameInstance(aClass)));
+        assertThat(actual.getEdgeTarget(relation), is(sameInstance(anInterface)));
+        assertThat(relation.getRelationProperty(RelationType.ASSOCIATES_WITH).getCardinalityRight(), is(nullValue()));
+        assertThat(actual.getEdge(aClass, aClass).getName(), is(nullValue()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadCorruptSnapshot() throws IOException {
+        SystemSnapshot.write(system, snapshot);
+        final byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length / 2));
+        SystemSnapshot.read(snapshot);
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadOtherFile() throws IOException {
+        Files.write(snapshot, "<XMI/>".getBytes("UTF-8"));
+        SystemSnapshot.read(snapshot);
+    }
+}
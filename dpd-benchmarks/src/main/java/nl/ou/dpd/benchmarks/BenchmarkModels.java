@@ -0,0 +1,96 @@
+package nl.ou.dpd.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Provides the input files of the benchmarks: the system designs (ArgoUML export files) and the design pattern
+ * templates. A system design is referred to by a model name, which is either the name of one of the
+ * {@code systems/*.xmi} files of the dpd-integration-test module (e.g. {@code MyObserver}), or
+ * {@code synthetic-<classifiers>} for a synthetic system design with the specified number of classifiers (e.g.
+ * {@code synthetic-10000}). The model names are used as values of the {@code model} parameter of the benchmarks, so
+ * other models can be benchmarked with the {@code -p model=<name>} option.
+ * <p>
+ * The files are packaged in the benchmarks jar, and copied to temporary files because the parsers expect filenames.
+ *
+ * @author Martin de Boer
+ */
+public final class BenchmarkModels {
+
+    /**
+     * The prefix of the names of synthetic models.
+     */
+    public static final String SYNTHETIC_PREFIX = "synthetic-";
+
+    /**
+     * The model name referring to the system design that was made for the design pattern that is benchmarked, e.g.
+     * {@code MyObserver} for the "Observer" design pattern.
+     */
+    public static final String FIXTURE = "fixture";
+
+    private static final String SYSTEMS_RESOURCE = "/systems/%s.xmi";
+    private static final String TEMPLATES_RESOURCE = "/patterns/designpatterns_templates.xml";
+
+    /**
+     * Private constructor, because this is a utility class.
+     */
+    private BenchmarkModels() {
+    }
+
+    /**
+     * Creates a temporary ArgoUML export file containing the system design with the specified model name. The file is
+     * deleted when the virtual machine terminates.
+     *
+     * @param model the name of the model
+     * @return the path of the created file
+     * @throws IOException when the file could not be written
+     */
+    public static Path createSystemFile(String model) throws IOException {
+        if (model.startsWith(SYNTHETIC_PREFIX)) {
+            return SyntheticXmi.createTempFile(Integer.parseInt(model.substring(SYNTHETIC_PREFIX.length())));
+        }
+        return copyResource(String.format(SYSTEMS_RESOURCE, model));
+    }
+
+    /**
+     * Creates a temporary ArgoUML export file containing the system design with the specified model name, or the
+     * system design that was made for the specified design pattern if the model name is {@link #FIXTURE}.
+     *
+     * @param model       the name of the model
+     * @param patternName the name of the design pattern that is benchmarked
+     * @return the path of the created file
+     * @throws IOException when the file could not be written
+     */
+    public static Path createSystemFile(String model, String patternName) throws IOException {
+        if (FIXTURE.equals(model)) {
+            return createSystemFile("My" + patternName.replace(" ", ""));
+        }
+        return createSystemFile(model);
+    }
+
+    /**
+     * Creates a temporary file containing the design pattern templates of the dpd-integration-test module. The file
+     * is deleted when the virtual machine terminates.
+     *
+     * @return the path of the created file
+     * @throws IOException when the file could not be written
+     */
+    public static Path createTemplatesFile() throws IOException {
+        return copyResource(TEMPLATES_RESOURCE);
+    }
+
+    private static Path copyResource(String resource) throws IOException {
+        try (InputStream input = BenchmarkModels.class.getResourceAsStream(resource)) {
+            if (input == null) {
+                throw new IOException(String.format("Resource '%s' not found.", resource));
+            }
+            final Path file = Files.createTempFile("dpd-benchmark-", resource.substring(resource.lastIndexOf('.')));
+            file.toFile().deleteOnExit();
+            Files.copy(input, file, StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package nl.ou.dpd.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The main class of the benchmarks jar. Runs the benchmarks with the JMH command line options that are passed, like
+ * {@link Main} does, but writes the results as JSON unless another result format is specified with the {@code -rf}
+ * option. The results are written to {@code jmh-result.json}, or to the file specified with the {@code -rff} option,
+ * so the results of different releases can be compared.
+ *
+ * @author Martin de Boer
+ */
+public final class BenchmarkRunner {
+
+    private static final String RESULT_FORMAT_OPTION = "-rf";
+    private static final String JSON_RESULT_FORMAT = "json";
+
+    /**
+     * Private constructor, because this is a utility class.
+     */
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        final List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains(RESULT_FORMAT_OPTION)) {
+            options.add(0, RESULT_FORMAT_OPTION);
+            options.add(1, JSON_RESULT_FORMAT);
+        }
+        Main.main(options.toArray(new String[options.size()]));
+    }
+}
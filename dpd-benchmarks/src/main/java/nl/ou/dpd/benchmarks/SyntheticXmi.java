@@ -0,0 +1,308 @@
+package nl.ou.dpd.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Generates synthetic ArgoUML export files (*.xmi) of any size, for benchmarking the parsing and matching of large
+ * system designs. The generated files have the same structure as the files exported by ArgoUML (see the
+ * {@code systems/*.xmi} files in the dpd-integration-test module), and contain every kind of element the parsers
+ * handle: interfaces, (abstract) classes, attributes, operations with parameters, generalizations, abstractions,
+ * associations and dependencies.
+ * <p>
+ * The generated files are deterministic: generating a file with the same number of classes twice results in identical
+ * files.
+ *
+ * @author Martin de Boer
+ */
+public final class SyntheticXmi {
+
+    private static final String ID_PREFIX = "127-0-1-1-5e7d3a1:15f0c0ffee0:-8000:";
+    private static final String DATATYPE_HREF_PREFIX =
+            "http://argouml.org/profiles/uml14/default-uml14.xmi#-84-17--56-5-43645a83:11466542d86:-8000:000000000000";
+    private static final String[] DATATYPES = {"87C", "87E", "880"};
+
+    // Every INTERFACE_INTERVAL-th classifier is an interface, every ABSTRACT_INTERVAL-th classifier is abstract
+    private static final int INTERFACE_INTERVAL = 10;
+    private static final int ABSTRACT_INTERVAL = 7;
+
+    private final PrintWriter out;
+    private int nextId = 0;
+
+    private SyntheticXmi(PrintWriter out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes a synthetic ArgoUML export file with the specified number of classifiers (classes and interfaces).
+     *
+     * @param file        the file to write
+     * @param classifiers the number of classifiers in the system design
+     * @throws IOException when the file could not be written
+     */
+    public static void write(Path file, int classifiers) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+             PrintWriter out = new PrintWriter(writer)) {
+            new SyntheticXmi(out).writeModel(classifiers);
+        }
+    }
+
+    /**
+     * Creates a temporary synthetic ArgoUML export file with the specified number of classifiers (classes and
+     * interfaces). The file is deleted when the virtual machine terminates.
+     *
+     * @param classifiers the number of classifiers in the system design
+     * @return the path of the created file
+     * @throws IOException when the file could not be written
+     */
+    public static Path createTempFile(int classifiers) throws IOException {
+        final Path file = Files.createTempFile(String.format("synthetic-%d-", classifiers), ".xmi");
+        file.toFile().deleteOnExit();
+        write(file, classifiers);
+        return file;
+    }
+
+    private void writeModel(int classifiers) {
+        // The ids of the classifiers, generalizations, abstractions and dependencies are reserved up front, so they can
+        // be referred to before the elements are written.
+        final int classifierIds = reserveIds(classifiers);
+        final int generalizationIds = reserveIds(classifiers);
+        final int abstractionIds = reserveIds(classifiers);
+        final int dependencyIds = reserveIds(classifiers);
+
+        out.println("<?xml version = '1.0' encoding = 'UTF-8' ?>");
+        out.println("<XMI xmi.version = '1.2' xmlns:UML = 'org.omg.xmi.namespace.UML'>");
+        out.println("  <XMI.header>    <XMI.documentation>");
+        out.println("      <XMI.exporter>DesignPatternDetector benchmarks</XMI.exporter>");
+        out.println("    </XMI.documentation>");
+        out.println("    <XMI.metamodel xmi.name=\"UML\" xmi.version=\"1.4\"/></XMI.header>");
+        out.println("  <XMI.content>");
+        out.printf("    <UML:Model xmi.id = '%s' name = 'Synthetic%d' isSpecification = 'false' isRoot = 'false'"
+                + " isLeaf = 'false' isAbstract = 'false'>%n", newId(), classifiers);
+        out.println("      <UML:Namespace.ownedElement>");
+        for (int i = 0; i < classifiers; i++) {
+            if (isInterface(i)) {
+                writeInterface(i, id(classifierIds, i));
+            } else {
+                writeClass(i, classifiers, classifierIds, generalizationIds, abstractionIds, dependencyIds);
+            }
+        }
+        for (int i = 0; i < classifiers; i++) {
+            if (hasGeneralization(i)) {
+                writeGeneralization(id(generalizationIds, i), id(classifierIds, i), id(classifierIds, i - 1));
+            }
+            if (hasAbstraction(i)) {
+                writeAbstraction(id(abstractionIds, i), id(classifierIds, i), id(classifierIds, interfaceOf(i)));
+            }
+            if (i + 1 < classifiers) {
+                writeAssociation(i, classifierIds, classifiers);
+            }
+        }
+        out.println("      </UML:Namespace.ownedElement>");
+        out.println("    </UML:Model>");
+        out.println("  </XMI.content>");
+        out.println("</XMI>");
+    }
+
+    private void writeInterface(int index, String id) {
+        out.printf("        <UML:Interface xmi.id = '%s' name = 'Interface%d' visibility = 'public'"
+                + " isSpecification = 'false' isRoot = 'false' isLeaf = 'false' isAbstract = 'false'>%n", id, index);
+        out.println("          <UML:Classifier.feature>");
+        writeOperation(index, id, true);
+        out.println("          </UML:Classifier.feature>");
+        out.println("        </UML:Interface>");
+    }
+
+    private void writeClass(int index, int classifiers, int classifierIds, int generalizationIds, int abstractionIds,
+                            int dependencyIds) {
+        final String id = id(classifierIds, index);
+        out.printf("        <UML:Class xmi.id = '%s' name = 'Class%d' visibility = 'public' isSpecification = 'false'"
+                        + " isRoot = 'false' isLeaf = 'false' isAbstract = '%s' isActive = 'false'>%n",
+                id, index, index % ABSTRACT_INTERVAL == 0);
+        final boolean hasDependency = hasDependency(index, classifiers);
+        if (hasAbstraction(index) || hasDependency) {
+            out.println("          <UML:ModelElement.clientDependency>");
+            if (hasAbstraction(index)) {
+                out.printf("            <UML:Abstraction xmi.idref = '%s'/>%n", id(abstractionIds, index));
+            }
+            if (hasDependency) {
+                out.printf("            <UML:Dependency xmi.idref = '%s'/>%n", id(dependencyIds, index));
+            }
+            out.println("          </UML:ModelElement.clientDependency>");
+        }
+        if (hasGeneralization(index)) {
+            out.println("          <UML:GeneralizableElement.generalization>");
+            out.printf("            <UML:Generalization xmi.idref = '%s'/>%n", id(generalizationIds, index));
+            out.println("          </UML:GeneralizableElement.generalization>");
+        }
+        if (hasDependency) {
+            out.println("          <UML:Namespace.ownedElement>");
+            writeDependency(id(dependencyIds, index), id, id(classifierIds, index + 2));
+            out.println("          </UML:Namespace.ownedElement>");
+        }
+        out.println("          <UML:Classifier.feature>");
+        writeDatatypeAttribute(index);
+        writeReferenceAttribute(index, id(classifierIds, (index + classifiers / 2) % classifiers),
+                isInterface((index + classifiers / 2) % classifiers));
+        writeOperation(index, id(classifierIds, (index + 1) % classifiers), isInterface((index + 1) % classifiers));
+        out.println("          </UML:Classifier.feature>");
+        out.println("        </UML:Class>");
+    }
+
+    private void writeDatatypeAttribute(int index) {
+        out.printf("            <UML:Attribute xmi.id = '%s' name = 'value%d' visibility = 'private'"
+                + " isSpecification = 'false' ownerScope = 'instance' changeability = 'changeable'"
+                + " targetScope = 'instance'>%n", newId(), index);
+        writeMultiplicity("              ", "StructuralFeature", 1, 1);
+        out.println("              <UML:StructuralFeature.type>");
+        out.printf("                <UML:DataType href = '%s'/>%n", datatypeHref(index));
+        out.println("              </UML:StructuralFeature.type>");
+        out.println("            </UML:Attribute>");
+    }
+
+    private void writeReferenceAttribute(int index, String typeId, boolean typeIsInterface) {
+        out.printf("            <UML:Attribute xmi.id = '%s' name = 'reference%d' visibility = 'private'"
+                + " isSpecification = 'false' ownerScope = 'instance' changeability = 'changeable'"
+                + " targetScope = 'instance'>%n", newId(), index);
+        writeMultiplicity("              ", "StructuralFeature", 0, -1);
+        out.println("              <UML:StructuralFeature.type>");
+        out.printf("                <UML:%s xmi.idref = '%s'/>%n", classifierTag(typeIsInterface), typeId);
+        out.println("              </UML:StructuralFeature.type>");
+        out.println("            </UML:Attribute>");
+    }
+
+    private void writeOperation(int index, String parameterTypeId, boolean parameterTypeIsInterface) {
+        out.printf("            <UML:Operation xmi.id = '%s' name = 'operation%d' visibility = 'public'"
+                + " isSpecification = 'false' ownerScope = 'instance' isQuery = 'false' concurrency = 'sequential'"
+                + " isRoot = 'false' isLeaf = 'false' isAbstract = 'false'>%n", newId(), index);
+        out.println("              <UML:BehavioralFeature.parameter>");
+        out.printf("                <UML:Parameter xmi.id = '%s' name = 'return' isSpecification = 'false'"
+                + " kind = 'return'>%n", newId());
+        out.println("                  <UML:Parameter.type>");
+        out.printf("                    <UML:DataType href = '%s'/>%n", datatypeHref(index + 1));
+        out.println("                  </UML:Parameter.type>");
+        out.println("                </UML:Parameter>");
+        out.printf("                <UML:Parameter xmi.id = '%s' name = 'argument%d' isSpecification = 'false'"
+                + " kind = 'in'>%n", newId(), index);
+        out.println("                  <UML:Parameter.type>");
+        out.printf("                    <UML:%s xmi.idref = '%s'/>%n",
+                classifierTag(parameterTypeIsInterface), parameterTypeId);
+        out.println("                  </UML:Parameter.type>");
+        out.println("                </UML:Parameter>");
+        out.println("              </UML:BehavioralFeature.parameter>");
+        out.println("            </UML:Operation>");
+    }
+
+    private void writeGeneralization(String id, String childId, String parentId) {
+        out.printf("        <UML:Generalization xmi.id = '%s' isSpecification = 'false'>%n", id);
+        out.println("          <UML:Generalization.child>");
+        out.printf("            <UML:Class xmi.idref = '%s'/>%n", childId);
+        out.println("          </UML:Generalization.child>");
+        out.println("          <UML:Generalization.parent>");
+        out.printf("            <UML:Class xmi.idref = '%s'/>%n", parentId);
+        out.println("          </UML:Generalization.parent>");
+        out.println("        </UML:Generalization>");
+    }
+
+    private void writeAbstraction(String id, String clientId, String supplierId) {
+        out.printf("        <UML:Abstraction xmi.id = '%s' isSpecification = 'false'>%n", id);
+        out.println("          <UML:Dependency.client>");
+        out.printf("            <UML:Class xmi.idref = '%s'/>%n", clientId);
+        out.println("          </UML:Dependency.client>");
+        out.println("          <UML:Dependency.supplier>");
+        out.printf("            <UML:Interface xmi.idref = '%s'/>%n", supplierId);
+        out.println("          </UML:Dependency.supplier>");
+        out.println("        </UML:Abstraction>");
+    }
+
+    private void writeDependency(String id, String clientId, String supplierId) {
+        out.printf("            <UML:Dependency xmi.id = '%s' isSpecification = 'false'>%n", id);
+        out.println("              <UML:Dependency.client>");
+        out.printf("                <UML:Class xmi.idref = '%s'/>%n", clientId);
+        out.println("              </UML:Dependency.client>");
+        out.println("              <UML:Dependency.supplier>");
+        out.printf("                <UML:Class xmi.idref = '%s'/>%n", supplierId);
+        out.println("              </UML:Dependency.supplier>");
+        out.println("            </UML:Dependency>");
+    }
+
+    private void writeAssociation(int index, int classifierIds, int classifiers) {
+        out.printf("        <UML:Association xmi.id = '%s' name = 'association%d' isSpecification = 'false'"
+                + " isRoot = 'false' isLeaf = 'false' isAbstract = 'false'>%n", newId(), index);
+        out.println("          <UML:Association.connection>");
+        // Every other association is bidirectional
+        writeAssociationEnd(index % 2 == 0, 1, 1, id(classifierIds, index), isInterface(index));
+        writeAssociationEnd(true, 0, -1, id(classifierIds, index + 1), isInterface(index + 1));
+        out.println("          </UML:Association.connection>");
+        out.println("        </UML:Association>");
+    }
+
+    private void writeAssociationEnd(boolean navigable, int lower, int upper, String participantId,
+                                     boolean participantIsInterface) {
+        out.printf("            <UML:AssociationEnd xmi.id = '%s' visibility = 'public' isSpecification = 'false'"
+                + " isNavigable = '%s' ordering = 'unordered' aggregation = 'none' targetScope = 'instance'"
+                + " changeability = 'changeable'>%n", newId(), navigable);
+        writeMultiplicity("              ", "AssociationEnd", lower, upper);
+        out.println("              <UML:AssociationEnd.participant>");
+        out.printf("                <UML:%s xmi.idref = '%s'/>%n", classifierTag(participantIsInterface), participantId);
+        out.println("              </UML:AssociationEnd.participant>");
+        out.println("            </UML:AssociationEnd>");
+    }
+
+    private void writeMultiplicity(String indent, String owner, int lower, int upper) {
+        out.printf("%s<UML:%s.multiplicity>%n", indent, owner);
+        out.printf("%s  <UML:Multiplicity xmi.id = '%s'>%n", indent, newId());
+        out.printf("%s    <UML:Multiplicity.range>%n", indent);
+        out.printf("%s      <UML:MultiplicityRange xmi.id = '%s' lower = '%d' upper = '%d'/>%n",
+                indent, newId(), lower, upper);
+        out.printf("%s    </UML:Multiplicity.range>%n", indent);
+        out.printf("%s  </UML:Multiplicity>%n", indent);
+        out.printf("%s</UML:%s.multiplicity>%n", indent, owner);
+    }
+
+    private static boolean isInterface(int index) {
+        return index % INTERFACE_INTERVAL == 0;
+    }
+
+    private static boolean hasGeneralization(int index) {
+        return !isInterface(index) && !isInterface(index - 1) && index % 3 == 0;
+    }
+
+    private static boolean hasAbstraction(int index) {
+        return !isInterface(index) && index % 2 == 1;
+    }
+
+    private static boolean hasDependency(int index, int classifiers) {
+        return !isInterface(index) && index % 4 == 2 && index + 2 < classifiers && !isInterface(index + 2);
+    }
+
+    private static int interfaceOf(int index) {
+        return index - index % INTERFACE_INTERVAL;
+    }
+
+    private static String classifierTag(boolean isInterface) {
+        return isInterface ? "Interface" : "Class";
+    }
+
+    private static String datatypeHref(int index) {
+        return DATATYPE_HREF_PREFIX + DATATYPES[index % DATATYPES.length];
+    }
+
+    private int reserveIds(int count) {
+        final int first = nextId;
+        nextId += count;
+        return first;
+    }
+
+    private String newId() {
+        return id(reserveIds(1), 0);
+    }
+
+    private static String id(int first, int index) {
+        return String.format("%s%016X", ID_PREFIX, first + index);
+    }
+}
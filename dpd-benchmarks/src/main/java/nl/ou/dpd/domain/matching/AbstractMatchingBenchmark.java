@@ -0,0 +1,91 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.benchmarks.BenchmarkModels;
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.parsing.ParserFactory;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+/**
+ * An abstract parent class of the matching benchmarks, preparing a {@link SystemUnderConsideration} and a
+ * {@link DesignPattern} for every trial. Every design pattern that has a system design in the integration tests is
+ * matched with that system design (the {@link BenchmarkModels#FIXTURE} model), and with a small synthetic system
+ * design. The number of candidate mappings grows rapidly with the size of the system design, so larger synthetic system
+ * designs are only matched on request, e.g. with the {@code -p model=synthetic-10000} option. The design patterns are
+ * matched with and without gathering feedback, by every {@link MatchingEngine}. Without feedback, the system is
+ * pre-filtered (see {@link PatternInspector#preFiltering}), as in an analysis without feedback.
+ *
+ * @author Martin de Boer
+ */
+@State(Scope.Benchmark)
+public abstract class AbstractMatchingBenchmark {
+
+    @Param({"Bridge", "Builder", "Chain Of Responsibility", "Class Adapter", "Command", "Composite", "Decorator",
+            "Flyweight", "Interpreter", "Iterator", "Mediator", "Memento", "Object Adapter", "Observer", "Strategy"})
+    private String pattern;
+
+    @Param({BenchmarkModels.FIXTURE, "synthetic-100"})
+    private String model;
+
+    @Param({"true", "false"})
+    private boolean feedback;
+
+    @Param({"vf2", "indexed", "indexed-symmetry-breaking"})
+    private String engine;
+
+    protected SystemUnderConsideration system;
+    protected SystemIndex systemIndex;
+    protected DesignPattern designPattern;
+
+    @Setup(Level.Trial)
+    public void setUpMatching() throws IOException {
+        final String xmiFilename = BenchmarkModels.createSystemFile(model, pattern).toString();
+        final String templatesFilename = BenchmarkModels.createTemplatesFile().toString();
+        system = ParserFactory.createArgoUMLParser().parse(xmiFilename);
+        systemIndex = SystemIndex.of(system);
+        designPattern = ParserFactory.createPatternParser().parse(templatesFilename).stream()
+                .filter(candidate -> candidate.getName().equals(pattern))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(String.format("Unknown design pattern '%s'.", pattern)));
+    }
+
+    /**
+     * Creates a {@link PatternInspector} with comparators of its own, so the feedback of earlier inspections is not
+     * accumulated. The {@link SystemIndex} is built once per trial, and shared by all inspections, like in an analysis.
+     *
+     * @return a new {@link PatternInspector}
+     */
+    protected PatternInspector createPatternInspector() {
+        final FeedbackEnabledComparator<Node> nodeComparator =
+                NodeComparatorFactory.createCompoundNodeComparator(feedback);
+        final FeedbackEnabledComparator<Relation> relationComparator =
+                RelationComparatorFactory.createCompoundRelationComparator(feedback);
+        if (feedback) {
+            return new PatternInspector(
+                    systemIndex, designPattern, nodeComparator, relationComparator, createMatchingEngine());
+        }
+        return PatternInspector.preFiltering(
+                systemIndex, designPattern, nodeComparator, relationComparator, createMatchingEngine());
+    }
+
+    private MatchingEngine createMatchingEngine() {
+        switch (engine) {
+            case "vf2":
+                return new VF2MatchingEngine();
+            case "indexed":
+                return new IndexedMatchingEngine();
+            case "indexed-symmetry-breaking":
+                return IndexedMatchingEngine.breakingSymmetries();
+            default:
+                throw new IllegalArgumentException(String.format("Unknown matching engine '%s'.", engine));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package nl.ou.dpd.domain.matching;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures filtering out similar solutions from a {@link PatternInspector.MatchingResult}. A matching result
+ * remembers the filtered solutions, so a new matching result is created before every invocation. Matching is not
+ * included in the measurements.
+ * <p>
+ * Run with the {@code -prof gc} option to measure the allocation rate as well.
+ *
+ * @author Martin de Boer
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MatchingResultBenchmark extends AbstractMatchingBenchmark {
+
+    private PatternInspector.MatchingResult matchingResult;
+
+    @Setup(Level.Invocation)
+    public void match() {
+        matchingResult = createPatternInspector().getMatchingResult();
+    }
+
+    @Benchmark
+    public List<Solution> getSolutions() {
+        return matchingResult.getSolutions();
+    }
+}
@@ -0,0 +1,32 @@
+package nl.ou.dpd.domain.matching;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures inspecting system designs for a design pattern with a {@link PatternInspector}, including gathering the
+ * solutions and the feedback.
+ * <p>
+ * Run with the {@code -prof gc} option to measure the allocation rate as well.
+ *
+ * @author Martin de Boer
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PatternInspectorBenchmark extends AbstractMatchingBenchmark {
+
+    @Benchmark
+    public PatternInspector.MatchingResult getMatchingResult() {
+        return createPatternInspector().getMatchingResult();
+    }
+}
@@ -0,0 +1,60 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.benchmarks.BenchmarkModels;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing ArgoUML export files with an {@link ArgoUMLParser}, reading the file either once or twice. The
+ * system designs of the integration tests are parsed, as well as synthetic system designs of different sizes (see
+ * {@link BenchmarkModels}). Only the public API of the parser is used, so the benchmark can be run against earlier
+ * versions of the parser as well.
+ * <p>
+ * Run with the {@code -prof gc} option to measure the allocation rate as well.
+ *
+ * @author Martin de Boer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ArgoUMLParserBenchmark {
+
+    @Param({"MyBridge", "MyBuilder", "MyChainOfResponsibility", "MyClassAdapter", "MyCommand", "MyComposite",
+            "MyDecorator", "MyFlyweight", "MyInterpreter", "MyIterator", "MyMediator", "MyMemento", "MyObjectAdapter",
+            "MyObserver", "MyStrategy", "MyStrategyAbstract", "synthetic-1000", "synthetic-10000"})
+    private String model;
+
+    @Param({"true", "false"})
+    private boolean singlePass;
+
+    private String xmiFilename;
+    private ArgoUMLParser parser;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        xmiFilename = BenchmarkModels.createSystemFile(model).toString();
+        parser = ParserFactory.createArgoUMLParser(singlePass);
+    }
+
+    @Benchmark
+    public SystemUnderConsideration parse() {
+        return parser.parse(xmiFilename);
+    }
+}
@@ -0,0 +1,64 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.benchmarks.BenchmarkModels;
+import nl.ou.dpd.domain.DesignPattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing (and validating) the design pattern templates of the integration tests with a
+ * {@link PatternsParser}. A {@link PatternsParser} collects the design patterns of every file it parses, so a new
+ * parser is created for every file, like the application does. The parser validates while parsing, unless it reads
+ * the file twice. The design patterns of a {@link PatternCatalogue} are rebuilt from their compiled form instead.
+ * <p>
+ * Run with the {@code -prof gc} option to measure the allocation rate as well.
+ *
+ * @author Martin de Boer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PatternsParserBenchmark {
+
+    private String templatesFilename;
+    private PatternCatalogue catalogue;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        templatesFilename = BenchmarkModels.createTemplatesFile().toString();
+        catalogue = ParserFactory.createPatternCatalogue(Files.createTempDirectory("catalogue"));
+        catalogue.getDesignPatterns(templatesFilename);
+    }
+
+    @Benchmark
+    public List<DesignPattern> parse() {
+        return ParserFactory.createPatternParser().parse(templatesFilename);
+    }
+
+    @Benchmark
+    public List<DesignPattern> parseTwoPass() {
+        return ParserFactory.createPatternParser(false).parse(templatesFilename);
+    }
+
+    @Benchmark
+    public List<DesignPattern> catalogue() {
+        return catalogue.getDesignPatterns(templatesFilename);
+    }
+}
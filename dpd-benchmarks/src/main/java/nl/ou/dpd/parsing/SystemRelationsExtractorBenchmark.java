@@ -0,0 +1,71 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.benchmarks.BenchmarkModels;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.stream.XMLInputFactory;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures extracting the system relations (the relations following from attributes and operations) from parsed
+ * system designs with a {@link SystemRelationsExtractor}. The extractor changes the system it is executed on, so the
+ * system design is parsed again before every invocation. Parsing is not included in the measurements. The extractor
+ * explores the nodes either sequentially or in parallel.
+ * <p>
+ * Run with the {@code -prof gc} option to measure the allocation rate as well.
+ *
+ * @author Martin de Boer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SystemRelationsExtractorBenchmark {
+
+    @Param({"MyBridge", "MyBuilder", "MyChainOfResponsibility", "MyClassAdapter", "MyCommand", "MyComposite",
+            "MyDecorator", "MyFlyweight", "MyInterpreter", "MyIterator", "MyMediator", "MyMemento", "MyObjectAdapter",
+            "MyObserver", "MyStrategy", "MyStrategyAbstract", "synthetic-1000", "synthetic-10000"})
+    private String model;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private String xmiFilename;
+    private ArgoUMLNodeParser nodeParser;
+    private ArgoUMLRelationParser relationParser;
+    private SystemRelationsExtractor systemRelationsExtractor;
+    private SystemUnderConsideration system;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        xmiFilename = BenchmarkModels.createSystemFile(model).toString();
+        nodeParser = new ArgoUMLNodeParser(XMLInputFactory.newInstance());
+        relationParser = new ArgoUMLRelationParser(XMLInputFactory.newInstance());
+        systemRelationsExtractor = new SystemRelationsExtractor(parallel);
+    }
+
+    @Setup(Level.Invocation)
+    public void parseSystem() {
+        system = relationParser.parse(xmiFilename, nodeParser.parse(xmiFilename));
+    }
+
+    @Benchmark
+    public SystemUnderConsideration execute() {
+        return systemRelationsExtractor.execute(system);
+    }
+}
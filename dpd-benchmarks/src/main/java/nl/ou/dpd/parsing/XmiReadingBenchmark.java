@@ -0,0 +1,127 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.benchmarks.SyntheticXmi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ways the ArgoUML parsers read the elements of an xmi file: the {@link XMLEventReader} creating an
+ * {@link XMLEvent} for every part of the file and a {@link Map} for the attributes of every start element, as the
+ * parsers used to do, and the {@link XMLStreamReader} that the parsers use now, reading the attributes by index at the
+ * current position of the reader. The file is read from memory, so only the reading of the elements is measured.
+ * <p>
+ * Run with the {@code -prof gc} option to measure the allocation rate as well.
+ *
+ * @author Martin de Boer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class XmiReadingBenchmark {
+
+    private static final String ID_ATTRIBUTE = "xmi.id";
+    private static final String IDREF_ATTRIBUTE = "xmi.idref";
+
+    @Param({"100", "1000"})
+    private int classifiers;
+
+    private byte[] xmi;
+    private XMLInputFactory xmlInputFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final Path file = SyntheticXmi.createTempFile(classifiers);
+        xmi = Files.readAllBytes(file);
+        xmlInputFactory = XMLInputFactory.newInstance();
+    }
+
+    @Benchmark
+    public void eventReaderWithAttributeMaps(Blackhole blackhole) throws XMLStreamException {
+        final XMLEventReader reader = xmlInputFactory.createXMLEventReader(new ByteArrayInputStream(xmi));
+        try {
+            while (reader.hasNext()) {
+                final XMLEvent event = reader.nextEvent();
+                if (event.isStartElement()) {
+                    final StartElement startElement = event.asStartElement();
+                    blackhole.consume(startElement.getName().getLocalPart());
+                    final Map<String, String> attributes = readAttributes(startElement);
+                    blackhole.consume(attributes.get(ID_ATTRIBUTE));
+                    blackhole.consume(attributes.get(IDREF_ATTRIBUTE));
+                } else if (event.isEndElement()) {
+                    blackhole.consume(event.asEndElement().getName().getLocalPart());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Benchmark
+    public void streamReaderByIndex(Blackhole blackhole) throws XMLStreamException {
+        final XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(new ByteArrayInputStream(xmi));
+        try {
+            while (reader.hasNext()) {
+                final int eventType = reader.next();
+                if (eventType == XMLStreamConstants.START_ELEMENT) {
+                    blackhole.consume(XmiTag.valueOfLocalName(reader.getLocalName()));
+                    blackhole.consume(getAttribute(reader, ID_ATTRIBUTE));
+                    blackhole.consume(getAttribute(reader, IDREF_ATTRIBUTE));
+                } else if (eventType == XMLStreamConstants.END_ELEMENT) {
+                    blackhole.consume(XmiTag.valueOfLocalName(reader.getLocalName()));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static Map<String, String> readAttributes(StartElement startElement) {
+        final Map<String, String> attributes = new HashMap<>();
+        final Iterator<Attribute> attributeIterator = startElement.getAttributes();
+        while (attributeIterator.hasNext()) {
+            final Attribute attribute = attributeIterator.next();
+            attributes.put(attribute.getName().getLocalPart(), attribute.getValue());
+        }
+        return attributes;
+    }
+
+    private static String getAttribute(XMLStreamReader reader, String localName) {
+        for (int i = 0, count = reader.getAttributeCount(); i < count; i++) {
+            if (localName.equals(reader.getAttributeLocalName(i))) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+}
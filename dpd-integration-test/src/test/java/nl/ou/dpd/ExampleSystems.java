@@ -0,0 +1,33 @@
+package nl.ou.dpd;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Provides the example system files of the integration tests: the ArgoUML XMI files in the systems resource
+ * directory, except the invalid one.
+ *
+ * @author Martin de Boer
+ */
+public final class ExampleSystems {
+
+    private static final String SYSTEMS_DIR = "/systems";
+    private static final String INVALID_XMI = "invalid.xmi";
+
+    private ExampleSystems() {
+    }
+
+    /**
+     * Returns the (valid) example system files, sorted by path.
+     *
+     * @return a {@link List} of the example system files
+     */
+    public static List<File> getFiles() {
+        final File systemsDir = new File(ExampleSystems.class.getResource(SYSTEMS_DIR).getFile());
+        return Arrays.stream(systemsDir.listFiles((dir, name) -> name.endsWith(".xmi") && !name.equals(INVALID_XMI)))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,60 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.ExampleSystems;
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.parsing.ParserFactory;
+import org.junit.Before;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * An abstract test class that parses all the design patterns of the templates file and all the example systems (see
+ * {@link ExampleSystems}), for tests that compare the {@link Solution}s found for every pattern and every example
+ * system.
+ *
+ * @author Martin de Boer
+ */
+public abstract class AbstractExampleSystemsTest {
+
+    protected static final String TEMPLATES_XML = "/patterns/designpatterns_templates.xml";
+
+    protected List<DesignPattern> designPatterns;
+    protected List<SystemUnderConsideration> systems;
+
+    @Before
+    public void initTests() {
+        final String patternsXmlFile = AbstractExampleSystemsTest.class.getResource(TEMPLATES_XML).getFile();
+        designPatterns = ParserFactory.createPatternParser().parse(patternsXmlFile);
+
+        systems = ExampleSystems.getFiles().stream()
+                .map(file -> ParserFactory.createArgoUMLParser().parse(file.getPath()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the ids of the matching system and pattern nodes of the {@code solution}, as "systemId=patternId" pairs.
+     */
+    protected Set<String> getNodeIdPairs(Solution solution) {
+        return solution.getMatchingNodes().stream()
+                .map(nodes -> nodes[0].getId() + "=" + nodes[1].getId())
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the node id pairs of every solution (see {@link #getNodeIdPairs(Solution)}), regardless of the order of
+     * the {@code solutions}.
+     */
+    protected Set<Set<String>> getNodeIdPairs(List<Solution> solutions) {
+        return solutions.stream().map(this::getNodeIdPairs).collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the similarity keys of the {@code solutions}, regardless of their order.
+     */
+    protected Set<List<Object>> getSimilarityKeys(List<Solution> solutions) {
+        return solutions.stream().map(Solution::getSimilarityKey).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,62 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.IntegrationTest;
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that pre-filtering the candidate system nodes (see {@link CandidateFilter}) does not change the
+ * {@link Solution}s found by the {@link PatternInspector}, for every pattern and every example system. Neither does
+ * searching the weakly connected components of the pre-filtered part of the system separately. The isomorphism
+ * inspector orders the system nodes by degree, and the degrees in the pre-filtered part of the system differ, so the
+ * {@link Solution}s are compared regardless of their order.
+ *
+ * @author Martin de Boer
+ */
+@Category(IntegrationTest.class)
+public class CandidateFilterTest extends AbstractExampleSystemsTest {
+
+    @Test
+    public void testPreFilteredSolutionsEqualUnfilteredSolutions() {
+        assertTrue(systems.size() > 0);
+        int prunedNodes = 0;
+        int skippedSearches = 0;
+        int partitionedSearches = 0;
+        for (SystemUnderConsideration system : systems) {
+            for (DesignPattern designPattern : designPatterns) {
+                final PatternInspector.MatchingResult expected = new PatternInspector(system, designPattern)
+                        .getMatchingResult();
+                final PatternInspector.MatchingResult actual = PatternInspector.preFiltering(
+                        SystemIndex.of(system),
+                        designPattern,
+                        NodeComparatorFactory.createCompoundNodeComparator(false),
+                        RelationComparatorFactory.createCompoundRelationComparator(false),
+                        new VF2MatchingEngine())
+                        .getMatchingResult();
+
+                assertFalse(expected.getPruningStatistics().isApplied());
+                assertTrue(actual.getPruningStatistics().isApplied());
+                assertThat(actual.getPruningStatistics().getSystemNodeCount(), is(system.vertexSet().size()));
+                assertThat(actual.getSolutions(true).size(), is(expected.getSolutions(true).size()));
+                assertThat(getNodeIdPairs(actual.getSolutions(true)), is(getNodeIdPairs(expected.getSolutions(true))));
+                assertThat(actual.getSolutions().size(), is(expected.getSolutions().size()));
+                assertThat(getSimilarityKeys(actual.getSolutions()), is(getSimilarityKeys(expected.getSolutions())));
+
+                prunedNodes += actual.getPruningStatistics().getPrunedNodeCount();
+                skippedSearches += actual.getPruningStatistics().isSearchSkipped() ? 1 : 0;
+                partitionedSearches += actual.getPruningStatistics().getComponentCount() > 1 ? 1 : 0;
+            }
+        }
+        assertTrue(prunedNodes > 0);
+        assertTrue(skippedSearches > 0);
+        assertTrue(partitionedSearches > 0);
+    }
+
+}
@@ -0,0 +1,95 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.IntegrationTest;
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the {@link IndexedMatchingEngine} finds the same {@link Solution}s as the {@link VF2MatchingEngine}, for
+ * every pattern and every example system, with and without gathering feedback. The engines number the system nodes
+ * differently, so the {@link Solution}s are compared regardless of their order. An engine breaking the symmetries of the
+ * design patterns must find the same unique {@link Solution}s.
+ *
+ * @author Martin de Boer
+ */
+@Category(IntegrationTest.class)
+public class IndexedMatchingEngineTest extends AbstractExampleSystemsTest {
+
+    @Test
+    public void testSolutionsWithFeedback() {
+        assertSameSolutions(true);
+    }
+
+    @Test
+    public void testSolutionsWithoutFeedback() {
+        assertSameSolutions(false);
+    }
+
+    private void assertSameSolutions(boolean feedback) {
+        assertTrue(systems.size() > 0);
+        int solutions = 0;
+        for (SystemUnderConsideration system : systems) {
+            for (DesignPattern designPattern : designPatterns) {
+                final PatternInspector.MatchingResult expected =
+                        inspect(system, designPattern, feedback, new VF2MatchingEngine());
+                final PatternInspector.MatchingResult actual =
+                        inspect(system, designPattern, feedback, new IndexedMatchingEngine());
+
+                assertThat(actual.getSolutions(true).size(), is(expected.getSolutions(true).size()));
+                assertThat(getNodeIdPairs(actual.getSolutions(true)), is(getNodeIdPairs(expected.getSolutions(true))));
+                assertThat(actual.getSolutions().size(), is(expected.getSolutions().size()));
+                assertThat(getSimilarityKeys(actual.getSolutions()), is(getSimilarityKeys(expected.getSolutions())));
+
+                solutions += actual.getSolutions(true).size();
+            }
+        }
+        assertTrue(solutions > 0);
+    }
+
+    /**
+     * Breaking the symmetries of the design patterns must not change the unique solutions: only similar solutions, that
+     * differ in interchangeable roles, are no longer found.
+     */
+    @Test
+    public void testSolutionsBreakingSymmetries() {
+        int solutions = 0;
+        int skippedSolutions = 0;
+        for (SystemUnderConsideration system : systems) {
+            for (DesignPattern designPattern : designPatterns) {
+                final PatternInspector.MatchingResult expected =
+                        inspect(system, designPattern, false, new VF2MatchingEngine());
+                final PatternInspector.MatchingResult actual =
+                        inspect(system, designPattern, false, IndexedMatchingEngine.breakingSymmetries());
+
+                assertThat(getSimilarityKeys(actual.getSolutions()), is(getSimilarityKeys(expected.getSolutions())));
+                assertTrue(actual.getSolutions(true).size() <= expected.getSolutions(true).size());
+
+                solutions += actual.getSolutions(true).size();
+                skippedSolutions += expected.getSolutions(true).size() - actual.getSolutions(true).size();
+            }
+        }
+        assertTrue(solutions > 0);
+        assertTrue(skippedSolutions > 0);
+    }
+
+    private PatternInspector.MatchingResult inspect(
+            SystemUnderConsideration system,
+            DesignPattern designPattern,
+            boolean feedback,
+            MatchingEngine matchingEngine) {
+        return new PatternInspector(
+                system,
+                designPattern,
+                NodeComparatorFactory.createCompoundNodeComparator(feedback),
+                RelationComparatorFactory.createCompoundRelationComparator(feedback),
+                matchingEngine)
+                .getMatchingResult();
+    }
+
+}
@@ -0,0 +1,99 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.IntegrationTest;
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+import org.jgrapht.GraphMapping;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the {@link Solution}s built by the {@link PatternInspector} from the design pattern's point of view are
+ * identical to the {@link Solution}s built by scanning all the relations of the system under consideration, for
+ * every pattern and every example system.
+ *
+ * @author Martin de Boer
+ */
+@Category(IntegrationTest.class)
+public class SolutionConstructionTest extends AbstractExampleSystemsTest {
+
+    @Test
+    public void testSolutionsEqualSystemScanSolutions() {
+        assertTrue(systems.size() > 0);
+        for (SystemUnderConsideration system : systems) {
+            for (DesignPattern designPattern : designPatterns) {
+                final PatternInspector patternInspector = new PatternInspector(system, designPattern);
+                final List<Solution> expected = getSystemScanSolutions(system, designPattern, patternInspector.getMappings());
+                final List<Solution> actual = patternInspector.getMatchingResult().getSolutions(true);
+                assertThat(actual.size(), is(expected.size()));
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEqualSolutions(actual.get(i), expected.get(i));
+                }
+            }
+        }
+    }
+
+    private void assertEqualSolutions(Solution actual, Solution expected) {
+        assertThat(actual.getDesignPatternName(), is(expected.getDesignPatternName()));
+        assertThat(actual.getPatternFamilyName(), is(expected.getPatternFamilyName()));
+        assertThat(actual.getMatchingNodes().size(), is(expected.getMatchingNodes().size()));
+        assertThat(actual.getMatchingRelations().size(), is(expected.getMatchingRelations().size()));
+        assertThat(getNodeIdPairs(actual), is(getNodeIdPairs(expected)));
+        assertThat(getRelationIdPairs(actual), is(getRelationIdPairs(expected)));
+    }
+
+    private Set<String> getRelationIdPairs(Solution solution) {
+        return solution.getMatchingRelations().stream()
+                .map(relations -> getId(relations[0]) + "=" + getId(relations[1]))
+                .collect(Collectors.toSet());
+    }
+
+    private String getId(Relation relation) {
+        // A system relation referencing its own node may lack a pattern counterpart
+        return relation == null ? null : relation.getId();
+    }
+
+    /**
+     * Builds the {@link Solution}s by scanning all the relations of the system for every mapping. This is how the
+     * {@link PatternInspector} used to build its solutions, and it is used here as a reference.
+     */
+    private List<Solution> getSystemScanSolutions(
+            SystemUnderConsideration system,
+            DesignPattern designPattern,
+            Iterator<GraphMapping<Node, Relation>> mappings) {
+        final List<Solution> solutions = new ArrayList<>();
+        mappings.forEachRemaining(mapping -> {
+            final Solution solution = new Solution(designPattern.getName(), designPattern.getFamily());
+            for (Relation relation : system.edgeSet()) {
+                final Node source = system.getEdgeSource(relation);
+                final Node target = system.getEdgeTarget(relation);
+                final Node patternSource = mapping.getVertexCorrespondence(source, true);
+                final Node patternTarget = mapping.getVertexCorrespondence(target, true);
+                if (patternSource != null) {
+                    solution.addMatchingNodes(source, patternSource);
+                }
+                if (patternTarget != null) {
+                    solution.addMatchingNodes(target, patternTarget);
+                }
+                if (patternSource != null && patternTarget != null) {
+                    solution.addMatchingRelations(relation, mapping.getEdgeCorrespondence(relation, true));
+                }
+            }
+            solutions.add(solution);
+        });
+        return solutions;
+    }
+
+}
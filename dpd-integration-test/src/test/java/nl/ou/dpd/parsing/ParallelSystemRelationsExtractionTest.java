@@ -0,0 +1,72 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.ExampleSystems;
+import nl.ou.dpd.IntegrationTest;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.relation.Relation;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.xml.stream.XMLInputFactory;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that a {@link SystemRelationsExtractor} exploring the nodes in parallel changes a
+ * {@link SystemUnderConsideration} in exactly the same way as one exploring them sequentially, for every example
+ * system. The relations are compared in the order of the {@link SystemUnderConsideration#edgeSet()}.
+ *
+ * @author Martin de Boer
+ */
+@Category(IntegrationTest.class)
+public class ParallelSystemRelationsExtractionTest {
+
+    @Test
+    public void testParallelEqualsSequential() {
+        final List<File> xmiFiles = ExampleSystems.getFiles();
+        assertTrue(xmiFiles.size() > 0);
+        for (File xmiFile : xmiFiles) {
+            final SystemUnderConsideration expected = parse(xmiFile.getPath(), new SystemRelationsExtractor(false));
+            final SystemUnderConsideration actual = parse(xmiFile.getPath(), new SystemRelationsExtractor(true));
+            assertThat(describeRelations(actual), is(describeRelations(expected)));
+        }
+    }
+
+    private SystemUnderConsideration parse(String filename, SystemRelationsExtractor systemRelationsExtractor) {
+        final ArgoUMLParser parser = new ArgoUMLParser(
+                new ArgoUMLNodeParser(XMLInputFactory.newInstance()),
+                new ArgoUMLRelationParser(XMLInputFactory.newInstance()),
+                systemRelationsExtractor,
+                true);
+        return parser.parse(filename);
+    }
+
+    private List<String> describeRelations(SystemUnderConsideration system) {
+        final List<String> descriptions = new ArrayList<>();
+        for (Relation relation : system.edgeSet()) {
+            descriptions.add(String.join("|",
+                    relation.getId(),
+                    String.valueOf(relation.getName()),
+                    system.getEdgeSource(relation).getId(),
+                    system.getEdgeTarget(relation).getId(),
+                    sorted(relation.getRelationProperties().stream()
+                            .map(rp -> String.join(" ", String.valueOf(rp.getRelationType()),
+                                    String.valueOf(rp.getCardinalityLeft()), String.valueOf(rp.getCardinalityRight())))
+                            .collect(Collectors.toList()))));
+        }
+        return descriptions;
+    }
+
+    private String sorted(List<String> descriptions) {
+        final String[] sorted = descriptions.toArray(new String[descriptions.size()]);
+        Arrays.sort(sorted);
+        return Arrays.toString(sorted);
+    }
+}
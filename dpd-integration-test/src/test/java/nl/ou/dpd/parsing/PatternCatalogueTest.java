@@ -0,0 +1,74 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.IntegrationTest;
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the {@link PatternCatalogue} rebuilds design patterns that are identical to the parsed ones, from memory
+ * and from disk, for the design pattern templates of the integration tests.
+ *
+ * @author Martin de Boer
+ */
+@Category(IntegrationTest.class)
+public class PatternCatalogueTest {
+
+    private static final String TEMPLATES_XML = "/patterns/designpatterns_templates.xml";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testCompiledEqualsParsed() {
+        final String xmlFilename = PatternCatalogueTest.class.getResource(TEMPLATES_XML).getPath();
+        final List<DesignPattern> expected = ParserFactory.createPatternParser().parse(xmlFilename);
+        assertTrue(expected.size() > 0);
+
+        final PatternCatalogue catalogue = ParserFactory.createPatternCatalogue(temporaryFolder.getRoot().toPath());
+        assertThat(describe(catalogue.getDesignPatterns(xmlFilename)), is(describe(expected)));
+        assertThat(describe(catalogue.getDesignPatterns(xmlFilename)), is(describe(expected)));
+
+        final PatternCatalogue otherCatalogue =
+                ParserFactory.createPatternCatalogue(temporaryFolder.getRoot().toPath());
+        assertThat(describe(otherCatalogue.getDesignPatterns(xmlFilename)), is(describe(expected)));
+    }
+
+    private List<String> describe(List<DesignPattern> designPatterns) {
+        final List<String> descriptions = new ArrayList<>();
+        for (DesignPattern designPattern : designPatterns) {
+            descriptions.add(String.join("|", designPattern.getName(), designPattern.getFamily(),
+                    designPattern.getNotes().stream().sorted().collect(Collectors.toList()).toString()));
+            for (Node node : designPattern.vertexSet()) {
+                descriptions.add(String.join("|", node.getId(), node.getName(), node.getTypes().toString()));
+            }
+            for (Relation relation : designPattern.edgeSet()) {
+                descriptions.add(String.join("|",
+                        relation.getId(),
+                        relation.getName(),
+                        designPattern.getEdgeSource(relation).getId(),
+                        designPattern.getEdgeTarget(relation).getId(),
+                        relation.getRelationProperties().stream()
+                                .map(rp -> String.join(" ", String.valueOf(rp.getRelationType()),
+                                        String.valueOf(rp.getCardinalityLeft()),
+                                        String.valueOf(rp.getCardinalityRight())))
+                                .sorted()
+                                .collect(Collectors.toList())
+                                .toString()));
+            }
+        }
+        return descriptions;
+    }
+}
@@ -1,6 +1,9 @@
 package nl.ou.dpd.parsing;
 
 import nl.ou.dpd.IntegrationTest;
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -9,7 +12,12 @@ import org.junit.rules.ExpectedException;
 import org.xml.sax.SAXParseException;
 
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 
 /**
@@ -23,6 +31,8 @@ public class PatternsParserTest {
 
     // A test file containing invalid XML.
     private static final String INVALID_XML = "/patterns/invalid.xml";
+    // The design pattern templates of the integration tests.
+    private static final String TEMPLATES_XML = "/patterns/designpatterns_templates.xml";
 
     private PatternsParser parser;
 
@@ -47,6 +57,35 @@ public class PatternsParserTest {
 
         parser.parse(path);
     }
+    /**
+     * Test the processing of an invalid XML file, when it is validated before parsing.
+     */
+    @Test
+    public void testXMLStreamExceptionTwoPass() {
+        final String path = getPath(INVALID_XML);
+
+        thrown.expect(ParseException.class);
+        thrown.expectCause(is(SAXParseException.class));
+        thrown.expectMessage("The design pattern template file could not be parsed.");
+
+        ParserFactory.createPatternParser(false).parse(path);
+    }
+
+    /**
+     * Tests that validating while parsing results in the same design patterns as validating before parsing.
+     */
+    @Test
+    public void testSinglePassEqualsTwoPass() {
+        final String path = getPath(TEMPLATES_XML);
+        final List<DesignPattern> expected = ParserFactory.createPatternParser(false).parse(path);
+        final List<DesignPattern> actual = ParserFactory.createPatternParser(true).parse(path);
+
+        assertThat(actual.size(), is(expected.size()));
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(describe(actual.get(i)), is(describe(expected.get(i))));
+        }
+    }
+
     /**
      * Tests the exception handling in case of a {@link FileNotFoundException} during parsing a patterns file.
      */
@@ -59,6 +98,29 @@ public class PatternsParserTest {
         parser.parse("missing.xml");
     }
 
+    private List<String> describe(DesignPattern designPattern) {
+        final List<String> descriptions = new ArrayList<>();
+        descriptions.add(String.join("|", designPattern.getName(), designPattern.getFamily(),
+                new TreeSet<>(designPattern.getNotes()).toString()));
+        for (Node node : designPattern.vertexSet()) {
+            descriptions.add(String.join("|", node.getId(), node.getName(), node.getTypes().toString()));
+        }
+        for (Relation relation : designPattern.edgeSet()) {
+            descriptions.add(String.join("|",
+                    relation.getId(),
+                    designPattern.getEdgeSource(relation).getId(),
+                    designPattern.getEdgeTarget(relation).getId(),
+                    relation.getRelationProperties().stream()
+                            .map(rp -> String.join(" ", String.valueOf(rp.getRelationType()),
+                                    String.valueOf(rp.getCardinalityLeft()),
+                                    String.valueOf(rp.getCardinalityRight())))
+                            .sorted()
+                            .collect(Collectors.toList())
+                            .toString()));
+        }
+        return descriptions;
+    }
+
     private String getPath(String resourceName) {
         return this.getClass().getResource(resourceName).getPath();
     }
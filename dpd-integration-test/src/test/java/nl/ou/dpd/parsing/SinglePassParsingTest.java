@@ -0,0 +1,123 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.ExampleSystems;
+import nl.ou.dpd.IntegrationTest;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Attribute;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.Operation;
+import nl.ou.dpd.domain.node.Parameter;
+import nl.ou.dpd.domain.relation.Relation;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.xml.stream.XMLInputFactory;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that parsing in single pass mode creates a {@link SystemUnderConsideration} that is identical to the one
+ * created by reading the xmi file twice, for every example system.
+ * <p>
+ * The {@link SystemRelationsExtractor} is left out of the comparison. It is applied to the result of both modes alike
+ * (see {@link ParallelSystemRelationsExtractionTest}).
+ *
+ * @author Martin de Boer
+ */
+@Category(IntegrationTest.class)
+public class SinglePassParsingTest {
+
+    @Test
+    public void testSinglePassEqualsTwoPass() {
+        final List<File> xmiFiles = ExampleSystems.getFiles();
+        assertTrue(xmiFiles.size() > 0);
+        for (File xmiFile : xmiFiles) {
+            final SystemUnderConsideration expected = parseTwoPass(xmiFile.getPath());
+            final SystemUnderConsideration actual = parseSinglePass(xmiFile.getPath());
+
+            assertThat(actual.getId(), is(expected.getId()));
+            assertThat(actual.getName(), is(expected.getName()));
+            assertThat(describeNodes(actual), is(describeNodes(expected)));
+            assertThat(describeRelations(actual), is(describeRelations(expected)));
+        }
+    }
+
+    private SystemUnderConsideration parseTwoPass(String filename) {
+        final Map<String, Node> nodes = new ArgoUMLNodeParser(XMLInputFactory.newInstance()).parse(filename);
+        return new ArgoUMLRelationParser(XMLInputFactory.newInstance()).parse(filename, nodes);
+    }
+
+    private SystemUnderConsideration parseSinglePass(String filename) {
+        final ArgoUMLRelationParser relationParser = new ArgoUMLRelationParser(XMLInputFactory.newInstance());
+        final List<XmiElement> relationElements = new ArrayList<>();
+        final Map<String, Node> nodes = new ArgoUMLNodeParser(XMLInputFactory.newInstance()).parse(filename, element -> {
+            if (relationParser.isRelevant(element)) {
+                relationElements.add(element.copy());
+            }
+        });
+        return relationParser.parse(filename, nodes, relationElements);
+    }
+
+    private List<String> describeNodes(SystemUnderConsideration system) {
+        final List<String> descriptions = new ArrayList<>();
+        for (Node node : system.vertexSet()) {
+            descriptions.add(String.join("|",
+                    node.getId(),
+                    String.valueOf(node.getName()),
+                    String.valueOf(node.getVisibility()),
+                    sorted(node.getTypes().stream().map(String::valueOf).collect(Collectors.toList())),
+                    sorted(node.getAttributes().stream().map(this::describe).collect(Collectors.toList())),
+                    sorted(node.getOperations().stream().map(this::describe).collect(Collectors.toList()))));
+        }
+        return descriptions;
+    }
+
+    private List<String> describeRelations(SystemUnderConsideration system) {
+        final List<String> descriptions = new ArrayList<>();
+        for (Relation relation : system.edgeSet()) {
+            descriptions.add(String.join("|",
+                    relation.getId(),
+                    String.valueOf(relation.getName()),
+                    system.getEdgeSource(relation).getId(),
+                    system.getEdgeTarget(relation).getId(),
+                    sorted(relation.getRelationProperties().stream()
+                            .map(rp -> String.join(" ", String.valueOf(rp.getRelationType()),
+                                    String.valueOf(rp.getCardinalityLeft()), String.valueOf(rp.getCardinalityRight())))
+                            .collect(Collectors.toList()))));
+        }
+        return descriptions;
+    }
+
+    private String describe(Attribute attribute) {
+        return String.join(",", attribute.getId(), attribute.getName(), String.valueOf(attribute.getVisibility()),
+                getId(attribute.getType()));
+    }
+
+    private String describe(Operation operation) {
+        return String.join(",", operation.getId(), operation.getName(), String.valueOf(operation.getVisibility()),
+                getId(operation.getReturnType()),
+                sorted(operation.getParameters().stream().map(this::describe).collect(Collectors.toList())));
+    }
+
+    private String describe(Parameter parameter) {
+        return String.join(",", parameter.getId(), parameter.getName(), getId(parameter.getType()));
+    }
+
+    private String getId(Node node) {
+        return node == null ? null : node.getId();
+    }
+
+    private String sorted(List<String> descriptions) {
+        final String[] sorted = descriptions.toArray(new String[descriptions.size()]);
+        Arrays.sort(sorted);
+        return Arrays.toString(sorted);
+    }
+}
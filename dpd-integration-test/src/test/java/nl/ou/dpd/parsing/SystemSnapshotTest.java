@@ -0,0 +1,117 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.ExampleSystems;
+import nl.ou.dpd.IntegrationTest;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Attribute;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.Operation;
+import nl.ou.dpd.domain.node.Parameter;
+import nl.ou.dpd.domain.relation.Relation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that a {@link SystemSnapshot} of every example system rebuilds a {@link SystemUnderConsideration} that is
+ * identical to the parsed one, and that the {@link CachingArgoUMLParser} returns it when a file is parsed again.
+ *
+ * @author Martin de Boer
+ */
+@Category(IntegrationTest.class)
+public class SystemSnapshotTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testSnapshotEqualsParsedSystem() throws IOException {
+        final List<File> xmiFiles = ExampleSystems.getFiles();
+        assertTrue(xmiFiles.size() > 0);
+        final CachingArgoUMLParser cachingParser =
+                ParserFactory.createCachingArgoUMLParser(temporaryFolder.getRoot().toPath());
+        for (File xmiFile : xmiFiles) {
+            final SystemUnderConsideration expected = cachingParser.parse(xmiFile.getPath());
+            final Path snapshot = cachingParser.getSnapshot(xmiFile.toPath());
+            assertTrue(snapshot.toFile().isFile());
+
+            assertEquals(SystemSnapshot.read(snapshot), expected);
+            assertEquals(cachingParser.parse(xmiFile.getPath()), expected);
+        }
+    }
+
+    private void assertEquals(SystemUnderConsideration actual, SystemUnderConsideration expected) {
+        assertThat(actual.getId(), is(expected.getId()));
+        assertThat(actual.getName(), is(expected.getName()));
+        assertThat(describeNodes(actual), is(describeNodes(expected)));
+        assertThat(describeRelations(actual), is(describeRelations(expected)));
+    }
+
+    private List<String> describeNodes(SystemUnderConsideration system) {
+        final List<String> descriptions = new ArrayList<>();
+        for (Node node : system.vertexSet()) {
+            descriptions.add(String.join("|",
+                    node.getId(),
+                    String.valueOf(node.getName()),
+                    String.valueOf(node.getVisibility()),
+                    sorted(node.getTypes().stream().map(String::valueOf).collect(Collectors.toList())),
+                    sorted(node.getAttributes().stream().map(this::describe).collect(Collectors.toList())),
+                    sorted(node.getOperations().stream().map(this::describe).collect(Collectors.toList()))));
+        }
+        return descriptions;
+    }
+
+    private List<String> describeRelations(SystemUnderConsideration system) {
+        final List<String> descriptions = new ArrayList<>();
+        for (Relation relation : system.edgeSet()) {
+            descriptions.add(String.join("|",
+                    relation.getId(),
+                    String.valueOf(relation.getName()),
+                    system.getEdgeSource(relation).getId(),
+                    system.getEdgeTarget(relation).getId(),
+                    sorted(relation.getRelationProperties().stream()
+                            .map(rp -> String.join(" ", String.valueOf(rp.getRelationType()),
+                                    String.valueOf(rp.getCardinalityLeft()), String.valueOf(rp.getCardinalityRight())))
+                            .collect(Collectors.toList()))));
+        }
+        return descriptions;
+    }
+
+    private String describe(Attribute attribute) {
+        return String.join(",", attribute.getId(), attribute.getName(), String.valueOf(attribute.getVisibility()),
+                getId(attribute.getType()));
+    }
+
+    private String describe(Operation operation) {
+        return String.join(",", operation.getId(), operation.getName(), String.valueOf(operation.getVisibility()),
+                getId(operation.getReturnType()),
+                sorted(operation.getParameters().stream().map(this::describe).collect(Collectors.toList())));
+    }
+
+    private String describe(Parameter parameter) {
+        return String.join(",", parameter.getId(), parameter.getName(), getId(parameter.getType()));
+    }
+
+    private String getId(Node node) {
+        return node == null ? null : node.getId();
+    }
+
+    private String sorted(List<String> descriptions) {
+        final String[] sorted = descriptions.toArray(new String[descriptions.size()]);
+        Arrays.sort(sorted);
+        return Arrays.toString(sorted);
+    }
+}